@@ -20,6 +20,7 @@
 package com.orientechnologies.orient.client.remote;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,6 +34,8 @@ import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.enterprise.channel.OChannel;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryAsynchClient;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryAsynchClientMultiplexed;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryClientMultiplexer;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelListener;
 import com.orientechnologies.orient.enterprise.channel.binary.ORemoteServerEventListener;
@@ -44,13 +47,18 @@ import com.orientechnologies.orient.enterprise.channel.binary.ORemoteServerEvent
  * @author Luca Garulli (l.garulli--at--orientechnologies.com)
  */
 public class ORemoteConnectionManager implements OChannelListener {
-  public static final String                                                                   PARAM_MAX_POOL = "maxpool";
+  public static final String                                                                   PARAM_MAX_POOL  = "maxpool";
+  public static final String                                                                   PARAM_MULTIPLEX = "multiplex";
 
   protected final ConcurrentHashMap<String, OResourcePool<String, OChannelBinaryAsynchClient>> connections;
+  protected final ConcurrentHashMap<String, OChannelBinaryClientMultiplexer>                   multiplexers;
+  protected final Set<String>                                                                  notMultiplexedURLs;
   protected final long                                                                         timeout;
 
   public ORemoteConnectionManager(final int iMaxConnectionPerURL, final long iTimeout) {
     connections = new ConcurrentHashMap<String, OResourcePool<String, OChannelBinaryAsynchClient>>();
+    multiplexers = new ConcurrentHashMap<String, OChannelBinaryClientMultiplexer>();
+    notMultiplexedURLs = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
     timeout = iTimeout;
   }
 
@@ -60,10 +68,21 @@ public class ORemoteConnectionManager implements OChannelListener {
     }
 
     connections.clear();
+
+    for (OChannelBinaryClientMultiplexer multiplexer : new ArrayList<OChannelBinaryClientMultiplexer>(multiplexers.values()))
+      multiplexer.close();
+
+    multiplexers.clear();
   }
 
   public OChannelBinaryAsynchClient acquire(String iServerURL, final OContextConfiguration clientConfiguration,
       final Map<String, Object> iConfiguration, final ORemoteServerEventListener iListener) {
+    if (isMultiplexed(iServerURL, iConfiguration)) {
+      final OChannelBinaryAsynchClient request = acquireMultiplexed(iServerURL, clientConfiguration, iConfiguration, iListener);
+      if (request != null)
+        return request;
+    }
+
     OResourcePool<String, OChannelBinaryAsynchClient> pool = connections.get(iServerURL);
     if (pool == null) {
       int maxPool = OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.getValueAsInteger();
@@ -112,6 +131,11 @@ public class ORemoteConnectionManager implements OChannelListener {
   }
 
   public void release(final OChannelBinaryAsynchClient conn) {
+    if (conn instanceof OChannelBinaryAsynchClientMultiplexed) {
+      ((OChannelBinaryAsynchClientMultiplexed) conn).release();
+      return;
+    }
+
     final OResourcePool<String, OChannelBinaryAsynchClient> pool = connections.get(conn.getServerURL());
     if (pool != null) {
       if (!conn.isConnected()) {
@@ -134,6 +158,10 @@ public class ORemoteConnectionManager implements OChannelListener {
     } catch (Exception e) {
     }
 
+    if (conn instanceof OChannelBinaryAsynchClientMultiplexed)
+      // ONLY THE REQUEST IS DISCARDED, THE MULTIPLEXED CHANNEL IS SHARED BY OTHER REQUESTS
+      return;
+
     final OResourcePool<String, OChannelBinaryAsynchClient> pool = connections.get(conn.getServerURL());
     if (pool == null)
       throw new IllegalStateException("Connection cannot be released because the pool doesn't exist anymore");
@@ -146,6 +174,12 @@ public class ORemoteConnectionManager implements OChannelListener {
   public void onChannelClose(final OChannel channel) {
     OChannelBinaryAsynchClient conn = (OChannelBinaryAsynchClient) channel;
 
+    final OChannelBinaryClientMultiplexer multiplexer = multiplexers.get(conn.getServerURL());
+    if (multiplexer != null && multiplexer.getChannel() == conn) {
+      multiplexers.remove(conn.getServerURL(), multiplexer);
+      return;
+    }
+
     final OResourcePool<String, OChannelBinaryAsynchClient> pool = connections.get(conn.getServerURL());
     if (pool == null)
       throw new IllegalStateException("Connection cannot be released because the pool doesn't exist anymore");
@@ -183,6 +217,10 @@ public class ORemoteConnectionManager implements OChannelListener {
   }
 
   public void closePool(final String url) {
+    final OChannelBinaryClientMultiplexer multiplexer = multiplexers.remove(url);
+    if (multiplexer != null)
+      multiplexer.close();
+
     final OResourcePool<String, OChannelBinaryAsynchClient> pool = connections.remove(url);
     if (pool == null)
       return;
@@ -200,6 +238,69 @@ public class ORemoteConnectionManager implements OChannelListener {
     pool.close();
   }
 
+  protected boolean isMultiplexed(final String iServerURL, final Map<String, Object> iConfiguration) {
+    boolean multiplex = OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEX.getValueAsBoolean();
+    if (iConfiguration != null && iConfiguration.containsKey(PARAM_MULTIPLEX))
+      multiplex = Boolean.parseBoolean(iConfiguration.get(PARAM_MULTIPLEX).toString());
+
+    return multiplex && !notMultiplexedURLs.contains(iServerURL);
+  }
+
+  /**
+   * Returns the channel of a new request sent over the multiplexed channel of the server, the multiplexed channel is opened at
+   * first use.
+   * 
+   * @return the channel or null if the server does not support multiplexed channels
+   */
+  protected OChannelBinaryAsynchClient acquireMultiplexed(final String iServerURL,
+      final OContextConfiguration clientConfiguration, final Map<String, Object> iConfiguration,
+      final ORemoteServerEventListener iListener) {
+    OChannelBinaryClientMultiplexer multiplexer = multiplexers.get(iServerURL);
+    if (multiplexer == null || !multiplexer.isConnected()) {
+      synchronized (multiplexers) {
+        multiplexer = multiplexers.get(iServerURL);
+        if (multiplexer == null || !multiplexer.isConnected()) {
+          multiplexer = createMultiplexer(iServerURL, clientConfiguration, iConfiguration, iListener);
+          if (multiplexer == null)
+            return null;
+
+          multiplexers.put(iServerURL, multiplexer);
+        }
+      }
+    }
+
+    try {
+      return multiplexer.acquire();
+    } catch (Exception e) {
+      OLogManager.instance().debug(this, "Error on creating request of multiplexed channel %s", e, iServerURL);
+      throw new OIOException("Error on creating request of multiplexed channel " + iServerURL, e);
+    }
+  }
+
+  protected OChannelBinaryClientMultiplexer createMultiplexer(final String iServerURL,
+      final OContextConfiguration clientConfiguration, final Map<String, Object> iConfiguration,
+      final ORemoteServerEventListener iListener) {
+    final OChannelBinaryAsynchClient ch = createNetworkConnection(iServerURL, clientConfiguration, iConfiguration, null);
+
+    if (ch.getSrvProtocolVersion() >= OChannelBinaryProtocol.PROTOCOL_VERSION_32)
+      try {
+        return new OChannelBinaryClientMultiplexer(ch, clientConfiguration, iListener);
+      } catch (Exception e) {
+        OLogManager.instance().info(this, "Server %s refused to multiplex the channel (%s), a pool of channels is used",
+            iServerURL, e.getMessage());
+      }
+    else
+      OLogManager.instance().info(this,
+          "Server %s does not support multiplexed channels (protocol %d), a pool of channels is used", iServerURL,
+          ch.getSrvProtocolVersion());
+
+    notMultiplexedURLs.add(iServerURL);
+
+    ch.unregisterListener(this);
+    ch.close();
+    return null;
+  }
+
   protected OChannelBinaryAsynchClient createNetworkConnection(String iServerURL, final OContextConfiguration clientConfiguration,
       Map<String, Object> iAdditionalArg, final ORemoteServerEventListener asynchEventListener) throws OIOException {
     if (iServerURL == null)
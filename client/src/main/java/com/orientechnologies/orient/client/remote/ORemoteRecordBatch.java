@@ -0,0 +1,229 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.client.remote;
+
+import com.orientechnologies.common.concur.lock.OInterruptedException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.db.record.ridbag.sbtree.OSBTreeCollectionManager;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.storage.ORecordCallback;
+import com.orientechnologies.orient.core.version.ORecordVersion;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryAsynchClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Asynchronous record creations, updates and deletions of one session which are sent to the server by single
+ * {@link com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol#REQUEST_RECORD_BATCH} request. Once the
+ * batch is sealed no more operations can be added to it.
+ */
+public class ORemoteRecordBatch {
+  public static class Entry {
+    private final byte              operation;
+    private final ORecordId         rid;
+    private final byte[]            content;
+    private final ORecordVersion    version;
+    private final byte              recordType;
+    private final boolean           updateContent;
+    private final ORecordCallback<?> callback;
+
+    public Entry(final byte operation, final ORecordId rid, final byte[] content, final ORecordVersion version,
+        final byte recordType, final boolean updateContent, final ORecordCallback<?> callback) {
+      this.operation = operation;
+      this.rid = rid;
+      this.content = content;
+      this.version = version;
+      this.recordType = recordType;
+      this.updateContent = updateContent;
+      this.callback = callback;
+    }
+  }
+
+  private final int                      sessionId;
+  private final byte[]                   token;
+  private final OSBTreeCollectionManager collectionManager;
+  private final List<Entry>              entries = new ArrayList<Entry>();
+  private final CountDownLatch           sent    = new CountDownLatch(1);
+  private boolean                        sealed;
+
+  public ORemoteRecordBatch(final int sessionId, final byte[] token, final OSBTreeCollectionManager collectionManager) {
+    this.sessionId = sessionId;
+    this.token = token;
+    this.collectionManager = collectionManager;
+  }
+
+  /**
+   * @return number of operations in the batch, or -1 if batch is already sealed
+   */
+  public synchronized int add(final Entry entry) {
+    if (sealed)
+      return -1;
+
+    entries.add(entry);
+    return entries.size();
+  }
+
+  /**
+   * Seals the batch to be sent.
+   *
+   * @return operations of the batch, or null if the batch has been already sealed by another thread
+   */
+  public synchronized List<Entry> seal() {
+    if (sealed)
+      return null;
+
+    sealed = true;
+    return entries;
+  }
+
+  public void sent() {
+    sent.countDown();
+  }
+
+  /**
+   * Waits till the batch sealed by another thread is sent, so operations which follow it are not executed before it.
+   */
+  public void awaitSent() {
+    try {
+      sent.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OInterruptedException(e);
+    }
+  }
+
+  public int getSessionId() {
+    return sessionId;
+  }
+
+  public byte[] getToken() {
+    return token;
+  }
+
+  public OSBTreeCollectionManager getCollectionManager() {
+    return collectionManager;
+  }
+
+  public static void writeRequest(final OChannelBinaryAsynchClient network, final List<Entry> entries, final boolean atomic)
+      throws IOException {
+    network.writeBoolean(atomic);
+    network.writeInt(entries.size());
+
+    for (Entry entry : entries) {
+      network.writeByte(entry.operation);
+      switch (entry.operation) {
+      case ORecordOperation.CREATED:
+        network.writeShort((short) entry.rid.clusterId);
+        network.writeBytes(entry.content);
+        network.writeByte(entry.recordType);
+        break;
+
+      case ORecordOperation.UPDATED:
+        network.writeRID(entry.rid);
+        network.writeBoolean(entry.updateContent);
+        network.writeBytes(entry.content);
+        network.writeVersion(entry.version);
+        network.writeByte(entry.recordType);
+        break;
+
+      case ORecordOperation.DELETED:
+        network.writeRID(entry.rid);
+        network.writeVersion(entry.version);
+        break;
+      }
+    }
+  }
+
+  /**
+   * Reads results of operations. Results of failed operations are returned as exceptions.
+   */
+  public static Object[] readResponse(final OChannelBinaryAsynchClient network, final List<Entry> entries) throws IOException {
+    final int size = network.readInt();
+    final Object[] results = new Object[size];
+
+    for (int i = 0; i < size; ++i) {
+      final Entry entry = entries.get(i);
+
+      if (network.readByte() == 1) {
+        final String exceptionClass = network.readString();
+        final String message = network.readString();
+        results[i] = new ORemoteRecordBatchException(exceptionClass, message);
+        continue;
+      }
+
+      switch (entry.operation) {
+      case ORecordOperation.CREATED:
+        entry.rid.clusterId = network.readShort();
+        results[i] = network.readLong();
+        network.readVersion();
+        break;
+
+      case ORecordOperation.UPDATED:
+        results[i] = network.readVersion();
+        break;
+
+      case ORecordOperation.DELETED:
+        results[i] = network.readByte() == 1;
+        break;
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Passes results to callbacks of operations. Errors of operations are logged, callbacks are not invoked for them.
+   */
+  @SuppressWarnings("unchecked")
+  public static void notifyCallbacks(final List<Entry> entries, final Object[] results) {
+    for (int i = 0; i < results.length; ++i) {
+      final Entry entry = entries.get(i);
+
+      if (results[i] instanceof ORemoteRecordBatchException) {
+        OLogManager.instance().error(ORemoteRecordBatch.class, "Error on asynchronous operation on record %s",
+            (Throwable) results[i], entry.rid);
+        continue;
+      }
+
+      if (entry.callback != null)
+        try {
+          ((ORecordCallback<Object>) entry.callback).call(entry.rid, results[i]);
+        } catch (RuntimeException e) {
+          OLogManager.instance().error(ORemoteRecordBatch.class, "Error on callback of asynchronous operation on record %s", e,
+              entry.rid);
+        }
+    }
+  }
+
+  /**
+   * Error of single operation of the batch, reported by the server.
+   */
+  public static class ORemoteRecordBatchException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ORemoteRecordBatchException(final String exceptionClass, final String message) {
+      super(exceptionClass + ": " + message);
+    }
+  }
+}
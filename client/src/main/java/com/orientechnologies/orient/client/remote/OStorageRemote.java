@@ -87,9 +87,10 @@ import java.io.OutputStream;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This object is bound to each remote ODatabase instances.
@@ -105,7 +106,9 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy {
   private static final String           DRIVER_NAME          = "OrientDB Java";
   protected final List<String>          serverURLs           = new ArrayList<String>();
   protected final Map<String, OCluster> clusterMap           = new ConcurrentHashMap<String, OCluster>();
-  private final ExecutorService         asynchExecutor;
+  private final ScheduledExecutorService asynchExecutor;
+  private final ConcurrentHashMap<Integer, ORemoteRecordBatch> recordBatches = new ConcurrentHashMap<Integer, ORemoteRecordBatch>();
+  private volatile boolean              recordBatchSupported;
   private final ODocument               clusterConfiguration = new ODocument();
   private final String                  clientId;
   private OContextConfiguration         clientConfiguration;
@@ -348,6 +351,11 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy {
       // ASYNCHRONOUS MODE NO ANSWER
       iMode = 2;
 
+    if (iMode != 0 && isRecordBatchEnabled()) {
+      addToRecordBatch(new ORemoteRecordBatch.Entry(ORecordOperation.CREATED, iRid, iContent, null, iRecordType, true, iCallback));
+      return new OStorageOperationResult<OPhysicalPosition>(new OPhysicalPosition(iRecordType));
+    }
+
     final OPhysicalPosition ppos = new OPhysicalPosition(iRecordType);
 
     OChannelBinaryAsynchClient lastNetworkUsed = null;
@@ -698,6 +706,12 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy {
       // ASYNCHRONOUS MODE NO ANSWER
       iMode = 2;
 
+    if (iMode != 0 && isRecordBatchEnabled()) {
+      addToRecordBatch(new ORemoteRecordBatch.Entry(ORecordOperation.UPDATED, iRid, iContent, iVersion, iRecordType, updateContent,
+          iCallback));
+      return new OStorageOperationResult<ORecordVersion>(iVersion);
+    }
+
     OChannelBinaryAsynchClient lastNetworkUsed = null;
     do {
       try {
@@ -775,6 +789,11 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy {
       // ASYNCHRONOUS MODE NO ANSWER
       iMode = 2;
 
+    if (iMode != 0 && isRecordBatchEnabled()) {
+      addToRecordBatch(new ORemoteRecordBatch.Entry(ORecordOperation.DELETED, iRid, null, iVersion, (byte) 0, false, iCallback));
+      return new OStorageOperationResult<Boolean>(false);
+    }
+
     OChannelBinaryAsynchClient network = null;
     do {
       try {
@@ -1844,6 +1863,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy {
 
             readDatabaseInformation(network);
 
+            recordBatchSupported = network.getSrvProtocolVersion() >= OChannelBinaryProtocol.PROTOCOL_VERSION_31;
+
             // READ CLUSTER CONFIGURATION
             updateClusterConfiguration(network.getServerURL(), network.readBytes());
 
@@ -2029,6 +2050,13 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy {
    * @throws IOException
    */
   protected OChannelBinaryAsynchClient beginRequest(final byte iCommand) throws IOException {
+    if (iCommand != OChannelBinaryProtocol.REQUEST_RECORD_BATCH && !recordBatches.isEmpty()) {
+      // PENDING ASYNCHRONOUS OPERATIONS OF THE SESSION ARE EXECUTED BEFORE ANY FOLLOWING REQUEST
+      final ORemoteRecordBatch batch = recordBatches.get(getSessionId());
+      if (batch != null)
+        sendRecordBatch(batch);
+    }
+
     final OChannelBinaryAsynchClient network = getAvailableNetwork(getCurrentServerURL());
     network.writeByte(iCommand);
     network.writeInt(getSessionId());
@@ -2040,6 +2068,115 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy {
     return network;
   }
 
+  protected boolean isRecordBatchEnabled() {
+    return recordBatchSupported && OGlobalConfiguration.CLIENT_RECORD_BATCH_SIZE.getValueAsInteger() > 1;
+  }
+
+  /**
+   * Adds asynchronous record operation to the batch of current session. The batch is sent when it reaches
+   * {@link OGlobalConfiguration#CLIENT_RECORD_BATCH_SIZE} operations, when {@link OGlobalConfiguration#CLIENT_RECORD_BATCH_TIMEOUT}
+   * expires or before any other request of the same session.
+   */
+  protected void addToRecordBatch(final ORemoteRecordBatch.Entry iEntry) {
+    final int sessionId = getSessionId();
+
+    while (true) {
+      ORemoteRecordBatch batch = recordBatches.get(sessionId);
+      if (batch == null) {
+        batch = new ORemoteRecordBatch(sessionId, getSessionToken(), ODatabaseRecordThreadLocal.INSTANCE.get()
+            .getSbTreeCollectionManager());
+
+        final ORemoteRecordBatch prev = recordBatches.putIfAbsent(sessionId, batch);
+        if (prev != null)
+          batch = prev;
+        else {
+          final ORemoteRecordBatch newBatch = batch;
+          asynchExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                sendRecordBatch(newBatch);
+              } catch (Exception e) {
+                OLogManager.instance().error(this, "Error on sending batch of asynchronous record operations", e);
+              }
+            }
+          }, OGlobalConfiguration.CLIENT_RECORD_BATCH_TIMEOUT.getValueAsInteger(), TimeUnit.MILLISECONDS);
+        }
+      }
+
+      final int size = batch.add(iEntry);
+      if (size < 0) {
+        // BATCH IS BEING SENT, CREATE A NEW ONE AFTER IT
+        batch.awaitSent();
+        continue;
+      }
+
+      if (size >= OGlobalConfiguration.CLIENT_RECORD_BATCH_SIZE.getValueAsInteger())
+        sendRecordBatch(batch);
+      return;
+    }
+  }
+
+  /**
+   * Sends the batch if it has not been sent yet, otherwise waits till it is sent by another thread.
+   */
+  protected void sendRecordBatch(final ORemoteRecordBatch iBatch) {
+    final List<ORemoteRecordBatch.Entry> entries = iBatch.seal();
+    if (entries == null) {
+      iBatch.awaitSent();
+      return;
+    }
+
+    // THE BATCH COULD BE SENT BY THE TIMER THREAD: USE THE SESSION OF THE BATCH
+    final OStorageRemoteThreadLocal.OStorageRemoteSession session = OStorageRemoteThreadLocal.INSTANCE.get();
+    final int currentSessionId = session.sessionId;
+    final byte[] currentToken = session.token;
+    final boolean switchSession = currentSessionId != iBatch.getSessionId();
+    if (switchSession) {
+      session.sessionId = iBatch.getSessionId();
+      session.token = iBatch.getToken();
+    }
+
+    try {
+      final boolean atomic = OGlobalConfiguration.CLIENT_RECORD_BATCH_ATOMIC.getValueAsBoolean();
+      OChannelBinaryAsynchClient network = null;
+      do {
+        try {
+          network = beginRequest(OChannelBinaryProtocol.REQUEST_RECORD_BATCH);
+          try {
+            ORemoteRecordBatch.writeRequest(network, entries, atomic);
+          } finally {
+            endRequest(network);
+          }
+
+          final Object[] results;
+          try {
+            beginResponse(network);
+            results = ORemoteRecordBatch.readResponse(network, entries);
+            readCollectionChanges(network, iBatch.getCollectionManager());
+          } finally {
+            endResponse(network);
+          }
+
+          ORemoteRecordBatch.notifyCallbacks(entries, results);
+          return;
+
+        } catch (OModificationOperationProhibitedException mope) {
+          handleDBFreeze();
+        } catch (Exception e) {
+          handleException(network, "Error on sending batch of " + entries.size() + " record operations", e);
+        }
+      } while (true);
+    } finally {
+      if (switchSession) {
+        session.sessionId = currentSessionId;
+        session.token = currentToken;
+      }
+      recordBatches.remove(iBatch.getSessionId(), iBatch);
+      iBatch.sent();
+    }
+  }
+
   protected String getCurrentServerURL() {
     synchronized (serverURLs) {
       if (serverURLs.isEmpty()) {
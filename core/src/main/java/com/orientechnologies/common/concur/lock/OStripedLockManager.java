@@ -0,0 +1,269 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.common.concur.lock;
+
+/**
+ * Shared/exclusive lock manager that does not allocate a lock per resource. Resources are hashed to a fixed number of preallocated
+ * stripes: every stripe keeps the state of its locked resources in entries that are recycled once the lock is released, and its
+ * monitor guards both the state changes and the waiting threads. Acquiring or releasing a free lock enters the monitor of its stripe
+ * once, without creating any object. Recycled entries keep the id copied by
+ * {@link #getImmutableResourceId(Object, Object)}, so subclasses which copy mutable ids can copy into it instead of creating a new
+ * one.
+ * <p>
+ * Resources sharing the stripe are still locked independently, as with {@link OLockManager}. Locks are reentrant: the owner of the
+ * exclusive lock can acquire it again, as well as the shared lock. The exclusive lock cannot be acquired by the thread that holds the
+ * shared lock only.
+ */
+public class OStripedLockManager<RESOURCE_TYPE, REQUESTER_TYPE> {
+  private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+  private static final int MAX_FREE_ENTRIES          = 16;
+
+  protected long           acquireTimeout;
+  private final boolean    enabled;
+  private final int        mask;
+  private final Stripe[]   stripes;
+
+  private static final class Entry {
+    private Object key;
+    private int    shared;
+    private Thread owner;
+    private int    exclusive;
+    private int    waiters;
+    private Entry  next;
+
+    private boolean isFree() {
+      return shared == 0 && owner == null;
+    }
+  }
+
+  private static final class Stripe {
+    private Entry active;
+    private Entry free;
+    private int   freeCount;
+    private int   locked;
+
+    private Entry find(final Object key) {
+      for (Entry e = active; e != null; e = e.next)
+        if (e.key.equals(key))
+          return e;
+      return null;
+    }
+
+    private Entry add() {
+      Entry e = free;
+      if (e != null) {
+        free = e.next;
+        freeCount--;
+      } else
+        e = new Entry();
+
+      e.next = active;
+      active = e;
+      locked++;
+      return e;
+    }
+
+    private void remove(final Entry entry) {
+      if (active == entry)
+        active = entry.next;
+      else
+        for (Entry e = active; e != null; e = e.next)
+          if (e.next == entry) {
+            e.next = entry.next;
+            break;
+          }
+
+      locked--;
+      if (freeCount < MAX_FREE_ENTRIES) {
+        // KEY IS KEPT TO BE REUSED BY THE NEXT LOCKED RESOURCE
+        entry.next = free;
+        free = entry;
+        freeCount++;
+      } else {
+        entry.key = null;
+        entry.next = null;
+      }
+    }
+  }
+
+  public OStripedLockManager(final boolean iEnabled, final int iAcquireTimeout) {
+    this(iEnabled, iAcquireTimeout, defaultConcurrency());
+  }
+
+  public OStripedLockManager(final boolean iEnabled, final int iAcquireTimeout, final int concurrencyLevel) {
+    int cL = 1;
+    while (cL < concurrencyLevel)
+      cL <<= 1;
+
+    mask = cL - 1;
+    stripes = new Stripe[cL];
+    for (int i = 0; i < stripes.length; i++)
+      stripes[i] = new Stripe();
+
+    acquireTimeout = iAcquireTimeout;
+    enabled = iEnabled;
+  }
+
+  public void acquireLock(final REQUESTER_TYPE iRequester, final RESOURCE_TYPE iResourceId, final OLockManager.LOCK iLockType) {
+    acquireLock(iRequester, iResourceId, iLockType, acquireTimeout);
+  }
+
+  public void acquireLock(final REQUESTER_TYPE iRequester, final RESOURCE_TYPE iResourceId, final OLockManager.LOCK iLockType,
+      final long iTimeout) {
+    if (!enabled)
+      return;
+
+    final Thread current = Thread.currentThread();
+    final Stripe stripe = stripe(iResourceId);
+
+    synchronized (stripe) {
+      Entry entry = stripe.find(iResourceId);
+      if (entry == null) {
+        entry = stripe.add();
+        assignResourceId(entry, iResourceId);
+      }
+
+      if (!canAcquire(entry, iLockType, current)) {
+        final long deadline = iTimeout > 0 ? System.currentTimeMillis() + iTimeout : 0;
+
+        boolean granted = false;
+        entry.waiters++;
+        try {
+          do {
+            if (iTimeout <= 0)
+              stripe.wait();
+            else {
+              final long wait = deadline - System.currentTimeMillis();
+              if (wait <= 0)
+                throw new OLockException("Timeout (" + iTimeout + "ms) on acquiring resource '" + iResourceId
+                    + "' because is locked from another thread");
+              stripe.wait(wait);
+            }
+          } while (!canAcquire(entry, iLockType, current));
+          granted = true;
+
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new OLockException("Thread interrupted while waiting for resource '" + iResourceId + "'");
+        } finally {
+          entry.waiters--;
+          if (!granted && entry.waiters == 0 && entry.isFree())
+            stripe.remove(entry);
+        }
+      }
+
+      if (iLockType == OLockManager.LOCK.SHARED)
+        entry.shared++;
+      else {
+        entry.owner = current;
+        entry.exclusive++;
+      }
+    }
+  }
+
+  public void releaseLock(final REQUESTER_TYPE iRequester, final RESOURCE_TYPE iResourceId, final OLockManager.LOCK iLockType)
+      throws OLockException {
+    if (!enabled)
+      return;
+
+    final Stripe stripe = stripe(iResourceId);
+
+    synchronized (stripe) {
+      final Entry entry = stripe.find(iResourceId);
+      if (entry == null || (iLockType == OLockManager.LOCK.SHARED ? entry.shared == 0 : entry.owner != Thread.currentThread()))
+        throw new OLockException("Error on releasing a non acquired lock by the requester '" + iRequester
+            + "' against the resource: '" + iResourceId + "'");
+
+      if (iLockType == OLockManager.LOCK.SHARED)
+        entry.shared--;
+      else if (--entry.exclusive == 0)
+        entry.owner = null;
+
+      if (entry.waiters > 0)
+        stripe.notifyAll();
+      else if (entry.isFree())
+        stripe.remove(entry);
+    }
+  }
+
+  public void clear() {
+    for (Stripe stripe : stripes)
+      synchronized (stripe) {
+        while (stripe.active != null)
+          stripe.remove(stripe.active);
+        stripe.notifyAll();
+      }
+  }
+
+  // For tests purposes.
+  public int getCountCurrentLocks() {
+    int count = 0;
+    for (Stripe stripe : stripes)
+      synchronized (stripe) {
+        count += stripe.locked;
+      }
+    return count;
+  }
+
+  public void releaseAllLocksOfRequester(REQUESTER_TYPE iRequester) {
+  }
+
+  protected RESOURCE_TYPE getImmutableResourceId(final RESOURCE_TYPE iResourceId) {
+    return iResourceId;
+  }
+
+  /**
+   * Returns id which is kept by lock manager while resource is locked.
+   *
+   * @param iResourceId
+   *          id passed to {@link #acquireLock(Object, Object, OLockManager.LOCK, long)}
+   * @param reusable
+   *          id returned by this method for a resource which is not locked anymore, or null. It is not referenced by lock manager
+   *          any more and can be changed and returned instead of a new copy.
+   */
+  protected RESOURCE_TYPE getImmutableResourceId(final RESOURCE_TYPE iResourceId, final RESOURCE_TYPE reusable) {
+    return getImmutableResourceId(iResourceId);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void assignResourceId(final Entry entry, final RESOURCE_TYPE iResourceId) {
+    entry.key = getImmutableResourceId(iResourceId, (RESOURCE_TYPE) entry.key);
+  }
+
+  private static boolean canAcquire(final Entry entry, final OLockManager.LOCK iLockType, final Thread current) {
+    if (entry.owner == current)
+      return true;
+
+    if (iLockType == OLockManager.LOCK.SHARED)
+      return entry.owner == null;
+
+    return entry.owner == null && entry.shared == 0;
+  }
+
+  private Stripe stripe(final RESOURCE_TYPE iResourceId) {
+    final int hashCode = iResourceId.hashCode();
+    return stripes[(hashCode ^ (hashCode >>> 16)) & mask];
+  }
+
+  private static int defaultConcurrency() {
+    return Runtime.getRuntime().availableProcessors() * 64 > DEFAULT_CONCURRENCY_LEVEL ? Runtime.getRuntime().availableProcessors() * 64
+        : DEFAULT_CONCURRENCY_LEVEL;
+  }
+}
@@ -26,6 +26,9 @@ import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.serialization.types.OShortSerializer;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import sun.nio.ch.DirectBuffer;
+
+import java.nio.ByteBuffer;
 
 /**
  * Abstraction of pointer which points to allocated direct memory area. All access to direct memory should be performed ONLY using
@@ -93,6 +96,27 @@ public class ODirectMemoryPointer {
     directMemory.set(dataPointer + offset, content, arrayOffset, length);
   }
 
+  /**
+   * Copies <code>length</code> bytes of the buffer starting from its current position. Content of direct (and memory mapped)
+   * buffers is copied directly without intermediate array. Position of buffer is not changed.
+   */
+  public void set(final long offset, final ByteBuffer buffer, final int length) {
+    if (SAFE_MODE)
+      rangeCheck(offset, length);
+
+    if (buffer.remaining() < length)
+      throw new ODirectMemoryViolationException("Buffer contains only " + buffer.remaining() + " bytes but " + length
+          + " bytes were requested");
+
+    if (buffer instanceof DirectBuffer) {
+      directMemory.moveData(((DirectBuffer) buffer).address() + buffer.position(), dataPointer + offset, length);
+    } else {
+      final byte[] content = new byte[length];
+      buffer.duplicate().get(content);
+      directMemory.set(dataPointer + offset, content, 0, length);
+    }
+  }
+
   public int getInt(final long offset) {
     if (SAFE_MODE)
       rangeCheck(offset, OIntegerSerializer.INT_SIZE);
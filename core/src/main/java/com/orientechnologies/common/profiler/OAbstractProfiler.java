@@ -49,13 +49,15 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class OAbstractProfiler extends OSharedResourceAbstract implements OProfilerMBean, OOrientStartupListener {
 
-  protected final Map<String, OProfilerHookValue>          hooks         = new ConcurrentHashMap<String, OProfilerHookValue>();
-  protected final ConcurrentHashMap<String, String>        dictionary    = new ConcurrentHashMap<String, String>();
-  protected final ConcurrentHashMap<String, METRIC_TYPE>   types         = new ConcurrentHashMap<String, METRIC_TYPE>();
-  protected final ConcurrentHashMap<String, AtomicInteger> tips          = new ConcurrentHashMap<String, AtomicInteger>();
-  protected final ConcurrentHashMap<String, Long>          tipsTimestamp = new ConcurrentHashMap<String, Long>();
-  protected long                                           recordingFrom = -1;
-  protected TimerTask                                      autoDumpTask;
+  protected final Map<String, OProfilerHookValue>             hooks         = new ConcurrentHashMap<String, OProfilerHookValue>();
+  protected final ConcurrentHashMap<String, String>           dictionary    = new ConcurrentHashMap<String, String>();
+  protected final ConcurrentHashMap<String, METRIC_TYPE>      types         = new ConcurrentHashMap<String, METRIC_TYPE>();
+  protected final ConcurrentHashMap<String, AtomicInteger>    tips          = new ConcurrentHashMap<String, AtomicInteger>();
+  protected final ConcurrentHashMap<String, Long>             tipsTimestamp = new ConcurrentHashMap<String, Long>();
+  protected final ConcurrentHashMap<String, OProfilerCounter> counters      = new ConcurrentHashMap<String, OProfilerCounter>();
+  protected final ConcurrentHashMap<String, OProfilerChrono>  chronos       = new ConcurrentHashMap<String, OProfilerChrono>();
+  protected volatile long                                     recordingFrom = -1;
+  protected TimerTask                                         autoDumpTask;
 
   public interface OProfilerHookValue {
     public Object getValue();
@@ -113,6 +115,8 @@ public abstract class OAbstractProfiler extends OSharedResourceAbstract implemen
     hooks.putAll(profiler.hooks);
     dictionary.putAll(profiler.dictionary);
     types.putAll(profiler.types);
+    counters.putAll(profiler.counters);
+    chronos.putAll(profiler.chronos);
 
     Orient.instance().registerWeakOrientStartupListener(this);
   }
@@ -194,6 +198,7 @@ public abstract class OAbstractProfiler extends OSharedResourceAbstract implemen
       return false;
 
     recordingFrom = System.currentTimeMillis();
+    setMetricsEnabled(true);
     return true;
   }
 
@@ -202,9 +207,41 @@ public abstract class OAbstractProfiler extends OSharedResourceAbstract implemen
       return false;
 
     recordingFrom = -1;
+    setMetricsEnabled(false);
     return true;
   }
 
+  public OProfilerCounter registerCounter(final String iName, final String iDescription, final String iDictionary) {
+    OProfilerCounter counter = counters.get(iName);
+    if (counter != null)
+      return counter;
+
+    counter = new OProfilerCounter(iName, iDescription, iDictionary, isRecording());
+    final OProfilerCounter oldCounter = counters.putIfAbsent(iName, counter);
+    if (oldCounter != null)
+      return oldCounter;
+
+    updateMetadata(iDictionary != null ? iDictionary : iName, iDescription, METRIC_TYPE.COUNTER);
+    // RECORDING COULD BE SWITCHED BEFORE COUNTER WAS PUT IN MAP
+    counter.setEnabled(isRecording());
+    return counter;
+  }
+
+  public OProfilerChrono registerChrono(final String iName, final String iDescription, final String iDictionary) {
+    OProfilerChrono chrono = chronos.get(iName);
+    if (chrono != null)
+      return chrono;
+
+    chrono = new OProfilerChrono(iName, iDescription, iDictionary, isRecording());
+    final OProfilerChrono oldChrono = chronos.putIfAbsent(iName, chrono);
+    if (oldChrono != null)
+      return oldChrono;
+
+    updateMetadata(iDictionary != null ? iDictionary : iName, iDescription, METRIC_TYPE.CHRONO);
+    chrono.setEnabled(isRecording());
+    return chrono;
+  }
+
   public boolean isRecording() {
     return recordingFrom > -1;
   }
@@ -403,6 +440,13 @@ public abstract class OAbstractProfiler extends OSharedResourceAbstract implemen
     return buffer.toString();
   }
 
+  protected void setMetricsEnabled(final boolean iEnabled) {
+    for (OProfilerCounter counter : counters.values())
+      counter.setEnabled(iEnabled);
+    for (OProfilerChrono chrono : chronos.values())
+      chrono.setEnabled(iEnabled);
+  }
+
   protected void installMemoryChecker() {
     Orient.instance().scheduleTask(new MemoryChecker(), 120000, 120000);
   }
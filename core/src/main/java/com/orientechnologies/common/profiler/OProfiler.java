@@ -20,13 +20,23 @@
 
 package com.orientechnologies.common.profiler;
 
-import java.util.Date;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import com.orientechnologies.common.io.OIOUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Default profiler. Counters and chronos are kept in handles registered by name, so code on hot path may obtain handle once by
+ * {@link #registerCounter(String, String, String)} or {@link #registerChrono(String, String, String)} and update it without lookup.
+ * Metrics passed by name to {@link #updateCounter(String, String, long, String)} and to <code>stopChrono()</code> are stored in the
+ * same handles. Chronos keep histogram of elapsed times in microseconds.
+ */
 public class OProfiler extends OAbstractProfiler {
-
-  protected final ConcurrentMap<String, Long> counters = new ConcurrentHashMap<String, Long>();
+  protected volatile long lastReset;
 
   public OProfiler() {
   }
@@ -47,7 +57,7 @@ public class OProfiler extends OAbstractProfiler {
 
   public boolean startRecording() {
     if (super.startRecording()) {
-      counters.clear();
+      resetMetrics(null);
       tips.clear();
       return true;
     }
@@ -56,7 +66,7 @@ public class OProfiler extends OAbstractProfiler {
 
   public boolean stopRecording() {
     if (super.stopRecording()) {
-      counters.clear();
+      resetMetrics(null);
       tips.clear();
       return true;
     }
@@ -67,98 +77,270 @@ public class OProfiler extends OAbstractProfiler {
     if (statName == null || !isRecording())
       return;
 
-    Long oldValue;
-    Long newValue;
-    do {
-      oldValue = counters.get(statName);
-
-      if (oldValue == null) {
-        counters.putIfAbsent(statName, 0L);
-        oldValue = counters.get(statName);
-      }
-
-      newValue = oldValue + plus;
-    } while (!counters.replace(statName, oldValue, newValue));
+    registerCounter(statName, description, metadata).add(plus);
   }
 
   public long getCounter(final String statName) {
     if (statName == null || !isRecording())
       return -1;
 
-    final Long stat = counters.get(statName);
-    if (stat == null)
+    final OProfilerCounter counter = counters.get(statName);
+    if (counter == null)
       return -1;
 
-    return stat;
+    return counter.get();
+  }
+
+  @Override
+  public String dump() {
+    final StringBuilder buffer = new StringBuilder(super.dump());
+    buffer.append('\n');
+    buffer.append(dumpCounters());
+    buffer.append('\n');
+    buffer.append(dumpChronos());
+    return buffer.toString();
   }
 
   @Override
   public String dumpCounters() {
-    return null;
+    if (!isRecording())
+      return "Counters: <no recording>";
+
+    final StringBuilder buffer = new StringBuilder();
+    buffer.append("COUNTERS:");
+    buffer.append(String.format("\n%100s +--------------------+", ""));
+    buffer.append(String.format("\n%-100s | Value              |", "Name"));
+    buffer.append(String.format("\n%100s +--------------------+", ""));
+
+    for (String name : sortedNames(counters)) {
+      final OProfilerCounter counter = counters.get(name);
+      if (counter != null)
+        buffer.append(String.format("\n%-100s | %18d |", name, counter.get()));
+    }
+
+    buffer.append(String.format("\n%100s +--------------------+", ""));
+    return buffer.toString();
   }
 
   @Override
-  public OProfilerEntry getChrono(String string) {
-    return null;
+  public OProfilerEntry getChrono(final String iName) {
+    final OProfilerChrono chrono = chronos.get(iName);
+    return chrono != null ? chrono.toEntry() : null;
   }
 
+  /**
+   * Returns start time in milliseconds for chronos updated by name, or 0 if profiler does not record.
+   */
   @Override
   public long startChrono() {
-    return 0;
+    return isRecording() ? System.currentTimeMillis() : 0;
   }
 
   @Override
-  public long stopChrono(String iName, String iDescription, long iStartTime) {
-    return 0;
+  public long stopChrono(final String iName, final String iDescription, final long iStartTime) {
+    return stopChrono(iName, iDescription, iStartTime, null, null, null);
   }
 
   @Override
-  public long stopChrono(String iName, String iDescription, long iStartTime, String iDictionary) {
-    return 0;
+  public long stopChrono(final String iName, final String iDescription, final long iStartTime, final String iDictionary) {
+    return stopChrono(iName, iDescription, iStartTime, iDictionary, null, null);
   }
 
   @Override
-  public long stopChrono(String iName, String iDescription, long iStartTime, String iDictionary, String payload) {
-    return 0;
+  public long stopChrono(final String iName, final String iDescription, final long iStartTime, final String iDictionary,
+      final String payload) {
+    return stopChrono(iName, iDescription, iStartTime, iDictionary, payload, null);
   }
 
   @Override
-  public long stopChrono(String iName, String iDescription, long iStartTime, String iDictionary, String payload, String user) {
-    return 0;
+  public long stopChrono(final String iName, final String iDescription, final long iStartTime, final String iDictionary,
+      final String payload, final String user) {
+    if (iName == null || iStartTime <= 0 || !isRecording())
+      return 0;
+
+    final long elapsed = System.currentTimeMillis() - iStartTime;
+    registerChrono(iName, iDescription, iDictionary).record(elapsed * 1000);
+    return elapsed;
   }
 
   @Override
   public String dumpChronos() {
-    return null;
+    if (!isRecording())
+      return "Chronos: <no recording>";
+
+    final StringBuilder buffer = new StringBuilder();
+    buffer.append("CHRONOS (microseconds):");
+    buffer.append(String.format("\n%80s +------------+------------+------------+------------+------------+------------+------------+", ""));
+    buffer.append(String.format("\n%-80s | %10s | %10s | %10s | %10s | %10s | %10s | %10s |", "Name", "Entries", "Average", "Min", "P50",
+        "P99", "P999", "Max"));
+    buffer.append(String.format("\n%80s +------------+------------+------------+------------+------------+------------+------------+", ""));
+
+    for (String name : sortedNames(chronos)) {
+      final OProfilerChrono chrono = chronos.get(name);
+      if (chrono == null)
+        continue;
+
+      final OProfilerHistogram h = chrono.getHistogram();
+      buffer.append(String.format(Locale.ENGLISH, "\n%-80s | %10d | %10.2f | %10d | %10d | %10d | %10d | %10d |", name, h.getCount(),
+          h.getAverage(), h.getMin(), h.getPercentile(50), h.getPercentile(99), h.getPercentile(99.9), h.getMax()));
+    }
+
+    buffer.append(String.format("\n%80s +------------+------------+------------+------------+------------+------------+------------+", ""));
+    return buffer.toString();
   }
 
   @Override
   public String[] getCountersAsString() {
-    return null;
+    final List<String> names = sortedNames(counters);
+    final List<String> result = new ArrayList<String>(names.size());
+    for (String name : names) {
+      final OProfilerCounter counter = counters.get(name);
+      if (counter != null)
+        result.add(name + ": " + counter.get());
+    }
+    return result.toArray(new String[result.size()]);
   }
 
   @Override
   public String[] getChronosAsString() {
-    return null;
+    final List<String> names = sortedNames(chronos);
+    final List<String> result = new ArrayList<String>(names.size());
+    for (String name : names) {
+      final OProfilerChrono chrono = chronos.get(name);
+      if (chrono != null)
+        result.add(chrono.toEntry().toString());
+    }
+    return result.toArray(new String[result.size()]);
   }
 
   @Override
   public Date getLastReset() {
-    return null;
+    return lastReset > 0 ? new Date(lastReset) : null;
   }
 
   @Override
   public String metadataToJSON() {
-    return null;
+    final StringBuilder buffer = new StringBuilder(4096);
+    buffer.append("{\"metadata\":{");
+    boolean first = true;
+    for (String name : sortedNames(dictionary)) {
+      if (!first)
+        buffer.append(',');
+      first = false;
+
+      final METRIC_TYPE type = types.get(name);
+      buffer.append(String.format("\"%s\":{\"description\":\"%s\",\"type\":\"%s\"}", OIOUtils.encode(name),
+          OIOUtils.encode(dictionary.get(name)), type != null ? type : ""));
+    }
+    buffer.append("}}");
+    return buffer.toString();
   }
 
+  /**
+   * Exports metrics as JSON.
+   *
+   * @param command
+   *          "realtime" for all the metrics, or one of "counters", "chronos", "hookValues", "metadata"
+   * @param iPar1
+   *          optional prefix of names of exported metrics
+   */
   @Override
-  public String toJSON(String command, final String iPar1) {
-    return null;
+  public String toJSON(final String command, final String iPar1) {
+    if ("metadata".equalsIgnoreCase(command))
+      return metadataToJSON();
+
+    final boolean all = command == null || "realtime".equalsIgnoreCase(command);
+
+    final StringBuilder buffer = new StringBuilder(4096);
+    buffer.append('{');
+    buffer.append(String.format("\"from\":%d,\"lastReset\":%d", recordingFrom, lastReset));
+
+    if (all || "counters".equalsIgnoreCase(command)) {
+      buffer.append(",\"counters\":{");
+      boolean first = true;
+      for (String name : sortedNames(counters)) {
+        final OProfilerCounter counter = counters.get(name);
+        if (counter == null || (iPar1 != null && !name.startsWith(iPar1)))
+          continue;
+
+        if (!first)
+          buffer.append(',');
+        first = false;
+        buffer.append(String.format("\"%s\":%d", OIOUtils.encode(name), counter.get()));
+      }
+      buffer.append('}');
+    }
+
+    if (all || "chronos".equalsIgnoreCase(command)) {
+      buffer.append(",\"chronos\":{");
+      boolean first = true;
+      for (String name : sortedNames(chronos)) {
+        final OProfilerChrono chrono = chronos.get(name);
+        if (chrono == null || (iPar1 != null && !name.startsWith(iPar1)))
+          continue;
+
+        if (!first)
+          buffer.append(',');
+        first = false;
+        buffer.append(String.format("\"%s\":", OIOUtils.encode(name)));
+        chrono.toEntry().toJSON(buffer);
+      }
+      buffer.append('}');
+    }
+
+    if (all || "hookValues".equalsIgnoreCase(command)) {
+      buffer.append(",\"hookValues\":{");
+      boolean first = true;
+      for (String name : sortedNames(hooks)) {
+        final OProfilerHookValue hook = hooks.get(name);
+        if (hook == null || (iPar1 != null && !name.startsWith(iPar1)))
+          continue;
+
+        final Object value;
+        try {
+          value = hook.getValue();
+        } catch (Exception e) {
+          // HOOK OF CLOSED RESOURCE
+          continue;
+        }
+
+        if (!first)
+          buffer.append(',');
+        first = false;
+        buffer.append(String.format("\"%s\":", OIOUtils.encode(name)));
+        if (value instanceof Number || value instanceof Boolean)
+          buffer.append(value);
+        else
+          buffer.append('"').append(value != null ? OIOUtils.encode(value.toString()) : "").append('"');
+      }
+      buffer.append('}');
+    }
+
+    buffer.append('}');
+    return buffer.toString();
   }
 
+  /**
+   * Resets counters and chronos.
+   *
+   * @param iText
+   *          prefix of names of metrics to reset, or <code>null</code> to reset all of them
+   */
   @Override
-  public void resetRealtime(String iText) {
+  public void resetRealtime(final String iText) {
+    resetMetrics(iText);
+  }
+
+  protected void resetMetrics(final String iPrefix) {
+    for (OProfilerCounter counter : counters.values())
+      if (iPrefix == null || counter.getName().startsWith(iPrefix))
+        counter.reset();
+
+    for (OProfilerChrono chrono : chronos.values())
+      if (iPrefix == null || chrono.getName().startsWith(iPrefix))
+        chrono.getHistogram().reset();
+
+    lastReset = System.currentTimeMillis();
   }
 
   /**
@@ -168,4 +350,10 @@ public class OProfiler extends OAbstractProfiler {
     if (iDescription != null && dictionary.putIfAbsent(iName, iDescription) == null)
       types.put(iName, iType);
   }
+
+  private static List<String> sortedNames(final Map<String, ?> iMap) {
+    final List<String> names = new ArrayList<String>(iMap.keySet());
+    Collections.sort(names);
+    return names;
+  }
 }
@@ -0,0 +1,122 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+
+package com.orientechnologies.common.profiler;
+
+/**
+ * Latency metric of profiler. Handle is obtained once by {@link OProfilerMBean#registerChrono(String, String, String)} and used on
+ * hot path as:
+ *
+ * <pre>
+ * final long timer = chrono.start();
+ * try {
+ *   ...
+ * } finally {
+ *   chrono.stop(timer);
+ * }
+ * </pre>
+ *
+ * Elapsed times are kept in {@link OProfilerHistogram} in microseconds. If profiler does not record, {@link #start()} does not
+ * read the clock and {@link #stop(long)} does nothing.
+ */
+public class OProfilerChrono {
+  private static final long        NOT_STARTED = -1;
+
+  private final String             name;
+  private final String             description;
+  private final String             dictionary;
+  private final OProfilerHistogram histogram   = new OProfilerHistogram();
+  private volatile boolean         enabled;
+
+  public OProfilerChrono(final String name, final String description, final String dictionary, final boolean enabled) {
+    this.name = name;
+    this.description = description;
+    this.dictionary = dictionary;
+    this.enabled = enabled;
+  }
+
+  /**
+   * @return start time in nanoseconds which has to be passed to {@link #stop(long)}
+   */
+  public long start() {
+    return enabled ? System.nanoTime() : NOT_STARTED;
+  }
+
+  /**
+   * @return elapsed time in microseconds, or 0 if profiler did not record when chrono was started
+   */
+  public long stop(final long startTime) {
+    if (startTime == NOT_STARTED || !enabled)
+      return 0;
+
+    final long elapsed = (System.nanoTime() - startTime) / 1000;
+    histogram.record(elapsed);
+    return elapsed;
+  }
+
+  /**
+   * Records already measured elapsed time.
+   */
+  public void record(final long elapsedMicros) {
+    if (enabled)
+      histogram.record(elapsedMicros);
+  }
+
+  public OProfilerHistogram getHistogram() {
+    return histogram;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public String getDictionary() {
+    return dictionary;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public OProfilerEntry toEntry() {
+    final OProfilerEntry entry = new OProfilerEntry(histogram.getFirstRecord());
+    entry.name = name;
+    entry.description = description;
+    entry.entries = histogram.getCount();
+    entry.last = histogram.getLast();
+    entry.min = histogram.getMin();
+    entry.max = histogram.getMax();
+    entry.average = histogram.getAverage();
+    entry.total = histogram.getTotal();
+    entry.lastExecution = histogram.getLastRecord();
+    entry.p50 = histogram.getPercentile(50);
+    entry.p99 = histogram.getPercentile(99);
+    entry.p999 = histogram.getPercentile(99.9);
+    return entry;
+  }
+}
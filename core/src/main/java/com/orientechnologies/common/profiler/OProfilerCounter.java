@@ -0,0 +1,109 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+
+package com.orientechnologies.common.profiler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter metric of profiler. Handle is obtained once by
+ * {@link OProfilerMBean#registerCounter(String, String, String)} and updated on hot path without any lookup by name.
+ *
+ * Value is striped between cells which are placed on separate cache lines, thread updates cell chosen by its id, so threads which
+ * update the same counter concurrently do not contend on single memory location. Reads sum all cells.
+ */
+public class OProfilerCounter {
+  private static final int       STRIPES;
+  private static final int       CELL_STRIDE = 8;
+
+  static {
+    int stripes = 1;
+    while (stripes < Runtime.getRuntime().availableProcessors() * 2)
+      stripes <<= 1;
+
+    STRIPES = stripes;
+  }
+
+  private final String           name;
+  private final String           description;
+  private final String           dictionary;
+  private final AtomicLongArray  cells       = new AtomicLongArray(STRIPES * CELL_STRIDE);
+  private volatile boolean       enabled;
+
+  public OProfilerCounter(final String name, final String description, final String dictionary, final boolean enabled) {
+    this.name = name;
+    this.description = description;
+    this.dictionary = dictionary;
+    this.enabled = enabled;
+  }
+
+  public void increment() {
+    add(1);
+  }
+
+  /**
+   * Adds delta to the counter if profiler is recording.
+   */
+  public void add(final long delta) {
+    if (enabled)
+      cells.addAndGet(stripe() * CELL_STRIDE, delta);
+  }
+
+  public long get() {
+    long sum = 0;
+    for (int i = 0; i < STRIPES; i++)
+      sum += cells.get(i * CELL_STRIDE);
+
+    return sum;
+  }
+
+  public void reset() {
+    for (int i = 0; i < STRIPES; i++)
+      cells.set(i * CELL_STRIDE, 0);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public String getDictionary() {
+    return dictionary;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  static int stripe() {
+    long id = Thread.currentThread().getId();
+    id ^= id >>> 16;
+    id *= 0x85ebca6bL;
+    id ^= id >>> 13;
+    return (int) id & (STRIPES - 1);
+  }
+}
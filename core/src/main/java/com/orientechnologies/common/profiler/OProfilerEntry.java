@@ -35,10 +35,17 @@ public class OProfilerEntry {
   public long        lastExecution;
   public String      payLoad;
   public String      description;
+  public long        p50;
+  public long        p99;
+  public long        p999;
   public Set<String> users   = new HashSet<String>();
 
   public OProfilerEntry() {
-    firstExecution = System.currentTimeMillis();
+    this(System.currentTimeMillis());
+  }
+
+  public OProfilerEntry(final long firstExecution) {
+    this.firstExecution = firstExecution;
     lastExecution = firstExecution;
   }
 
@@ -60,6 +67,9 @@ public class OProfilerEntry {
     buffer.append(String.format(Locale.ENGLISH, "\"%s\":%d,", "max", max));
     buffer.append(String.format(Locale.ENGLISH, "\"%s\":%.2f,", "average", average));
     buffer.append(String.format(Locale.ENGLISH, "\"%s\":%d,", "total", total));
+    buffer.append(String.format(Locale.ENGLISH, "\"%s\":%d,", "p50", p50));
+    buffer.append(String.format(Locale.ENGLISH, "\"%s\":%d,", "p99", p99));
+    buffer.append(String.format(Locale.ENGLISH, "\"%s\":%d,", "p999", p999));
     buffer.append(String.format(Locale.ENGLISH, "\"%s\":%d,", "firstExecution", firstExecution));
     buffer.append(String.format(Locale.ENGLISH, "\"%s\":%d", "lastExecution", lastExecution));
     if (payLoad != null)
@@ -80,7 +90,7 @@ public class OProfilerEntry {
 
   @Override
   public String toString() {
-    return String.format("Profiler entry [%s]: total=%d, average=%.2f, items=%d, last=%d, max=%d, min=%d", name, total, average,
-        entries, last, max, min);
+    return String.format("Profiler entry [%s]: total=%d, average=%.2f, items=%d, last=%d, max=%d, min=%d, p50=%d, p99=%d, p999=%d",
+        name, total, average, entries, last, max, min, p50, p99, p999);
   }
 }
@@ -0,0 +1,170 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+
+package com.orientechnologies.common.profiler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of non negative values with bounded relative error.
+ *
+ * Values less than {@link #SUB_BUCKETS} have own bucket, bigger values are grouped by power of two and every power of two range is
+ * split on {@link #SUB_BUCKETS} linear sub buckets, so percentiles are reported with error not bigger than 1/{@link #SUB_BUCKETS}
+ * of the value. Values bigger than 2^{@link #MAX_EXPONENT} fall into the last bucket.
+ */
+public class OProfilerHistogram {
+  private static final int      SUB_BUCKET_BITS = 5;
+  public static final int       SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+  public static final int       MAX_EXPONENT    = 40;
+  private static final int      BUCKETS         = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets         = new AtomicLongArray(BUCKETS);
+  private final OProfilerCounter count           = new OProfilerCounter(null, null, null, true);
+  private final OProfilerCounter total           = new OProfilerCounter(null, null, null, true);
+  private final AtomicLong      min             = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong      max             = new AtomicLong(Long.MIN_VALUE);
+  private volatile long         last;
+  private volatile long         firstRecord;
+  private volatile long         lastRecord;
+
+  public void record(long value) {
+    if (value < 0)
+      value = 0;
+
+    buckets.incrementAndGet(bucketIndex(value));
+    count.add(1);
+    total.add(value);
+    last = value;
+
+    final long now = System.currentTimeMillis();
+    if (firstRecord == 0)
+      firstRecord = now;
+    lastRecord = now;
+
+    long current = max.get();
+    while (value > current && !max.compareAndSet(current, value))
+      current = max.get();
+
+    current = min.get();
+    while (value < current && !min.compareAndSet(current, value))
+      current = min.get();
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getTotal() {
+    return total.get();
+  }
+
+  public long getMin() {
+    final long value = min.get();
+    return value == Long.MAX_VALUE ? 0 : value;
+  }
+
+  public long getMax() {
+    final long value = max.get();
+    return value == Long.MIN_VALUE ? 0 : value;
+  }
+
+  public long getLast() {
+    return last;
+  }
+
+  public float getAverage() {
+    final long entries = getCount();
+    return entries > 0 ? (float) getTotal() / entries : 0;
+  }
+
+  public long getFirstRecord() {
+    return firstRecord;
+  }
+
+  public long getLastRecord() {
+    return lastRecord;
+  }
+
+  /**
+   * Returns value below or equal to which lays given percentile of recorded values.
+   *
+   * @param percentile
+   *          percentile in range 0..100
+   */
+  public long getPercentile(final double percentile) {
+    long entries = 0;
+    final long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = buckets.get(i);
+      entries += snapshot[i];
+    }
+
+    if (entries == 0)
+      return 0;
+
+    final long rank = Math.max(1, (long) Math.ceil(entries * Math.min(percentile, 100.0) / 100.0));
+
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank)
+        return Math.max(Math.min(bucketUpperBound(i), getMax()), getMin());
+    }
+
+    return getMax();
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++)
+      buckets.set(i, 0);
+
+    count.reset();
+    total.reset();
+    min.set(Long.MAX_VALUE);
+    max.set(Long.MIN_VALUE);
+    last = 0;
+    firstRecord = 0;
+    lastRecord = 0;
+  }
+
+  static int bucketIndex(final long value) {
+    if (value < SUB_BUCKETS)
+      return (int) value;
+
+    final int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent > MAX_EXPONENT)
+      return BUCKETS - 1;
+
+    final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketUpperBound(final int index) {
+    if (index < SUB_BUCKETS)
+      return index;
+
+    final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    final long subBucket = index % SUB_BUCKETS;
+    final int shift = exponent - SUB_BUCKET_BITS;
+
+    return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+}
@@ -39,6 +39,18 @@ public interface OProfilerMBean extends OService {
 
   long getCounter(String iStatName);
 
+  /**
+   * Returns handle of counter which is updated without lookup by name. Handle is created on first call, next calls with the same
+   * name return the same handle.
+   */
+  OProfilerCounter registerCounter(String iName, String iDescription, String iDictionary);
+
+  /**
+   * Returns handle of chrono which keeps histogram of elapsed times. Handle is created on first call, next calls with the same name
+   * return the same handle.
+   */
+  OProfilerChrono registerChrono(String iName, String iDescription, String iDictionary);
+
   String dump();
 
   String dumpCounters();
@@ -124,6 +124,14 @@ public enum OGlobalConfiguration {
 
   WAL_COMMIT_TIMEOUT("storage.wal.commitTimeout", "Maximum interval between WAL commits (in ms.)", Integer.class, 1000),
 
+  WAL_GROUP_COMMIT("storage.wal.groupCommit",
+      "Transaction commit returns only when WAL records of transaction are written and synced on disk. WAL records of transactions committed concurrently are flushed by single write and fsync",
+      Boolean.class, false),
+
+  WAL_GROUP_COMMIT_WINDOW("storage.wal.groupCommitWindow",
+      "Interval (in microseconds) WAL flusher waits for other transactions to join the group before WAL records are written and synced, 0 means no wait",
+      Integer.class, 0),
+
   WAL_SHUTDOWN_TIMEOUT("storage.wal.shutdownTimeout", "Maximum wait interval between events when background flush thread"
       + " will receive shutdown command and when background flush will be stopped (in ms.)", Integer.class, 10000),
 
@@ -160,15 +168,38 @@ public enum OGlobalConfiguration {
   STORAGE_MAKE_FULL_CHECKPOINT_AFTER_CLUSTER_CREATE("storage.makeFullCheckpointAfterClusterCreate",
       "Indicates whether full checkpoint should be performed if storage was opened.", Boolean.class, true),
 
+  STORAGE_BACKUP_THREADS("storage.backup.threads",
+      "Amount of threads which read and compress pages during online backup. 0 means amount of cores", Integer.class, 0),
+
   DISK_CACHE_PAGE_SIZE("storage.diskCache.pageSize", "Size of page of disk buffer in kilobytes,!!! NEVER CHANGE THIS VALUE !!!",
       Integer.class, 64),
 
+  DISK_CACHE_PARTITIONS("storage.diskCache.partitions",
+      "Amount of partitions of read cache, each of them is evicted independently. 0 means 4 partitions per CPU core, "
+          + "amount is rounded down to power of two and limited by size of cache", Integer.class, 0),
+
+  DISK_CACHE_FILE_TYPE("storage.diskCache.fileType",
+      "Type of files used by disk cache of paginated storage: 'classic' reads pages through file channel, "
+          + "'mmap' copies pages from memory mapped regions of files", String.class, "classic"),
+
+  DISK_CACHE_PAGE_COMPRESSION("storage.diskCache.pageCompression",
+      "Compression of pages of files created by disk cache of paginated storage: 'nothing' (default), 'snappy', 'gzip', "
+          + "'low-zip' or 'high-zip'. Compressed files are always accessed through file channel, existing files keep the "
+          + "compression they were created with", String.class, "nothing"),
+
   PAGINATED_STORAGE_LOWEST_FREELIST_BOUNDARY("storage.lowestFreeListBound", "The minimal amount of free space (in kb)"
       + " in page which is tracked in paginated storage", Integer.class, 16),
 
   STORAGE_USE_CRC32_FOR_EACH_RECORD("storage.cluster.usecrc32",
       "Indicates whether crc32 should be used for each record to check record integrity.", Boolean.class, false),
 
+  STORAGE_CLUSTER_COMPACTION_PAGE_FILL("storage.cluster.compaction.pageFill",
+      "Records are moved out of cluster pages filled by less than this percent during cluster compaction", Integer.class, 50),
+
+  STORAGE_CLUSTER_COMPACTION_RATE("storage.cluster.compaction.rate",
+      "Maximum amount of kilobytes of records moved per second during cluster compaction. 0 means no limit", Integer.class,
+      4096),
+
   STORAGE_LOCK_TIMEOUT("storage.lockTimeout", "Maximum timeout in milliseconds to lock the storage", Integer.class, 0),
 
   STORAGE_RECORD_LOCK_TIMEOUT("storage.record.lockTimeout", "Maximum timeout in milliseconds to lock a shared record",
@@ -212,6 +243,9 @@ public enum OGlobalConfiguration {
       OMetadataDefault.CLUSTER_MANUAL_INDEX_NAME),
 
   // TRANSACTIONS
+  TX_CONCURRENT_COMMIT("tx.concurrentCommit",
+      "Allows transactions which modify different clusters and indexes to be committed in parallel. If disabled, whole storage "
+          + "is locked exclusively during transaction commit", Boolean.class, true),
 
   // INDEX
   INDEX_EMBEDDED_TO_SBTREEBONSAI_THRESHOLD("index.embeddedToSbtreeBonsaiThreshold",
@@ -249,6 +283,18 @@ public enum OGlobalConfiguration {
 
   INDEX_CURSOR_PREFETCH_SIZE("index.cursor.prefetchSize", "Default prefetch size of index cursor", Integer.class, 500000),
 
+  INDEX_BULK_LOAD_BUFFER_SIZE("index.bulkLoadBufferSize",
+      "Maximum amount of index entries which are sorted in memory during index creation or rebuild. Bigger indexes are sorted "
+          + "in several runs which are stored in temporary files. 0 disables sorting and bulk load", Integer.class, 500000),
+
+  INDEX_REBUILD_THREADS("index.rebuild.threads",
+      "Amount of threads which scan clusters and sort keys during index creation or rebuild. 0 means amount of cores",
+      Integer.class, 0),
+
+  INDEX_BLOOM_FILTER_BITS_PER_KEY("index.bloomFilter.bitsPerKey",
+      "Amount of bits per expected key of Bloom filter of index, is used for indexes created with 'bloomFilterKeys' metadata. "
+          + "10 bits give about 1% of false positives", Integer.class, 10),
+
   // SBTREE
   SBTREE_MAX_DEPTH("sbtree.maxDepth",
       "Maximum depth of sbtree which will be traversed during key look up till it will be treated like broken (64 by default)",
@@ -261,6 +307,14 @@ public enum OGlobalConfiguration {
       "Maximum size of value which can be put in SBTree without creation link to standalone page in bytes (40960 by default)",
       Integer.class, 40960),
 
+  SBTREE_PREFIX_COMPRESSION("sbtree.prefixCompression",
+      "Store part of keys which is shared by all keys of SBTree bucket only once per bucket. Applied to new buckets only",
+      Boolean.class, false),
+
+  SBTREE_BULK_LOAD_FILL_FACTOR("sbtree.bulkLoadFillFactor",
+      "Percent of bucket space which is filled by entries when SBTree is bulk loaded during index creation or rebuild",
+      Integer.class, 90),
+
   SBTREEBONSAI_BUCKET_SIZE("sbtreebonsai.bucketSize",
       "Size of bucket in OSBTreeBonsai in kB. Contract: bucketSize < storagePageSize, storagePageSize % bucketSize == 0.",
       Integer.class, 2),
@@ -293,6 +347,10 @@ public enum OGlobalConfiguration {
   // FILE
   FILE_LOCK("file.lock", "Locks files when used. Default is true", boolean.class, true),
 
+  FILE_MMAP_WINDOW_SIZE("file.mmap.windowSize",
+      "Size (in megabytes) of region of file which is mapped at once by 'mmap' file type, only completely filled regions are mapped",
+      Integer.class, 64),
+
   FILE_DELETE_DELAY("file.deleteDelay", "Delay time in ms to wait for another attempt to delete a locked file", Integer.class, 10),
 
   FILE_DELETE_RETRY("file.deleteRetry", "Number of retries to delete a locked file", Integer.class, 50),
@@ -331,6 +389,22 @@ public enum OGlobalConfiguration {
 
   NETWORK_BINARY_DEBUG("network.binary.debug", "Debug mode: print all data incoming on the binary channel", Boolean.class, false),
 
+  NETWORK_BINARY_SELECTOR("network.binary.selector",
+      "Serve binary connections by a pool of worker threads and park idle connections in a NIO selector instead of using a thread per connection",
+      Boolean.class, false),
+
+  NETWORK_BINARY_SELECTOR_WORKERS("network.binary.selector.workers",
+      "Number of worker threads which execute requests of binary connections when network.binary.selector is enabled",
+      Integer.class, Runtime.getRuntime().availableProcessors() * 8),
+
+  NETWORK_BINARY_MULTIPLEX("network.binary.multiplex",
+      "Allow clients to switch binary connections to multiplexed mode, in which requests of different sessions sent over the same connection are executed concurrently",
+      Boolean.class, true),
+
+  NETWORK_BINARY_MULTIPLEX_WORKERS("network.binary.multiplex.workers",
+      "Number of worker threads which execute requests received by multiplexed binary connections", Integer.class, Runtime
+          .getRuntime().availableProcessors() * 8),
+
   NETWORK_HTTP_MAX_CONTENT_LENGTH("network.http.maxLength", "TCP/IP max content length in bytes for HTTP requests", Integer.class,
       1000000),
 
@@ -393,12 +467,42 @@ public enum OGlobalConfiguration {
       "If total number of returned records in a query is major than this threshold a warning is given. Use 0 to disable it",
       Long.class, 10000),
 
+  QUERY_STATEMENT_CACHE_SIZE("query.statementCacheSize",
+      "Amount of parsed SELECT statements kept per database for reuse by next executions of the same text. Use 0 to disable it",
+      Integer.class, 500),
+
+  QUERY_COMPILE_CONDITIONS("query.compileConditions",
+      "Compiles WHERE condition of queries which scan a whole class in to evaluators specialized on the types of its properties",
+      Boolean.class, false),
+
+  QUERY_PARALLEL_MORSEL_SIZE("query.parallelMorselSize",
+      "Amount of records or cluster positions which are passed at once to a worker thread during execution of PARALLEL query",
+      Integer.class, 512),
+
+  QUERY_LIVE_DISPATCHER_THREADS("query.live.dispatcherThreads",
+      "Number of threads which deliver record changes to live query subscribers. Subscribers are partitioned between threads",
+      Integer.class, Math.min(4, Runtime.getRuntime().availableProcessors())),
+
+  QUERY_LIVE_QUEUE_SIZE("query.live.queueSize", "Maximum amount of record changes waiting for delivery in each live query thread",
+      Integer.class, 10000),
+
+  QUERY_LIVE_QUEUE_OVERFLOW("query.live.queueOverflow",
+      "What to do when queue of live query thread is full: 'block' makes the writer wait for free space, 'discard' drops the change",
+      String.class, "block"),
+
   /**
    * Maximum size of pool of network channels between client and server. A channel is a TCP/IP connection.
    */
   CLIENT_CHANNEL_MAX_POOL("client.channel.maxPool",
       "Maximum size of pool of network channels between client and server. A channel is a TCP/IP connection.", Integer.class, 100),
 
+  /**
+   * Sends requests of all the threads over one network channel per server instead of using the pool of channels.
+   */
+  CLIENT_CHANNEL_MULTIPLEX("client.channel.multiplex",
+      "Send requests of all the threads over one network channel per server. Requests and responses are tagged by request id, so the server executes requests of different sessions concurrently. Servers which do not support it are used by the pool of channels",
+      Boolean.class, false),
+
   /**
    * Maximum time which client should wait a connection from the pool when all connection are used.
    */
@@ -408,6 +512,21 @@ public enum OGlobalConfiguration {
   CLIENT_DB_RELEASE_WAIT_TIMEOUT("client.channel.dbReleaseWaitTimeout",
       "Delay in ms. after which data modification command will be resent if DB was frozen", Integer.class, 10000),
 
+  /**
+   * Maximum number of asynchronous record creations, updates and deletions which are sent to the server in one request. 0
+   * disables batching.
+   */
+  CLIENT_RECORD_BATCH_SIZE("client.recordBatch.size",
+      "Maximum number of asynchronous record creations, updates and deletions which are sent to the server in one request. 0 disables batching",
+      Integer.class, 0),
+
+  CLIENT_RECORD_BATCH_TIMEOUT("client.recordBatch.timeout",
+      "Maximum time in ms. an asynchronous record operation waits in batch before it is sent to the server", Integer.class, 10),
+
+  CLIENT_RECORD_BATCH_ATOMIC("client.recordBatch.atomic",
+      "Executes batch of record operations on the server as single transaction, otherwise every operation is executed separately",
+      Boolean.class, true),
+
   CLIENT_USE_SSL("client.ssl.enabled", "Use SSL for client connections", Boolean.class, false),
 
   CLIENT_SSL_KEYSTORE("client.ssl.keyStore", "Use SSL for client connections", String.class, null),
@@ -453,9 +572,29 @@ public enum OGlobalConfiguration {
   DISTRIBUTED_DEPLOYDB_TASK_COMPRESSION("distributed.deployDbTaskCompression",
       "Compression level between 0 and 9 to use in backup for database deployment", Integer.class, 7),
 
+  DISTRIBUTED_DEPLOYDB_DELTA("distributed.deployDbDelta",
+      "Deploys to a restarting node only the pages changed since its last synchronization, as long as the WAL of both nodes "
+          + "contains them. Otherwise the whole database is deployed", Boolean.class, true),
+
   DISTRIBUTED_QUEUE_TIMEOUT("distributed.queueTimeout", "Maximum timeout in milliseconds to wait for the response in replication",
       Long.class, 5000l),
 
+  DISTRIBUTED_BATCH_SIZE("distributed.batchSize",
+      "Maximum number of replication requests and responses sent to a node in one message. 1 = no batching", Integer.class, 1),
+
+  DISTRIBUTED_BATCH_DELAY("distributed.batchDelay",
+      "Maximum time in milliseconds to wait for more replication requests before sending a batch that is not full. "
+          + "0 = send pending requests as soon as the previous batch has been sent", Integer.class, 0),
+
+  DISTRIBUTED_BATCH_COMPRESSION("distributed.batchCompression",
+      "Compression of replication batches. Supported: 'nothing', 'snappy', 'gzip', 'low-zip', 'high-zip'", String.class,
+      "nothing"),
+
+  DISTRIBUTED_QUERY_PUSH_DOWN_LIMIT("distributed.queryPushDownLimit",
+      "Sharded queries with SKIP or LIMIT ask every server for its first SKIP+LIMIT records and apply SKIP and LIMIT to the merged "
+          + "result. Enable it only when all the servers support it, servers of older versions apply the SKIP of the query",
+      Boolean.class, false),
+
   DISTRIBUTED_ASYNCH_QUEUE_SIZE("distributed.asynchQueueSize",
       "Queue size to handle distributed asynchronous operations. 0 = dynamic allocation (up to 2^31-1 entries)", Integer.class, 0),
 
@@ -491,6 +630,10 @@ public enum OGlobalConfiguration {
   DB_DOCUMENT_SERIALIZER("db.document.serializer", "The default record serializer used by the document database", String.class,
       ORecordSerializerBinary.NAME),
 
+  DB_DOCUMENT_SERIALIZER_BINARY_VERSION("db.document.serializer.binary.version",
+      "Version of binary record format used by new databases. 0 can be read by all releases, 1 adds directory of fields which"
+          + " speeds up partial read of documents with many fields", Integer.class, 0),
+
   @Deprecated
   LAZYSET_WORK_ON_STREAM("lazyset.workOnStream", "Deprecated, now BINARY serialization is used in place of CSV", Boolean.class,
       true),
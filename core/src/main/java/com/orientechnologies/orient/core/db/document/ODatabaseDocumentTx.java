@@ -501,6 +501,7 @@ public class ODatabaseDocumentTx extends OListenerManger<ODatabaseListener> impl
     db.initialized = true;
     db.storage = storage;
     db.storage.addUser();
+    db.componentsFactory = componentsFactory;
     db.setStatus(STATUS.OPEN);
     db.activateOnCurrentThread();
     db.metadata.load();
@@ -2806,7 +2807,7 @@ public class ODatabaseDocumentTx extends OListenerManger<ODatabaseListener> impl
     serializer = serializerFactory.getFormat(serializeName);
     if (serializer == null)
       throw new ODatabaseException("RecordSerializer with name '" + serializeName + "' not found ");
-    if (getStorage().getConfiguration().getRecordSerializerVersion() > serializer.getMinSupportedVersion())
+    if (getStorage().getConfiguration().getRecordSerializerVersion() > serializer.getMaxSupportedVersion())
       throw new ODatabaseException("Persistent record serializer version is not support by the current implementation");
 
     componentsFactory = getStorage().getComponentsFactory();
@@ -154,6 +154,17 @@ public class ORidBag implements OStringBuilderSerializable, Iterable<OIdentifiab
     return delegate.rawIterator();
   }
 
+  /**
+   * Iterator without conversion to records which reads links of tree based bags in batches, see
+   * {@link OSBTreeRidBag#rawBatchIterator()}. It is preferable for bags with a lot of links, like edges of super nodes.
+   */
+  public Iterator<OIdentifiable> rawBatchIterator() {
+    if (delegate instanceof OSBTreeRidBag)
+      return ((OSBTreeRidBag) delegate).rawBatchIterator();
+
+    return delegate.rawIterator();
+  }
+
   @Override
   public void convertLinks2Records() {
     delegate.convertLinks2Records();
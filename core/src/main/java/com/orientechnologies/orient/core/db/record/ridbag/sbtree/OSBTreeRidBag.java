@@ -73,6 +73,8 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.ORidBagUpd
  * @author Artem Orobets (enisher-at-gmail.com)
  */
 public class OSBTreeRidBag implements ORidBagDelegate {
+  private static final int                                             BATCH_SIZE          = 1000;
+
   private final OSBTreeCollectionManager                               collectionManager   = ODatabaseRecordThreadLocal.INSTANCE
                                                                                                .get().getSbTreeCollectionManager();
   private final NavigableMap<OIdentifiable, Change>                    changes             = new ConcurrentSkipListMap<OIdentifiable, Change>();
@@ -524,6 +526,198 @@ public class OSBTreeRidBag implements ORidBagDelegate {
     }
   }
 
+  /**
+   * Cursor which reads links stored in the tree page by page into primitive arrays, so iteration over big bags does not re-enter
+   * the tree for each link and does not create intermediate objects. Links contained several times in the bag are repeated in the
+   * batch. Changes of the bag which are not saved yet are not visible to the cursor.
+   */
+  public final class RIDBatchCursor implements OResettable {
+    private final int[]    clusterIds;
+    private final long[]   clusterPositions;
+    private final int[]    treeClusterIds;
+    private final long[]   treeClusterPositions;
+    private final int[]    treeCounters;
+    private int            size;
+    private int            treeSize;
+    private int            treeIndex;
+    private boolean        treeExhausted;
+    private OIdentifiable  lastKey;
+
+    private RIDBatchCursor(int batchSize) {
+      clusterIds = new int[batchSize];
+      clusterPositions = new long[batchSize];
+      treeClusterIds = new int[batchSize];
+      treeClusterPositions = new long[batchSize];
+      treeCounters = new int[batchSize];
+
+      reset();
+    }
+
+    /**
+     * Loads next batch of links.
+     *
+     * @return false if there are no more links in the bag
+     */
+    public boolean next() {
+      size = 0;
+      while (size < clusterIds.length) {
+        if (treeIndex == treeSize && !fetchTreeEntries())
+          break;
+
+        final int count = Math.min(treeCounters[treeIndex], clusterIds.length - size);
+        for (int i = 0; i < count; i++) {
+          clusterIds[size] = treeClusterIds[treeIndex];
+          clusterPositions[size] = treeClusterPositions[treeIndex];
+          size++;
+        }
+
+        treeCounters[treeIndex] -= count;
+        if (treeCounters[treeIndex] == 0)
+          treeIndex++;
+      }
+
+      return size > 0;
+    }
+
+    /**
+     * @return number of links in the current batch
+     */
+    public int size() {
+      return size;
+    }
+
+    public int getClusterId(int index) {
+      return clusterIds[index];
+    }
+
+    public long getClusterPosition(int index) {
+      return clusterPositions[index];
+    }
+
+    @Override
+    public void reset() {
+      size = 0;
+      treeSize = 0;
+      treeIndex = 0;
+      treeExhausted = collectionPointer == null;
+      lastKey = null;
+    }
+
+    private boolean fetchTreeEntries() {
+      if (treeExhausted)
+        return false;
+
+      final OSBTreeBonsai<OIdentifiable, Integer> tree = loadTree();
+      try {
+        if (lastKey == null) {
+          lastKey = tree.firstKey();
+          treeSize = lastKey != null ? loadTreeEntries(tree, true) : 0;
+        } else
+          treeSize = loadTreeEntries(tree, false);
+      } finally {
+        releaseTree();
+      }
+
+      treeIndex = 0;
+      if (treeSize < treeClusterIds.length)
+        treeExhausted = true;
+
+      if (treeSize == 0)
+        return false;
+
+      lastKey = new ORecordId(treeClusterIds[treeSize - 1], treeClusterPositions[treeSize - 1]);
+      return true;
+    }
+
+    private int loadTreeEntries(final OSBTreeBonsai<OIdentifiable, Integer> tree, final boolean inclusive) {
+      if (tree instanceof OSBTreeBonsaiLocal)
+        return ((OSBTreeBonsaiLocal<OIdentifiable, Integer>) tree).loadLinksMajor(lastKey, inclusive, treeClusterIds,
+            treeClusterPositions, treeCounters);
+
+      final OModifiableInteger loaded = new OModifiableInteger();
+      tree.loadEntriesMajor(lastKey, inclusive, true, new OTreeInternal.RangeResultListener<OIdentifiable, Integer>() {
+        @Override
+        public boolean addResult(final Map.Entry<OIdentifiable, Integer> entry) {
+          final ORID rid = entry.getKey().getIdentity();
+          treeClusterIds[loaded.value] = rid.getClusterId();
+          treeClusterPositions[loaded.value] = rid.getClusterPosition();
+          treeCounters[loaded.value] = entry.getValue();
+          loaded.increment();
+
+          return loaded.value < treeClusterIds.length;
+        }
+      });
+
+      return loaded.value;
+    }
+  }
+
+  private final class RIDBatchIterator implements Iterator<OIdentifiable>, OResettable, OSizeable, OAutoConvertToRecord {
+    private final RIDBatchCursor cursor;
+    private int                  index;
+    private ORecordId            currentValue;
+    private boolean              convertToRecord;
+
+    private RIDBatchIterator(RIDBatchCursor cursor, boolean convertToRecord) {
+      this.cursor = cursor;
+      this.convertToRecord = convertToRecord;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (index < cursor.size())
+        return true;
+
+      index = 0;
+      return cursor.next();
+    }
+
+    @Override
+    public OIdentifiable next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+
+      currentValue = new ORecordId(cursor.getClusterId(index), cursor.getClusterPosition(index));
+      index++;
+
+      if (convertToRecord)
+        return currentValue.getRecord();
+
+      return currentValue;
+    }
+
+    @Override
+    public void remove() {
+      if (currentValue == null)
+        throw new IllegalStateException("Next method was not called for given iterator");
+
+      OSBTreeRidBag.this.remove(currentValue);
+      currentValue = null;
+    }
+
+    @Override
+    public void reset() {
+      cursor.reset();
+      index = 0;
+      currentValue = null;
+    }
+
+    @Override
+    public int size() {
+      return OSBTreeRidBag.this.size();
+    }
+
+    @Override
+    public boolean isAutoConvertToRecord() {
+      return convertToRecord;
+    }
+
+    @Override
+    public void setAutoConvertToRecord(final boolean convertToRecord) {
+      this.convertToRecord = convertToRecord;
+    }
+  }
+
   public OSBTreeRidBag() {
     collectionPointer = null;
   }
@@ -554,6 +748,31 @@ public class OSBTreeRidBag implements ORidBagDelegate {
         collectionPointer != null ? new SBTreeMapEntryIterator(1000) : null, false);
   }
 
+  /**
+   * Same as {@link #rawIterator()}, but links stored in the tree are read in batches by {@link RIDBatchCursor}. Falls back to
+   * {@link #rawIterator()} if the bag has not saved changes.
+   */
+  public Iterator<OIdentifiable> rawBatchIterator() {
+    if (collectionPointer == null || hasPendingChanges())
+      return rawIterator();
+
+    return new RIDBatchIterator(new RIDBatchCursor(BATCH_SIZE), false);
+  }
+
+  /**
+   * @return cursor which reads links of the bag in batches of given size, or null if the bag has changes which are not saved yet.
+   */
+  public RIDBatchCursor batchCursor(int batchSize) {
+    if (hasPendingChanges())
+      return null;
+
+    return new RIDBatchCursor(batchSize);
+  }
+
+  public boolean hasPendingChanges() {
+    return !newEntries.isEmpty() || !changes.isEmpty();
+  }
+
   @Override
   public void convertLinks2Records() {
     TreeMap<OIdentifiable, Change> newChanges = new TreeMap<OIdentifiable, Change>();
@@ -120,18 +120,22 @@ public class ODefaultIndexFactory implements OIndexFactory {
     else
       durableInNonTxMode = null;
 
+    long bloomFilterKeys = 0;
+    if (metadata != null && metadata.field("bloomFilterKeys") instanceof Number)
+      bloomFilterKeys = ((Number) metadata.field("bloomFilterKeys")).longValue();
+
     if (OClass.INDEX_TYPE.UNIQUE.toString().equals(indexType)) {
       return new OIndexUnique(indexType, SBTREE_ALGORITHM, new OSBTreeIndexEngine<OIdentifiable>(name, durableInNonTxMode, storage,
-          version), valueContainerAlgorithm, metadata);
+          version, bloomFilterKeys), valueContainerAlgorithm, metadata);
     } else if (OClass.INDEX_TYPE.NOTUNIQUE.toString().equals(indexType)) {
       return new OIndexNotUnique(indexType, SBTREE_ALGORITHM, new OSBTreeIndexEngine<Set<OIdentifiable>>(name, durableInNonTxMode,
-          storage, version), valueContainerAlgorithm, metadata);
+          storage, version, bloomFilterKeys), valueContainerAlgorithm, metadata);
     } else if (OClass.INDEX_TYPE.FULLTEXT.toString().equals(indexType)) {
       return new OIndexFullText(indexType, SBTREE_ALGORITHM, new OSBTreeIndexEngine<Set<OIdentifiable>>(name, durableInNonTxMode,
-          storage, version), valueContainerAlgorithm, metadata);
+          storage, version, bloomFilterKeys), valueContainerAlgorithm, metadata);
     } else if (OClass.INDEX_TYPE.DICTIONARY.toString().equals(indexType)) {
       return new OIndexDictionary(indexType, SBTREE_ALGORITHM, new OSBTreeIndexEngine<OIdentifiable>(name, durableInNonTxMode,
-          storage, version), valueContainerAlgorithm, metadata);
+          storage, version, bloomFilterKeys), valueContainerAlgorithm, metadata);
     }
 
     throw new OConfigurationException("Unsupported type : " + indexType);
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -37,10 +38,14 @@ import com.orientechnologies.common.concur.lock.ONewLockManager;
 import com.orientechnologies.common.concur.lock.OReadersWriterSpinLock;
 import com.orientechnologies.common.listener.OProgressListener;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.OProfilerChrono;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.annotation.ODocumentInstance;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordElement;
 import com.orientechnologies.orient.core.db.record.ridbag.sbtree.OIndexRIDContainer;
@@ -78,6 +83,7 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
   protected String                           type;
   protected String                           valueContainerAlgorithm;
   protected final ONewLockManager<Object>    keyLockManager   = new ONewLockManager<Object>();
+  protected final OProfilerChrono            lookupChrono;
 
   @ODocumentInstance
   protected final AtomicReference<ODocument> configuration    = new AtomicReference<ODocument>();
@@ -108,6 +114,8 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
     acquireExclusiveLock();
     try {
       databaseName = ODatabaseRecordThreadLocal.INSTANCE.get().getName();
+      lookupChrono = Orient.instance().getProfiler()
+          .registerChrono("db." + databaseName + ".index.get", "Lookup of key in index", "db.*.index.get");
       this.type = type;
       this.indexEngine = indexEngine;
       this.algorithm = algorithm;
@@ -415,11 +423,17 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
         if (iProgressListener != null)
           iProgressListener.onBegin(this, documentTotal, true);
 
-        // INDEX ALL CLUSTERS
-        for (final String clusterName : clustersToIndex) {
-          final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
-          documentNum += metrics[0];
-          documentIndexed += metrics[1];
+        final int bulkLoadBufferSize = OGlobalConfiguration.INDEX_BULK_LOAD_BUFFER_SIZE.getValueAsInteger();
+        if (bulkLoadBufferSize > 0 && getDatabase() instanceof ODatabaseDocumentTx
+            && OIndexRebuildSorter.isSupported(indexDefinition))
+          documentIndexed = indexSortedEntries(iProgressListener, documentTotal, bulkLoadBufferSize);
+        else {
+          // INDEX ALL CLUSTERS
+          for (final String clusterName : clustersToIndex) {
+            final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
+            documentNum += metrics[0];
+            documentIndexed += metrics[1];
+          }
         }
 
         if (iProgressListener != null)
@@ -852,6 +866,13 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
     modificationLock.requestModificationLock();
   }
 
+  /**
+   * @return full name of durable component which keeps data of this index or null if data are not kept in local storage
+   */
+  public String getDurableComponentName() {
+    return indexEngine.getDurableComponentName();
+  }
+
   public void releaseModificationLock() {
     try {
       modificationLock.releaseModificationLock();
@@ -1008,6 +1029,51 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
     }
   }
 
+  /**
+   * Scans clusters in parallel, sorts extracted entries and puts them in index in ascending order of keys, so index engine can bulk
+   * load them.
+   *
+   * @return Amount of indexed documents.
+   */
+  private long indexSortedEntries(final OProgressListener iProgressListener, final long documentTotal, final int bufferSize) {
+    final OIndexRebuildSorter sorter = new OIndexRebuildSorter(this, (ODatabaseDocumentTx) getDatabase(), clustersToIndex,
+        bufferSize, OGlobalConfiguration.INDEX_REBUILD_THREADS.getValueAsInteger());
+    try {
+      final long[] metrics = sorter.sort(iProgressListener, documentTotal);
+      final long entriesTotal = sorter.getEntriesCount();
+      long entriesIndexed = 0;
+
+      indexEngine.startBulkLoad();
+
+      final Iterator<Map.Entry<Object, ORID>> entries = sorter.iterator();
+      while (entries.hasNext()) {
+        if (Thread.interrupted())
+          throw new OCommandExecutionException("The index rebuild has been interrupted");
+
+        final Map.Entry<Object, ORID> entry = entries.next();
+        try {
+          put(entry.getKey(), entry.getValue());
+        } catch (OIndexException e) {
+          OLogManager.instance().error(
+              this,
+              "Exception during index rebuild. Exception was caused by following key/ value pair - key %s, value %s."
+                  + " Rebuild will continue from this point.", e, entry.getKey(), entry.getValue());
+        }
+
+        entriesIndexed++;
+
+        if (iProgressListener != null)
+          iProgressListener.onProgress(this, entriesIndexed, (float) (50.0 + entriesIndexed * 50.0 / entriesTotal));
+      }
+
+      indexEngine.endBulkLoad();
+
+      return metrics[1];
+    } finally {
+      sorter.close();
+    }
+  }
+
   protected long[] indexCluster(final String clusterName, final OProgressListener iProgressListener, long documentNum,
       long documentIndexed, long documentTotal) {
     try {
@@ -53,6 +53,12 @@ public interface OIndexEngine<V> {
 
   ORID getIdentity();
 
+  /**
+   * @return full name of durable component which keeps data of the index and is locked by changes of the index till the end of
+   *         atomic operation, or null if the data are not kept in local storage
+   */
+  String getDurableComponentName();
+
   void clear();
 
   void close();
@@ -61,6 +67,15 @@ public interface OIndexEngine<V> {
 
   void put(Object key, V value);
 
+  /**
+   * Called before index is filled during its creation or rebuild, allows engine to collect and sort entries before they are put in
+   * index. Entries should be visible through {@link #get(Object)} and {@link #contains(Object)} till {@link #endBulkLoad()} is
+   * called.
+   */
+  void startBulkLoad();
+
+  void endBulkLoad();
+
   public Object getFirstKey();
 
   public Object getLastKey();
@@ -38,6 +38,7 @@ import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.metadata.security.OSecurityNull;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OSQLStatementCache;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 
@@ -244,6 +245,16 @@ public class OIndexManagerShared extends OIndexManagerAbstract implements OIndex
     return this;
   }
 
+  @Override
+  protected void releaseExclusiveLock() {
+    super.releaseExclusiveLock();
+
+    // PARSED STATEMENTS MAY REFER TO THE CHANGED INDEXES
+    final ODatabaseDocumentInternal database = getDatabaseIfDefined();
+    if (database != null && !database.isClosed())
+      OSQLStatementCache.invalidateCache(database.getStorage());
+  }
+
   /**
    * Binds POJO to ODocument.
    */
@@ -68,6 +68,7 @@ public abstract class OIndexMultiValues extends OIndexAbstract<Set<OIdentifiable
     try {
 
       acquireSharedLock();
+      final long timer = lookupChrono.start();
       try {
 
         final Set<OIdentifiable> values = indexEngine.get(key);
@@ -78,6 +79,7 @@ public abstract class OIndexMultiValues extends OIndexAbstract<Set<OIdentifiable
         return new HashSet<OIdentifiable>(values);
 
       } finally {
+        lookupChrono.stop(timer);
         releaseSharedLock();
       }
     } finally {
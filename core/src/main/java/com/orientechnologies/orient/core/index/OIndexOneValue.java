@@ -59,9 +59,11 @@ public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
       keyLockManager.acquireSharedLock(iKey);
     try {
       acquireSharedLock();
+      final long timer = lookupChrono.start();
       try {
         return indexEngine.get(iKey);
       } finally {
+        lookupChrono.stop(timer);
         releaseSharedLock();
       }
     } finally {
@@ -0,0 +1,549 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.listener.OProgressListener;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
+
+/**
+ * Extracts and sorts entries of index during its rebuild.
+ *
+ * Clusters are split on ranges of positions which are scanned in parallel. Every scan thread keeps up to
+ * {@code bufferSize / threads} entries in memory, once buffer is full its entries are sorted and stored as separate run in temporary
+ * file. Sorted runs are merged when entries are iterated, so index receives keys in ascending order and may bulk load them.
+ *
+ * Sorter is used by single rebuild and has to be closed to remove temporary files.
+ *
+ * @see OIndexEngine#startBulkLoad()
+ */
+public class OIndexRebuildSorter {
+  private static final int                      MIN_RANGE_SIZE   = 10000;
+
+  private static final byte                     NULL_KEY         = 0;
+  private static final byte                     SIMPLE_KEY       = 1;
+  private static final byte                     COMPOSITE_KEY    = 2;
+
+  private static final Comparator<Entry>        ENTRY_COMPARATOR = new Comparator<Entry>() {
+                                                                   @Override
+                                                                   public int compare(Entry entryOne, Entry entryTwo) {
+                                                                     final int result = ODefaultComparator.INSTANCE.compare(
+                                                                         entryOne.key, entryTwo.key);
+                                                                     if (result != 0)
+                                                                       return result;
+
+                                                                     return entryOne.rid.compareTo(entryTwo.rid);
+                                                                   }
+                                                                 };
+
+  private final OIndexInternal<?>               index;
+  private final OIndexDefinition                indexDefinition;
+  private final OType[]                         keyTypes;
+  private final ODatabaseDocumentTx             database;
+  private final Collection<String>              clustersToIndex;
+  private final int                             threads;
+  private final int                             threadBufferSize;
+
+  private final ConcurrentLinkedQueue<Range>    ranges           = new ConcurrentLinkedQueue<Range>();
+  private final List<List<Entry>>               memoryRuns       = Collections.synchronizedList(new ArrayList<List<Entry>>());
+  private final List<FileRun>                   fileRuns         = Collections.synchronizedList(new ArrayList<FileRun>());
+
+  private final AtomicLong                      documentNum      = new AtomicLong();
+  private final AtomicLong                      documentIndexed  = new AtomicLong();
+  private final AtomicLong                      entriesCount     = new AtomicLong();
+
+  private OProgressListener                     progressListener;
+  private long                                  documentTotal;
+
+  public OIndexRebuildSorter(final OIndexInternal<?> index, final ODatabaseDocumentTx database,
+      final Collection<String> clustersToIndex, final int bufferSize, final int threads) {
+    this.index = index;
+    this.indexDefinition = index.getDefinition();
+    this.keyTypes = indexDefinition.getTypes();
+    this.database = database;
+    this.clustersToIndex = clustersToIndex;
+    this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.threadBufferSize = Math.max(1, bufferSize / this.threads);
+  }
+
+  /**
+   * Checks whether keys of index can be sorted by this class, they should be stored in temporary files if amount of entries exceeds
+   * size of buffer.
+   */
+  public static boolean isSupported(final OIndexDefinition indexDefinition) {
+    if (indexDefinition == null || indexDefinition instanceof ORuntimeKeyIndexDefinition)
+      return false;
+
+    final OType[] types = indexDefinition.getTypes();
+    if (types == null || types.length == 0)
+      return false;
+
+    final OBinarySerializerFactory serializerFactory = OBinarySerializerFactory.getInstance();
+    for (OType type : types)
+      if (type == null || serializerFactory.getObjectSerializer(type) == null)
+        return false;
+
+    return true;
+  }
+
+  /**
+   * Scans clusters and sorts extracted entries. Progress of scan is reported as first half of index rebuild.
+   *
+   * @return Amount of scanned documents and amount of indexed documents.
+   */
+  public long[] sort(final OProgressListener progressListener, final long documentTotal) {
+    this.progressListener = progressListener;
+    this.documentTotal = documentTotal;
+
+    splitClusters();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private final AtomicInteger counter = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        final Thread thread = new Thread(r);
+        thread.setDaemon(true);
+        thread.setName("OrientDB Index Rebuild Task (" + index.getName() + ") " + counter.incrementAndGet());
+        return thread;
+      }
+    });
+
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>(threads);
+      for (int i = 0; i < threads; i++)
+        futures.add(executor.submit(new ClusterScanner()));
+
+      for (Future<Void> future : futures)
+        future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OCommandExecutionException("The index rebuild has been interrupted");
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+
+      throw new OIndexException("Error during scan of clusters " + clustersToIndex + " of index " + index.getName(), cause);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return new long[] { documentNum.get(), documentIndexed.get() };
+  }
+
+  /**
+   * @return Amount of entries extracted from documents.
+   */
+  public long getEntriesCount() {
+    return entriesCount.get();
+  }
+
+  /**
+   * @return Entries sorted by key and rid of document, keys are already transformed by collate of index.
+   */
+  public Iterator<Map.Entry<Object, ORID>> iterator() {
+    final PriorityQueue<RunCursor> queue = new PriorityQueue<RunCursor>(Math.max(1, memoryRuns.size() + fileRuns.size()),
+        new Comparator<RunCursor>() {
+          @Override
+          public int compare(RunCursor cursorOne, RunCursor cursorTwo) {
+            return ENTRY_COMPARATOR.compare(cursorOne.current, cursorTwo.current);
+          }
+        });
+
+    try {
+      for (List<Entry> run : memoryRuns) {
+        final RunCursor cursor = new RunCursor(run.iterator());
+        if (cursor.next())
+          queue.add(cursor);
+      }
+
+      for (FileRun run : fileRuns) {
+        final RunCursor cursor = new RunCursor(run.open());
+        if (cursor.next())
+          queue.add(cursor);
+      }
+    } catch (IOException e) {
+      throw new OIndexException("Error during reading of sorted entries of index " + index.getName(), e);
+    }
+
+    return new Iterator<Map.Entry<Object, ORID>>() {
+      @Override
+      public boolean hasNext() {
+        return !queue.isEmpty();
+      }
+
+      @Override
+      public Map.Entry<Object, ORID> next() {
+        final RunCursor cursor = queue.poll();
+        if (cursor == null)
+          throw new NoSuchElementException();
+
+        final Entry entry = cursor.current;
+        if (cursor.next())
+          queue.add(cursor);
+
+        return entry;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException("remove");
+      }
+    };
+  }
+
+  /**
+   * Removes temporary files of sorted runs.
+   */
+  public void close() {
+    memoryRuns.clear();
+
+    synchronized (fileRuns) {
+      for (FileRun run : fileRuns)
+        run.delete();
+
+      fileRuns.clear();
+    }
+  }
+
+  private void splitClusters() {
+    for (String clusterName : clustersToIndex) {
+      final int clusterId = database.getClusterIdByName(clusterName);
+      if (clusterId < 0)
+        continue;
+
+      final long[] range = database.getStorage().getClusterDataRange(clusterId);
+      if (range[0] < 0 || range[1] < 0)
+        continue;
+
+      final long rangeSize = Math.max(MIN_RANGE_SIZE, (range[1] - range[0] + threads) / threads);
+      for (long first = range[0]; first <= range[1]; first += rangeSize)
+        ranges.add(new Range(clusterId, first, Math.min(range[1], first + rangeSize - 1)));
+    }
+  }
+
+  private void addEntry(final List<Entry> buffer, final Object key, final ORID rid) throws IOException {
+    buffer.add(new Entry(index.getCollatingValue(key), rid));
+    entriesCount.incrementAndGet();
+
+    if (buffer.size() >= threadBufferSize)
+      spill(buffer);
+  }
+
+  private void spill(final List<Entry> buffer) throws IOException {
+    Collections.sort(buffer, ENTRY_COMPARATOR);
+
+    final FileRun run = new FileRun(File.createTempFile("orientdb-index-rebuild-", ".run"), buffer.size());
+    fileRuns.add(run);
+
+    final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run.file)));
+    try {
+      for (Entry entry : buffer)
+        writeEntry(out, entry);
+    } finally {
+      out.close();
+    }
+
+    buffer.clear();
+  }
+
+  private void writeEntry(final DataOutputStream out, final Entry entry) throws IOException {
+    final Object key = entry.key;
+
+    if (key == null)
+      out.writeByte(NULL_KEY);
+    else {
+      final OCompositeKey compositeKey;
+      if (key instanceof OCompositeKey) {
+        out.writeByte(COMPOSITE_KEY);
+        compositeKey = (OCompositeKey) key;
+      } else {
+        out.writeByte(SIMPLE_KEY);
+        compositeKey = new OCompositeKey(key);
+      }
+
+      final byte[] stream = new byte[OCompositeKeySerializer.INSTANCE.getObjectSize(compositeKey, (Object[]) keyTypes)];
+      OCompositeKeySerializer.INSTANCE.serialize(compositeKey, stream, 0, (Object[]) keyTypes);
+
+      out.writeInt(stream.length);
+      out.write(stream);
+    }
+
+    out.writeInt(entry.rid.getClusterId());
+    out.writeLong(entry.rid.getClusterPosition());
+  }
+
+  private static Entry readEntry(final DataInputStream in) throws IOException {
+    final byte keyType = in.readByte();
+
+    final Object key;
+    if (keyType == NULL_KEY)
+      key = null;
+    else {
+      final byte[] stream = new byte[in.readInt()];
+      in.readFully(stream);
+
+      final OCompositeKey compositeKey = OCompositeKeySerializer.INSTANCE.deserialize(stream, 0);
+      if (keyType == SIMPLE_KEY)
+        key = compositeKey.getKeys().get(0);
+      else
+        key = compositeKey;
+    }
+
+    final int clusterId = in.readInt();
+    final long clusterPosition = in.readLong();
+
+    return new Entry(key, new ORecordId(clusterId, clusterPosition));
+  }
+
+  private void onDocumentScanned() {
+    final long scanned = documentNum.incrementAndGet();
+
+    if (progressListener != null && documentTotal > 0)
+      synchronized (progressListener) {
+        progressListener.onProgress(index, scanned, (float) (scanned * 50.0 / documentTotal));
+      }
+  }
+
+  /**
+   * Scans ranges of clusters till all of them are processed. Every scanner uses its own copy of database.
+   */
+  private final class ClusterScanner implements Callable<Void> {
+    @Override
+    public Void call() throws Exception {
+      final ODatabaseDocumentTx db = database.copy();
+      try {
+        final List<Entry> buffer = new ArrayList<Entry>();
+
+        Range range;
+        while ((range = ranges.poll()) != null)
+          scan(db, range, buffer);
+
+        Collections.sort(buffer, ENTRY_COMPARATOR);
+        memoryRuns.add(buffer);
+      } finally {
+        try {
+          db.close();
+        } catch (Exception e) {
+          OLogManager.instance().error(this, "Error during close of database used by index rebuild", e);
+        }
+      }
+
+      return null;
+    }
+
+    private void scan(final ODatabaseDocumentTx db, final Range range, final List<Entry> buffer) throws IOException {
+      final ORecordIteratorCluster<ORecord> iterator = new ORecordIteratorCluster<ORecord>(db, db, range.clusterId, range.first,
+          range.last, false);
+
+      try {
+        while (true) {
+          if (Thread.currentThread().isInterrupted())
+            throw new OCommandExecutionException("The index rebuild has been interrupted");
+
+          if (!iterator.hasNext())
+            break;
+
+          final ORecord record = iterator.next();
+
+          if (record instanceof ODocument) {
+            final ODocument document = (ODocument) record;
+            final Object fieldValue = indexDefinition.getDocumentValueToIndex(document);
+
+            if (fieldValue != null) {
+              final ORID rid = document.getIdentity().copy();
+
+              if (fieldValue instanceof Collection) {
+                for (final Object fieldValueItem : (Collection<?>) fieldValue)
+                  addEntry(buffer, fieldValueItem, rid);
+              } else
+                addEntry(buffer, fieldValue, rid);
+
+              documentIndexed.incrementAndGet();
+            }
+          }
+
+          onDocumentScanned();
+        }
+      } catch (NoSuchElementException e) {
+        // END OF CLUSTER REACHED, IGNORE IT
+      }
+    }
+  }
+
+  private static final class Range {
+    private final int  clusterId;
+    private final long first;
+    private final long last;
+
+    private Range(int clusterId, long first, long last) {
+      this.clusterId = clusterId;
+      this.first = first;
+      this.last = last;
+    }
+  }
+
+  private static final class Entry implements Map.Entry<Object, ORID> {
+    private final Object key;
+    private final ORID   rid;
+
+    private Entry(Object key, ORID rid) {
+      this.key = key;
+      this.rid = rid;
+    }
+
+    @Override
+    public Object getKey() {
+      return key;
+    }
+
+    @Override
+    public ORID getValue() {
+      return rid;
+    }
+
+    @Override
+    public ORID setValue(ORID value) {
+      throw new UnsupportedOperationException("setValue");
+    }
+  }
+
+  private static final class FileRun {
+    private final File      file;
+    private final int       size;
+    private DataInputStream in;
+
+    private FileRun(File file, int size) {
+      this.file = file;
+      this.size = size;
+    }
+
+    private Iterator<Entry> open() throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+      return new Iterator<Entry>() {
+        private int read = 0;
+
+        @Override
+        public boolean hasNext() {
+          return read < size;
+        }
+
+        @Override
+        public Entry next() {
+          if (read >= size)
+            throw new NoSuchElementException();
+
+          try {
+            final Entry entry = readEntry(in);
+            read++;
+
+            if (read == size)
+              closeInput();
+
+            return entry;
+          } catch (IOException e) {
+            throw new OIndexException("Error during reading of sorted entries from file " + file, e);
+          }
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException("remove");
+        }
+      };
+    }
+
+    private void closeInput() throws IOException {
+      if (in != null) {
+        in.close();
+        in = null;
+      }
+    }
+
+    private void delete() {
+      try {
+        closeInput();
+      } catch (IOException e) {
+        OLogManager.instance().error(this, "Error during close of temporary file %s of index rebuild", e, file);
+      }
+
+      if (file.exists() && !file.delete())
+        OLogManager.instance().warn(this, "Temporary file %s of index rebuild can not be deleted", file);
+    }
+  }
+
+  private static final class RunCursor {
+    private final Iterator<Entry> iterator;
+    private Entry                 current;
+
+    private RunCursor(Iterator<Entry> iterator) {
+      this.iterator = iterator;
+    }
+
+    private boolean next() {
+      if (!iterator.hasNext()) {
+        current = null;
+        return false;
+      }
+
+      current = iterator.next();
+      return true;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index.bloomfilter;
+
+import com.orientechnologies.common.hash.OMurmurHash3;
+
+/**
+ * Parameters of Bloom filter which is kept by index in separate file to answer lookups of absent keys without loading of index
+ * pages. Filter is split on pages of {@link OBloomFilterPage#BITS_PER_PAGE} bits, all bits of single key are set in the same
+ * page, so check of the key needs to load only one page. Keys are never removed from the filter, it is cleared when index is
+ * cleared or rebuilt.
+ * 
+ * Filter is enabled by <code>bloomFilterKeys</code> field of index metadata which contains expected amount of keys in index, size
+ * of the filter is calculated using <code>index.bloomFilter.bitsPerKey</code> setting.
+ */
+public class OBloomFilter {
+  public static final String FILE_EXTENSION = ".bfl";
+
+  private static final int   SEED           = 362498820;
+
+  private final int          pagesCount;
+  private final int          hashFunctions;
+
+  public OBloomFilter(int pagesCount, int hashFunctions) {
+    this.pagesCount = pagesCount;
+    this.hashFunctions = hashFunctions;
+  }
+
+  /**
+   * Creates filter sized for given amount of keys. 10 bits per key give about 1% of false positives.
+   */
+  public static OBloomFilter create(long expectedKeys, int bitsPerKey) {
+    final long bits = expectedKeys * bitsPerKey;
+    final long pagesCount = (bits + OBloomFilterPage.BITS_PER_PAGE - 1) / OBloomFilterPage.BITS_PER_PAGE;
+
+    return new OBloomFilter((int) Math.max(1, Math.min(Integer.MAX_VALUE, pagesCount)), Math.max(1,
+        (int) Math.round(bitsPerKey * Math.log(2))));
+  }
+
+  public static long hashCode(byte[] serializedKey) {
+    return OMurmurHash3.murmurHash3_x64_64(serializedKey, SEED);
+  }
+
+  public int getPagesCount() {
+    return pagesCount;
+  }
+
+  public int getHashFunctions() {
+    return hashFunctions;
+  }
+
+  /**
+   * @return index of the page in filter file which contains bits of the key, the first page of file is occupied by filter
+   *         parameters.
+   */
+  public long pageIndex(long hashCode) {
+    return 1 + ((hashCode >>> 32) % pagesCount);
+  }
+
+  /**
+   * @return index of bit in the page which is set by given hash function for the key, it is calculated by double hashing.
+   */
+  public int bitIndex(long hashCode, int function) {
+    final int hashOne = (int) hashCode;
+    final int hashTwo = (int) ((hashCode * 0x9E3779B97F4A7C15L) >>> 32) | 1;
+
+    return ((hashOne + function * hashTwo) & Integer.MAX_VALUE) % OBloomFilterPage.BITS_PER_PAGE;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index.bloomfilter;
+
+import java.io.IOException;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.index.hashindex.local.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurablePage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChangesTree;
+
+/**
+ * Page of the file of {@link OBloomFilter}. The first page of the file keeps parameters of the filter: amount of bit pages and
+ * amount of hash functions. The rest of pages are bit sets, every key sets its bits in a single page.
+ */
+public class OBloomFilterPage extends ODurablePage {
+  private static final int PAGES_COUNT_OFFSET    = NEXT_FREE_POSITION;
+  private static final int HASH_FUNCTIONS_OFFSET = PAGES_COUNT_OFFSET + OIntegerSerializer.INT_SIZE;
+
+  private static final int BITS_OFFSET           = NEXT_FREE_POSITION;
+  public static final int  BITS_PER_PAGE         = (MAX_PAGE_SIZE_BYTES - BITS_OFFSET) * 8;
+
+  public OBloomFilterPage(OCacheEntry cacheEntry, OWALChangesTree changesTree) {
+    super(cacheEntry, changesTree);
+  }
+
+  public int getPagesCount() {
+    return getIntValue(PAGES_COUNT_OFFSET);
+  }
+
+  public void setPagesCount(int pagesCount) throws IOException {
+    setIntValue(PAGES_COUNT_OFFSET, pagesCount);
+  }
+
+  public int getHashFunctions() {
+    return getIntValue(HASH_FUNCTIONS_OFFSET);
+  }
+
+  public void setHashFunctions(int hashFunctions) throws IOException {
+    setIntValue(HASH_FUNCTIONS_OFFSET, hashFunctions);
+  }
+
+  public boolean isBitSet(int bitIndex) {
+    return (getByteValue(BITS_OFFSET + (bitIndex >>> 3)) & (1 << (bitIndex & 7))) != 0;
+  }
+
+  public void setBit(int bitIndex) {
+    final int offset = BITS_OFFSET + (bitIndex >>> 3);
+
+    final byte value = getByteValue(offset);
+    final byte newValue = (byte) (value | (1 << (bitIndex & 7)));
+
+    if (newValue != value)
+      setByteValue(offset, newValue);
+  }
+}
@@ -33,12 +33,14 @@ import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.*;
 import com.orientechnologies.orient.core.index.hashindex.local.*;
 import com.orientechnologies.orient.core.iterator.OEmptyIterator;
+import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ORecordBytes;
 import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
 import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
 import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OSimpleKeySerializer;
 import com.orientechnologies.orient.core.serialization.serializer.stream.OStreamSerializer;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
 
 /**
  * @author Andrey Lomakin
@@ -57,8 +59,10 @@ public final class OHashTableIndexEngine<V> implements OIndexEngine<V> {
 
   private volatile ORID                          identity;
   private int                                    version;
+  private final long                             bloomFilterKeys;
 
-  public OHashTableIndexEngine(String name, Boolean durableInNonTxMode, OAbstractPaginatedStorage storage, int version) {
+  public OHashTableIndexEngine(String name, Boolean durableInNonTxMode, OAbstractPaginatedStorage storage, int version,
+      long bloomFilterKeys) {
     hashFunction = new OMurmurHash3HashFunction<Object>();
 
     boolean durableInNonTx;
@@ -68,6 +72,7 @@ public final class OHashTableIndexEngine<V> implements OIndexEngine<V> {
       durableInNonTx = durableInNonTxMode;
 
     this.version = version;
+    this.bloomFilterKeys = bloomFilterKeys;
     if (version < 2)
       hashTable = new OLocalHashTable20<Object, V>(name, METADATA_FILE_EXTENSION, TREE_FILE_EXTENSION, BUCKET_FILE_EXTENSION,
           NULL_BUCKET_FILE_EXTENSION, hashFunction, durableInNonTx, storage);
@@ -105,8 +110,14 @@ public final class OHashTableIndexEngine<V> implements OIndexEngine<V> {
     identity = identityRecord.getIdentity();
 
     hashFunction.setValueSerializer(keySerializer);
-    hashTable.create(keySerializer, (OBinarySerializer<V>) valueSerializer, indexDefinition != null ? indexDefinition.getTypes()
-        : null, indexDefinition != null && !indexDefinition.isNullValuesIgnored());
+
+    final OType[] keyTypes = indexDefinition != null ? indexDefinition.getTypes() : null;
+    final boolean nullKeyIsSupported = indexDefinition != null && !indexDefinition.isNullValuesIgnored();
+    if (bloomFilterKeys > 0 && hashTable instanceof OLocalHashTable)
+      ((OLocalHashTable<Object, V>) hashTable).create(keySerializer, (OBinarySerializer<V>) valueSerializer, keyTypes,
+          nullKeyIsSupported, bloomFilterKeys);
+    else
+      hashTable.create(keySerializer, (OBinarySerializer<V>) valueSerializer, keyTypes, nullKeyIsSupported);
   }
 
   @Override
@@ -163,6 +174,14 @@ public final class OHashTableIndexEngine<V> implements OIndexEngine<V> {
     hashTable.put(key, value);
   }
 
+  @Override
+  public void startBulkLoad() {
+  }
+
+  @Override
+  public void endBulkLoad() {
+  }
+
   @Override
   public long size(ValuesTransformer<V> transformer) {
     if (transformer == null)
@@ -191,6 +210,14 @@ public final class OHashTableIndexEngine<V> implements OIndexEngine<V> {
     return identity;
   }
 
+  @Override
+  public String getDurableComponentName() {
+    if (hashTable instanceof ODurableComponent)
+      return ((ODurableComponent) hashTable).getFullName();
+
+    return null;
+  }
+
   @Override
   public int getVersion() {
     return version;
@@ -72,6 +72,11 @@ public class ORemoteIndexEngine implements OIndexEngine {
     return null;
   }
 
+  @Override
+  public String getDurableComponentName() {
+    return null;
+  }
+
   @Override
   public void clear() {
   }
@@ -89,6 +94,14 @@ public class ORemoteIndexEngine implements OIndexEngine {
   public void put(Object key, Object value) {
   }
 
+  @Override
+  public void startBulkLoad() {
+  }
+
+  @Override
+  public void endBulkLoad() {
+  }
+
   @Override
   public Object getFirstKey() {
     return null;
@@ -23,6 +23,7 @@ package com.orientechnologies.orient.core.index.engine;
 import java.util.Iterator;
 import java.util.Map;
 
+import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.concur.resource.OSharedResourceAdaptiveExternal;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
@@ -33,6 +34,7 @@ import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.*;
 import com.orientechnologies.orient.core.index.sbtree.local.OSBTree;
 import com.orientechnologies.orient.core.iterator.OEmptyIterator;
+import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ORecordBytes;
 import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
 import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
@@ -54,18 +56,33 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
   private final OSBTree<Object, V> sbTree;
   private int                      version;
 
-  public OSBTreeIndexEngine(String name, Boolean durableInNonTxMode, OAbstractPaginatedStorage storage, int version) {
+  private OBinarySerializer        keySerializer;
+  private OType[]                  keyTypes;
+
+  private final boolean            durableInNonTx;
+  private final long               bloomFilterKeys;
+
+  /**
+   * Bulk load of tree started during index creation or rebuild. Index is filled by single thread while other threads wait till it
+   * is completed. Entry with the biggest key is kept in {@link #bulkLoadKey} and {@link #bulkLoadValue} till next bigger key is put,
+   * so values of the same key can be merged by index. State of bulk load is accessed only under exclusive lock.
+   */
+  private volatile OSBTree<Object, V>.OSBTreeBulkLoad bulkLoad;
+  private Object                   bulkLoadKey;
+  private V                        bulkLoadValue;
+
+  public OSBTreeIndexEngine(String name, Boolean durableInNonTxMode, OAbstractPaginatedStorage storage, int version,
+      long bloomFilterKeys) {
     super(OGlobalConfiguration.ENVIRONMENT_CONCURRENT.getValueAsBoolean(), OGlobalConfiguration.MVRBTREE_TIMEOUT
         .getValueAsInteger(), true);
 
-    boolean durableInNonTx;
-
     if (durableInNonTxMode == null)
       durableInNonTx = OGlobalConfiguration.INDEX_DURABLE_IN_NON_TX_MODE.getValueAsBoolean();
     else
       durableInNonTx = durableInNonTxMode;
 
     this.version = version;
+    this.bloomFilterKeys = bloomFilterKeys;
 
     sbTree = new OSBTree<Object, V>(name, DATA_FILE_EXTENSION, durableInNonTx, NULL_BUCKET_FILE_EXTENSION, storage);
   }
@@ -76,11 +93,13 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
 
   @Override
   public void flush() {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       sbTree.flush();
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
@@ -90,7 +109,8 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
     acquireExclusiveLock();
     try {
 
-      final OBinarySerializer keySerializer = determineKeySerializer(indexDefinition);
+      keySerializer = determineKeySerializer(indexDefinition);
+      keyTypes = indexDefinition != null ? indexDefinition.getTypes() : null;
       final int keySize = determineKeySize(indexDefinition);
 
       final ORecordBytes identityRecord = new ORecordBytes();
@@ -101,8 +121,8 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
       database.save(identityRecord, clusterIndexName);
       identity = identityRecord.getIdentity();
 
-      sbTree.create(keySerializer, (OBinarySerializer<V>) valueSerializer, indexDefinition != null ? indexDefinition.getTypes()
-          : null, keySize, indexDefinition != null && !indexDefinition.isNullValuesIgnored());
+      sbTree.create(keySerializer, (OBinarySerializer<V>) valueSerializer, keyTypes, keySize, indexDefinition != null
+          && !indexDefinition.isNullValuesIgnored(), bloomFilterKeys);
     } finally {
       releaseExclusiveLock();
     }
@@ -135,11 +155,13 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
 
   @Override
   public void delete() {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      cancelBulkLoad();
+
       sbTree.delete();
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
@@ -147,6 +169,8 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
   public void deleteWithoutLoad(String indexName) {
     acquireExclusiveLock();
     try {
+      cancelBulkLoad();
+
       sbTree.deleteWithoutLoad(indexName);
     } finally {
       releaseExclusiveLock();
@@ -161,9 +185,11 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
       ODatabaseDocumentInternal database = getDatabase();
       final OAbstractPaginatedStorage storageLocalAbstract = (OAbstractPaginatedStorage) database.getStorage().getUnderlying();
 
-      sbTree.load(indexName, determineKeySerializer(indexDefinition), valueSerializer,
-          indexDefinition != null ? indexDefinition.getTypes() : null, determineKeySize(indexDefinition), indexDefinition != null
-              && !indexDefinition.isNullValuesIgnored());
+      keySerializer = determineKeySerializer(indexDefinition);
+      keyTypes = indexDefinition != null ? indexDefinition.getTypes() : null;
+
+      sbTree.load(indexName, keySerializer, valueSerializer, keyTypes, determineKeySize(indexDefinition), indexDefinition != null
+          && !indexDefinition.isNullValuesIgnored());
     } finally {
       releaseExclusiveLock();
     }
@@ -171,21 +197,23 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
 
   @Override
   public boolean contains(Object key) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
-      return sbTree.get(key) != null;
+      return doGet(key) != null;
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public boolean remove(Object key) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       return sbTree.remove(key) != null;
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
@@ -199,6 +227,11 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
     }
   }
 
+  @Override
+  public String getDurableComponentName() {
+    return sbTree.getFullName();
+  }
+
   @Override
   public int getVersion() {
     return version;
@@ -206,38 +239,44 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
 
   @Override
   public void clear() {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      cancelBulkLoad();
+
       sbTree.clear();
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public void close() {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       sbTree.close();
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public V get(Object key) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
-      return sbTree.get(key);
+      return doGet(key);
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public OIndexCursor cursor(ValuesTransformer<V> valuesTransformer) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       final Object firstKey = sbTree.firstKey();
       if (firstKey == null)
         return new OIndexAbstractCursor() {
@@ -249,14 +288,16 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
 
       return new OSBTreeIndexCursor<V>(sbTree.iterateEntriesMajor(firstKey, true, true), valuesTransformer);
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public OIndexCursor descCursor(ValuesTransformer<V> valuesTransformer) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       final Object lastKey = sbTree.lastKey();
       if (lastKey == null)
         return new OIndexAbstractCursor() {
@@ -268,14 +309,16 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
 
       return new OSBTreeIndexCursor<V>(sbTree.iterateEntriesMinor(lastKey, true, false), valuesTransformer);
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public OIndexKeyCursor keyCursor() {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       return new OIndexKeyCursor() {
         private final OSBTree.OSBTreeKeyCursor<Object> sbTreeKeyCursor = sbTree.keyCursor();
 
@@ -285,78 +328,135 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
         }
       };
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public void put(Object key, V value) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
+    try {
+      if (bulkLoad != null && key != null) {
+        key = keySerializer.preprocess(key, (Object[]) keyTypes);
+
+        if (bulkLoadKey != null) {
+          final int compareResult = ODefaultComparator.INSTANCE.compare(bulkLoadKey, key);
+          if (compareResult == 0) {
+            bulkLoadValue = value;
+            return;
+          }
+
+          if (compareResult > 0) {
+            // KEYS ARE NOT SORTED, REST OF ENTRIES ARE PUT ONE BY ONE
+            completeBulkLoad();
+            sbTree.put(key, value);
+            return;
+          }
+
+          bulkLoad.add(bulkLoadKey, bulkLoadValue);
+        }
+
+        bulkLoadKey = key;
+        bulkLoadValue = value;
+      } else
+        sbTree.put(key, value);
+    } finally {
+      releaseLock(exclusiveLock);
+    }
+  }
+
+  @Override
+  public void startBulkLoad() {
+    acquireExclusiveLock();
     try {
-      sbTree.put(key, value);
+      // BULK LOAD IS PERFORMED IN SINGLE ATOMIC OPERATION, SO IT IS NOT USED FOR DURABLE TREES
+      if (!durableInNonTx && bulkLoad == null && sbTree.firstKey() == null)
+        bulkLoad = sbTree.startBulkLoad();
     } finally {
-      releaseSharedLock();
+      releaseExclusiveLock();
+    }
+  }
+
+  @Override
+  public void endBulkLoad() {
+    acquireExclusiveLock();
+    try {
+      completeBulkLoad();
+    } finally {
+      releaseExclusiveLock();
     }
   }
 
   @Override
   public Object getFirstKey() {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       return sbTree.firstKey();
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public Object getLastKey() {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       return sbTree.lastKey();
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public OIndexCursor iterateEntriesBetween(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive,
       boolean ascSortOrder, ValuesTransformer<V> transformer) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       return new OSBTreeIndexCursor<V>(sbTree.iterateEntriesBetween(rangeFrom, fromInclusive, rangeTo, toInclusive, ascSortOrder),
           transformer);
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public OIndexCursor iterateEntriesMajor(Object fromKey, boolean isInclusive, boolean ascSortOrder,
       ValuesTransformer<V> transformer) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       return new OSBTreeIndexCursor<V>(sbTree.iterateEntriesMajor(fromKey, isInclusive, ascSortOrder), transformer);
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public OIndexCursor iterateEntriesMinor(Object toKey, boolean isInclusive, boolean ascSortOrder, ValuesTransformer<V> transformer) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       return new OSBTreeIndexCursor<V>(sbTree.iterateEntriesMinor(toKey, isInclusive, ascSortOrder), transformer);
 
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
   @Override
   public long size(final ValuesTransformer<V> transformer) {
-    acquireSharedLock();
+    final boolean exclusiveLock = acquireLock();
     try {
+      completeBulkLoad();
+
       if (transformer == null)
         return sbTree.size();
       else {
@@ -379,7 +479,7 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
         return 0;
       }
     } finally {
-      releaseSharedLock();
+      releaseLock(exclusiveLock);
     }
   }
 
@@ -388,6 +488,88 @@ public class OSBTreeIndexEngine<V> extends OSharedResourceAdaptiveExternal imple
     return true;
   }
 
+  /**
+   * Acquires shared lock if bulk load is not in progress, otherwise acquires exclusive lock because state of bulk load is changed
+   * by both reads and writes.
+   *
+   * @return <code>true</code> if exclusive lock was acquired.
+   */
+  private boolean acquireLock() {
+    while (true) {
+      if (bulkLoad == null) {
+        acquireSharedLock();
+        if (bulkLoad == null)
+          return false;
+
+        releaseSharedLock();
+      }
+
+      acquireExclusiveLock();
+      if (bulkLoad != null)
+        return true;
+
+      releaseExclusiveLock();
+    }
+  }
+
+  private void releaseLock(boolean exclusiveLock) {
+    if (exclusiveLock)
+      releaseExclusiveLock();
+    else
+      releaseSharedLock();
+  }
+
+  private V doGet(Object key) {
+    if (bulkLoad != null && key != null) {
+      key = keySerializer.preprocess(key, (Object[]) keyTypes);
+      if (bulkLoadKey == null)
+        return null;
+
+      final int compareResult = ODefaultComparator.INSTANCE.compare(bulkLoadKey, key);
+      if (compareResult == 0)
+        return bulkLoadValue;
+
+      // KEYS WHICH ARE BIGGER THAN THE LAST PUT KEY ARE ABSENT
+      if (compareResult < 0)
+        return null;
+
+      completeBulkLoad();
+    }
+
+    return sbTree.get(key);
+  }
+
+  private void completeBulkLoad() {
+    if (bulkLoad == null)
+      return;
+
+    final OSBTree<Object, V>.OSBTreeBulkLoad currentBulkLoad = bulkLoad;
+    final Object lastKey = bulkLoadKey;
+    final V lastValue = bulkLoadValue;
+
+    bulkLoad = null;
+    bulkLoadKey = null;
+    bulkLoadValue = null;
+
+    if (lastKey != null)
+      currentBulkLoad.add(lastKey, lastValue);
+
+    currentBulkLoad.complete();
+  }
+
+  private void cancelBulkLoad() {
+    if (bulkLoad == null)
+      return;
+
+    final OSBTree<Object, V>.OSBTreeBulkLoad currentBulkLoad = bulkLoad;
+
+    bulkLoad = null;
+    bulkLoadKey = null;
+    bulkLoadValue = null;
+
+    currentBulkLoad.cancel();
+  }
+
   private ODatabaseDocumentInternal getDatabase() {
     return ODatabaseRecordThreadLocal.INSTANCE.get();
   }
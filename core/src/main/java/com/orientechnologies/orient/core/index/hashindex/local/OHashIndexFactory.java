@@ -100,13 +100,18 @@ public class OHashIndexFactory implements OIndexFactory {
     else
       durableInNonTxMode = null;
 
+    long bloomFilterKeys = 0;
+    if (metadata != null && metadata.field("bloomFilterKeys") instanceof Number)
+      bloomFilterKeys = ((Number) metadata.field("bloomFilterKeys")).longValue();
+
     final String storageType = storage.getType();
     if (storageType.equals("memory") || storageType.equals("plocal"))
-      indexEngine = new OHashTableIndexEngine(name, durableInNonTxMode, (OAbstractPaginatedStorage) database.getStorage(), version);
+      indexEngine = new OHashTableIndexEngine(name, durableInNonTxMode, (OAbstractPaginatedStorage) database.getStorage(),
+          version, bloomFilterKeys);
     else if (storageType.equals("distributed"))
       // DISTRIBUTED CASE: HANDLE IT AS FOR LOCAL
       indexEngine = new OHashTableIndexEngine(name, durableInNonTxMode, (OAbstractPaginatedStorage) database.getStorage()
-          .getUnderlying(), version);
+          .getUnderlying(), version, bloomFilterKeys);
     else if (storageType.equals("remote"))
       indexEngine = new ORemoteIndexEngine();
     else
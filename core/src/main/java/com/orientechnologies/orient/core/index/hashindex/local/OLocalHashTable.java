@@ -2,8 +2,11 @@ package com.orientechnologies.orient.core.index.hashindex.local;
 
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.util.OCommonConst;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.index.bloomfilter.OBloomFilter;
+import com.orientechnologies.orient.core.index.bloomfilter.OBloomFilterPage;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OCacheEntry;
 import com.orientechnologies.orient.core.index.sbtree.local.OSBTreeException;
 import com.orientechnologies.orient.core.metadata.schema.OType;
@@ -98,6 +101,8 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
 
   private boolean                                   nullKeyIsSupported;
   private long                                      nullBucketFileId    = -1;
+  private long                                      bloomFilterFileId   = -1;
+  private OBloomFilter                              bloomFilter;
   private final String                              nullBucketFileExtension;
 
   private long                                      fileStateId;
@@ -126,6 +131,16 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
   @Override
   public void create(OBinarySerializer<K> keySerializer, OBinarySerializer<V> valueSerializer, OType[] keyTypes,
       boolean nullKeyIsSupported) {
+    create(keySerializer, valueSerializer, keyTypes, nullKeyIsSupported, 0);
+  }
+
+  /**
+   * @param bloomFilterKeys
+   *          expected amount of keys in the hash table which is used to size its {@link OBloomFilter}, 0 if the hash table has no
+   *          Bloom filter.
+   */
+  public void create(OBinarySerializer<K> keySerializer, OBinarySerializer<V> valueSerializer, OType[] keyTypes,
+      boolean nullKeyIsSupported, long bloomFilterKeys) {
     final OAtomicOperation atomicOperation;
     try {
       atomicOperation = startAtomicOperation();
@@ -171,6 +186,13 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
         if (nullKeyIsSupported)
           nullBucketFileId = addFile(atomicOperation, getName() + nullBucketFileExtension);
 
+        if (bloomFilterKeys > 0) {
+          bloomFilterFileId = addFile(atomicOperation, getName() + OBloomFilter.FILE_EXTENSION);
+          initBloomFilter(
+              OBloomFilter.create(bloomFilterKeys, OGlobalConfiguration.INDEX_BLOOM_FILTER_BITS_PER_KEY.getValueAsInteger()),
+              atomicOperation);
+        }
+
         endAtomicOperation(false);
       } catch (IOException e) {
         endAtomicOperation(true);
@@ -331,6 +353,8 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
           key = keySerializer.preprocess(key, (Object[]) keyTypes);
 
           final long hashCode = keyHashFunction.hashCode(key);
+          if (bloomFilter != null && !bloomFilterMightContain(hashCode, atomicOperation))
+            return null;
 
           OHashTable.BucketPath bucketPath = getBucket(hashCode);
           final long bucketPointer = directory
@@ -523,6 +547,11 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
       if (nullKeyIsSupported)
         truncateFile(atomicOperation, nullBucketFileId);
 
+      if (bloomFilter != null) {
+        truncateFile(atomicOperation, bloomFilterFileId);
+        initBloomFilter(bloomFilter, atomicOperation);
+      }
+
       initHashTreeState(atomicOperation);
 
       endAtomicOperation(false);
@@ -639,6 +668,11 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
       if (nullKeyIsSupported)
         nullBucketFileId = openFile(atomicOperation, name + nullBucketFileExtension);
 
+      if (isFileExists(atomicOperation, name + OBloomFilter.FILE_EXTENSION)) {
+        bloomFilterFileId = openFile(atomicOperation, name + OBloomFilter.FILE_EXTENSION);
+        loadBloomFilter(atomicOperation);
+      }
+
       fileId = openFile(atomicOperation, getFullName());
     } catch (IOException e) {
       throw new OIndexException("Exception during hash table loading", e);
@@ -672,6 +706,11 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
         deleteFile(atomicOperation, nullBucketId);
       }
 
+      if (isFileExists(atomicOperation, name + OBloomFilter.FILE_EXTENSION)) {
+        final long bloomFileId = openFile(atomicOperation, name + OBloomFilter.FILE_EXTENSION);
+        deleteFile(atomicOperation, bloomFileId);
+      }
+
       if (isFileExists(atomicOperation, getFullName())) {
         final long fileId = openFile(atomicOperation, getFullName());
         deleteFile(atomicOperation, fileId);
@@ -1213,6 +1252,9 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
       directory.close();
       readCache.closeFile(fileStateId, true, writeCache);
       readCache.closeFile(fileId, true, writeCache);
+
+      if (bloomFilter != null)
+        readCache.closeFile(bloomFilterFileId, true, writeCache);
     } catch (IOException e) {
       throw new OIndexException("Error during hash table close", e);
     } finally {
@@ -1238,6 +1280,9 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
       if (nullKeyIsSupported)
         deleteFile(atomicOperation, nullBucketFileId);
 
+      if (bloomFilter != null)
+        deleteFile(atomicOperation, bloomFilterFileId);
+
       endAtomicOperation(false);
     } catch (IOException e) {
       rollback();
@@ -1252,6 +1297,63 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
     }
   }
 
+  private void initBloomFilter(OBloomFilter filter, OAtomicOperation atomicOperation) throws IOException {
+    final OCacheEntry headerCacheEntry = addPage(atomicOperation, bloomFilterFileId);
+    headerCacheEntry.acquireExclusiveLock();
+    try {
+      final OBloomFilterPage headerPage = new OBloomFilterPage(headerCacheEntry, getChangesTree(atomicOperation,
+          headerCacheEntry));
+      headerPage.setPagesCount(filter.getPagesCount());
+      headerPage.setHashFunctions(filter.getHashFunctions());
+    } finally {
+      headerCacheEntry.releaseExclusiveLock();
+      releasePage(atomicOperation, headerCacheEntry);
+    }
+
+    for (int i = 0; i < filter.getPagesCount(); i++)
+      releasePage(atomicOperation, addPage(atomicOperation, bloomFilterFileId));
+
+    bloomFilter = filter;
+  }
+
+  private void loadBloomFilter(OAtomicOperation atomicOperation) throws IOException {
+    final OCacheEntry headerCacheEntry = loadPage(atomicOperation, bloomFilterFileId, 0, false);
+    try {
+      final OBloomFilterPage headerPage = new OBloomFilterPage(headerCacheEntry, getChangesTree(atomicOperation,
+          headerCacheEntry));
+      bloomFilter = new OBloomFilter(headerPage.getPagesCount(), headerPage.getHashFunctions());
+    } finally {
+      releasePage(atomicOperation, headerCacheEntry);
+    }
+  }
+
+  private boolean bloomFilterMightContain(long hashCode, OAtomicOperation atomicOperation) throws IOException {
+    final OCacheEntry cacheEntry = loadPage(atomicOperation, bloomFilterFileId, bloomFilter.pageIndex(hashCode), false);
+    try {
+      final OBloomFilterPage page = new OBloomFilterPage(cacheEntry, getChangesTree(atomicOperation, cacheEntry));
+      for (int i = 0; i < bloomFilter.getHashFunctions(); i++)
+        if (!page.isBitSet(bloomFilter.bitIndex(hashCode, i)))
+          return false;
+
+      return true;
+    } finally {
+      releasePage(atomicOperation, cacheEntry);
+    }
+  }
+
+  private void addToBloomFilter(long hashCode, OAtomicOperation atomicOperation) throws IOException {
+    final OCacheEntry cacheEntry = loadPage(atomicOperation, bloomFilterFileId, bloomFilter.pageIndex(hashCode), false);
+    cacheEntry.acquireExclusiveLock();
+    try {
+      final OBloomFilterPage page = new OBloomFilterPage(cacheEntry, getChangesTree(atomicOperation, cacheEntry));
+      for (int i = 0; i < bloomFilter.getHashFunctions(); i++)
+        page.setBit(bloomFilter.bitIndex(hashCode, i));
+    } finally {
+      cacheEntry.releaseExclusiveLock();
+      releasePage(atomicOperation, cacheEntry);
+    }
+  }
+
   private void mergeNodeToParent(OHashTable.BucketPath nodePath) throws IOException {
     final int startIndex = findParentNodeStartIndex(nodePath);
     final int localNodeDepth = nodePath.nodeLocalDepth;
@@ -1285,6 +1387,9 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
 
       if (nullKeyIsSupported)
         writeCache.flush(nullBucketFileId);
+
+      if (bloomFilter != null)
+        writeCache.flush(bloomFilterFileId);
     } catch (IOException e) {
       throw new OIndexException("Error during hash table flush", e);
     } finally {
@@ -1323,6 +1428,8 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
       changeSize(sizeDiff, atomicOperation);
     } else {
       final long hashCode = keyHashFunction.hashCode(key);
+      if (bloomFilter != null)
+        addToBloomFilter(hashCode, atomicOperation);
 
       final OHashTable.BucketPath bucketPath = getBucket(hashCode);
       final long bucketPointer = directory.getNodePointer(bucketPath.nodeIndex, bucketPath.itemIndex + bucketPath.hashMapOffset);
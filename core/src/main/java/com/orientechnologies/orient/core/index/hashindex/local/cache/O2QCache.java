@@ -22,11 +22,9 @@ package com.orientechnologies.orient.core.index.hashindex.local.cache;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.NavigableMap;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
@@ -34,6 +32,9 @@ import java.util.concurrent.locks.Lock;
 import com.orientechnologies.common.concur.lock.ONewLockManager;
 import com.orientechnologies.common.concur.lock.OReadersWriterSpinLock;
 import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.profiler.OProfilerChrono;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OAllCacheEntriesAreUsedException;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
@@ -47,31 +48,46 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODura
 public class O2QCache implements OReadCache {
   public static final int                              MIN_CACHE_SIZE             = 256;
 
+  /**
+   * Minimal amount of pages in single partition of cache, small caches consist of single partition.
+   */
+  static final int                                     MIN_PARTITION_SIZE         = 1024;
+
   private static final int                             MAX_CACHE_OVERFLOW         = Runtime.getRuntime().availableProcessors() * 8;
 
   private final int                                    maxSize;
-  private final int                                    K_IN;
-  private final int                                    K_OUT;
 
-  private final LRUList                                am;
-  private final LRUList                                a1out;
-  private final LRUList                                a1in;
+  /**
+   * Cache is split on partitions, each of them is separate 2Q cache which has own queues and is evicted independently, so threads
+   * which load different pages do not compete for the same LRU lists and eviction of one partition does not stop loading of pages
+   * from others. Page is assigned to partition by hash of its file id and page index.
+   */
+  private final Partition[]                            partitions;
 
   private final int                                    pageSize;
 
+  /**
+   * Time spent to load pages which are absent in cache from write cache, amount of entries is amount of cache misses.
+   */
+  private final OProfilerChrono                        missChrono;
+
   /**
    * Contains all pages in cache for given file.
    */
   private final ConcurrentMap<Long, Set<Long>>         filePages;
 
+  /**
+   * Exclusive lock is acquired only by operations which change the whole cache, like closing of storage.
+   */
   private final OReadersWriterSpinLock                 cacheLock                  = new OReadersWriterSpinLock();
   private final ONewLockManager                        fileLockManager            = new ONewLockManager(true);
   private final ONewLockManager<PageKey>               pageLockManager            = new ONewLockManager<PageKey>();
   private final ConcurrentMap<PinnedPage, OCacheEntry> pinnedPages                = new ConcurrentHashMap<PinnedPage, OCacheEntry>();
 
-  private final AtomicBoolean                          coldPagesRemovalInProgress = new AtomicBoolean();
-
   public O2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize) {
+    missChrono = Orient.instance().getProfiler()
+        .registerChrono("diskCache.miss", "Time to load page which is absent in disk cache", "diskCache.miss");
+
     cacheLock.acquireWriteLock();
     try {
       this.pageSize = pageSize;
@@ -85,27 +101,31 @@ public class O2QCache implements OReadCache {
 
       maxSize = normalizedSize;
 
-      K_IN = maxSize >> 2;
-      K_OUT = maxSize >> 1;
+      final int partitionsCount = partitionsCount(maxSize);
+      final int overflow = Math.max(MAX_CACHE_OVERFLOW / partitionsCount, 1);
 
-      am = new ConcurrentLRUList();
-      a1out = new ConcurrentLRUList();
-      a1in = new ConcurrentLRUList();
+      partitions = new Partition[partitionsCount];
+      for (int i = 0; i < partitionsCount; i++)
+        partitions[i] = new Partition(maxSize / partitionsCount, overflow);
     } finally {
       cacheLock.releaseWriteLock();
     }
   }
 
   LRUList getAm() {
-    return am;
+    return firstPartition().am;
   }
 
   LRUList getA1out() {
-    return a1out;
+    return firstPartition().a1out;
   }
 
   LRUList getA1in() {
-    return a1in;
+    return firstPartition().a1in;
+  }
+
+  int getPartitionsCount() {
+    return partitions.length;
   }
 
   @Override
@@ -206,19 +226,26 @@ public class O2QCache implements OReadCache {
     Lock fileLock;
     Lock pageLock;
 
+    final Partition partition = partition(cacheEntry.fileId, cacheEntry.pageIndex);
+
     cacheLock.acquireReadLock();
     try {
-      fileLock = fileLockManager.acquireSharedLock(cacheEntry.fileId);
+      partition.lock.acquireReadLock();
       try {
-        pageLock = pageLockManager.acquireExclusiveLock(new PageKey(cacheEntry.fileId, cacheEntry.pageIndex));
+        fileLock = fileLockManager.acquireSharedLock(cacheEntry.fileId);
         try {
-          remove(cacheEntry.fileId, cacheEntry.pageIndex);
-          pinnedPages.put(new PinnedPage(cacheEntry.fileId, cacheEntry.pageIndex), cacheEntry);
+          pageLock = pageLockManager.acquireExclusiveLock(new PageKey(cacheEntry.fileId, cacheEntry.pageIndex));
+          try {
+            partition.remove(cacheEntry.fileId, cacheEntry.pageIndex);
+            pinnedPages.put(new PinnedPage(cacheEntry.fileId, cacheEntry.pageIndex), cacheEntry);
+          } finally {
+            pageLockManager.releaseLock(pageLock);
+          }
         } finally {
-          pageLockManager.releaseLock(pageLock);
+          fileLockManager.releaseLock(fileLock);
         }
       } finally {
-        fileLockManager.releaseLock(fileLock);
+        partition.lock.releaseReadLock();
       }
     } finally {
       cacheLock.releaseReadLock();
@@ -236,7 +263,7 @@ public class O2QCache implements OReadCache {
 
     try {
       if (cacheResult.removeColdPages)
-        removeColdestPagesIfNeeded();
+        partition(fileId, pageIndex).removeColdestPagesIfNeeded();
     } catch (RuntimeException e) {
       assert !cacheResult.cacheEntry.isDirty;
 
@@ -255,30 +282,37 @@ public class O2QCache implements OReadCache {
     Lock fileLock;
     Lock pageLock;
 
+    final Partition partition = partition(fileId, pageIndex);
+
     cacheLock.acquireReadLock();
     try {
-      fileLock = fileLockManager.acquireSharedLock(fileId);
+      partition.lock.acquireReadLock();
       try {
-        pageLock = pageLockManager.acquireExclusiveLock(new PageKey(fileId, pageIndex));
+        fileLock = fileLockManager.acquireSharedLock(fileId);
         try {
-          if (checkPinnedPages)
-            cacheEntry = pinnedPages.get(new PinnedPage(fileId, pageIndex));
+          pageLock = pageLockManager.acquireExclusiveLock(new PageKey(fileId, pageIndex));
+          try {
+            if (checkPinnedPages)
+              cacheEntry = pinnedPages.get(new PinnedPage(fileId, pageIndex));
 
-          if (cacheEntry == null) {
-            UpdateCacheResult cacheResult = updateCache(fileId, pageIndex, addNewPages, writeCache);
-            if (cacheResult == null)
-              return null;
+            if (cacheEntry == null) {
+              UpdateCacheResult cacheResult = partition.updateCache(fileId, pageIndex, addNewPages, writeCache);
+              if (cacheResult == null)
+                return null;
 
-            cacheEntry = cacheResult.cacheEntry;
-            removeColdPages = cacheResult.removeColdPages;
-          }
+              cacheEntry = cacheResult.cacheEntry;
+              removeColdPages = cacheResult.removeColdPages;
+            }
 
-          cacheEntry.usagesCount++;
+            cacheEntry.usagesCount++;
+          } finally {
+            pageLockManager.releaseLock(pageLock);
+          }
         } finally {
-          pageLockManager.releaseLock(pageLock);
+          fileLockManager.releaseLock(fileLock);
         }
       } finally {
-        fileLockManager.releaseLock(fileLock);
+        partition.lock.releaseReadLock();
       }
     } finally {
       cacheLock.releaseReadLock();
@@ -296,12 +330,18 @@ public class O2QCache implements OReadCache {
     Lock fileLock;
     cacheLock.acquireReadLock();
     try {
-      fileLock = fileLockManager.acquireExclusiveLock(fileId);
+      // INDEX OF NEW PAGE AND AS RESULT ITS PARTITION ARE KNOWN ONLY UNDER FILE LOCK
+      acquirePartitionsReadLock();
       try {
-        final long filledUpTo = writeCache.getFilledUpTo(fileId);
-        cacheResult = doLoad(fileId, filledUpTo, false, true, writeCache);
+        fileLock = fileLockManager.acquireExclusiveLock(fileId);
+        try {
+          final long filledUpTo = writeCache.getFilledUpTo(fileId);
+          cacheResult = doLoad(fileId, filledUpTo, false, true, writeCache);
+        } finally {
+          fileLockManager.releaseLock(fileLock);
+        }
       } finally {
-        fileLockManager.releaseLock(fileLock);
+        releasePartitionsReadLock();
       }
     } finally {
       cacheLock.releaseReadLock();
@@ -311,7 +351,7 @@ public class O2QCache implements OReadCache {
 
     try {
       if (cacheResult.removeColdPages)
-        removeColdestPagesIfNeeded();
+        partition(fileId, cacheResult.cacheEntry.pageIndex).removeColdestPagesIfNeeded();
     } catch (RuntimeException e) {
       assert !cacheResult.cacheEntry.isDirty;
 
@@ -328,25 +368,33 @@ public class O2QCache implements OReadCache {
 
     Lock fileLock;
     Lock pageLock;
+
+    final Partition partition = partition(cacheEntry.fileId, cacheEntry.pageIndex);
+
     cacheLock.acquireReadLock();
     try {
-      fileLock = fileLockManager.acquireSharedLock(cacheEntry.fileId);
+      partition.lock.acquireReadLock();
       try {
-        pageLock = pageLockManager.acquireExclusiveLock(new PageKey(cacheEntry.fileId, cacheEntry.pageIndex));
+        fileLock = fileLockManager.acquireSharedLock(cacheEntry.fileId);
         try {
-          cacheEntry.usagesCount--;
+          pageLock = pageLockManager.acquireExclusiveLock(new PageKey(cacheEntry.fileId, cacheEntry.pageIndex));
+          try {
+            cacheEntry.usagesCount--;
 
-          assert cacheEntry.usagesCount >= 0;
+            assert cacheEntry.usagesCount >= 0;
 
-          if (cacheEntry.usagesCount == 0 && cacheEntry.isDirty) {
-            flushFuture = writeCache.store(cacheEntry.fileId, cacheEntry.pageIndex, cacheEntry.dataPointer);
-            cacheEntry.isDirty = false;
+            if (cacheEntry.usagesCount == 0 && cacheEntry.isDirty) {
+              flushFuture = writeCache.store(cacheEntry.fileId, cacheEntry.pageIndex, cacheEntry.dataPointer);
+              cacheEntry.isDirty = false;
+            }
+          } finally {
+            pageLockManager.releaseLock(pageLock);
           }
         } finally {
-          pageLockManager.releaseLock(pageLock);
+          fileLockManager.releaseLock(fileLock);
         }
       } finally {
-        fileLockManager.releaseLock(fileLock);
+        partition.lock.releaseReadLock();
       }
     } finally {
       cacheLock.releaseReadLock();
@@ -380,14 +428,21 @@ public class O2QCache implements OReadCache {
 
     cacheLock.acquireReadLock();
     try {
-      fileLock = fileLockManager.acquireExclusiveLock(fileId);
+      // PAGES OF FILE ARE SPREAD BETWEEN ALL PARTITIONS, PARTITION LOCKS ARE ACQUIRED BEFORE FILE LOCK TO KEEP THE SAME ORDER AS IN
+      // LOAD
+      acquirePartitionsReadLock();
       try {
+        fileLock = fileLockManager.acquireExclusiveLock(fileId);
+        try {
 
-        writeCache.truncateFile(fileId);
+          writeCache.truncateFile(fileId);
 
-        clearFile(fileId);
+          clearFile(fileId);
+        } finally {
+          fileLockManager.releaseLock(fileLock);
+        }
       } finally {
-        fileLockManager.releaseLock(fileLock);
+        releasePartitionsReadLock();
       }
     } finally {
       cacheLock.releaseReadLock();
@@ -408,7 +463,7 @@ public class O2QCache implements OReadCache {
 
       if (cacheEntry != null) {
         if (cacheEntry.usagesCount == 0) {
-          cacheEntry = remove(fileId, pageIndex);
+          cacheEntry = partition(fileId, pageIndex).remove(fileId, pageIndex);
           if (cacheEntry == null)
             cacheEntry = pinnedPages.remove(new PinnedPage(fileId, pageIndex));
 
@@ -436,16 +491,20 @@ public class O2QCache implements OReadCache {
     Lock fileLock;
     cacheLock.acquireReadLock();
     try {
-      fileLock = fileLockManager.acquireExclusiveLock(fileId);
+      acquirePartitionsReadLock();
       try {
-        writeCache.close(fileId, flush);
+        fileLock = fileLockManager.acquireExclusiveLock(fileId);
+        try {
+          writeCache.close(fileId, flush);
 
-        clearFile(fileId);
+          clearFile(fileId);
 
+        } finally {
+          fileLockManager.releaseLock(fileLock);
+        }
       } finally {
-        fileLockManager.releaseLock(fileLock);
+        releasePartitionsReadLock();
       }
-
     } finally {
       cacheLock.releaseReadLock();
     }
@@ -459,14 +518,19 @@ public class O2QCache implements OReadCache {
 
     cacheLock.acquireReadLock();
     try {
-      fileLock = fileLockManager.acquireExclusiveLock(fileId);
+      acquirePartitionsReadLock();
       try {
-        truncateFile(fileId, writeCache);
+        fileLock = fileLockManager.acquireExclusiveLock(fileId);
+        try {
+          truncateFile(fileId, writeCache);
 
-        filePages.remove(fileId);
-        writeCache.deleteFile(fileId);
+          filePages.remove(fileId);
+          writeCache.deleteFile(fileId);
+        } finally {
+          fileLockManager.releaseLock(fileLock);
+        }
       } finally {
-        fileLockManager.releaseLock(fileLock);
+        releasePartitionsReadLock();
       }
     } finally {
       cacheLock.releaseReadLock();
@@ -498,57 +562,12 @@ public class O2QCache implements OReadCache {
   }
 
   private OCacheEntry get(long fileId, long pageIndex, boolean useOutQueue) {
-    OCacheEntry cacheEntry = am.get(fileId, pageIndex);
-
-    if (cacheEntry != null) {
-      assert filePages.get(fileId) != null;
-      assert filePages.get(fileId).contains(pageIndex);
-
-      return cacheEntry;
-    }
-
-    if (useOutQueue) {
-      cacheEntry = a1out.get(fileId, pageIndex);
-      if (cacheEntry != null) {
-        assert filePages.get(fileId) != null;
-        assert filePages.get(fileId).contains(pageIndex);
-
-        return cacheEntry;
-      }
-
-    }
-
-    cacheEntry = a1in.get(fileId, pageIndex);
-    if (cacheEntry != null) {
-
-    }
-    return cacheEntry;
+    return partition(fileId, pageIndex).get(fileId, pageIndex, useOutQueue);
   }
 
   private void clearCacheContent() {
-    for (OCacheEntry cacheEntry : am)
-      if (cacheEntry.usagesCount == 0) {
-        cacheEntry.dataPointer.decrementReadersReferrer();
-        cacheEntry.dataPointer = null;
-      }
-
-      else
-        throw new OStorageException("Page with index " + cacheEntry.pageIndex + " for file id " + cacheEntry.fileId
-            + " is used and can not be removed");
-
-    for (OCacheEntry cacheEntry : a1in)
-      if (cacheEntry.usagesCount == 0) {
-        cacheEntry.dataPointer.decrementReadersReferrer();
-        cacheEntry.dataPointer = null;
-      }
-
-      else
-        throw new OStorageException("Page with index " + cacheEntry.pageIndex + " for file id " + cacheEntry.fileId
-            + " is used and can not be removed");
-
-    a1out.clear();
-    am.clear();
-    a1in.clear();
+    for (Partition partition : partitions)
+      partition.clear();
 
     for (Set<Long> pages : filePages.values())
       pages.clear();
@@ -569,261 +588,403 @@ public class O2QCache implements OReadCache {
     pinnedPages.clear();
   }
 
-  private UpdateCacheResult updateCache(final long fileId, final long pageIndex, final boolean addNewPages, OWriteCache writeCache)
-      throws IOException {
-    OCacheEntry cacheEntry = am.get(fileId, pageIndex);
+  int getMaxSize() {
+    return maxSize;
+  }
 
-    if (cacheEntry != null) {
-      assert filePages.get(fileId) != null;
-      assert filePages.get(fileId).contains(pageIndex);
+  @Override
+  public long getUsedMemory() {
+    long size = 0;
+    for (Partition partition : partitions)
+      size += partition.size();
 
-      am.putToMRU(cacheEntry);
+    return size * (2 * ODurablePage.PAGE_PADDING + pageSize);
+  }
 
-      return new UpdateCacheResult(false, cacheEntry);
-    }
+  private Partition partition(long fileId, long pageIndex) {
+    if (partitions.length == 1)
+      return partitions[0];
 
-    cacheEntry = a1out.remove(fileId, pageIndex);
-    if (cacheEntry != null) {
-      assert filePages.get(fileId) != null;
-      assert filePages.get(fileId).contains(pageIndex);
+    int hash = (int) (fileId ^ (fileId >>> 32));
+    hash = 31 * hash + (int) (pageIndex ^ (pageIndex >>> 32));
 
-      OCachePointer dataPointer = writeCache.load(fileId, pageIndex, false);
+    // SPREAD BITS, OTHERWISE NEIGHBOUR PAGES OF THE SAME FILE ARE PLACED IN NEIGHBOUR PARTITIONS ONLY BY LOWEST BITS
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
 
-      assert dataPointer != null;
-      assert cacheEntry.dataPointer == null;
-      assert !cacheEntry.isDirty;
+    return partitions[hash & (partitions.length - 1)];
+  }
 
-      cacheEntry.dataPointer = dataPointer;
+  private Partition firstPartition() {
+    assert partitions.length == 1 : "Queues of partitioned cache can not be accessed directly";
+    return partitions[0];
+  }
 
-      am.putToMRU(cacheEntry);
+  private void acquirePartitionsReadLock() {
+    for (Partition partition : partitions)
+      partition.lock.acquireReadLock();
+  }
 
-      return new UpdateCacheResult(true, cacheEntry);
+  private void releasePartitionsReadLock() {
+    for (int i = partitions.length - 1; i >= 0; i--)
+      partitions[i].lock.releaseReadLock();
+  }
+
+  private static int partitionsCount(int maxSize) {
+    int partitions = OGlobalConfiguration.DISK_CACHE_PARTITIONS.getValueAsInteger();
+    if (partitions <= 0)
+      partitions = Runtime.getRuntime().availableProcessors() * 4;
+
+    partitions = Math.min(partitions, maxSize / MIN_PARTITION_SIZE);
+
+    int result = 1;
+    while (result << 1 <= partitions)
+      result <<= 1;
+
+    return result;
+  }
+
+  /**
+   * Part of the cache which contains its own 2Q queues. Exclusive lock of partition is acquired only when amount of pages in
+   * partition is much bigger than its limit and cold pages should be removed in one batch.
+   */
+  private final class Partition {
+    private final int                    maxSize;
+    private final int                    K_IN;
+    private final int                    K_OUT;
+    private final int                    maxOverflow;
+
+    private final LRUList                am;
+    private final LRUList                a1out;
+    private final LRUList                a1in;
+
+    private final OReadersWriterSpinLock lock                       = new OReadersWriterSpinLock();
+    private final AtomicBoolean          coldPagesRemovalInProgress = new AtomicBoolean();
+
+    private Partition(int maxSize, int maxOverflow) {
+      this.maxSize = maxSize;
+      this.maxOverflow = maxOverflow;
+
+      K_IN = maxSize >> 2;
+      K_OUT = maxSize >> 1;
+
+      am = new ConcurrentLRUList();
+      a1out = new ConcurrentLRUList();
+      a1in = new ConcurrentLRUList();
+    }
+
+    private int size() {
+      return am.size() + a1in.size();
     }
 
-    cacheEntry = a1in.get(fileId, pageIndex);
-    if (cacheEntry != null) {
-      assert filePages.get(fileId) != null;
-      assert filePages.get(fileId).contains(pageIndex);
+    private OCacheEntry get(long fileId, long pageIndex, boolean useOutQueue) {
+      OCacheEntry cacheEntry = am.get(fileId, pageIndex);
+
+      if (cacheEntry != null) {
+        assert filePages.get(fileId) != null;
+        assert filePages.get(fileId).contains(pageIndex);
+
+        return cacheEntry;
+      }
 
-      return new UpdateCacheResult(false, cacheEntry);
+      if (useOutQueue) {
+        cacheEntry = a1out.get(fileId, pageIndex);
+        if (cacheEntry != null) {
+          assert filePages.get(fileId) != null;
+          assert filePages.get(fileId).contains(pageIndex);
+
+          return cacheEntry;
+        }
+
+      }
+
+      return a1in.get(fileId, pageIndex);
     }
 
-    OCachePointer dataPointer = writeCache.load(fileId, pageIndex, addNewPages);
-    if (dataPointer == null)
-      return null;
+    private void clear() {
+      for (OCacheEntry cacheEntry : am)
+        if (cacheEntry.usagesCount == 0) {
+          cacheEntry.dataPointer.decrementReadersReferrer();
+          cacheEntry.dataPointer = null;
+        }
+
+        else
+          throw new OStorageException("Page with index " + cacheEntry.pageIndex + " for file id " + cacheEntry.fileId
+              + " is used and can not be removed");
 
-    cacheEntry = new OCacheEntry(fileId, pageIndex, dataPointer, false);
-    a1in.putToMRU(cacheEntry);
+      for (OCacheEntry cacheEntry : a1in)
+        if (cacheEntry.usagesCount == 0) {
+          cacheEntry.dataPointer.decrementReadersReferrer();
+          cacheEntry.dataPointer = null;
+        }
 
-    Set<Long> pages = filePages.get(fileId);
-    if (pages == null) {
-      pages = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
-      Set<Long> oldPages = filePages.putIfAbsent(fileId, pages);
+        else
+          throw new OStorageException("Page with index " + cacheEntry.pageIndex + " for file id " + cacheEntry.fileId
+              + " is used and can not be removed");
 
-      if (oldPages != null)
-        pages = oldPages;
+      a1out.clear();
+      am.clear();
+      a1in.clear();
     }
 
-    pages.add(pageIndex);
-    return new UpdateCacheResult(true, cacheEntry);
-  }
+    private UpdateCacheResult updateCache(final long fileId, final long pageIndex, final boolean addNewPages,
+        OWriteCache writeCache) throws IOException {
+      OCacheEntry cacheEntry = am.get(fileId, pageIndex);
 
-  private void removeColdestPagesIfNeeded() throws IOException {
-    if (!coldPagesRemovalInProgress.compareAndSet(false, true))
-      return;
+      if (cacheEntry != null) {
+        assert filePages.get(fileId) != null;
+        assert filePages.get(fileId).contains(pageIndex);
 
-    final boolean exclusiveCacheLock = (am.size() + a1in.size() - maxSize) > MAX_CACHE_OVERFLOW;
+        am.putToMRU(cacheEntry);
 
-    if (exclusiveCacheLock)
-      cacheLock.acquireWriteLock();
-    else
-      cacheLock.acquireReadLock();
+        return new UpdateCacheResult(false, cacheEntry);
+      }
 
-    try {
+      cacheEntry = a1out.remove(fileId, pageIndex);
+      if (cacheEntry != null) {
+        assert filePages.get(fileId) != null;
+        assert filePages.get(fileId).contains(pageIndex);
 
-      if (exclusiveCacheLock)
-        removeColdPagesWithCacheLock();
-      else
-        removeColdPagesWithoutCacheLock();
+        final long timer = missChrono.start();
+        OCachePointer dataPointer = writeCache.load(fileId, pageIndex, false);
+        missChrono.stop(timer);
 
-    } finally {
-      if (exclusiveCacheLock)
-        cacheLock.releaseWriteLock();
-      else
-        cacheLock.releaseReadLock();
+        assert dataPointer != null;
+        assert cacheEntry.dataPointer == null;
+        assert !cacheEntry.isDirty;
 
-      coldPagesRemovalInProgress.set(false);
+        cacheEntry.dataPointer = dataPointer;
+
+        am.putToMRU(cacheEntry);
+
+        return new UpdateCacheResult(true, cacheEntry);
+      }
+
+      cacheEntry = a1in.get(fileId, pageIndex);
+      if (cacheEntry != null) {
+        assert filePages.get(fileId) != null;
+        assert filePages.get(fileId).contains(pageIndex);
+
+        return new UpdateCacheResult(false, cacheEntry);
+      }
+
+      final long timer = missChrono.start();
+      OCachePointer dataPointer = writeCache.load(fileId, pageIndex, addNewPages);
+      missChrono.stop(timer);
+      if (dataPointer == null)
+        return null;
+
+      cacheEntry = new OCacheEntry(fileId, pageIndex, dataPointer, false);
+      a1in.putToMRU(cacheEntry);
+
+      Set<Long> pages = filePages.get(fileId);
+      if (pages == null) {
+        pages = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        Set<Long> oldPages = filePages.putIfAbsent(fileId, pages);
+
+        if (oldPages != null)
+          pages = oldPages;
+      }
+
+      pages.add(pageIndex);
+      return new UpdateCacheResult(true, cacheEntry);
     }
-  }
 
-  private void removeColdPagesWithCacheLock() {
-    while (am.size() + a1in.size() > maxSize) {
-      if (a1in.size() > K_IN) {
-        OCacheEntry removedFromAInEntry = a1in.removeLRU();
-        if (removedFromAInEntry == null) {
-          throw new OAllCacheEntriesAreUsedException("All records in aIn queue in 2q cache are used!");
-        } else {
-          assert removedFromAInEntry.usagesCount == 0;
-          assert !removedFromAInEntry.isDirty;
+    private void removeColdestPagesIfNeeded() throws IOException {
+      if (!coldPagesRemovalInProgress.compareAndSet(false, true))
+        return;
 
-          removedFromAInEntry.dataPointer.decrementReadersReferrer();
-          removedFromAInEntry.dataPointer = null;
+      final boolean exclusivePartitionLock = (am.size() + a1in.size() - maxSize) > maxOverflow;
 
-          a1out.putToMRU(removedFromAInEntry);
-        }
+      cacheLock.acquireReadLock();
+      try {
+        if (exclusivePartitionLock)
+          lock.acquireWriteLock();
+        else
+          lock.acquireReadLock();
 
-        while (a1out.size() > K_OUT) {
-          OCacheEntry removedEntry = a1out.removeLRU();
+        try {
 
-          assert removedEntry.usagesCount == 0;
-          assert removedEntry.dataPointer == null;
-          assert !removedEntry.isDirty;
+          if (exclusivePartitionLock)
+            removeColdPagesWithPartitionLock();
+          else
+            removeColdPagesWithoutPartitionLock();
 
-          Set<Long> pageEntries = filePages.get(removedEntry.fileId);
-          pageEntries.remove(removedEntry.pageIndex);
+        } finally {
+          if (exclusivePartitionLock)
+            lock.releaseWriteLock();
+          else
+            lock.releaseReadLock();
         }
-      } else {
-        OCacheEntry removedEntry = am.removeLRU();
+      } finally {
+        cacheLock.releaseReadLock();
+
+        coldPagesRemovalInProgress.set(false);
+      }
+    }
+
+    private void removeColdPagesWithPartitionLock() {
+      while (am.size() + a1in.size() > maxSize) {
+        if (a1in.size() > K_IN) {
+          OCacheEntry removedFromAInEntry = a1in.removeLRU();
+          if (removedFromAInEntry == null) {
+            throw new OAllCacheEntriesAreUsedException("All records in aIn queue in 2q cache are used!");
+          } else {
+            assert removedFromAInEntry.usagesCount == 0;
+            assert !removedFromAInEntry.isDirty;
+
+            removedFromAInEntry.dataPointer.decrementReadersReferrer();
+            removedFromAInEntry.dataPointer = null;
 
-        if (removedEntry == null) {
-          throw new OAllCacheEntriesAreUsedException("All records in aIn queue in 2q cache are used!");
+            a1out.putToMRU(removedFromAInEntry);
+          }
+
+          while (a1out.size() > K_OUT) {
+            OCacheEntry removedEntry = a1out.removeLRU();
+
+            assert removedEntry.usagesCount == 0;
+            assert removedEntry.dataPointer == null;
+            assert !removedEntry.isDirty;
+
+            Set<Long> pageEntries = filePages.get(removedEntry.fileId);
+            pageEntries.remove(removedEntry.pageIndex);
+          }
         } else {
-          assert removedEntry.usagesCount == 0;
-          assert !removedEntry.isDirty;
+          OCacheEntry removedEntry = am.removeLRU();
+
+          if (removedEntry == null) {
+            throw new OAllCacheEntriesAreUsedException("All records in aIn queue in 2q cache are used!");
+          } else {
+            assert removedEntry.usagesCount == 0;
+            assert !removedEntry.isDirty;
 
-          removedEntry.dataPointer.decrementReadersReferrer();
-          removedEntry.dataPointer = null;
+            removedEntry.dataPointer.decrementReadersReferrer();
+            removedEntry.dataPointer = null;
 
-          Set<Long> pageEntries = filePages.get(removedEntry.fileId);
-          pageEntries.remove(removedEntry.pageIndex);
+            Set<Long> pageEntries = filePages.get(removedEntry.fileId);
+            pageEntries.remove(removedEntry.pageIndex);
+          }
         }
       }
     }
-  }
 
-  private void removeColdPagesWithoutCacheLock() {
-    Lock fileLock;
-    Lock pageLock;
-    int iterationsCounter = 0;
+    private void removeColdPagesWithoutPartitionLock() {
+      Lock fileLock;
+      Lock pageLock;
+      int iterationsCounter = 0;
 
-    while (am.size() + a1in.size() > maxSize && iterationsCounter < 1000) {
-      iterationsCounter++;
+      while (am.size() + a1in.size() > maxSize && iterationsCounter < 1000) {
+        iterationsCounter++;
 
-      if (a1in.size() > K_IN) {
-        OCacheEntry removedFromAInEntry = a1in.getLRU();
-        if (removedFromAInEntry == null) {
-          throw new OAllCacheEntriesAreUsedException("All records in aIn queue in 2q cache are used!");
-        } else {
-          fileLock = fileLockManager.acquireSharedLock(removedFromAInEntry.fileId);
-          try {
-            pageLock = pageLockManager.acquireExclusiveLock(new PageKey(removedFromAInEntry.fileId, removedFromAInEntry.pageIndex));
+        if (a1in.size() > K_IN) {
+          OCacheEntry removedFromAInEntry = a1in.getLRU();
+          if (removedFromAInEntry == null) {
+            throw new OAllCacheEntriesAreUsedException("All records in aIn queue in 2q cache are used!");
+          } else {
+            fileLock = fileLockManager.acquireSharedLock(removedFromAInEntry.fileId);
             try {
-              if (a1in.get(removedFromAInEntry.fileId, removedFromAInEntry.pageIndex) == null)
-                continue;
+              pageLock = pageLockManager
+                  .acquireExclusiveLock(new PageKey(removedFromAInEntry.fileId, removedFromAInEntry.pageIndex));
+              try {
+                if (a1in.get(removedFromAInEntry.fileId, removedFromAInEntry.pageIndex) == null)
+                  continue;
 
-              if (removedFromAInEntry.usagesCount > 0)
-                continue;
+                if (removedFromAInEntry.usagesCount > 0)
+                  continue;
 
-              assert !removedFromAInEntry.isDirty;
+                assert !removedFromAInEntry.isDirty;
 
-              a1in.remove(removedFromAInEntry.fileId, removedFromAInEntry.pageIndex);
+                a1in.remove(removedFromAInEntry.fileId, removedFromAInEntry.pageIndex);
 
-              removedFromAInEntry.dataPointer.decrementReadersReferrer();
-              removedFromAInEntry.dataPointer = null;
+                removedFromAInEntry.dataPointer.decrementReadersReferrer();
+                removedFromAInEntry.dataPointer = null;
 
-              a1out.putToMRU(removedFromAInEntry);
+                a1out.putToMRU(removedFromAInEntry);
+              } finally {
+                pageLockManager.releaseLock(pageLock);
+              }
             } finally {
-              pageLockManager.releaseLock(pageLock);
+              fileLockManager.releaseLock(fileLock);
             }
-          } finally {
-            fileLockManager.releaseLock(fileLock);
           }
-        }
 
-        while (a1out.size() > K_OUT) {
-          OCacheEntry removedEntry = a1out.getLRU();
-          fileLock = fileLockManager.acquireSharedLock(removedEntry.fileId);
-          try {
-            pageLock = pageLockManager.acquireExclusiveLock(new PageKey(removedEntry.fileId, removedEntry.pageIndex));
+          while (a1out.size() > K_OUT) {
+            OCacheEntry removedEntry = a1out.getLRU();
+            fileLock = fileLockManager.acquireSharedLock(removedEntry.fileId);
             try {
-              if (a1out.remove(removedEntry.fileId, removedEntry.pageIndex) == null)
-                continue;
-
-              assert removedEntry.usagesCount == 0;
-              assert removedEntry.dataPointer == null;
-              assert !removedEntry.isDirty;
-
-              Set<Long> pageEntries = filePages.get(removedEntry.fileId);
-              pageEntries.remove(removedEntry.pageIndex);
+              pageLock = pageLockManager.acquireExclusiveLock(new PageKey(removedEntry.fileId, removedEntry.pageIndex));
+              try {
+                if (a1out.remove(removedEntry.fileId, removedEntry.pageIndex) == null)
+                  continue;
+
+                assert removedEntry.usagesCount == 0;
+                assert removedEntry.dataPointer == null;
+                assert !removedEntry.isDirty;
+
+                Set<Long> pageEntries = filePages.get(removedEntry.fileId);
+                pageEntries.remove(removedEntry.pageIndex);
+              } finally {
+                pageLockManager.releaseLock(pageLock);
+              }
             } finally {
-              pageLockManager.releaseLock(pageLock);
+              fileLockManager.releaseLock(fileLock);
             }
-          } finally {
-            fileLockManager.releaseLock(fileLock);
           }
-        }
-      } else {
-        OCacheEntry removedEntry = am.getLRU();
-
-        if (removedEntry == null) {
-          throw new OAllCacheEntriesAreUsedException("All records in aIn queue in 2q cache are used!");
         } else {
-          fileLock = fileLockManager.acquireSharedLock(removedEntry.fileId);
-          try {
-            pageLock = pageLockManager.acquireExclusiveLock(new PageKey(removedEntry.fileId, removedEntry.pageIndex));
+          OCacheEntry removedEntry = am.getLRU();
+
+          if (removedEntry == null) {
+            throw new OAllCacheEntriesAreUsedException("All records in aIn queue in 2q cache are used!");
+          } else {
+            fileLock = fileLockManager.acquireSharedLock(removedEntry.fileId);
             try {
-              if (am.get(removedEntry.fileId, removedEntry.pageIndex) == null)
-                continue;
+              pageLock = pageLockManager.acquireExclusiveLock(new PageKey(removedEntry.fileId, removedEntry.pageIndex));
+              try {
+                if (am.get(removedEntry.fileId, removedEntry.pageIndex) == null)
+                  continue;
 
-              if (removedEntry.usagesCount > 0)
-                continue;
+                if (removedEntry.usagesCount > 0)
+                  continue;
 
-              assert !removedEntry.isDirty;
+                assert !removedEntry.isDirty;
 
-              am.remove(removedEntry.fileId, removedEntry.pageIndex);
+                am.remove(removedEntry.fileId, removedEntry.pageIndex);
 
-              removedEntry.dataPointer.decrementReadersReferrer();
-              removedEntry.dataPointer = null;
+                removedEntry.dataPointer.decrementReadersReferrer();
+                removedEntry.dataPointer = null;
 
-              Set<Long> pageEntries = filePages.get(removedEntry.fileId);
-              pageEntries.remove(removedEntry.pageIndex);
+                Set<Long> pageEntries = filePages.get(removedEntry.fileId);
+                pageEntries.remove(removedEntry.pageIndex);
+              } finally {
+                pageLockManager.releaseLock(pageLock);
+              }
             } finally {
-              pageLockManager.releaseLock(pageLock);
+              fileLockManager.releaseLock(fileLock);
             }
-          } finally {
-            fileLockManager.releaseLock(fileLock);
           }
         }
       }
     }
-  }
 
-  int getMaxSize() {
-    return maxSize;
-  }
+    private OCacheEntry remove(long fileId, long pageIndex) {
+      OCacheEntry cacheEntry = am.remove(fileId, pageIndex);
+      if (cacheEntry != null) {
+        if (cacheEntry.usagesCount > 1)
+          throw new IllegalStateException("Record cannot be removed because it is used!");
+        return cacheEntry;
+      }
 
-  @Override
-  public long getUsedMemory() {
-    return ((long) (am.size() + a1in.size())) * (2 * ODurablePage.PAGE_PADDING + pageSize);
-  }
+      cacheEntry = a1out.remove(fileId, pageIndex);
+      if (cacheEntry != null)
+        return cacheEntry;
 
-  private OCacheEntry remove(long fileId, long pageIndex) {
-    OCacheEntry cacheEntry = am.remove(fileId, pageIndex);
-    if (cacheEntry != null) {
-      if (cacheEntry.usagesCount > 1)
+      cacheEntry = a1in.remove(fileId, pageIndex);
+      if (cacheEntry != null && cacheEntry.usagesCount > 1)
         throw new IllegalStateException("Record cannot be removed because it is used!");
-      return cacheEntry;
-    }
 
-    cacheEntry = a1out.remove(fileId, pageIndex);
-    if (cacheEntry != null)
       return cacheEntry;
-
-    cacheEntry = a1in.remove(fileId, pageIndex);
-    if (cacheEntry != null && cacheEntry.usagesCount > 1)
-      throw new IllegalStateException("Record cannot be removed because it is used!");
-
-    return cacheEntry;
+    }
   }
 
   private int normalizeMemory(long maxSize, int pageSize) {
@@ -29,13 +29,17 @@ import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.orient.core.command.OCommandOutputListener;
+import com.orientechnologies.orient.core.compression.impl.ONothingCompression;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
 import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.fs.OFile;
 import com.orientechnologies.orient.core.storage.fs.OFileClassic;
+import com.orientechnologies.orient.core.storage.fs.OFileCompressed;
+import com.orientechnologies.orient.core.storage.fs.OFileFactory;
 import com.orientechnologies.orient.core.storage.impl.local.OLowDiskSpaceInformation;
 import com.orientechnologies.orient.core.storage.impl.local.OLowDiskSpaceListener;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
@@ -83,6 +87,10 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
   private final long                                       diskSizeCheckInterval = OGlobalConfiguration.DISC_CACHE_FREE_SPACE_CHECK_INTERVAL
                                                                                      .getValueAsInteger() * 1000;
+  private final String                                     fileType              = OGlobalConfiguration.DISK_CACHE_FILE_TYPE
+                                                                                     .getValueAsString();
+  private final String                                     pageCompression       = OGlobalConfiguration.DISK_CACHE_PAGE_COMPRESSION
+                                                                                     .getValueAsString();
   private final List<WeakReference<OLowDiskSpaceListener>> listeners             = new CopyOnWriteArrayList<WeakReference<OLowDiskSpaceListener>>();
 
   private final AtomicLong                                 lastDiskSpaceCheck    = new AtomicLong(System.currentTimeMillis());
@@ -989,11 +997,16 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     }
   }
 
-  private OFileClassic createFile(String fileName) {
-    OFileClassic fileClassic = new OFileClassic();
+  private OFileClassic createFile(String fileName) throws IOException {
     String path = storageLocal.getVariableParser().resolveVariables(storageLocal.getStoragePath() + File.separator + fileName);
-    fileClassic.init(path, storageLocal.getMode());
-    return fileClassic;
+    if (OFileCompressed.isCompressed(path) || (!ONothingCompression.NAME.equals(pageCompression) && !new File(path).exists()))
+      return (OFileClassic) new OFileCompressed(pageSize, pageCompression).init(path, storageLocal.getMode());
+
+    final OFile file = OFileFactory.instance().create(fileType, path, storageLocal.getMode());
+    if (!(file instanceof OFileClassic))
+      throw new OStorageException("File type '" + fileType + "' can not be used by disk cache");
+
+    return (OFileClassic) file;
   }
 
   private void readNameIdMap() throws IOException {
@@ -1097,7 +1110,6 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     final long startPosition = pageIndex * pageSize;
     final long endPosition = startPosition + pageSize;
 
-    byte[] content = new byte[pageSize + 2 * PAGE_PADDING];
     OCachePointer dataPointer;
     final OFileClassic fileClassic = files.get(intId);
 
@@ -1111,8 +1123,20 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
       lastLsn = new OLogSequenceNumber(-1, -1);
 
     if (fileClassic.getFilledUpTo() >= endPosition) {
-      fileClassic.read(startPosition, content, content.length - 2 * PAGE_PADDING, PAGE_PADDING);
-      final ODirectMemoryPointer pointer = new ODirectMemoryPointer(content);
+      final ODirectMemoryPointer pointer = new ODirectMemoryPointer(pageSize + 2 * PAGE_PADDING);
+      pointer.setLong(0, 0);
+      pointer.setLong(pageSize + PAGE_PADDING, 0);
+
+      boolean loaded = false;
+      try {
+        // PAGE IS COPIED STRAIGHT INTO DIRECT MEMORY, MEMORY MAPPED FILES DO IT WITHOUT INTERMEDIATE BUFFER
+        fileClassic.read(startPosition, pointer, PAGE_PADDING, pageSize);
+        loaded = true;
+      } finally {
+        // POINTER IS NOT REFERENCED BY CACHE YET, SO IT HAS TO BE RELEASED HERE IF READ FAILED
+        if (!loaded)
+          pointer.free();
+      }
 
       dataPointer = new OCachePointer(pointer, lastLsn, fileId, pageIndex);
     } else if (addNewPages) {
@@ -1121,7 +1145,7 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
       addAllocatedSpace(space);
 
-      final ODirectMemoryPointer pointer = new ODirectMemoryPointer(content);
+      final ODirectMemoryPointer pointer = new ODirectMemoryPointer(new byte[pageSize + 2 * PAGE_PADDING]);
       dataPointer = new OCachePointer(pointer, lastLsn, fileId, pageIndex);
     } else
       return null;
@@ -1129,6 +1153,19 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     return dataPointer;
   }
 
+  /**
+   * Returns content of the page in the form it is written to the file, with magic number and CRC32 of the page data.
+   */
+  public byte[] pageContent(ODirectMemoryPointer dataPointer) {
+    final byte[] content = dataPointer.get(PAGE_PADDING, pageSize);
+    OLongSerializer.INSTANCE.serializeNative(MAGIC_NUMBER, content, 0);
+
+    final int crc32 = calculatePageCrc(content);
+    OIntegerSerializer.INSTANCE.serializeNative(crc32, content, OLongSerializer.LONG_SIZE);
+
+    return content;
+  }
+
   private void flushPage(int fileId, long pageIndex, ODirectMemoryPointer dataPointer) throws IOException {
     if (writeAheadLog != null) {
       OLogSequenceNumber lsn = ODurablePage.getLogSequenceNumberFromPage(dataPointer);
@@ -1137,11 +1174,7 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
         writeAheadLog.flush();
     }
 
-    final byte[] content = dataPointer.get(PAGE_PADDING, pageSize);
-    OLongSerializer.INSTANCE.serializeNative(MAGIC_NUMBER, content, 0);
-
-    final int crc32 = calculatePageCrc(content);
-    OIntegerSerializer.INSTANCE.serializeNative(crc32, content, OLongSerializer.LONG_SIZE);
+    final byte[] content = pageContent(dataPointer);
 
     final OFileClassic fileClassic = files.get(fileId);
 
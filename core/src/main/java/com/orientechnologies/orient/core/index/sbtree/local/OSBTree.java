@@ -28,6 +28,8 @@ import com.orientechnologies.orient.core.index.OAlwaysGreaterKey;
 import com.orientechnologies.orient.core.index.OAlwaysLessKey;
 import com.orientechnologies.orient.core.index.OCompositeKey;
 import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.index.bloomfilter.OBloomFilter;
+import com.orientechnologies.orient.core.index.bloomfilter.OBloomFilterPage;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OCacheEntry;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OReadCache;
 import com.orientechnologies.orient.core.iterator.OEmptyIterator;
@@ -91,11 +93,15 @@ public class OSBTree<K, V> extends ODurableComponent {
   private final boolean                  durableInNonTxMode;
   private long                           fileId;
   private long                           nullBucketFileId        = -1;
+  private long                           bloomFilterFileId       = -1;
+  private OBloomFilter                   bloomFilter;
   private int                            keySize;
   private OBinarySerializer<K>           keySerializer;
   private OType[]                        keyTypes;
   private OBinarySerializer<V>           valueSerializer;
   private boolean                        nullPointerSupport;
+  private final boolean                  prefixCompression       = OGlobalConfiguration.SBTREE_PREFIX_COMPRESSION
+                                                                     .getValueAsBoolean();
 
   public OSBTree(String name, String dataFileExtension, boolean durableInNonTxMode, String nullFileExtension,
       OAbstractPaginatedStorage storage) {
@@ -111,6 +117,16 @@ public class OSBTree<K, V> extends ODurableComponent {
 
   public void create(OBinarySerializer<K> keySerializer, OBinarySerializer<V> valueSerializer, OType[] keyTypes, int keySize,
       boolean nullPointerSupport) {
+    create(keySerializer, valueSerializer, keyTypes, keySize, nullPointerSupport, 0);
+  }
+
+  /**
+   * @param bloomFilterKeys
+   *          expected amount of keys in the tree which is used to size its {@link OBloomFilter}, 0 if the tree has no Bloom
+   *          filter.
+   */
+  public void create(OBinarySerializer<K> keySerializer, OBinarySerializer<V> valueSerializer, OType[] keyTypes, int keySize,
+      boolean nullPointerSupport, long bloomFilterKeys) {
     assert keySerializer != null;
     final OAtomicOperation atomicOperation;
     try {
@@ -135,12 +151,19 @@ public class OSBTree<K, V> extends ODurableComponent {
       if (nullPointerSupport)
         nullBucketFileId = addFile(atomicOperation, getName() + nullFileExtension);
 
+      if (bloomFilterKeys > 0) {
+        bloomFilterFileId = addFile(atomicOperation, getName() + OBloomFilter.FILE_EXTENSION);
+        initBloomFilter(
+            OBloomFilter.create(bloomFilterKeys, OGlobalConfiguration.INDEX_BLOOM_FILTER_BITS_PER_KEY.getValueAsInteger()),
+            atomicOperation);
+      }
+
       OCacheEntry rootCacheEntry = addPage(atomicOperation, fileId);
       rootCacheEntry.acquireExclusiveLock();
       try {
 
         OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, true, keySerializer, keyTypes, valueSerializer,
-            getChangesTree(atomicOperation, rootCacheEntry));
+            prefixCompression, getChangesTree(atomicOperation, rootCacheEntry));
         rootBucket.setTreeSize(0);
 
       } finally {
@@ -172,6 +195,9 @@ public class OSBTree<K, V> extends ODurableComponent {
         if (key != null) {
           key = keySerializer.preprocess(key, (Object[]) keyTypes);
 
+          if (bloomFilter != null && isFullKey(key) && !bloomFilterMightContain(key, atomicOperation))
+            return null;
+
           BucketSearchResult bucketSearchResult = findBucket(key, atomicOperation);
           if (bucketSearchResult.itemIndex < 0)
             return null;
@@ -237,6 +263,9 @@ public class OSBTree<K, V> extends ODurableComponent {
         final boolean createLinkToTheValue = valueSize > MAX_EMBEDDED_VALUE_SIZE;
 
         key = keySerializer.preprocess(key, (Object[]) keyTypes);
+        if (bloomFilter != null)
+          addToBloomFilter(key, atomicOperation);
+
         long valueLink = -1;
         if (createLinkToTheValue)
           valueLink = createLinkToTheValue(value, atomicOperation);
@@ -347,6 +376,70 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  /**
+   * Fills empty tree by entries sorted in ascending order of keys. Instead of insertion of keys one by one tree is built from the
+   * bottom, leaf buckets are filled from left to right till {@link OGlobalConfiguration#SBTREE_BULK_LOAD_FILL_FACTOR} percent of
+   * their space is used, then levels of non-leaf buckets are built above them. Tree should not contain non-null keys, null keys
+   * are not accepted by this method and should be put by {@link #put(Object, Object)}.
+   *
+   * @param entries
+   *          Entries with unique keys sorted in ascending order.
+   */
+  public void bulkLoad(Iterator<Map.Entry<K, V>> entries) {
+    final OSBTreeBulkLoad bulkLoad = startBulkLoad();
+    try {
+      while (entries.hasNext()) {
+        final Map.Entry<K, V> entry = entries.next();
+        bulkLoad.add(entry.getKey(), entry.getValue());
+      }
+    } catch (RuntimeException e) {
+      bulkLoad.cancel();
+      throw e;
+    }
+
+    bulkLoad.complete();
+  }
+
+  /**
+   * Starts bulk load of tree which does not contain non-null keys. Entries are passed one by one to returned
+   * {@link OSBTreeBulkLoad} in ascending order of keys, so they are not collected in memory. Tree is exclusively locked by current
+   * thread till bulk load is completed or cancelled, only null key can be put in tree during this time.
+   *
+   * @see #bulkLoad(Iterator)
+   */
+  public OSBTreeBulkLoad startBulkLoad() {
+    final OAtomicOperation atomicOperation;
+    try {
+      atomicOperation = startAtomicOperation();
+    } catch (IOException e) {
+      throw new OIndexException("Error during sbtree bulk load.", e);
+    }
+
+    acquireExclusiveLock();
+    try {
+      OCacheEntry rootCacheEntry = loadPage(atomicOperation, fileId, ROOT_INDEX, false);
+      try {
+        OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+            getChangesTree(atomicOperation, rootCacheEntry));
+        if (!rootBucket.isLeaf() || !rootBucket.isEmpty())
+          throw new OSBTreeException("Only sbtree without non-null keys can be bulk loaded, sbtree " + getName() + " contains "
+              + rootBucket.getTreeSize() + " entries");
+      } finally {
+        releasePage(atomicOperation, rootCacheEntry);
+      }
+
+      return new OSBTreeBulkLoad(atomicOperation);
+    } catch (IOException e) {
+      rollback();
+      releaseExclusiveLock();
+      throw new OSBTreeException("Error during bulk load of sbtree with name " + getName(), e);
+    } catch (RuntimeException e) {
+      rollback();
+      releaseExclusiveLock();
+      throw e;
+    }
+  }
+
   public void close(boolean flush) {
     acquireExclusiveLock();
     try {
@@ -355,6 +448,9 @@ public class OSBTree<K, V> extends ODurableComponent {
       if (nullPointerSupport)
         readCache.closeFile(nullBucketFileId, flush, writeCache);
 
+      if (bloomFilter != null)
+        readCache.closeFile(bloomFilterFileId, flush, writeCache);
+
     } catch (IOException e) {
       throw new OSBTreeException("Error during close of index " + getName(), e);
     } finally {
@@ -381,6 +477,11 @@ public class OSBTree<K, V> extends ODurableComponent {
       if (nullPointerSupport)
         truncateFile(atomicOperation, nullBucketFileId);
 
+      if (bloomFilter != null) {
+        truncateFile(atomicOperation, bloomFilterFileId);
+        initBloomFilter(bloomFilter, atomicOperation);
+      }
+
       OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, ROOT_INDEX, false);
       if (cacheEntry == null) {
         cacheEntry = addPage(atomicOperation, fileId);
@@ -389,7 +490,7 @@ public class OSBTree<K, V> extends ODurableComponent {
       cacheEntry.acquireExclusiveLock();
       try {
         OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(cacheEntry, true, keySerializer, keyTypes, valueSerializer,
-            getChangesTree(atomicOperation, cacheEntry));
+            prefixCompression, getChangesTree(atomicOperation, cacheEntry));
 
         rootBucket.setTreeSize(0);
 
@@ -426,6 +527,9 @@ public class OSBTree<K, V> extends ODurableComponent {
       if (nullPointerSupport)
         deleteFile(atomicOperation, nullBucketFileId);
 
+      if (bloomFilter != null)
+        deleteFile(atomicOperation, bloomFilterFileId);
+
       endAtomicOperation(false);
     } catch (IOException e) {
       rollback();
@@ -458,6 +562,11 @@ public class OSBTree<K, V> extends ODurableComponent {
         deleteFile(atomicOperation, nullFileId);
       }
 
+      if (isFileExists(atomicOperation, getName() + OBloomFilter.FILE_EXTENSION)) {
+        final long bloomFileId = openFile(atomicOperation, getName() + OBloomFilter.FILE_EXTENSION);
+        deleteFile(atomicOperation, bloomFileId);
+      }
+
       endAtomicOperation(false);
     } catch (IOException ioe) {
       rollback();
@@ -485,6 +594,11 @@ public class OSBTree<K, V> extends ODurableComponent {
       if (nullPointerSupport)
         nullBucketFileId = openFile(atomicOperation, name + nullFileExtension);
 
+      if (isFileExists(atomicOperation, name + OBloomFilter.FILE_EXTENSION)) {
+        bloomFilterFileId = openFile(atomicOperation, name + OBloomFilter.FILE_EXTENSION);
+        loadBloomFilter(atomicOperation);
+      }
+
       this.keySerializer = keySerializer;
       if (keySerializer == null)
         System.out.println("sdf");
@@ -769,6 +883,81 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  private void initBloomFilter(OBloomFilter filter, OAtomicOperation atomicOperation) throws IOException {
+    final OCacheEntry headerCacheEntry = addPage(atomicOperation, bloomFilterFileId);
+    headerCacheEntry.acquireExclusiveLock();
+    try {
+      final OBloomFilterPage headerPage = new OBloomFilterPage(headerCacheEntry,
+          getChangesTree(atomicOperation, headerCacheEntry));
+      headerPage.setPagesCount(filter.getPagesCount());
+      headerPage.setHashFunctions(filter.getHashFunctions());
+    } finally {
+      headerCacheEntry.releaseExclusiveLock();
+      releasePage(atomicOperation, headerCacheEntry);
+    }
+
+    for (int i = 0; i < filter.getPagesCount(); i++)
+      releasePage(atomicOperation, addPage(atomicOperation, bloomFilterFileId));
+
+    bloomFilter = filter;
+  }
+
+  private void loadBloomFilter(OAtomicOperation atomicOperation) throws IOException {
+    final OCacheEntry headerCacheEntry = loadPage(atomicOperation, bloomFilterFileId, 0, false);
+    try {
+      final OBloomFilterPage headerPage = new OBloomFilterPage(headerCacheEntry,
+          getChangesTree(atomicOperation, headerCacheEntry));
+      bloomFilter = new OBloomFilter(headerPage.getPagesCount(), headerPage.getHashFunctions());
+    } finally {
+      releasePage(atomicOperation, headerCacheEntry);
+    }
+  }
+
+  private boolean bloomFilterMightContain(K key, OAtomicOperation atomicOperation) throws IOException {
+    final long hashCode = bloomFilterHashCode(key);
+
+    final OCacheEntry cacheEntry = loadPage(atomicOperation, bloomFilterFileId, bloomFilter.pageIndex(hashCode), false);
+    try {
+      final OBloomFilterPage page = new OBloomFilterPage(cacheEntry, getChangesTree(atomicOperation, cacheEntry));
+      for (int i = 0; i < bloomFilter.getHashFunctions(); i++)
+        if (!page.isBitSet(bloomFilter.bitIndex(hashCode, i)))
+          return false;
+
+      return true;
+    } finally {
+      releasePage(atomicOperation, cacheEntry);
+    }
+  }
+
+  private void addToBloomFilter(K key, OAtomicOperation atomicOperation) throws IOException {
+    final long hashCode = bloomFilterHashCode(key);
+
+    final OCacheEntry cacheEntry = loadPage(atomicOperation, bloomFilterFileId, bloomFilter.pageIndex(hashCode), false);
+    cacheEntry.acquireExclusiveLock();
+    try {
+      final OBloomFilterPage page = new OBloomFilterPage(cacheEntry, getChangesTree(atomicOperation, cacheEntry));
+      for (int i = 0; i < bloomFilter.getHashFunctions(); i++)
+        page.setBit(bloomFilter.bitIndex(hashCode, i));
+    } finally {
+      cacheEntry.releaseExclusiveLock();
+      releasePage(atomicOperation, cacheEntry);
+    }
+  }
+
+  private long bloomFilterHashCode(K key) {
+    final byte[] serializedKey = new byte[keySerializer.getObjectSize(key, (Object[]) keyTypes)];
+    keySerializer.serializeNativeObject(key, serializedKey, 0, (Object[]) keyTypes);
+
+    return OBloomFilter.hashCode(serializedKey);
+  }
+
+  /**
+   * Partial composite keys match several entries of the tree, they can not be checked by Bloom filter.
+   */
+  private boolean isFullKey(K key) {
+    return !(key instanceof OCompositeKey) || ((OCompositeKey) key).getKeys().size() >= keySize;
+  }
+
   @Override
   protected void endAtomicOperation(boolean rollback) throws IOException {
     if (storage.getStorageTransaction() == null && !durableInNonTxMode)
@@ -1363,7 +1552,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
     try {
       OSBTreeBucket<K, V> newRightBucket = new OSBTreeBucket<K, V>(rightBucketEntry, splitLeaf, keySerializer, keyTypes,
-          valueSerializer, getChangesTree(atomicOperation, rightBucketEntry));
+          valueSerializer, prefixCompression, getChangesTree(atomicOperation, rightBucketEntry));
       newRightBucket.addAll(rightEntries);
 
       bucketToSplit.shrink(indexToSplit);
@@ -1463,7 +1652,7 @@ public class OSBTree<K, V> extends ODurableComponent {
     leftBucketEntry.acquireExclusiveLock();
     try {
       OSBTreeBucket<K, V> newLeftBucket = new OSBTreeBucket<K, V>(leftBucketEntry, splitLeaf, keySerializer, keyTypes,
-          valueSerializer, getChangesTree(atomicOperation, leftBucketEntry));
+          valueSerializer, prefixCompression, getChangesTree(atomicOperation, leftBucketEntry));
       newLeftBucket.addAll(leftEntries);
 
       if (splitLeaf)
@@ -1477,7 +1666,7 @@ public class OSBTree<K, V> extends ODurableComponent {
     rightBucketEntry.acquireExclusiveLock();
     try {
       OSBTreeBucket<K, V> newRightBucket = new OSBTreeBucket<K, V>(rightBucketEntry, splitLeaf, keySerializer, keyTypes,
-          valueSerializer, getChangesTree(atomicOperation, rightBucketEntry));
+          valueSerializer, prefixCompression, getChangesTree(atomicOperation, rightBucketEntry));
       newRightBucket.addAll(rightEntries);
 
       if (splitLeaf)
@@ -1487,8 +1676,8 @@ public class OSBTree<K, V> extends ODurableComponent {
       releasePage(atomicOperation, rightBucketEntry);
     }
 
-    bucketToSplit = new OSBTreeBucket<K, V>(bucketEntry, false, keySerializer, keyTypes, valueSerializer, getChangesTree(
-        atomicOperation, bucketEntry));
+    bucketToSplit = new OSBTreeBucket<K, V>(bucketEntry, false, keySerializer, keyTypes, valueSerializer, prefixCompression,
+        getChangesTree(atomicOperation, bucketEntry));
 
     bucketToSplit.setTreeSize(treeSize);
     bucketToSplit.setValuesFreeListFirstIndex(freeListPage);
@@ -1511,6 +1700,116 @@ public class OSBTree<K, V> extends ODurableComponent {
     return new BucketSearchResult(keyIndex - indexToSplit - 1, resultPath);
   }
 
+  /**
+   * Appends entry to the end of bucket which is filled by bulk load. If bucket is already filled, keys of bucket are compressed and
+   * entry is appended only if compression has freed space of bucket.
+   *
+   * @return <code>false</code> if entry should be added to the next bucket.
+   */
+  private boolean addBulkLoadEntry(OSBTreeBucket<K, V> bucket, OSBTreeBucket.SBTreeEntry<K, V> treeEntry, int fillFactor)
+      throws IOException {
+    if (!bucket.isFilled(fillFactor) && bucket.addEntry(bucket.size(), treeEntry, false))
+      return true;
+
+    return bucket.compressKeys() && !bucket.isFilled(fillFactor) && bucket.addEntry(bucket.size(), treeEntry, false);
+  }
+
+  private List<PageKey<K>> buildNonLeafLevel(List<PageKey<K>> children, int fillFactor, OAtomicOperation atomicOperation)
+      throws IOException {
+    final List<PageKey<K>> parents = new ArrayList<PageKey<K>>();
+
+    int childIndex = 0;
+    while (childIndex < children.size()) {
+      final OCacheEntry cacheEntry = addPage(atomicOperation, fileId);
+      cacheEntry.acquireExclusiveLock();
+      try {
+        final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, false, keySerializer, keyTypes, valueSerializer,
+            prefixCompression, getChangesTree(atomicOperation, cacheEntry));
+
+        parents.add(new PageKey<K>(cacheEntry.getPageIndex(), children.get(childIndex).minKey));
+        childIndex++;
+
+        while (childIndex < children.size()) {
+          final PageKey<K> leftChild = children.get(childIndex - 1);
+          final PageKey<K> rightChild = children.get(childIndex);
+
+          if (!addBulkLoadEntry(bucket, new OSBTreeBucket.SBTreeEntry<K, V>(leftChild.pageIndex, rightChild.pageIndex,
+              rightChild.minKey, null), bucket.isEmpty() ? 100 : fillFactor)) {
+            if (bucket.isEmpty())
+              throw new OSBTreeException("Entry with key " + rightChild.minKey + " does not fit in empty bucket of sbtree "
+                  + getName());
+
+            break;
+          }
+
+          childIndex++;
+        }
+
+        // EACH NON-LEAF BUCKET SHOULD HAVE AT LEAST TWO CHILDREN, SO SINGLE REMAINING CHILD IS ADDED TO THE CURRENT BUCKET IF IT
+        // FITS, OTHERWISE LAST CHILD OF CURRENT BUCKET IS MOVED TO THE NEXT BUCKET
+        if (childIndex == children.size() - 1) {
+          final PageKey<K> leftChild = children.get(childIndex - 1);
+          final PageKey<K> rightChild = children.get(childIndex);
+
+          if (addBulkLoadEntry(bucket, new OSBTreeBucket.SBTreeEntry<K, V>(leftChild.pageIndex, rightChild.pageIndex,
+              rightChild.minKey, null), 100))
+            childIndex++;
+          else {
+            assert bucket.size() > 1;
+
+            bucket.shrink(bucket.size() - 1);
+            childIndex--;
+          }
+        }
+      } finally {
+        cacheEntry.releaseExclusiveLock();
+        releasePage(atomicOperation, cacheEntry);
+      }
+    }
+
+    return parents;
+  }
+
+  /**
+   * Copies content of the top bucket built by bulk load to the root bucket.
+   */
+  private void moveToRoot(long pageIndex, boolean isLeaf, long loadedEntries, OAtomicOperation atomicOperation)
+      throws IOException {
+    final List<OSBTreeBucket.SBTreeEntry<K, V>> rootEntries;
+
+    final OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, pageIndex, false);
+    try {
+      final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer,
+          getChangesTree(atomicOperation, cacheEntry));
+
+      rootEntries = new ArrayList<OSBTreeBucket.SBTreeEntry<K, V>>(bucket.size());
+      for (int i = 0; i < bucket.size(); i++)
+        rootEntries.add(bucket.getEntry(i));
+    } finally {
+      releasePage(atomicOperation, cacheEntry);
+    }
+
+    final OCacheEntry rootCacheEntry = loadPage(atomicOperation, fileId, ROOT_INDEX, false);
+    rootCacheEntry.acquireExclusiveLock();
+    try {
+      OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+          getChangesTree(atomicOperation, rootCacheEntry));
+      final long freeListPage = rootBucket.getValuesFreeListFirstIndex();
+      // VALUE OF NULL KEY IS ALREADY COUNTED IN TREE SIZE
+      final long treeSize = rootBucket.getTreeSize() + loadedEntries;
+
+      rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, isLeaf, keySerializer, keyTypes, valueSerializer, prefixCompression,
+          getChangesTree(atomicOperation, rootCacheEntry));
+      rootBucket.addAll(rootEntries);
+
+      rootBucket.setTreeSize(treeSize);
+      rootBucket.setValuesFreeListFirstIndex(freeListPage);
+    } finally {
+      rootCacheEntry.releaseExclusiveLock();
+      releasePage(atomicOperation, rootCacheEntry);
+    }
+  }
+
   private BucketSearchResult findBucket(K key, OAtomicOperation atomicOperation) throws IOException {
     long pageIndex = ROOT_INDEX;
     final ArrayList<Long> path = new ArrayList<Long>();
@@ -1670,6 +1969,168 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  /**
+   * Bulk load of {@link OSBTree} started by {@link OSBTree#startBulkLoad()}. Only one of {@link #complete()} or {@link #cancel()}
+   * should be called at the end, bulk load is cancelled automatically if {@link #add(Object, Object)} fails.
+   */
+  public final class OSBTreeBulkLoad {
+    private final OAtomicOperation   atomicOperation;
+    private final int                fillFactor = OGlobalConfiguration.SBTREE_BULK_LOAD_FILL_FACTOR.getValueAsInteger();
+    private final List<PageKey<K>>   leaves     = new ArrayList<PageKey<K>>();
+
+    private OCacheEntry              leafCacheEntry;
+    private OSBTreeBucket<K, V>      leafBucket;
+    private K                        prevKey;
+    private long                     loadedEntries;
+    private boolean                  active     = true;
+
+    private OSBTreeBulkLoad(OAtomicOperation atomicOperation) {
+      this.atomicOperation = atomicOperation;
+    }
+
+    /**
+     * Appends entry to the tree.
+     *
+     * @param key
+     *          Not null key which is bigger than all keys added before.
+     */
+    public void add(K key, V value) {
+      checkActive();
+
+      try {
+        if (key == null)
+          throw new OSBTreeException("Null keys can not be bulk loaded in sbtree " + getName());
+
+        final int keySize = keySerializer.getObjectSize(key, (Object[]) keyTypes);
+        if (keySize > MAX_KEY_SIZE)
+          throw new OSBTreeException("Key size is more than allowed, operation was canceled. Current key size " + keySize
+              + ", allowed  " + MAX_KEY_SIZE);
+
+        key = keySerializer.preprocess(key, (Object[]) keyTypes);
+        if (prevKey != null && comparator.compare(prevKey, key) >= 0)
+          throw new OSBTreeException("Keys passed to bulk load of sbtree " + getName()
+              + " should be unique and sorted in ascending order, but key " + key + " follows key " + prevKey);
+
+        if (bloomFilter != null)
+          addToBloomFilter(key, atomicOperation);
+
+        final boolean createLinkToTheValue = valueSerializer.getObjectSize(value) > MAX_EMBEDDED_VALUE_SIZE;
+        long valueLink = -1;
+        if (createLinkToTheValue)
+          valueLink = createLinkToTheValue(value, atomicOperation);
+
+        final OSBTreeBucket.SBTreeEntry<K, V> treeEntry = new OSBTreeBucket.SBTreeEntry<K, V>(-1, -1, key, new OSBTreeValue<V>(
+            createLinkToTheValue, valueLink, createLinkToTheValue ? null : value));
+
+        if (leafBucket == null || !addBulkLoadEntry(leafBucket, treeEntry, fillFactor)) {
+          final OCacheEntry newLeafCacheEntry = addPage(atomicOperation, fileId);
+          newLeafCacheEntry.acquireExclusiveLock();
+
+          final OSBTreeBucket<K, V> newLeafBucket = new OSBTreeBucket<K, V>(newLeafCacheEntry, true, keySerializer, keyTypes,
+              valueSerializer, prefixCompression, getChangesTree(atomicOperation, newLeafCacheEntry));
+
+          if (leafBucket != null) {
+            leafBucket.setRightSibling(newLeafCacheEntry.getPageIndex());
+            newLeafBucket.setLeftSibling(leafCacheEntry.getPageIndex());
+
+            releaseLeaf();
+          }
+
+          leafCacheEntry = newLeafCacheEntry;
+          leafBucket = newLeafBucket;
+
+          if (!addBulkLoadEntry(leafBucket, treeEntry, 100))
+            throw new OSBTreeException("Entry with key " + key + " does not fit in empty bucket of sbtree " + getName());
+
+          leaves.add(new PageKey<K>(leafCacheEntry.getPageIndex(), key));
+        }
+
+        prevKey = key;
+        loadedEntries++;
+      } catch (IOException e) {
+        cancel();
+        throw new OSBTreeException("Error during bulk load of sbtree with name " + getName(), e);
+      } catch (RuntimeException e) {
+        cancel();
+        throw e;
+      }
+    }
+
+    /**
+     * Builds non-leaf levels of the tree, commits changes and releases lock of the tree.
+     */
+    public void complete() {
+      checkActive();
+
+      active = false;
+      try {
+        releaseLeaf();
+
+        if (!leaves.isEmpty()) {
+          List<PageKey<K>> level = leaves;
+          boolean isLeaf = true;
+
+          while (level.size() > 1) {
+            level = buildNonLeafLevel(level, fillFactor, atomicOperation);
+            isLeaf = false;
+          }
+
+          moveToRoot(level.get(0).pageIndex, isLeaf, loadedEntries, atomicOperation);
+        }
+
+        endAtomicOperation(false);
+      } catch (IOException e) {
+        rollback();
+        throw new OSBTreeException("Error during bulk load of sbtree with name " + getName(), e);
+      } catch (RuntimeException e) {
+        rollback();
+        throw e;
+      } finally {
+        releaseExclusiveLock();
+      }
+    }
+
+    /**
+     * Rolls back changes done by bulk load and releases lock of the tree. Does nothing if bulk load is already finished.
+     */
+    public void cancel() {
+      if (!active)
+        return;
+
+      active = false;
+      try {
+        releaseLeaf();
+        rollback();
+      } finally {
+        releaseExclusiveLock();
+      }
+    }
+
+    private void releaseLeaf() {
+      if (leafCacheEntry != null) {
+        leafCacheEntry.releaseExclusiveLock();
+        releasePage(atomicOperation, leafCacheEntry);
+
+        leafCacheEntry = null;
+      }
+    }
+
+    private void checkActive() {
+      if (!active)
+        throw new OSBTreeException("Bulk load of sbtree " + getName() + " is already finished");
+    }
+  }
+
+  private static final class PageKey<K> {
+    private final long pageIndex;
+    private final K    minKey;
+
+    private PageKey(long pageIndex, K minKey) {
+      this.pageIndex = pageIndex;
+      this.minKey = minKey;
+    }
+  }
+
   private static final class PagePathItemUnit {
     private final long pageIndex;
     private final int  itemIndex;
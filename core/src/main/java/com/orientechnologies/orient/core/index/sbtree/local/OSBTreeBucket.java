@@ -26,7 +26,6 @@ import java.util.Comparator;
 import java.util.List;
 
 import com.orientechnologies.common.comparator.ODefaultComparator;
-import com.orientechnologies.common.directmemory.ODirectMemoryPointer;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OByteSerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
@@ -37,6 +36,12 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODura
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChangesTree;
 
 /**
+ * Bucket of {@link OSBTree}. If bucket is created with prefix compression, part of serialized keys which is shared by all keys of
+ * bucket is stored only once at the end of the page and entries contain only rest of the key bytes. Keys of variable length start
+ * from their size, so shared part is searched after first {@link OIntegerSerializer#INT_SIZE} bytes of such keys ("head" of the
+ * key) which are always stored in entries. Shared part is recalculated when bucket is split or shrunk, and is shortened when key
+ * which does not contain it is added. Buckets without prefix compression have the same layout as in previous versions.
+ *
  * @author Andrey Lomakin
  * @since 8/7/13
  */
@@ -51,7 +56,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
   /**
    * KEY_SERIALIZER_OFFSET and VALUE_SERIALIZER_OFFSET are no longer used by sb-tree since 1.7.
-   * 
+   *
    * However we left them in buckets to support backward compatibility.
    */
   private static final int            KEY_SERIALIZER_OFFSET   = TREE_SIZE_OFFSET + OLongSerializer.LONG_SIZE;
@@ -61,7 +66,34 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
   private static final int            POSITIONS_ARRAY_OFFSET  = FREE_VALUES_LIST_OFFSET + OLongSerializer.LONG_SIZE;
 
+  /**
+   * Flags are stored in the same byte as leaf flag, buckets created by previous versions contain only leaf flag.
+   */
+  private static final byte           LEAF_FLAG               = 1;
+  private static final byte           PREFIX_COMPRESSION_FLAG = 2;
+
+  /**
+   * Prefix compressed bucket stores size of shared part of keys, size of key head and shared part itself at the end of the page.
+   */
+  private static final int            SHARED_PART_SIZE_OFFSET = MAX_PAGE_SIZE_BYTES - OIntegerSerializer.INT_SIZE;
+  private static final int            HEAD_SIZE_OFFSET        = SHARED_PART_SIZE_OFFSET - OByteSerializer.BYTE_SIZE;
+
+  /**
+   * Size of field which contains length of stored part of variable length key in prefix compressed bucket.
+   */
+  private static final int            KEY_LENGTH_SIZE         = 2;
+
   private final boolean               isLeaf;
+  private final boolean               prefixCompression;
+
+  private int                         headSize;
+  private byte[]                      sharedPart;
+
+  /**
+   * Buffer which keys of prefix compressed bucket are assembled in before deserialization. Shared part is copied in it only once,
+   * so only head and rest of the key are read from the page for each key.
+   */
+  private byte[]                      keyBuffer;
 
   private final OBinarySerializer<K>  keySerializer;
   private final OBinarySerializer<V>  valueSerializer;
@@ -72,17 +104,31 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
   public OSBTreeBucket(OCacheEntry cacheEntry, boolean isLeaf, OBinarySerializer<K> keySerializer, OType[] keyTypes,
       OBinarySerializer<V> valueSerializer, OWALChangesTree changesTree) throws IOException {
+    this(cacheEntry, isLeaf, keySerializer, keyTypes, valueSerializer, false, changesTree);
+  }
+
+  public OSBTreeBucket(OCacheEntry cacheEntry, boolean isLeaf, OBinarySerializer<K> keySerializer, OType[] keyTypes,
+      OBinarySerializer<V> valueSerializer, boolean prefixCompression, OWALChangesTree changesTree) throws IOException {
     super(cacheEntry, changesTree);
 
     this.isLeaf = isLeaf;
+    this.prefixCompression = prefixCompression;
     this.keySerializer = keySerializer;
     this.keyTypes = keyTypes;
     this.valueSerializer = valueSerializer;
 
-    setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES);
     setIntValue(SIZE_OFFSET, 0);
 
-    setByteValue(IS_LEAF_OFFSET, (byte) (isLeaf ? 1 : 0));
+    byte flags = isLeaf ? LEAF_FLAG : 0;
+    if (prefixCompression) {
+      flags |= PREFIX_COMPRESSION_FLAG;
+
+      headSize = keySerializer.isFixedLength() ? 0 : OIntegerSerializer.INT_SIZE;
+      writeSharedPart(new byte[0]);
+    } else
+      setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES);
+
+    setByteValue(IS_LEAF_OFFSET, flags);
     setLongValue(LEFT_SIBLING_OFFSET, -1);
     setLongValue(RIGHT_SIBLING_OFFSET, -1);
 
@@ -98,9 +144,21 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     super(cacheEntry, changesTree);
     this.keyTypes = keyTypes;
 
-    this.isLeaf = getByteValue(IS_LEAF_OFFSET) > 0;
+    final byte flags = getByteValue(IS_LEAF_OFFSET);
+    this.isLeaf = (flags & LEAF_FLAG) != 0;
+    this.prefixCompression = (flags & PREFIX_COMPRESSION_FLAG) != 0;
     this.keySerializer = keySerializer;
     this.valueSerializer = valueSerializer;
+
+    if (prefixCompression) {
+      headSize = getByteValue(HEAD_SIZE_OFFSET);
+
+      final int sharedPartSize = getIntValue(SHARED_PART_SIZE_OFFSET);
+      if (sharedPartSize > 0)
+        sharedPart = getBinaryValue(HEAD_SIZE_OFFSET - sharedPartSize, sharedPartSize);
+      else
+        sharedPart = new byte[0];
+    }
   }
 
   public void setTreeSize(long size) throws IOException {
@@ -144,28 +202,16 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
   public long remove(int entryIndex) throws IOException {
     int entryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE);
-    int keySize = getObjectSizeInDirectMemory(keySerializer, entryPosition);
 
-    int entrySize;
-    long linkValue = -1;
-
-    if (isLeaf) {
-      if (valueSerializer.isFixedLength()) {
-        entrySize = keySize + valueSerializer.getFixedLength() + OByteSerializer.BYTE_SIZE;
-      } else {
-        final boolean isLink = getByteValue(entryPosition + keySize) > 0;
-
-        if (!isLink)
-          entrySize = keySize + getObjectSizeInDirectMemory(valueSerializer, entryPosition + keySize + OByteSerializer.BYTE_SIZE)
-              + OByteSerializer.BYTE_SIZE;
-        else {
-          entrySize = keySize + OByteSerializer.BYTE_SIZE + OLongSerializer.LONG_SIZE;
-          linkValue = deserializeFromDirectMemory(OLongSerializer.INSTANCE, entryPosition + keySize + OByteSerializer.BYTE_SIZE);
-        }
-      }
-    } else {
+    if (!isLeaf)
       throw new IllegalStateException("Remove is applies to leaf buckets only");
-    }
+
+    final int keySize = getKeyStorageSize(entryPosition);
+    final int entrySize = keySize + getValueStorageSize(entryPosition + keySize);
+
+    long linkValue = -1;
+    if (!valueSerializer.isFixedLength() && getByteValue(entryPosition + keySize) > 0)
+      linkValue = deserializeFromDirectMemory(OLongSerializer.INSTANCE, entryPosition + keySize + OByteSerializer.BYTE_SIZE);
 
     int size = size();
     if (entryIndex < size - 1) {
@@ -202,8 +248,8 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     int entryPosition = getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
 
     if (isLeaf) {
-      K key = deserializeFromDirectMemory(keySerializer, entryPosition);
-      entryPosition += getObjectSizeInDirectMemory(keySerializer, entryPosition);
+      K key = readKey(entryPosition);
+      entryPosition += getKeyStorageSize(entryPosition);
 
       boolean isLinkValue = getByteValue(entryPosition) > 0;
       long link = -1;
@@ -222,7 +268,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
       long rightChild = getLongValue(entryPosition);
       entryPosition += OLongSerializer.LONG_SIZE;
 
-      K key = deserializeFromDirectMemory(keySerializer, entryPosition);
+      K key = readKey(entryPosition);
 
       return new SBTreeEntry<K, V>(leftChild, rightChild, key, null);
     }
@@ -234,53 +280,84 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     if (!isLeaf)
       entryPosition += 2 * OLongSerializer.LONG_SIZE;
 
-    return deserializeFromDirectMemory(keySerializer, entryPosition);
+    return readKey(entryPosition);
   }
 
   public boolean isLeaf() {
     return isLeaf;
   }
 
+  public boolean isPrefixCompression() {
+    return prefixCompression;
+  }
+
+  /**
+   * @return Size of part of the keys which is stored only once for all keys of the bucket.
+   */
+  public int getSharedPartSize() {
+    return prefixCompression ? sharedPart.length : 0;
+  }
+
   public void addAll(List<SBTreeEntry<K, V>> entries) throws IOException {
-    for (int i = 0; i < entries.size(); i++)
-      addEntry(i, entries.get(i), false);
+    if (prefixCompression) {
+      final List<RawEntry> rawEntries = new ArrayList<RawEntry>(entries.size());
+      for (SBTreeEntry<K, V> entry : entries)
+        rawEntries.add(toRawEntry(entry));
+
+      final boolean written = rewrite(rawEntries, calculateSharedPart(rawEntries));
+      assert written;
+    } else {
+      for (int i = 0; i < entries.size(); i++)
+        addEntry(i, entries.get(i), false);
+    }
   }
 
   public void shrink(int newSize) throws IOException {
-    List<SBTreeEntry<K, V>> treeEntries = new ArrayList<SBTreeEntry<K, V>>(newSize);
+    final List<RawEntry> rawEntries = readRawEntries(newSize);
 
-    for (int i = 0; i < newSize; i++) {
-      treeEntries.add(getEntry(i));
-    }
+    final boolean written = rewrite(rawEntries, prefixCompression ? calculateSharedPart(rawEntries) : null);
+    assert written;
+  }
 
-    setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES);
-    setIntValue(SIZE_OFFSET, 0);
+  /**
+   * Recalculates part of keys shared by all entries of prefix compressed bucket and rewrites bucket if the shared part becomes
+   * longer.
+   *
+   * @return <code>true</code> if bucket was rewritten and free space of bucket was increased.
+   */
+  public boolean compressKeys() throws IOException {
+    if (!prefixCompression)
+      return false;
 
-    int index = 0;
-    for (SBTreeEntry<K, V> entry : treeEntries) {
-      addEntry(index, entry, false);
-      index++;
-    }
+    final List<RawEntry> rawEntries = readRawEntries(size());
+    final byte[] newSharedPart = calculateSharedPart(rawEntries);
+    if (newSharedPart.length <= sharedPart.length)
+      return false;
+
+    return rewrite(rawEntries, newSharedPart);
+  }
+
+  /**
+   * @return <code>true</code> if entries and their positions occupy at least given percent of the page.
+   */
+  public boolean isFilled(int fillFactor) {
+    final int usedSpace = POSITIONS_ARRAY_OFFSET + size() * OIntegerSerializer.INT_SIZE + MAX_PAGE_SIZE_BYTES
+        - getIntValue(FREE_POINTER_OFFSET);
+
+    return usedSpace * 100L >= (long) fillFactor * MAX_PAGE_SIZE_BYTES;
   }
 
   public boolean addEntry(int index, SBTreeEntry<K, V> treeEntry, boolean updateNeighbors) throws IOException {
-    final int keySize = keySerializer.getObjectSize(treeEntry.key, (Object[]) keyTypes);
-    int valueSize = 0;
-    int entrySize = keySize;
+    final RawEntry rawEntry = toRawEntry(treeEntry);
 
-    if (isLeaf) {
-      if (valueSerializer.isFixedLength())
-        valueSize = valueSerializer.getFixedLength();
-      else {
-        if (treeEntry.value.isLink())
-          valueSize = OLongSerializer.LONG_SIZE;
-        else
-          valueSize = valueSerializer.getObjectSize(treeEntry.value.getValue());
-      }
+    if (prefixCompression && !containsSharedPart(rawEntry.key, sharedPart)) {
+      // SHORTEN SHARED PART TILL ALL KEYS INCLUDING NEW ONE CONTAIN IT
+      if (!rewrite(readRawEntries(size()), commonPart(sharedPart, rawEntry.key)))
+        return false;
+    }
 
-      entrySize += valueSize + OByteSerializer.BYTE_SIZE;
-    } else
-      entrySize += 2 * OLongSerializer.LONG_SIZE;
+    final byte[] keyStorage = toKeyStorage(rawEntry.key, sharedPart);
+    final int entrySize = keyStorage.length + rawEntry.data.length;
 
     int size = size();
     int freePointer = getIntValue(FREE_POINTER_OFFSET);
@@ -298,28 +375,9 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     setIntValue(POSITIONS_ARRAY_OFFSET + index * OIntegerSerializer.INT_SIZE, freePointer);
     setIntValue(SIZE_OFFSET, size + 1);
 
-    if (isLeaf) {
-      byte[] serializedKey = new byte[keySize];
-      keySerializer.serializeNativeObject(treeEntry.key, serializedKey, 0, (Object[]) keyTypes);
-
-      freePointer += setBinaryValue(freePointer, serializedKey);
-      freePointer += setByteValue(freePointer, treeEntry.value.isLink() ? (byte) 1 : (byte) 0);
-
-      byte[] serializedValue = new byte[valueSize];
-      if (treeEntry.value.isLink())
-        OLongSerializer.INSTANCE.serializeNative(treeEntry.value.getLink(), serializedValue, 0);
-      else
-        valueSerializer.serializeNativeObject(treeEntry.value.getValue(), serializedValue, 0);
-
-      setBinaryValue(freePointer, serializedValue);
-    } else {
-      freePointer += setLongValue(freePointer, treeEntry.leftChild);
-      freePointer += setLongValue(freePointer, treeEntry.rightChild);
-
-      byte[] serializedKey = new byte[keySize];
-      keySerializer.serializeNativeObject(treeEntry.key, serializedKey, 0, (Object[]) keyTypes);
-      setBinaryValue(freePointer, serializedKey);
+    writeEntry(freePointer, keyStorage, rawEntry.data);
 
+    if (!isLeaf) {
       size++;
 
       if (updateNeighbors && size > 1) {
@@ -340,7 +398,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
   public int updateValue(int index, OSBTreeValue<V> value) throws IOException {
     int entryPosition = getIntValue(index * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
-    entryPosition += getObjectSizeInDirectMemory(keySerializer, entryPosition);
+    entryPosition += getKeyStorageSize(entryPosition);
     boolean isLinkValue = getByteValue(entryPosition) > 0;
 
     entryPosition += OByteSerializer.BYTE_SIZE;
@@ -392,6 +450,282 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     return getLongValue(RIGHT_SIBLING_OFFSET);
   }
 
+  private K readKey(int keyPosition) {
+    if (!prefixCompression)
+      return deserializeFromDirectMemory(keySerializer, keyPosition);
+
+    final int storedSize = getStoredKeySize(keyPosition);
+    if (!keySerializer.isFixedLength())
+      keyPosition += KEY_LENGTH_SIZE;
+
+    if (sharedPart.length == 0)
+      return deserializeFromDirectMemory(keySerializer, keyPosition);
+
+    final int keySize = storedSize + sharedPart.length;
+    if (keyBuffer == null || keyBuffer.length < keySize) {
+      keyBuffer = new byte[Math.max(keySize, 2 * (keyBuffer == null ? 0 : keyBuffer.length))];
+      System.arraycopy(sharedPart, 0, keyBuffer, headSize, sharedPart.length);
+    }
+
+    readStoredKey(keyPosition, storedSize, keyBuffer);
+    return keySerializer.deserializeNativeObject(keyBuffer, 0);
+  }
+
+  private byte[] readRawKey(int keyPosition) {
+    if (!prefixCompression)
+      return getBinaryValue(keyPosition, getObjectSizeInDirectMemory(keySerializer, keyPosition));
+
+    final int storedSize = getStoredKeySize(keyPosition);
+    if (!keySerializer.isFixedLength())
+      keyPosition += KEY_LENGTH_SIZE;
+
+    if (sharedPart.length == 0)
+      return getBinaryValue(keyPosition, storedSize);
+
+    final byte[] key = new byte[storedSize + sharedPart.length];
+    System.arraycopy(sharedPart, 0, key, headSize, sharedPart.length);
+    readStoredKey(keyPosition, storedSize, key);
+
+    return key;
+  }
+
+  /**
+   * Copies head and rest of the key stored in entry around shared part which is already placed in passed in buffer.
+   */
+  private void readStoredKey(int keyPosition, int storedSize, byte[] key) {
+    getBinaryValue(keyPosition, key, 0, headSize);
+    getBinaryValue(keyPosition + headSize, key, headSize + sharedPart.length, storedSize - headSize);
+  }
+
+  private int getStoredKeySize(int keyPosition) {
+    if (keySerializer.isFixedLength())
+      return keySerializer.getFixedLength() - sharedPart.length;
+
+    return getStoredKeyLength(keyPosition);
+  }
+
+  private int getKeyStorageSize(int keyPosition) {
+    if (!prefixCompression)
+      return getObjectSizeInDirectMemory(keySerializer, keyPosition);
+
+    if (keySerializer.isFixedLength())
+      return keySerializer.getFixedLength() - sharedPart.length;
+
+    return KEY_LENGTH_SIZE + getStoredKeyLength(keyPosition);
+  }
+
+  private int getStoredKeyLength(int keyPosition) {
+    return (getByteValue(keyPosition) & 0xFF) | ((getByteValue(keyPosition + 1) & 0xFF) << 8);
+  }
+
+  private int getValueStorageSize(int valuePosition) {
+    if (valueSerializer.isFixedLength())
+      return valueSerializer.getFixedLength() + OByteSerializer.BYTE_SIZE;
+
+    final boolean isLink = getByteValue(valuePosition) > 0;
+    if (isLink)
+      return OLongSerializer.LONG_SIZE + OByteSerializer.BYTE_SIZE;
+
+    return getObjectSizeInDirectMemory(valueSerializer, valuePosition + OByteSerializer.BYTE_SIZE) + OByteSerializer.BYTE_SIZE;
+  }
+
+  private byte[] toKeyStorage(byte[] rawKey, byte[] shared) {
+    if (!prefixCompression)
+      return rawKey;
+
+    final int storedSize = rawKey.length - shared.length;
+    final int lengthSize = keySerializer.isFixedLength() ? 0 : KEY_LENGTH_SIZE;
+
+    final byte[] keyStorage = new byte[lengthSize + storedSize];
+    if (lengthSize > 0) {
+      keyStorage[0] = (byte) storedSize;
+      keyStorage[1] = (byte) (storedSize >>> 8);
+    }
+
+    final int head = Math.min(headSize, rawKey.length);
+    System.arraycopy(rawKey, 0, keyStorage, lengthSize, head);
+    System.arraycopy(rawKey, head + shared.length, keyStorage, lengthSize + head, storedSize - head);
+
+    return keyStorage;
+  }
+
+  private void writeEntry(int entryPosition, byte[] keyStorage, byte[] data) throws IOException {
+    if (isLeaf) {
+      entryPosition += setBinaryValue(entryPosition, keyStorage);
+      setBinaryValue(entryPosition, data);
+    } else {
+      entryPosition += setBinaryValue(entryPosition, data);
+      setBinaryValue(entryPosition, keyStorage);
+    }
+  }
+
+  private RawEntry toRawEntry(SBTreeEntry<K, V> treeEntry) {
+    final byte[] serializedKey = new byte[keySerializer.getObjectSize(treeEntry.key, (Object[]) keyTypes)];
+    keySerializer.serializeNativeObject(treeEntry.key, serializedKey, 0, (Object[]) keyTypes);
+
+    final byte[] data;
+    if (isLeaf) {
+      final int valueSize;
+      if (valueSerializer.isFixedLength())
+        valueSize = valueSerializer.getFixedLength();
+      else if (treeEntry.value.isLink())
+        valueSize = OLongSerializer.LONG_SIZE;
+      else
+        valueSize = valueSerializer.getObjectSize(treeEntry.value.getValue());
+
+      data = new byte[OByteSerializer.BYTE_SIZE + valueSize];
+      data[0] = treeEntry.value.isLink() ? (byte) 1 : (byte) 0;
+
+      if (treeEntry.value.isLink())
+        OLongSerializer.INSTANCE.serializeNative(treeEntry.value.getLink(), data, OByteSerializer.BYTE_SIZE);
+      else
+        valueSerializer.serializeNativeObject(treeEntry.value.getValue(), data, OByteSerializer.BYTE_SIZE);
+    } else {
+      data = new byte[2 * OLongSerializer.LONG_SIZE];
+      OLongSerializer.INSTANCE.serializeNative(treeEntry.leftChild, data, 0);
+      OLongSerializer.INSTANCE.serializeNative(treeEntry.rightChild, data, OLongSerializer.LONG_SIZE);
+    }
+
+    return new RawEntry(serializedKey, data);
+  }
+
+  private List<RawEntry> readRawEntries(int count) {
+    final List<RawEntry> rawEntries = new ArrayList<RawEntry>(count);
+
+    for (int i = 0; i < count; i++) {
+      final int entryPosition = getIntValue(i * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
+
+      if (isLeaf) {
+        final int keySize = getKeyStorageSize(entryPosition);
+        rawEntries.add(new RawEntry(readRawKey(entryPosition), getBinaryValue(entryPosition + keySize,
+            getValueStorageSize(entryPosition + keySize))));
+      } else {
+        rawEntries.add(new RawEntry(readRawKey(entryPosition + 2 * OLongSerializer.LONG_SIZE), getBinaryValue(entryPosition,
+            2 * OLongSerializer.LONG_SIZE)));
+      }
+    }
+
+    return rawEntries;
+  }
+
+  /**
+   * Replaces content of the bucket by passed in entries which are stored using passed in shared part of keys. Bucket is not changed
+   * if entries do not fit in page.
+   *
+   * @return <code>true</code> if entries were written.
+   */
+  private boolean rewrite(List<RawEntry> rawEntries, byte[] newSharedPart) throws IOException {
+    final List<byte[]> keyStorages = new ArrayList<byte[]>(rawEntries.size());
+
+    int freeSpace = MAX_PAGE_SIZE_BYTES - POSITIONS_ARRAY_OFFSET - rawEntries.size() * OIntegerSerializer.INT_SIZE;
+    if (prefixCompression)
+      freeSpace -= sharedPartAreaSize(newSharedPart);
+
+    for (RawEntry rawEntry : rawEntries) {
+      final byte[] keyStorage = toKeyStorage(rawEntry.key, newSharedPart);
+      keyStorages.add(keyStorage);
+
+      freeSpace -= keyStorage.length + rawEntry.data.length;
+    }
+
+    if (freeSpace < 0)
+      return false;
+
+    if (prefixCompression)
+      writeSharedPart(newSharedPart);
+    else
+      setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES);
+
+    int freePointer = getIntValue(FREE_POINTER_OFFSET);
+    for (int i = 0; i < rawEntries.size(); i++) {
+      final byte[] keyStorage = keyStorages.get(i);
+      final RawEntry rawEntry = rawEntries.get(i);
+
+      freePointer -= keyStorage.length + rawEntry.data.length;
+      writeEntry(freePointer, keyStorage, rawEntry.data);
+
+      setIntValue(POSITIONS_ARRAY_OFFSET + i * OIntegerSerializer.INT_SIZE, freePointer);
+    }
+
+    setIntValue(FREE_POINTER_OFFSET, freePointer);
+    setIntValue(SIZE_OFFSET, rawEntries.size());
+
+    return true;
+  }
+
+  private void writeSharedPart(byte[] newSharedPart) throws IOException {
+    sharedPart = newSharedPart;
+    keyBuffer = null;
+
+    setIntValue(SHARED_PART_SIZE_OFFSET, newSharedPart.length);
+    setByteValue(HEAD_SIZE_OFFSET, (byte) headSize);
+    setBinaryValue(HEAD_SIZE_OFFSET - newSharedPart.length, newSharedPart);
+
+    setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES - sharedPartAreaSize(newSharedPart));
+  }
+
+  private static int sharedPartAreaSize(byte[] shared) {
+    return OIntegerSerializer.INT_SIZE + OByteSerializer.BYTE_SIZE + shared.length;
+  }
+
+  private byte[] calculateSharedPart(List<RawEntry> rawEntries) {
+    if (rawEntries.isEmpty())
+      return new byte[0];
+
+    final byte[] firstKey = rawEntries.get(0).key;
+    if (firstKey.length <= headSize)
+      return new byte[0];
+
+    byte[] shared = new byte[firstKey.length - headSize];
+    System.arraycopy(firstKey, headSize, shared, 0, shared.length);
+
+    for (int i = 1; i < rawEntries.size() && shared.length > 0; i++)
+      shared = commonPart(shared, rawEntries.get(i).key);
+
+    return shared;
+  }
+
+  private boolean containsSharedPart(byte[] rawKey, byte[] shared) {
+    if (rawKey.length < headSize + shared.length)
+      return false;
+
+    for (int i = 0; i < shared.length; i++) {
+      if (rawKey[headSize + i] != shared[i])
+        return false;
+    }
+
+    return true;
+  }
+
+  private byte[] commonPart(byte[] shared, byte[] rawKey) {
+    int commonSize = 0;
+    final int maxSize = Math.min(shared.length, rawKey.length - headSize);
+
+    while (commonSize < maxSize && shared[commonSize] == rawKey[headSize + commonSize])
+      commonSize++;
+
+    if (commonSize == shared.length)
+      return shared;
+
+    final byte[] common = new byte[Math.max(commonSize, 0)];
+    System.arraycopy(shared, 0, common, 0, common.length);
+    return common;
+  }
+
+  /**
+   * Entry with serialized key and serialized rest of the entry (value for leaf bucket and children pointers for non-leaf bucket)
+   * which is used during rewrite of bucket.
+   */
+  private static final class RawEntry {
+    private final byte[] key;
+    private final byte[] data;
+
+    private RawEntry(byte[] key, byte[] data) {
+      this.key = key;
+      this.data = data;
+    }
+  }
+
   public static final class SBTreeEntry<K, V> implements Comparable<SBTreeEntry<K, V>> {
     private final Comparator<? super K> comparator = ODefaultComparator.INSTANCE;
 
@@ -31,6 +31,7 @@ import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OByteSerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.common.serialization.types.OShortSerializer;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OCacheEntry;
 import com.orientechnologies.orient.core.index.sbtree.local.OSBTreeException;
@@ -285,6 +286,41 @@ public class OSBTreeBonsaiBucket<K, V> extends OBonsaiBucketAbstract {
     return deserializeFromDirectMemory(keySerializer, offset + entryPosition);
   }
 
+  /**
+   * Copies entries of the leaf bucket which keys are links serialized by
+   * {@link com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer} and values are counters
+   * serialized by {@link OIntegerSerializer} directly from the page to the given arrays, without deserialization of keys into
+   * record ids.
+   *
+   * @param fromIndex
+   *          index of the first entry to copy
+   * @param arrayOffset
+   *          position in the arrays where the first entry is copied
+   * @return number of copied entries, limited by the size of the bucket and by the free space in the arrays
+   */
+  public int getLinkEntries(int fromIndex, int[] clusterIds, long[] clusterPositions, int[] counters, int arrayOffset) {
+    assert isLeaf;
+
+    final int count = Math.min(size() - fromIndex, clusterIds.length - arrayOffset);
+    for (int i = 0; i < count; i++) {
+      int entryPosition = offset + getIntValue(offset + (fromIndex + i) * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
+
+      clusterIds[arrayOffset + i] = getShortValue(entryPosition);
+      entryPosition += OShortSerializer.SHORT_SIZE;
+
+      // CLUSTER POSITION IS STORED IN BIG ENDIAN ORDER, SEE OLinkSerializer
+      long clusterPosition = 0;
+      for (int j = 0; j < OLongSerializer.LONG_SIZE; j++)
+        clusterPosition = (clusterPosition << 8) | (0xff & getByteValue(entryPosition + j));
+      entryPosition += OLongSerializer.LONG_SIZE;
+
+      clusterPositions[arrayOffset + i] = clusterPosition;
+      counters[arrayOffset + i] = getIntValue(entryPosition);
+    }
+
+    return count;
+  }
+
   public boolean isLeaf() {
     return isLeaf;
   }
@@ -713,6 +713,58 @@ public class OSBTreeBonsaiLocal<K, V> extends ODurableComponent implements OSBTr
     }
   }
 
+  /**
+   * Bulk version of {@link #loadEntriesMajor(Object, boolean, boolean, RangeResultListener)} for trees of links, like the ones used by
+   * {@link OSBTreeRidBag}. Entries are copied page by page into the given arrays of cluster ids, cluster positions and counters,
+   * without creation of intermediate objects for each entry.
+   *
+   * @return number of loaded entries, it is less than the length of arrays only if there are no more entries in the tree
+   */
+  public int loadLinksMajor(K key, boolean inclusive, int[] clusterIds, long[] clusterPositions, int[] counters) {
+    atomicOperationsManager.acquireReadLock(this);
+    try {
+      final Lock lock = fileLockManager.acquireSharedLock(fileId);
+      try {
+        OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+
+        BucketSearchResult bucketSearchResult = findBucket(key, atomicOperation);
+        OBonsaiBucketPointer bucketPointer = bucketSearchResult.getLastPathItem();
+
+        int index;
+        if (bucketSearchResult.itemIndex >= 0) {
+          index = inclusive ? bucketSearchResult.itemIndex : bucketSearchResult.itemIndex + 1;
+        } else {
+          index = -bucketSearchResult.itemIndex - 1;
+        }
+
+        int loaded = 0;
+        do {
+          final OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, bucketPointer.getPageIndex(), false);
+          try {
+            OSBTreeBonsaiBucket<K, V> bucket = new OSBTreeBonsaiBucket<K, V>(cacheEntry, bucketPointer.getPageOffset(),
+                keySerializer, valueSerializer, getChangesTree(atomicOperation, cacheEntry));
+            if (index < bucket.size())
+              loaded += bucket.getLinkEntries(index, clusterIds, clusterPositions, counters, loaded);
+
+            bucketPointer = bucket.getRightSibling();
+            index = 0;
+          } finally {
+            releasePage(atomicOperation, cacheEntry);
+          }
+
+        } while (loaded < clusterIds.length && bucketPointer.getPageIndex() >= 0);
+
+        return loaded;
+      } finally {
+        lock.unlock();
+      }
+    } catch (IOException ioe) {
+      throw new OSBTreeException("Error during fetch of major links for key " + key + " in sbtree " + getName());
+    } finally {
+      atomicOperationsManager.releaseReadLock(this);
+    }
+  }
+
   @Override
   public Collection<V> getValuesBetween(K keyFrom, boolean fromInclusive, K keyTo, boolean toInclusive, final int maxValuesToFetch) {
     final List<V> result = new ArrayList<V>();
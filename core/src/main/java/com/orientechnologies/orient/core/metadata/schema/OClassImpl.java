@@ -55,6 +55,7 @@ import com.orientechnologies.orient.core.serialization.OBinaryProtocol;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializerFactory;
 import com.orientechnologies.orient.core.serialization.serializer.record.string.ORecordSerializerSchemaAware2CSV;
 import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.OSQLStatementCache;
 import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
 import com.orientechnologies.orient.core.storage.OAutoshardedStorage;
 import com.orientechnologies.orient.core.storage.OPhysicalPosition;
@@ -1869,6 +1870,9 @@ public class OClassImpl extends ODocumentWrapperNoClass implements OClass {
       public void end() {
       }
     }));
+
+    // THE PROPERTY IS CHANGED ONLY ONCE ITS RECORDS ARE MIGRATED, STATEMENT OF THE MIGRATION IS NOT KEPT EITHER
+    OSQLStatementCache.invalidateCache(((ODatabaseInternal) database).getStorage());
   }
 
   public void firePropertyNameMigration(final ODatabaseDocument database, final String propertyName, final String newPropertyName,
@@ -1892,6 +1896,8 @@ public class OClassImpl extends ODocumentWrapperNoClass implements OClass {
       }
     }));
 
+    // THE PROPERTY IS CHANGED ONLY ONCE ITS RECORDS ARE MIGRATED, STATEMENT OF THE MIGRATION IS NOT KEPT EITHER
+    OSQLStatementCache.invalidateCache(((ODatabaseInternal) database).getStorage());
   }
 
   public void checkPersistentPropertyType(final ODatabaseInternal<ORecord> database, final String propertyName, final OType type) {
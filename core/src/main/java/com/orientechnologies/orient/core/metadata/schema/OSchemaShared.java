@@ -56,6 +56,7 @@ import com.orientechnologies.orient.core.metadata.security.ORole;
 import com.orientechnologies.orient.core.metadata.security.ORule;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.OSQLStatementCache;
 import com.orientechnologies.orient.core.storage.OAutoshardedStorage;
 import com.orientechnologies.orient.core.storage.OCluster;
 import com.orientechnologies.orient.core.storage.OStorage;
@@ -637,11 +638,23 @@ public class OSchemaShared extends ODocumentWrapperNoClass implements OSchema, O
 
     assert modificationCounter.get().intValue() >= 0;
 
-    if (modificationCounter.get().intValue() == 0 && getDatabase().getStorage().getUnderlying() instanceof OStorageProxy) {
-      getDatabase().getStorage().reload();
+    if (modificationCounter.get().intValue() == 0) {
+      if (getDatabase().getStorage().getUnderlying() instanceof OStorageProxy)
+        getDatabase().getStorage().reload();
+
+      invalidateStatementCache();
     }
   }
 
+  /**
+   * Drops parsed statements once the outermost change of the schema is completed, statements parsed while the change was in
+   * progress are not returned to the cache either.
+   */
+  private void invalidateStatementCache() {
+    if (modificationCounter.get().intValue() == 0)
+      OSQLStatementCache.invalidateCache(getDatabase().getStorage());
+  }
+
   void changeClassName(final String oldName, final String newName, OClass cls) {
     acquireSchemaWriteLock();
     try {
@@ -764,6 +777,8 @@ public class OSchemaShared extends ODocumentWrapperNoClass implements OSchema, O
       modificationCounter.get().decrement();
       rwSpinLock.releaseWriteLock();
     }
+
+    invalidateStatementCache();
   }
 
   /**
@@ -0,0 +1,217 @@
+/*
+  *
+  *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+  *  *
+  *  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  *  you may not use this file except in compliance with the License.
+  *  *  You may obtain a copy of the License at
+  *  *
+  *  *       http://www.apache.org/licenses/LICENSE-2.0
+  *  *
+  *  *  Unless required by applicable law or agreed to in writing, software
+  *  *  distributed under the License is distributed on an "AS IS" BASIS,
+  *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  *  *  See the License for the specific language governing permissions and
+  *  *  limitations under the License.
+  *  *
+  *  * For more information: http://www.orientechnologies.com
+  *
+  */
+package com.orientechnologies.orient.core.query.live;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes record changes to live query subscribers.
+ *
+ * Subscribers are indexed by names of classes they listen, so change of record is routed only to subscribers of its class and of
+ * its superclasses, and to subscribers which do not declare target classes. Subscribers are partitioned between
+ * {@link OGlobalConfiguration#QUERY_LIVE_DISPATCHER_THREADS} threads by token, every thread has own bounded queue, so changes are
+ * delivered to single subscriber in order in which they were queued. If queue is full writer either waits or change is discarded,
+ * depending on {@link OGlobalConfiguration#QUERY_LIVE_QUEUE_OVERFLOW}.
+ */
+public class OLiveQueryDispatcher {
+  private final Map<Integer, OLiveQueryListener> subscribers     = new ConcurrentHashMap<Integer, OLiveQueryListener>();
+  private final Map<String, Set<Integer>>        classSubscribers = new ConcurrentHashMap<String, Set<Integer>>();
+  private final Set<Integer>                     anySubscribers  = Collections
+                                                                     .newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+  private final OLiveQueryQueueThread[]          threads;
+  private final boolean                          blockOnOverflow;
+  private final AtomicLong                       discarded       = new AtomicLong();
+
+  public OLiveQueryDispatcher() {
+    this(OGlobalConfiguration.QUERY_LIVE_DISPATCHER_THREADS.getValueAsInteger(), OGlobalConfiguration.QUERY_LIVE_QUEUE_SIZE
+        .getValueAsInteger(), !"discard".equalsIgnoreCase(OGlobalConfiguration.QUERY_LIVE_QUEUE_OVERFLOW.getValueAsString()));
+  }
+
+  public OLiveQueryDispatcher(final int threadCount, final int queueSize, final boolean blockOnOverflow) {
+    this.threads = new OLiveQueryQueueThread[Math.max(1, threadCount)];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new OLiveQueryQueueThread(i, Math.max(1, queueSize));
+    }
+    this.blockOnOverflow = blockOnOverflow;
+  }
+
+  public void start() {
+    for (OLiveQueryQueueThread thread : threads) {
+      thread.start();
+    }
+  }
+
+  public boolean isAlive() {
+    for (OLiveQueryQueueThread thread : threads) {
+      if (!thread.isAlive()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public void stopExecution() {
+    for (OLiveQueryQueueThread thread : threads) {
+      thread.stopExecution();
+    }
+  }
+
+  public Integer subscribe(final Integer token, final OLiveQueryListener iListener) {
+    final Set<String> classNames = iListener instanceof OLiveQueryFilteredListener ? ((OLiveQueryFilteredListener) iListener)
+        .getTargetClassNames() : null;
+
+    threadOf(token).subscribe(token, iListener);
+    subscribers.put(token, iListener);
+
+    if (classNames == null) {
+      anySubscribers.add(token);
+    } else {
+      for (String className : classNames) {
+        final String key = className.toLowerCase();
+        synchronized (classSubscribers) {
+          Set<Integer> tokens = classSubscribers.get(key);
+          if (tokens == null) {
+            tokens = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+            classSubscribers.put(key, tokens);
+          }
+          tokens.add(token);
+        }
+      }
+    }
+
+    return token;
+  }
+
+  public void unsubscribe(final Integer token) {
+    final OLiveQueryListener listener = subscribers.remove(token);
+    threadOf(token).unsubscribe(token);
+
+    if (listener == null) {
+      return;
+    }
+
+    anySubscribers.remove(token);
+    synchronized (classSubscribers) {
+      final Iterator<Set<Integer>> iterator = classSubscribers.values().iterator();
+      while (iterator.hasNext()) {
+        final Set<Integer> tokens = iterator.next();
+        if (tokens.remove(token) && tokens.isEmpty()) {
+          // CLASSES WITHOUT SUBSCRIBERS ARE NOT KEPT, SO ROUTING IS SKIPPED WHEN NOBODY LISTENS TO CLASSES
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Routes change to threads of interested subscribers. Has to be called by thread which changed the record while its database is
+   * still active, because class hierarchy of record is resolved by schema of that database.
+   */
+  public void enqueue(final ORecordOperation iOp) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+
+    final List<Integer>[] tokens = route(iOp.getRecord());
+    for (int i = 0; i < tokens.length; i++) {
+      if (tokens[i] == null) {
+        continue;
+      }
+
+      if (!threads[i].enqueue(new OLiveQueryQueueThread.Dispatch(iOp, tokens[i]), blockOnOverflow)) {
+        final long count = discarded.incrementAndGet();
+        if (count == 1 || count % 10000 == 0) {
+          OLogManager.instance().warn(this, "Live query queue is full, %d record changes were discarded so far", count);
+        }
+      }
+    }
+  }
+
+  public long getDiscarded() {
+    return discarded.get();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Integer>[] route(final OIdentifiable iRecord) {
+    final List<Integer>[] result = new List[threads.length];
+
+    for (Integer token : anySubscribers) {
+      addToken(result, token);
+    }
+
+    if (!classSubscribers.isEmpty() && iRecord instanceof ODocument) {
+      final OImmutableClass docClass = ODocumentInternal.getImmutableSchemaClass((ODocument) iRecord);
+      if (docClass != null) {
+        addClassTokens(result, docClass.getName());
+        for (OClass superClass : docClass.getAllSuperClasses()) {
+          addClassTokens(result, superClass.getName());
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private void addClassTokens(final List<Integer>[] result, final String className) {
+    final Set<Integer> tokens = classSubscribers.get(className.toLowerCase());
+    if (tokens != null) {
+      for (Integer token : tokens) {
+        addToken(result, token);
+      }
+    }
+  }
+
+  private void addToken(final List<Integer>[] result, final Integer token) {
+    final int index = threadIndex(token);
+    List<Integer> tokens = result[index];
+    if (tokens == null) {
+      tokens = new ArrayList<Integer>();
+      result[index] = tokens;
+    }
+    if (!tokens.contains(token)) {
+      tokens.add(token);
+    }
+  }
+
+  private OLiveQueryQueueThread threadOf(final Integer token) {
+    return threads[threadIndex(token)];
+  }
+
+  private int threadIndex(final Integer token) {
+    return (token.hashCode() & Integer.MAX_VALUE) % threads.length;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+  *
+  *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+  *  *
+  *  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  *  you may not use this file except in compliance with the License.
+  *  *  You may obtain a copy of the License at
+  *  *
+  *  *       http://www.apache.org/licenses/LICENSE-2.0
+  *  *
+  *  *  Unless required by applicable law or agreed to in writing, software
+  *  *  distributed under the License is distributed on an "AS IS" BASIS,
+  *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  *  *  See the License for the specific language governing permissions and
+  *  *  limitations under the License.
+  *  *
+  *  * For more information: http://www.orientechnologies.com
+  *
+  */
+package com.orientechnologies.orient.core.query.live;
+
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+
+import java.util.Set;
+
+/**
+ * Live query listener which tells the dispatcher which record changes it is interested in, so changes of other classes are not
+ * routed to it at all and the rest is filtered on dispatcher thread before {@link #onLiveResult(ORecordOperation)} is called.
+ */
+public interface OLiveQueryFilteredListener extends OLiveQueryListener {
+
+  /**
+   * @return names of classes (subclasses included) which records are listened, or <code>null</code> if listener has to receive
+   *         changes of records of any class.
+   */
+  Set<String> getTargetClassNames();
+
+  /**
+   * Evaluates target and WHERE condition of live query against changed record.
+   *
+   * @return <code>true</code> if change has to be passed to {@link #onLiveResult(ORecordOperation)}.
+   */
+  boolean matches(ORecordOperation iOp);
+}
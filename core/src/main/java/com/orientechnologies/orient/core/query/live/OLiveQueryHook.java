@@ -46,8 +46,8 @@ public class OLiveQueryHook extends ODocumentHookAbstract implements ODatabaseLi
 
   // protected static Map<OStorage, OLiveQueryQueueThread> queueThreads = new ConcurrentHashMap<OStorage, OLiveQueryQueueThread>();
 
-  static OLiveQueryQueueThread                                    queueThread = new OLiveQueryQueueThread();
-  static Object                                                   threadLock  = new Object();
+  static OLiveQueryDispatcher                                     dispatcher = new OLiveQueryDispatcher();
+  static Object                                                   threadLock = new Object();
 
   public OLiveQueryHook(ODatabaseDocumentTx db) {
     db.registerListener(this);
@@ -55,20 +55,20 @@ public class OLiveQueryHook extends ODocumentHookAbstract implements ODatabaseLi
 
   public static Integer subscribe(Integer token, OLiveQueryListener iListener) {
     synchronized (threadLock) {
-      if (!queueThread.isAlive()) {
+      if (!dispatcher.isAlive()) {
         // TODO copy old queues!
-        queueThread = new OLiveQueryQueueThread();
-        queueThread.start();
+        dispatcher = new OLiveQueryDispatcher();
+        dispatcher.start();
       }
     }
 
-    return queueThread.subscribe(token, iListener);
+    return dispatcher.subscribe(token, iListener);
   }
 
   public static void unsubscribe(Integer id) {
     try {
       synchronized (threadLock) {
-        queueThread.unsubscribe(id);
+        dispatcher.unsubscribe(id);
       }
     } catch (Exception e) {
       OLogManager.instance().warn(OLiveQueryHook.class, "Error on unsubscribing client");
@@ -123,7 +123,7 @@ public class OLiveQueryHook extends ODocumentHookAbstract implements ODatabaseLi
     // TODO sync
     if (list != null) {
       for (ORecordOperation item : list) {
-        queueThread.enqueue(item);
+        dispatcher.enqueue(item);
       }
     }
   }
@@ -167,7 +167,7 @@ public class OLiveQueryHook extends ODocumentHookAbstract implements ODatabaseLi
 
       // TODO synchronize
       ORecordOperation op = new ORecordOperation(iDocument, iType);
-      queueThread.enqueue(op);
+      dispatcher.enqueue(op);
       return;
     }
     ORecordOperation result = new ORecordOperation(iDocument, iType);
@@ -19,31 +19,48 @@
   */
 package com.orientechnologies.orient.core.query.live;
 
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
+ * Delivers record changes to the part of live query subscribers which is assigned to this thread by {@link OLiveQueryDispatcher}.
+ * Every queued change carries tokens of subscribers it was routed to, WHERE condition of filtered subscribers is evaluated here
+ * before the change is passed to them.
+ *
  * @author Luigi Dell'Aquila
  */
 public class OLiveQueryQueueThread extends Thread {
 
-  private final BlockingQueue<ORecordOperation>  queue       = new LinkedBlockingQueue<ORecordOperation>();
+  private final BlockingQueue<Dispatch>          queue;
   private final Map<Integer, OLiveQueryListener> subscribers = new ConcurrentHashMap<Integer, OLiveQueryListener>();
-  private boolean                                stopped     = false;
+  private volatile boolean                       stopped     = false;
 
-  public OLiveQueryQueueThread() {
-    setName("LiveQueryQueueThread");
+  static final class Dispatch {
+    final ORecordOperation op;
+    final List<Integer>    tokens;
+
+    Dispatch(ORecordOperation op, List<Integer> tokens) {
+      this.op = op;
+      this.tokens = tokens;
+    }
+  }
+
+  public OLiveQueryQueueThread(int index, int queueSize) {
+    setName("LiveQueryQueueThread-" + index);
     this.setDaemon(true);
+    queue = new ArrayBlockingQueue<Dispatch>(queueSize);
   }
 
   @Override
   public void run() {
     while (!stopped) {
-      ORecordOperation next = null;
+      Dispatch next = null;
       try {
         next = queue.take();
       } catch (InterruptedException e) {
@@ -52,20 +69,48 @@ public class OLiveQueryQueueThread extends Thread {
       if (next == null) {
         continue;
       }
-      for (OLiveQueryListener listener : subscribers.values()) {
-        // TODO filter data
-        listener.onLiveResult(next);
+      for (Integer token : next.tokens) {
+        final OLiveQueryListener listener = subscribers.get(token);
+        if (listener == null) {
+          // UNSUBSCRIBED AFTER ROUTING
+          continue;
+        }
+        try {
+          if (listener instanceof OLiveQueryFilteredListener && !((OLiveQueryFilteredListener) listener).matches(next.op)) {
+            continue;
+          }
+          listener.onLiveResult(next.op);
+        } catch (Exception e) {
+          OLogManager.instance().warn(this, "Error on delivering record change to live query " + token, e);
+        }
       }
     }
   }
 
   public void stopExecution() {
     this.stopped = true;
-    queue.notifyAll();
+    interrupt();
   }
 
-  public void enqueue(ORecordOperation item) {
-    queue.offer(item);
+  /**
+   * Queues change for delivery.
+   *
+   * @param block
+   *          if <code>true</code> waits for free space in full queue, otherwise change is discarded
+   * @return <code>false</code> if change was discarded
+   */
+  boolean enqueue(final Dispatch item, final boolean block) {
+    if (!block) {
+      return queue.offer(item);
+    }
+
+    try {
+      queue.put(item);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 
   public Integer subscribe(Integer id, OLiveQueryListener iListener) {
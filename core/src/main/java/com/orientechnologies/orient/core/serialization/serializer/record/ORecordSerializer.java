@@ -31,4 +31,6 @@ public interface ORecordSerializer {
   public int getCurrentVersion();
 
   public int getMinSupportedVersion();
+
+  public int getMaxSupportedVersion();
 }
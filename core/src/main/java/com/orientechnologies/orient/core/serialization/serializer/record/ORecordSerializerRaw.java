@@ -41,6 +41,11 @@ public class ORecordSerializerRaw implements ORecordSerializer {
     return 0;
   }
 
+  @Override
+  public int getMaxSupportedVersion() {
+    return 0;
+  }
+
   @Override
   public String toString() {
     return NAME;
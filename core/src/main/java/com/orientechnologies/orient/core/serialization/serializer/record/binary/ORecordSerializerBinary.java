@@ -21,6 +21,11 @@
 package com.orientechnologies.orient.core.serialization.serializer.record.binary;
 
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.config.OStorageConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.exception.OConfigurationException;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.serialization.OBase64Utils;
@@ -31,23 +36,33 @@ public class ORecordSerializerBinary implements ORecordSerializer {
 
   public static final String                  NAME                   = "ORecordSerializerBinary";
   public static final ORecordSerializerBinary INSTANCE               = new ORecordSerializerBinary();
-  private static final byte                   CURRENT_RECORD_VERSION = 0;
+  private static final byte                   LATEST_RECORD_VERSION  = 1;
 
   private ODocumentSerializer[]               serializerByVersion;
 
   public ORecordSerializerBinary() {
-    serializerByVersion = new ODocumentSerializer[1];
+    serializerByVersion = new ODocumentSerializer[2];
     serializerByVersion[0] = new ORecordSerializerBinaryV0();
+    serializerByVersion[1] = new ORecordSerializerBinaryV1();
   }
 
   @Override
   public int getCurrentVersion() {
-    return CURRENT_RECORD_VERSION;
+    final int version = OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_BINARY_VERSION.getValueAsInteger();
+    if (version < 0 || version > LATEST_RECORD_VERSION)
+      throw new OConfigurationException("Binary record format of version " + version + " is not supported");
+
+    return version;
   }
 
   @Override
   public int getMinSupportedVersion() {
-    return CURRENT_RECORD_VERSION;
+    return 0;
+  }
+
+  @Override
+  public int getMaxSupportedVersion() {
+    return LATEST_RECORD_VERSION;
   }
 
   @Override
@@ -87,12 +102,13 @@ public class ORecordSerializerBinary implements ORecordSerializer {
     final BytesContainer container = new BytesContainer();
 
     // WRITE SERIALIZER VERSION
+    final byte version = getRecordVersion();
     int pos = container.alloc(1);
-    container.bytes[pos] = CURRENT_RECORD_VERSION;
+    container.bytes[pos] = version;
 
     if (!OSerializationSetThreadLocal.checkAndAdd((ODocument) iSource)) {
       // SERIALIZE CLASS ONLY
-      serializerByVersion[CURRENT_RECORD_VERSION].serialize((ODocument) iSource, container, true);
+      serializerByVersion[version].serialize((ODocument) iSource, container, true);
 
       // SET SERIALIZATION AS PARTIAL
       OSerializationSetThreadLocal.setPartial((ODocument) iSource);
@@ -101,12 +117,27 @@ public class ORecordSerializerBinary implements ORecordSerializer {
     }
 
     // SERIALIZE RECORD
-    serializerByVersion[CURRENT_RECORD_VERSION].serialize((ODocument) iSource, container, false);
+    serializerByVersion[version].serialize((ODocument) iSource, container, false);
 
     OSerializationSetThreadLocal.removeCheck((ODocument) iSource);
     return container.fitBytes();
   }
 
+  /**
+   * Records are written in format of version stored in configuration of current database, so database created by this release
+   * with default settings can still be read by previous ones.
+   */
+  private byte getRecordVersion() {
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+    if (db != null && !db.isClosed()) {
+      final OStorageConfiguration configuration = db.getStorage().getConfiguration();
+      if (NAME.equals(configuration.getRecordSerializer()) && configuration.getRecordSerializerVersion() <= LATEST_RECORD_VERSION)
+        return (byte) configuration.getRecordSerializerVersion();
+    }
+
+    return (byte) getCurrentVersion();
+  }
+
   private void checkTypeODocument(final ORecord iRecord) {
     if (!(iRecord instanceof ODocument)) {
       throw new UnsupportedOperationException("The " + ORecordSerializerBinary.NAME + " don't support record of type "
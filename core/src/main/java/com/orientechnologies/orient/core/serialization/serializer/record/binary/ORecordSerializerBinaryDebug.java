@@ -10,18 +10,21 @@ import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
-public class ORecordSerializerBinaryDebug extends ORecordSerializerBinaryV0 {
+public class ORecordSerializerBinaryDebug extends ORecordSerializerBinaryV1 {
 
   public ORecordSerializationDebug deserializeDebug(final byte[] iSource, ODatabaseDocumentTx db) {
     ORecordSerializationDebug debugInfo = new ORecordSerializationDebug();
     OImmutableSchema schema = ((OMetadataInternal) db.getMetadata()).getImmutableSchemaSnapshot();
     BytesContainer bytes = new BytesContainer(iSource);
-    if (bytes.bytes[0] != 0)
+    final byte version = bytes.bytes[0];
+    if (version != 0 && version != 1)
       throw new OException("Unsupported binary serialization version");
     bytes.skip(1);
     try {
       final String className = readString(bytes);
       debugInfo.className = className;
+      if (version == 1)
+        skipDirectory(bytes);
     } catch (RuntimeException ex) {
       debugInfo.readingFailure = true;
       debugInfo.readingException = ex;
@@ -78,6 +78,13 @@ public class ORecordSerializerBinaryV0 implements ODocumentSerializer {
     if (className.length() != 0)
       ODocumentInternal.fillClassNameIfNeeded(document, className);
 
+    deserializePartialFields(document, bytes, iFields);
+  }
+
+  /**
+   * Scans header of fields and unmarshalls values of requested fields only.
+   */
+  protected void deserializePartialFields(final ODocument document, final BytesContainer bytes, final String[] iFields) {
     // TRANSFORMS FIELDS FOM STRINGS TO BYTE[]
     final byte[][] fields = new byte[iFields.length][];
     for (int i = 0; i < iFields.length; ++i)
@@ -133,6 +140,18 @@ public class ORecordSerializerBinaryV0 implements ODocumentSerializer {
         else
           type = readOType(bytes);
 
+        // CHECK BY PROPERTY NAME: THIS AVOID THE UNMARSHALLING OF VALUES OF NOT REQUESTED PROPERTIES
+        boolean match = false;
+        for (int i = 0; i < iFields.length; ++i) {
+          if (iFields[i].equals(fieldName)) {
+            unmarshalledFields++;
+            match = true;
+            break;
+          }
+        }
+
+        if (!match)
+          continue;
       }
 
       if (valuePos != 0) {
@@ -156,6 +175,13 @@ public class ORecordSerializerBinaryV0 implements ODocumentSerializer {
     if (className.length() != 0)
       ODocumentInternal.fillClassNameIfNeeded(document, className);
 
+    deserializeFields(document, bytes);
+  }
+
+  /**
+   * Unmarshalls all fields which are not loaded yet, at the end {@code bytes} points to the end of the last value.
+   */
+  protected void deserializeFields(final ODocument document, final BytesContainer bytes) {
     int last = 0;
     String fieldName;
     int valuePos;
@@ -205,7 +231,6 @@ public class ORecordSerializerBinaryV0 implements ODocumentSerializer {
       bytes.offset = last;
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public void serialize(final ODocument document, final BytesContainer bytes, final boolean iClassOnly) {
 
@@ -215,6 +240,20 @@ public class ORecordSerializerBinaryV0 implements ODocumentSerializer {
       return;
     }
 
+    serializeFields(document, bytes, clazz, null);
+  }
+
+  /**
+   * Writes header of fields followed by their values.
+   *
+   * @param fieldDirectory
+   *          If not null, for every written field contains hash code of its name in the high 32 bits and position of its header
+   *          entry in the low 32 bits.
+   * @return Amount of written fields.
+   */
+  @SuppressWarnings("unchecked")
+  protected int serializeFields(final ODocument document, final BytesContainer bytes, final OClass clazz,
+      final long[] fieldDirectory) {
     final Map<String, OProperty> props = clazz != null ? clazz.propertiesMap() : null;
 
     final Set<Entry<String, ODocumentEntry>> fields = ODocumentInternal.rawEntries(document);
@@ -230,6 +269,9 @@ public class ORecordSerializerBinaryV0 implements ODocumentSerializer {
       if (entry.getValue().property == null && props != null)
         entry.getValue().property = props.get(entry.getKey());
 
+      if (fieldDirectory != null)
+        fieldDirectory[i] = ((long) entry.getKey().hashCode() << 32) | bytes.offset;
+
       if (entry.getValue().property != null) {
         OVarIntSerializer.write(bytes, (entry.getValue().property.getId() + 1) * -1);
         if (entry.getValue().property.getType() != OType.ANY)
@@ -262,6 +304,7 @@ public class ORecordSerializerBinaryV0 implements ODocumentSerializer {
       }
     }
 
+    return size;
   }
 
   protected OClass serializeClass(final ODocument document, final BytesContainer bytes) {
@@ -0,0 +1,211 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+
+package com.orientechnologies.orient.core.serialization.serializer.record.binary;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OGlobalProperty;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentEntry;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+
+/**
+ * Binary serializer which stores directory of fields between class name and header of fields, the rest of the format is the same as
+ * in {@link ORecordSerializerBinaryV0}.
+ *
+ * Directory consists of amount of its entries (varint) followed by entries sorted by hash code of field name, each entry contains
+ * hash code of field name and position of field entry in header (both 4 bytes). Partial deserialization finds requested fields by
+ * binary search in directory instead of scan of the whole header. Documents with less than {@link #MIN_DIRECTORY_SIZE} fields are
+ * stored with empty directory, header of such documents is scanned as in previous version.
+ */
+public class ORecordSerializerBinaryV1 extends ORecordSerializerBinaryV0 {
+  public static final int  MIN_DIRECTORY_SIZE   = 8;
+
+  private static final int DIRECTORY_ENTRY_SIZE = 2 * OIntegerSerializer.INT_SIZE;
+
+  @Override
+  public void serialize(final ODocument document, final BytesContainer bytes, final boolean iClassOnly) {
+    final OClass clazz = serializeClass(document, bytes);
+    if (iClassOnly) {
+      OVarIntSerializer.write(bytes, 0);
+      OVarIntSerializer.write(bytes, 0);
+      return;
+    }
+
+    int fieldsCount = 0;
+    for (Map.Entry<String, ODocumentEntry> entry : ODocumentInternal.rawEntries(document))
+      if (entry.getValue().exist())
+        fieldsCount++;
+
+    if (fieldsCount < MIN_DIRECTORY_SIZE) {
+      OVarIntSerializer.write(bytes, 0);
+      serializeFields(document, bytes, clazz, null);
+      return;
+    }
+
+    OVarIntSerializer.write(bytes, fieldsCount);
+    final int directoryPosition = bytes.alloc(fieldsCount * DIRECTORY_ENTRY_SIZE);
+
+    final long[] directory = new long[fieldsCount];
+    serializeFields(document, bytes, clazz, directory);
+
+    // SIGNED COMPARISON OF HIGH 32 BITS SORTS ENTRIES BY HASH CODE
+    Arrays.sort(directory);
+
+    int position = directoryPosition;
+    for (long entry : directory) {
+      OIntegerSerializer.INSTANCE.serializeLiteral((int) (entry >>> 32), bytes.bytes, position);
+      OIntegerSerializer.INSTANCE.serializeLiteral((int) entry, bytes.bytes, position + OIntegerSerializer.INT_SIZE);
+      position += DIRECTORY_ENTRY_SIZE;
+    }
+  }
+
+  @Override
+  public void deserialize(final ODocument document, final BytesContainer bytes) {
+    final String className = readString(bytes);
+    if (className.length() != 0)
+      ODocumentInternal.fillClassNameIfNeeded(document, className);
+
+    skipDirectory(bytes);
+    deserializeFields(document, bytes);
+  }
+
+  @Override
+  public void deserializePartial(final ODocument document, final BytesContainer bytes, final String[] iFields) {
+    final String className = readString(bytes);
+    if (className.length() != 0)
+      ODocumentInternal.fillClassNameIfNeeded(document, className);
+
+    final int directorySize = OVarIntSerializer.readAsInteger(bytes);
+    if (directorySize == 0) {
+      deserializePartialFields(document, bytes, iFields);
+      return;
+    }
+
+    final int directoryPosition = bytes.offset;
+
+    for (String fieldName : iFields) {
+      if (fieldName == null || ODocumentInternal.rawContainsField(document, fieldName))
+        continue;
+
+      final int hashCode = fieldName.hashCode();
+      int index = findFirstEntry(bytes.bytes, directoryPosition, directorySize, hashCode);
+      if (index < 0)
+        continue;
+
+      // SEVERAL FIELDS MAY HAVE THE SAME HASH CODE
+      while (index < directorySize && entryHashCode(bytes.bytes, directoryPosition, index) == hashCode) {
+        bytes.offset = entryHeaderPosition(bytes.bytes, directoryPosition, index);
+        if (deserializeField(document, bytes, fieldName))
+          break;
+
+        index++;
+      }
+    }
+  }
+
+  /**
+   * Skips directory of fields, {@code bytes} should point to the beginning of the directory.
+   */
+  protected void skipDirectory(final BytesContainer bytes) {
+    final int directorySize = OVarIntSerializer.readAsInteger(bytes);
+    bytes.skip(directorySize * DIRECTORY_ENTRY_SIZE);
+  }
+
+  /**
+   * Reads header entry of field and unmarshalls its value if name of field is equal to the requested one.
+   *
+   * @return {@code true} if value of field was unmarshalled.
+   */
+  private boolean deserializeField(final ODocument document, final BytesContainer bytes, final String requestedField) {
+    final int len = OVarIntSerializer.readAsInteger(bytes);
+
+    final String fieldName;
+    final int valuePos;
+    final OType type;
+
+    if (len > 0) {
+      fieldName = stringFromBytes(bytes.bytes, bytes.offset, len);
+      if (!fieldName.equals(requestedField))
+        return false;
+
+      bytes.skip(len);
+      valuePos = readInteger(bytes);
+      type = readOType(bytes);
+    } else {
+      // LOAD GLOBAL PROPERTY BY ID
+      final OGlobalProperty prop = getGlobalProperty(document, len);
+      fieldName = prop.getName();
+      if (!fieldName.equals(requestedField))
+        return false;
+
+      valuePos = readInteger(bytes);
+      if (prop.getType() != OType.ANY)
+        type = prop.getType();
+      else
+        type = readOType(bytes);
+    }
+
+    if (valuePos != 0) {
+      bytes.offset = valuePos;
+      final Object value = readSingleValue(bytes, type, document);
+      ODocumentInternal.rawField(document, requestedField, value, type);
+    } else
+      ODocumentInternal.rawField(document, requestedField, null, null);
+
+    return true;
+  }
+
+  private static int findFirstEntry(final byte[] bytes, final int directoryPosition, final int directorySize, final int hashCode) {
+    int low = 0;
+    int high = directorySize - 1;
+    int found = -1;
+
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final int middleHashCode = entryHashCode(bytes, directoryPosition, middle);
+
+      if (middleHashCode < hashCode)
+        low = middle + 1;
+      else if (middleHashCode > hashCode)
+        high = middle - 1;
+      else {
+        found = middle;
+        high = middle - 1;
+      }
+    }
+
+    return found;
+  }
+
+  private static int entryHashCode(final byte[] bytes, final int directoryPosition, final int index) {
+    return OIntegerSerializer.INSTANCE.deserializeLiteral(bytes, directoryPosition + index * DIRECTORY_ENTRY_SIZE);
+  }
+
+  private static int entryHeaderPosition(final byte[] bytes, final int directoryPosition, final int index) {
+    return OIntegerSerializer.INSTANCE.deserializeLiteral(bytes, directoryPosition + index * DIRECTORY_ENTRY_SIZE
+        + OIntegerSerializer.INT_SIZE);
+  }
+}
@@ -161,6 +161,11 @@ public class ORecordSerializerJSON extends ORecordSerializerStringAbstract {
     return 0;
   }
 
+  @Override
+  public int getMaxSupportedVersion() {
+    return 0;
+  }
+
   public ORecord fromString(String iSource, ORecord iRecord, final String[] iFields, boolean needReload) {
     return fromString(iSource, iRecord, iFields, null, needReload);
   }
@@ -77,6 +77,11 @@ public class ORecordSerializerSchemaAware2CSV extends ORecordSerializerCSVAbstra
     return 0;
   }
 
+  @Override
+  public int getMaxSupportedVersion() {
+    return 0;
+  }
+
   public String getClassName(String content) {
     content = content.trim();
 
@@ -79,6 +79,7 @@ public abstract class OCommandExecutorSQLAbstract extends OCommandExecutorAbstra
 
   protected long             timeoutMs                = OGlobalConfiguration.COMMAND_TIMEOUT.getValueAsLong();
   protected TIMEOUT_STRATEGY timeoutStrategy          = TIMEOUT_STRATEGY.EXCEPTION;
+  protected boolean          inlineParameters         = true;
 
   /**
    * The command is replicated
@@ -217,6 +218,14 @@ public abstract class OCommandExecutorSQLAbstract extends OCommandExecutorAbstra
     }
   }
 
+  /**
+   * Sets if parameters of the statement parsed in strict mode are replaced by their values in the text of the statement or left
+   * in the text to be bound at execution, like without strict mode.
+   */
+  public void setInlineParameters(final boolean inlineParameters) {
+    this.inlineParameters = inlineParameters;
+  }
+
   protected String preParse(final String queryText, final OCommandRequest iRequest) {
     final boolean strict = getDatabase().getStorage().getConfiguration().isStrictSql();
 
@@ -226,7 +235,7 @@ public abstract class OCommandExecutorSQLAbstract extends OCommandExecutorAbstra
       try {
         final OStatement result = osql.parse();
 
-        if (iRequest instanceof OCommandRequestAbstract) {
+        if (inlineParameters && iRequest instanceof OCommandRequestAbstract) {
           final Map<Object, Object> params = ((OCommandRequestAbstract) iRequest).getParameters();
           result.replaceParameters(params);
         }
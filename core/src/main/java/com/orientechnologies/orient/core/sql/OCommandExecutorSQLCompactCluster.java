@@ -0,0 +1,157 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.command.OCommandDistributedReplicateRequest;
+import com.orientechnologies.orient.core.command.OCommandRequest;
+import com.orientechnologies.orient.core.command.OCommandRequestText;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.OCluster;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OClusterCompactionResult;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OPaginatedCluster;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * SQL COMPACT CLUSTER command: Moves records out of sparsely filled pages of a paginated cluster, so the pages can be reused.
+ * Positions of records are not changed. The command may be scheduled as any other SQL command through a function of the
+ * scheduler.
+ */
+public class OCommandExecutorSQLCompactCluster extends OCommandExecutorSQLAbstract implements OCommandDistributedReplicateRequest {
+  public static final String KEYWORD_COMPACT  = "COMPACT";
+  public static final String KEYWORD_CLUSTER  = "CLUSTER";
+  public static final String KEYWORD_PAGEFILL = "PAGEFILL";
+  public static final String KEYWORD_RATE     = "RATE";
+
+  private String             clusterName;
+  private int                pageFill         = -1;
+  private int                rate             = -1;
+
+  @SuppressWarnings("unchecked")
+  public OCommandExecutorSQLCompactCluster parse(final OCommandRequest iRequest) {
+    init((OCommandRequestText) iRequest);
+
+    StringBuilder word = new StringBuilder();
+
+    int oldPos = 0;
+    int pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true);
+    if (pos == -1 || !word.toString().equals(KEYWORD_COMPACT))
+      throw new OCommandSQLParsingException("Keyword " + KEYWORD_COMPACT + " not found. Use " + getSyntax(), parserText, oldPos);
+
+    oldPos = pos;
+    pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true);
+    if (pos == -1 || !word.toString().equals(KEYWORD_CLUSTER))
+      throw new OCommandSQLParsingException("Keyword " + KEYWORD_CLUSTER + " not found. Use " + getSyntax(), parserText, oldPos);
+
+    oldPos = pos;
+    pos = nextWord(parserText, parserText, oldPos, word, true);
+    if (pos == -1)
+      throw new OCommandSQLParsingException("Expected cluster name. Use " + getSyntax(), parserText, oldPos);
+
+    clusterName = word.toString();
+    if (getDatabase().getClusterIdByName(clusterName) == -1)
+      throw new OCommandSQLParsingException("Cluster '" + clusterName + "' not found", parserText, oldPos);
+
+    oldPos = pos;
+    while ((pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true)) != -1) {
+      final String keyword = word.toString();
+      if (!keyword.equals(KEYWORD_PAGEFILL) && !keyword.equals(KEYWORD_RATE))
+        throw new OCommandSQLParsingException("Unexpected keyword " + keyword + ". Use " + getSyntax(), parserText, oldPos);
+
+      oldPos = pos;
+      pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true);
+      if (pos == -1)
+        throw new OCommandSQLParsingException("Expected value of " + keyword + ". Use " + getSyntax(), parserText, oldPos);
+
+      final int value;
+      try {
+        value = Integer.parseInt(word.toString());
+      } catch (NumberFormatException e) {
+        throw new OCommandSQLParsingException("Invalid value of " + keyword + ": " + word + ". Use " + getSyntax(), parserText,
+            oldPos);
+      }
+
+      if (value < 0 || keyword.equals(KEYWORD_PAGEFILL) && value > 100)
+        throw new OCommandSQLParsingException("Invalid value of " + keyword + ": " + value + ". Use " + getSyntax(), parserText,
+            oldPos);
+
+      if (keyword.equals(KEYWORD_PAGEFILL))
+        pageFill = value;
+      else
+        rate = value;
+
+      oldPos = pos;
+    }
+
+    return this;
+  }
+
+  /**
+   * Execute the command and return an ODocument with the statistics of the compaction.
+   */
+  public Object execute(final Map<Object, Object> iArgs) {
+    if (clusterName == null)
+      throw new OCommandExecutionException("Cannot execute the command because it has not been parsed yet");
+
+    final OCluster cluster = getDatabase().getStorage().getClusterByName(clusterName);
+    if (!(cluster instanceof OPaginatedCluster))
+      throw new OCommandExecutionException("Cluster '" + clusterName + "' does not support compaction");
+
+    final OContextConfiguration configuration = getDatabase().getStorage().getConfiguration().getContextConfiguration();
+    final int minPageFill = pageFill >= 0 ? pageFill : configuration
+        .getValueAsInteger(OGlobalConfiguration.STORAGE_CLUSTER_COMPACTION_PAGE_FILL);
+    final int maxKbPerSecond = rate >= 0 ? rate : configuration
+        .getValueAsInteger(OGlobalConfiguration.STORAGE_CLUSTER_COMPACTION_RATE);
+
+    final OClusterCompactionResult result;
+    try {
+      result = ((OPaginatedCluster) cluster).compact(minPageFill, maxKbPerSecond);
+    } catch (IOException e) {
+      throw new OCommandExecutionException("Error on executing command", e);
+    }
+
+    final ODocument document = new ODocument();
+    document.field("cluster", clusterName);
+    document.field("recordsMoved", result.getRecordsMoved());
+    document.field("bytesMoved", result.getBytesMoved());
+    document.field("pagesFreed", result.getPagesFreed());
+    document.field("reclaimedBytes", result.getReclaimedBytes());
+    return document;
+  }
+
+  @Override
+  public long getTimeout() {
+    return OGlobalConfiguration.DISTRIBUTED_COMMAND_TASK_SYNCH_TIMEOUT.getValueAsLong();
+  }
+
+  @Override
+  public String getSyntax() {
+    return "COMPACT CLUSTER <cluster-name> [PAGEFILL <percent>] [RATE <kb-per-second>]";
+  }
+
+  @Override
+  public QUORUM_TYPE getQuorumType() {
+    return QUORUM_TYPE.ALL;
+  }
+}
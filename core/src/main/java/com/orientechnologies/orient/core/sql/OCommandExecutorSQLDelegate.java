@@ -41,6 +41,9 @@ import java.util.Set;
  */
 public class OCommandExecutorSQLDelegate extends OCommandExecutorSQLAbstract implements OCommandDistributedReplicateRequest {
   protected OCommandExecutorSQLAbstract delegate;
+  private OSQLStatementCache            statementCache;
+  private String                        statementKey;
+  private long                          statementVersion;
 
   @SuppressWarnings("unchecked")
   public OCommandExecutorSQLDelegate parse(final OCommandRequest iCommand) {
@@ -67,14 +70,23 @@ public class OCommandExecutorSQLDelegate extends OCommandExecutorSQLAbstract imp
           throwParsingException(e.getMessage());
         }
       } else {
-        delegate = (OCommandExecutorSQLAbstract) OSQLEngine.getInstance().getCommand(textUpperCase);
-        if (delegate == null)
-          throw new OCommandExecutorNotFoundException("Cannot find a command executor for the command request: " + iCommand);
-
-        delegate.setContext(context);
-        delegate.setLimit(iCommand.getLimit());
-        delegate.parse(iCommand);
-        delegate.setProgressListener(progressListener);
+        statementCache = getStatementCache(text);
+        if (statementCache != null) {
+          statementKey = OSQLStatementCache.getKey(iCommand.getLimit(), text);
+          if (statementCache.isReusable(statementKey)) {
+            statementVersion = statementCache.getVersion();
+            if (reuseStatement(textRequest))
+              return this;
+
+            if (parseReusableStatement(textRequest, textUpperCase))
+              return this;
+
+            statementCache.markNotReusable(statementKey, statementVersion);
+          }
+          statementCache = null;
+        }
+
+        parseStatement(textRequest, textUpperCase, true);
       }
     } else
       throw new OCommandExecutionException("Cannot find a command executor for the command request: " + iCommand);
@@ -87,7 +99,14 @@ public class OCommandExecutorSQLDelegate extends OCommandExecutorSQLAbstract imp
   }
 
   public Object execute(final Map<Object, Object> iArgs) {
-    return delegate.execute(iArgs);
+    final Object result = delegate.execute(iArgs);
+
+    if (statementCache != null) {
+      statementCache.release(statementKey, (OCommandExecutorSQLSelect) delegate, statementVersion);
+      statementCache = null;
+    }
+
+    return result;
   }
 
   @Override
@@ -128,4 +147,60 @@ public class OCommandExecutorSQLDelegate extends OCommandExecutorSQLAbstract imp
   public Set<String> getInvolvedClusters() {
     return delegate.getInvolvedClusters();
   }
+
+  /**
+   * Tells if parsed SELECT statements are taken from {@link OSQLStatementCache} and returned to it after execution.
+   */
+  protected boolean useStatementCache() {
+    return true;
+  }
+
+  private OSQLStatementCache getStatementCache(final String text) {
+    final String keyword = OCommandExecutorSQLSelect.KEYWORD_SELECT;
+    if (!useStatementCache() || !text.regionMatches(true, 0, keyword, 0, keyword.length()))
+      return null;
+
+    return OSQLStatementCache.instance(getDatabase().getStorage());
+  }
+
+  private boolean reuseStatement(final OCommandRequestText iRequest) {
+    final OCommandExecutorSQLSelect statement = statementCache.acquire(statementKey);
+    if (statement == null || !statement.isReusable(getParameterCount(iRequest)))
+      return false;
+
+    statement.setContext(context);
+    statement.setProgressListener(progressListener);
+    delegate = statement.reuse(iRequest);
+    return true;
+  }
+
+  private boolean parseReusableStatement(final OCommandRequestText iRequest, final String textUpperCase) {
+    try {
+      // PARAMETERS ARE LEFT UNBOUND ALSO IN STRICT MODE, SO THE STATEMENT CAN BE EXECUTED AGAIN WITH OTHER VALUES
+      parseStatement(iRequest, textUpperCase, false);
+    } catch (RuntimeException e) {
+      // PARAMETERS ARE ACCEPTED ONLY IN STRICT MODE IN THIS PART OF THE STATEMENT, E.G. LIMIT ?
+      return false;
+    }
+
+    return delegate instanceof OCommandExecutorSQLSelect
+        && ((OCommandExecutorSQLSelect) delegate).isReusable(getParameterCount(iRequest));
+  }
+
+  private void parseStatement(final OCommandRequestText iRequest, final String textUpperCase, final boolean inlineParameters) {
+    delegate = (OCommandExecutorSQLAbstract) OSQLEngine.getInstance().getCommand(textUpperCase);
+    if (delegate == null)
+      throw new OCommandExecutorNotFoundException("Cannot find a command executor for the command request: " + iRequest);
+
+    delegate.setContext(context);
+    delegate.setLimit(iRequest.getLimit());
+    delegate.setInlineParameters(inlineParameters);
+    delegate.parse(iRequest);
+    delegate.setProgressListener(progressListener);
+  }
+
+  private static int getParameterCount(final OCommandRequestText iRequest) {
+    final Map<Object, Object> parameters = iRequest.getParameters();
+    return parameters == null ? 0 : parameters.size();
+  }
 }
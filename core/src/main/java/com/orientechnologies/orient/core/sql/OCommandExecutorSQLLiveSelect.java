@@ -33,19 +33,21 @@ import com.orientechnologies.orient.core.exception.OSecurityException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.security.ORole;
 import com.orientechnologies.orient.core.metadata.security.ORule;
+import com.orientechnologies.orient.core.query.live.OLiveQueryFilteredListener;
 import com.orientechnologies.orient.core.query.live.OLiveQueryHook;
-import com.orientechnologies.orient.core.query.live.OLiveQueryListener;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.query.OLiveResultListener;
 import com.orientechnologies.orient.core.sql.query.OResultSet;
 
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * @author Luigi Dell'Aquila
  */
-public class OCommandExecutorSQLLiveSelect extends OCommandExecutorSQLSelect implements OLiveQueryListener {
+public class OCommandExecutorSQLLiveSelect extends OCommandExecutorSQLSelect implements OLiveQueryFilteredListener {
   public static final String  KEYWORD_LIVE_SELECT = "LIVE SELECT";
   private ODatabaseDocument   execDb;
   private int                 token;
@@ -98,20 +100,26 @@ public class OCommandExecutorSQLLiveSelect extends OCommandExecutorSQLSelect imp
     OLiveQueryHook.subscribe(token, this);
   }
 
-  public void onLiveResult(final ORecordOperation iOp) {
+  public Set<String> getTargetClassNames() {
+    if (parsedTarget.getTargetClasses() == null || parsedTarget.getTargetRecords() != null
+        || parsedTarget.getTargetClusters() != null) {
+      return null;
+    }
+
+    final Set<String> result = new HashSet<String>();
+    for (OClass clazz : parsedTarget.getTargetClasses().keySet()) {
+      result.add(clazz.getName());
+    }
+    return result;
+  }
 
+  public boolean matches(final ORecordOperation iOp) {
     final OIdentifiable value = iOp.getRecord();
 
-    if (!matchesTarget(value)) {
-      return;
-    }
-    if (!matchesFilters(value)) {
-      return;
-    }
-    if (!checkSecurity(value)) {
-      return;
-    }
+    return matchesTarget(value) && matchesFilters(value) && checkSecurity(value);
+  }
 
+  public void onLiveResult(final ORecordOperation iOp) {
     final OCommandResultListener listener = request.getResultListener();
     if (listener instanceof OLiveResultListener) {
       execInSeparateDatabase(new OCallable() {
@@ -39,6 +39,7 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.ODocumentHelper;
 import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import com.orientechnologies.orient.core.serialization.serializer.OStringSerializerHelper;
+import com.orientechnologies.orient.core.sql.filter.OSQLCompiledCondition;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilter;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilterCondition;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemField;
@@ -88,6 +89,7 @@ public abstract class OCommandExecutorSQLResultsetAbstract extends OCommandExecu
   protected OSQLAsynchQuery<ODocument>        request;
   protected OSQLTarget                        parsedTarget;
   protected OSQLFilter                        compiledFilter;
+  protected OSQLCompiledCondition             compiledCondition;
   protected Map<String, Object>               let                = null;
   protected Iterator<? extends OIdentifiable> target;
   protected Iterable<OIdentifiable>           tempResult;
@@ -150,18 +152,22 @@ public abstract class OCommandExecutorSQLResultsetAbstract extends OCommandExecu
     final OCommandRequestText textRequest = (OCommandRequestText) iRequest;
 
     init(textRequest);
+    assignRequest(textRequest);
 
+    return this;
+  }
+
+  protected void assignRequest(final OCommandRequestText iRequest) {
     if (iRequest instanceof OSQLSynchQuery) {
       request = (OSQLSynchQuery<ODocument>) iRequest;
     } else if (iRequest instanceof OSQLAsynchQuery)
       request = (OSQLAsynchQuery<ODocument>) iRequest;
     else {
       // BUILD A QUERY OBJECT FROM THE COMMAND REQUEST
-      request = new OSQLSynchQuery<ODocument>(textRequest.getText());
-      if (textRequest.getResultListener() != null)
-        request.setResultListener(textRequest.getResultListener());
+      request = new OSQLSynchQuery<ODocument>(iRequest.getText());
+      if (iRequest.getResultListener() != null)
+        request.setResultListener(iRequest.getResultListener());
     }
-    return this;
   }
 
   @Override
@@ -397,6 +403,8 @@ public abstract class OCommandExecutorSQLResultsetAbstract extends OCommandExecu
     assignLetClauses(iRecord);
     if (compiledFilter == null)
       return true;
+    if (compiledCondition != null)
+      return compiledCondition.evaluate(iRecord, context);
     return (Boolean) compiledFilter.evaluate(iRecord, null, context);
   }
 
@@ -669,4 +677,12 @@ public abstract class OCommandExecutorSQLResultsetAbstract extends OCommandExecu
   public void setCompiledFilter(final OSQLFilter compiledFilter) {
     this.compiledFilter = compiledFilter;
   }
+
+  public int getSkip() {
+    return skip;
+  }
+
+  public void setSkip(final int skip) {
+    this.skip = skip;
+  }
 }
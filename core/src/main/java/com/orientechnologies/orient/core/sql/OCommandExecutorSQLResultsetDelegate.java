@@ -43,4 +43,12 @@ public class OCommandExecutorSQLResultsetDelegate extends OCommandExecutorSQLDel
   public Iterator<OIdentifiable> iterator(final Map<Object, Object> iArgs) {
     return ((OCommandExecutorSQLResultsetAbstract) delegate).iterator(iArgs);
   }
+
+  /**
+   * Sub queries are iterated many times without being executed, so they keep their own parsed statement.
+   */
+  @Override
+  protected boolean useStatementCache() {
+    return false;
+  }
 }
@@ -35,13 +35,16 @@ import com.orientechnologies.orient.core.command.OCommandRequestText;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.OScenarioThreadLocal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.exception.OQueryParsingException;
 import com.orientechnologies.orient.core.id.OContextualRecordId;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.index.OCompositeIndexDefinition;
 import com.orientechnologies.orient.core.index.OCompositeKey;
 import com.orientechnologies.orient.core.index.OIndex;
@@ -50,6 +53,9 @@ import com.orientechnologies.orient.core.index.OIndexDefinition;
 import com.orientechnologies.orient.core.index.OIndexEngineException;
 import com.orientechnologies.orient.core.index.OIndexInternal;
 import com.orientechnologies.orient.core.iterator.ORecordIteratorClass;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorClusters;
+import com.orientechnologies.orient.core.metadata.OMetadataInternal;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.metadata.security.ORole;
@@ -63,6 +69,7 @@ import com.orientechnologies.orient.core.record.impl.ODocumentHelper;
 import com.orientechnologies.orient.core.serialization.serializer.OStringSerializerHelper;
 import com.orientechnologies.orient.core.sql.filter.OFilterOptimizer;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilter;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterCompiler;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilterCondition;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilterItem;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemField;
@@ -86,7 +93,13 @@ import com.orientechnologies.orient.core.storage.OStorage.LOCKING_STRATEGY;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -110,6 +123,7 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   public static final String          KEYWORD_NOCACHE      = "NOCACHE";
   private static final String         KEYWORD_AS           = "AS";
   private static final String         KEYWORD_PARALLEL     = "PARALLEL";
+  private static final Morsel         END_OF_MORSELS       = new Morsel(-1, -1, -1);
   private final OOrderByOptimizer     orderByOptimizer     = new OOrderByOptimizer();
   private final OMetricRecorder       metricRecorder       = new OMetricRecorder();
   private final OFilterOptimizer      filterOptimizer      = new OFilterOptimizer();
@@ -123,6 +137,7 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   private List<String>                unwindFields;
   private Object                      expandTarget;
   private int                         fetchLimit           = -1;
+  private int                         parsedSkip           = 0;
   private OIdentifiable               lastRecord;
   private String                      fetchPlan;
   private volatile boolean            executing;
@@ -130,6 +145,7 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   private LOCKING_STRATEGY            lockingStrategy      = LOCKING_STRATEGY.DEFAULT;
   private boolean                     parallel             = false;
   private Lock                        parallelLock         = new ReentrantLock();
+  private final ThreadLocal<ParallelWorker> parallelWorker = new ThreadLocal<ParallelWorker>();
   private Set<ORID>                   uniqueResult;
   private boolean                     noCache              = false;
   private int                         tipLimitThreshold    = OGlobalConfiguration.QUERY_LIMIT_THRESHOLD_TIP.getValueAsInteger();
@@ -295,6 +311,8 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
       if (limit == 0 || limit < -1) {
         throw new IllegalArgumentException("Limit must be > 0 or = -1 (no limit)");
       }
+
+      parsedSkip = skip;
     } finally {
       textRequest.setText(originalQuery);
     }
@@ -302,6 +320,82 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     return this;
   }
 
+  /**
+   * Tells if the parsed statement can be executed again by {@link OSQLStatementCache}. Statements which keep state between the
+   * records of one execution, like functions, sub queries, LET and GROUP BY, are parsed for each execution. All parameters have
+   * to be bound in the WHERE condition.
+   *
+   * @param iParameterCount
+   *          amount of parameters of the request
+   */
+  public boolean isReusable(final int iParameterCount) {
+    if (iParameterCount != (compiledFilter == null ? 0 : compiledFilter.getParameterCount())) {
+      return false;
+    }
+
+    if (let != null || groupByFields != null || unwindFields != null || expandTarget != null || parallel) {
+      return false;
+    }
+
+    if (parsedTarget == null || parsedTarget.getTargetQuery() != null || parsedTarget.getTargetVariable() != null) {
+      return false;
+    }
+
+    if (projections != null) {
+      for (Object projection : projections.values()) {
+        if (!isReusable(projection)) {
+          return false;
+        }
+      }
+    }
+
+    return compiledFilter == null || isReusable(compiledFilter.getRootCondition());
+  }
+
+  private static boolean isReusable(final Object item) {
+    if (item instanceof OSQLFunctionRuntime || item instanceof OSQLQuery<?>) {
+      return false;
+    }
+
+    if (item instanceof OSQLFilterCondition) {
+      final OSQLFilterCondition condition = (OSQLFilterCondition) item;
+      return isReusable(condition.getLeft()) && isReusable(condition.getRight());
+    }
+
+    return true;
+  }
+
+  /**
+   * Binds the statement taken from {@link OSQLStatementCache} to the new request, like {@link #parse} does.
+   */
+  public OCommandExecutorSQLSelect reuse(final OCommandRequestText iRequest) {
+    getDatabase().checkSecurity(ORule.ResourceGeneric.COMMAND, ORole.PERMISSION_READ);
+    assignRequest(iRequest);
+    initContext();
+    return this;
+  }
+
+  /**
+   * Clears the state of the last execution, so the statement can be returned to {@link OSQLStatementCache}.
+   */
+  public void clearExecutionState() {
+    request = null;
+    context = null;
+    parameters = null;
+    progressListener = null;
+    target = null;
+    tempResult = null;
+    resultCount = 0;
+    serialTempRID = 0;
+    skip = parsedSkip;
+    lastRecord = null;
+    groupedResult = null;
+    uniqueResult = null;
+    fetchLimit = -1;
+    fullySortedByIndex = false;
+    compiledCondition = null;
+  }
+
   /**
    * Determine clusters that are used in select operation
    *
@@ -547,7 +641,18 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
    *          Record to handle
    * @return false if limit has been reached, otherwise true
    */
-  protected boolean handleResult(final OIdentifiable iRecord) {
+  protected boolean handleResult(OIdentifiable iRecord) {
+    final ParallelWorker worker = parallel ? parallelWorker.get() : null;
+    if (worker != null) {
+      if (worker.groups != null)
+        // AGGREGATE ON THE GROUPS OF THE WORKER, THEY ARE MERGED ONCE ALL THE WORKERS ARE COMPLETED
+        return worker.aggregate(iRecord);
+
+      if (worker.projections != null)
+        // APPLY PROJECTIONS OF THE WORKER OUTSIDE OF THE LOCK, TEMPORARY RID IS ASSIGNED ONCE THE RECORD IS COLLECTED
+        iRecord = ORuntimeResult.getProjectionResult(-1, worker.projections, context, iRecord);
+    }
+
     if (parallel)
       // LOCK FOR PARALLEL EXECUTION. THIS PREVENT CONCURRENT ISSUES
       parallelLock.lock();
@@ -563,7 +668,13 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
 
       resultCount++;
 
-      if (!addResult(lastRecord)) {
+      if (worker != null && worker.projections != null) {
+        if (iRecord != null) {
+          ((ORecordId) iRecord.getIdentity()).clusterPosition = getTemporaryRIDCounter();
+          if (!addProjectedResult(iRecord))
+            return false;
+        }
+      } else if (!addResult(lastRecord)) {
         return false;
       }
 
@@ -599,37 +710,15 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
 
       } else {
         // AGGREGATION/GROUP BY
-        Object fieldValue = null;
-        if (groupByFields != null && !groupByFields.isEmpty()) {
-          if (groupByFields.size() > 1) {
-            // MULTI-FIELD GROUP BY
-            final ODocument doc = iRecord.getRecord();
-            final Object[] fields = new Object[groupByFields.size()];
-            for (int i = 0; i < groupByFields.size(); ++i) {
-              final String field = groupByFields.get(i);
-              if (field.startsWith("$"))
-                fields[i] = context.getVariable(field);
-              else
-                fields[i] = doc.field(field);
-
-            }
-            fieldValue = fields;
-          } else {
-            final String field = groupByFields.get(0);
-            if (field != null) {
-              if (field.startsWith("$"))
-                fieldValue = context.getVariable(field);
-              else
-                fieldValue = ((ODocument) iRecord.getRecord()).field(field);
-            }
-          }
-        }
-
-        getProjectionGroup(fieldValue).applyRecord(iRecord);
+        getProjectionGroup(getGroupByValue(iRecord)).applyRecord(iRecord);
         return true;
       }
     }
 
+    return addProjectedResult(iRecord);
+  }
+
+  private boolean addProjectedResult(final OIdentifiable iRecord) {
     if (tipLimitThreshold > 0 && resultCount > tipLimitThreshold) {
       reportTip(String.format(
           "Query '%s' returned a result set with more than %d records. Reduce it to improve performance and reduce RAM used",
@@ -711,40 +800,73 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     tips.add(iMessage);
   }
 
+  private Object getGroupByValue(final OIdentifiable iRecord) {
+    Object fieldValue = null;
+    if (groupByFields != null && !groupByFields.isEmpty()) {
+      if (groupByFields.size() > 1) {
+        // MULTI-FIELD GROUP BY
+        final ODocument doc = iRecord.getRecord();
+        final Object[] fields = new Object[groupByFields.size()];
+        for (int i = 0; i < groupByFields.size(); ++i) {
+          final String field = groupByFields.get(i);
+          if (field.startsWith("$"))
+            fields[i] = context.getVariable(field);
+          else
+            fields[i] = doc.field(field);
+
+        }
+        fieldValue = fields;
+      } else {
+        final String field = groupByFields.get(0);
+        if (field != null) {
+          if (field.startsWith("$"))
+            fieldValue = context.getVariable(field);
+          else
+            fieldValue = ((ODocument) iRecord.getRecord()).field(field);
+        }
+      }
+    }
+    return fieldValue;
+  }
+
+  private Object getGroupKey(final Object fieldValue) {
+    if (fieldValue != null) {
+      if (fieldValue.getClass().isArray()) {
+        // LOOK IT BY HASH (FASTER THAN COMPARE EACH SINGLE VALUE)
+        final Object[] array = (Object[]) fieldValue;
+
+        final StringBuilder keyArray = new StringBuilder();
+        for (Object o : array) {
+          if (keyArray.length() > 0) {
+            keyArray.append(",");
+          }
+          if (o != null) {
+            keyArray.append(o instanceof OIdentifiable ? ((OIdentifiable) o).getIdentity().toString() : o.toString());
+          } else {
+            keyArray.append(NULL_VALUE);
+          }
+        }
+
+        return keyArray.toString();
+      }
+
+      // LOOKUP FOR THE FIELD
+      return fieldValue;
+    }
+
+    // USE NULL_VALUE THEN REPLACE WITH REAL NULL
+    return NULL_VALUE;
+  }
+
   protected ORuntimeResult getProjectionGroup(final Object fieldValue) {
     final long projectionElapsed = (Long) context.getVariable("projectionElapsed", 0l);
     final long begin = System.currentTimeMillis();
     try {
 
-      Object key;
       if (groupedResult == null)
         groupedResult = new LinkedHashMap<Object, ORuntimeResult>();
 
-      if (fieldValue != null) {
-        if (fieldValue.getClass().isArray()) {
-          // LOOK IT BY HASH (FASTER THAN COMPARE EACH SINGLE VALUE)
-          final Object[] array = (Object[]) fieldValue;
-
-          final StringBuilder keyArray = new StringBuilder();
-          for (Object o : array) {
-            if (keyArray.length() > 0) {
-              keyArray.append(",");
-            }
-            if (o != null) {
-              keyArray.append(o instanceof OIdentifiable ? ((OIdentifiable) o).getIdentity().toString() : o.toString());
-            } else {
-              keyArray.append(NULL_VALUE);
-            }
-          }
-
-          key = keyArray.toString();
-        } else {
-          // LOOKUP FOR THE FIELD
-          key = fieldValue;
-        }
-      } else
-        // USE NULL_VALUE THEN REPLACE WITH REAL NULL
-        key = NULL_VALUE;
+      final Object key = getGroupKey(fieldValue);
 
       ORuntimeResult group = groupedResult.get(key);
       if (group == null) {
@@ -836,6 +958,11 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
       // CHECK FOR INVERSE ORDER
       final boolean browsingOrderAsc = !(orderedFields.size() == 1 && orderedFields.get(0).getKey().equalsIgnoreCase("@rid") && orderedFields
           .get(0).getValue().equalsIgnoreCase("DESC"));
+
+      if (OGlobalConfiguration.QUERY_COMPILE_CONDITIONS.getValueAsBoolean())
+        compiledCondition = OSQLFilterCompiler.compile(compiledFilter,
+            ((OMetadataInternal) getDatabase().getMetadata()).getImmutableSchemaSnapshot().getClass(cls.getName()));
+
       super.searchInClasses(browsingOrderAsc);
     }
   }
@@ -1415,7 +1542,6 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   private void parallelExec(final Iterator<? extends OIdentifiable> iTarget) {
     final OResultSet result = (OResultSet) getResult();
 
-    // BROWSE ALL THE RECORDS ON CURRENT THREAD BUT DELEGATE UNMARSHALLING AND FILTER TO A THREAD POOL
     final ODatabaseDocumentInternal db = getDatabase();
 
     if (limit > -1) {
@@ -1425,60 +1551,413 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     }
 
     final int cores = Runtime.getRuntime().availableProcessors();
-    OLogManager.instance().debug(this, "Parallel query against %d threads", cores);
+    final int morselSize = Math.max(1, OGlobalConfiguration.QUERY_PARALLEL_MORSEL_SIZE.getValueAsInteger());
+    final boolean aggregateByWorkers = isAggregationByWorkersSupported();
+
+    // CLUSTERS ARE SPLIT IN RANGES OF POSITIONS WHICH ARE BROWSED, UNMARSHALLED AND FILTERED BY THE WORKERS THEMSELVES. ANY OTHER
+    // TARGET IS BROWSED ON CURRENT THREAD AND PASSED TO WORKERS IN MORSELS, QUEUE OF MORSELS IS BOUNDED TO KEEP MEMORY CONSTANT
+    final boolean scanRanges = iTarget instanceof ORecordIteratorClusters && db instanceof ODatabaseDocumentTx
+        && !db.getTransaction().isActive();
+
+    final BlockingQueue<Morsel> morsels;
+    final int threads;
+    if (scanRanges) {
+      final List<Morsel> ranges = splitClusters(db, (ORecordIteratorClusters<?>) iTarget, morselSize);
+      threads = Math.max(1, Math.min(cores, ranges.size()));
+
+      morsels = new LinkedBlockingQueue<Morsel>(ranges);
+      for (int i = 0; i < threads; i++)
+        morsels.add(END_OF_MORSELS);
+    } else {
+      threads = cores;
+      morsels = new ArrayBlockingQueue<Morsel>(cores * 2);
+    }
+
+    OLogManager.instance().debug(this, "Parallel query against %d threads, morsel size is %d", threads, morselSize);
 
     executing = true;
-    final List<Future<?>> jobs = new ArrayList<Future<?>>();
 
-    // BROWSE ALL THE RECORDS AND PUT THE RECORD INTO THE QUEUE
-    while (executing && iTarget.hasNext()) {
-      final OIdentifiable next = iTarget.next();
+    // CURRENT THREAD IS A WORKER AS WELL
+    final ParallelWorker currentWorker = new ParallelWorker(morsels, aggregateByWorkers);
+    final List<ParallelWorker> workers = new ArrayList<ParallelWorker>(threads);
+    workers.add(currentWorker);
 
-      if (next == null) {
-        break;
-      }
+    final List<Future<Void>> jobs = new ArrayList<Future<Void>>(threads - 1);
+    for (int i = 1; i < threads; i++) {
+      final ParallelWorker worker = new ParallelWorker(morsels, aggregateByWorkers);
+      workers.add(worker);
 
-      final Runnable job = new Runnable() {
+      jobs.add(Orient.instance().submit(new Callable<Void>() {
         @Override
-        public void run() {
-          ODatabaseRecordThreadLocal.INSTANCE.set(db);
+        public Void call() throws Exception {
+          if (!worker.claim())
+            // QUERY HAS BEEN COMPLETED BEFORE THE WORKER WAS STARTED
+            return null;
 
-          if (!executeSearchRecord(next)) {
+          // EVERY WORKER USES ITS OWN COPY OF DATABASE
+          final ODatabaseDocumentInternal workerDb = db instanceof ODatabaseDocumentTx ? ((ODatabaseDocumentTx) db).copy() : db;
+          ODatabaseRecordThreadLocal.INSTANCE.set(workerDb);
+          try {
+            worker.run(workerDb);
+          } catch (Exception e) {
             executing = false;
+            throw e;
+          } finally {
+            if (workerDb != db) {
+              try {
+                workerDb.close();
+              } catch (Exception e) {
+                OLogManager.instance().error(this, "Error during close of database used by parallel query", e);
+              }
+            }
+            ODatabaseRecordThreadLocal.INSTANCE.remove();
           }
+          return null;
         }
-      };
-
-      jobs.add(Orient.instance().submit(job));
+      }));
     }
 
-    if (OLogManager.instance().isDebugEnabled()) {
-      OLogManager.instance()
-          .debug(this, "Parallel query '%s' split in %d jobs, waiting for completion...", parserText, jobs.size());
-    }
-
-    int processed = 0;
-    int total = jobs.size();
+    long browsed = 0;
+    boolean completed = false;
     try {
-      for (Future<?> j : jobs) {
-        j.get();
-        processed++;
+      if (scanRanges)
+        currentWorker.run(db);
+      else {
+        parallelWorker.set(currentWorker);
+        try {
+          // BROWSE ALL THE RECORDS AND PUT THEM INTO THE QUEUE BY MORSELS
+          List<OIdentifiable> records = new ArrayList<OIdentifiable>(morselSize);
+          while (executing && iTarget.hasNext()) {
+            final OIdentifiable next = iTarget.next();
+
+            if (next == null) {
+              break;
+            }
 
-        if (OLogManager.instance().isDebugEnabled()) {
-          if (processed % (total / 10) == 0) {
-            OLogManager.instance().debug(this, "Executed parallel query %d/%d", processed, total);
+            browsed++;
+            records.add(next);
+            if (records.size() >= morselSize) {
+              final Morsel morsel = new Morsel(records);
+              if (!morsels.offer(morsel))
+                // ALL THE WORKERS ARE BUSY: FILTER THE MORSEL ON CURRENT THREAD INSTEAD OF WAITING
+                currentWorker.execute(db, morsel);
+
+              records = new ArrayList<OIdentifiable>(morselSize);
+            }
           }
+
+          if (!records.isEmpty())
+            currentWorker.execute(db, new Morsel(records));
+
+          // HELP WORKERS TO PROCESS THE REST OF THE QUEUE, WORKERS MAY NOT HAVE BEEN STARTED YET IF THREAD POOL IS BUSY
+          Morsel morsel;
+          while ((morsel = morsels.poll()) != null)
+            currentWorker.execute(db, morsel);
+
+        } finally {
+          parallelWorker.remove();
+
+          // SIGNAL END OF MORSELS TO EVERY WORKER, QUEUE HAS ENOUGH ROOM FOR ALL OF THEM ONCE IT HAS BEEN DRAINED
+          for (int i = 0; i < jobs.size(); i++)
+            morsels.offer(END_OF_MORSELS);
         }
+
+        currentWorker.complete();
       }
-    } catch (Exception e) {
-      OLogManager.instance().error(this, "Error on executing parallel query: %s", e, parserText);
+
+      if (OLogManager.instance().isDebugEnabled()) {
+        OLogManager.instance().debug(this, "Parallel query '%s' browsed %d records, waiting for completion of %d workers...",
+            parserText, browsed, jobs.size());
+      }
+
+      for (int i = 0; i < jobs.size(); i++)
+        // WORKERS WHICH HAVE NOT BEEN STARTED YET HAVE NOTHING LEFT TO DO
+        if (!workers.get(i + 1).claim())
+          jobs.get(i).get();
+
+      completed = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OCommandExecutionException("The select execution has been interrupted");
+    } catch (ExecutionException e) {
+      throw new OCommandExecutionException("Error on executing parallel query: " + parserText, e.getCause());
+    } finally {
+      if (!completed)
+        // STOP THE OTHER WORKERS
+        executing = false;
     }
 
+    if (aggregateByWorkers)
+      mergeWorkerGroups(workers);
+
     if (OLogManager.instance().isDebugEnabled()) {
       OLogManager.instance().debug(this, "Parallel query '%s' completed", parserText);
     }
   }
 
+  /**
+   * Splits clusters browsed by the iterator in ranges of positions of the given size.
+   */
+  private static List<Morsel> splitClusters(final ODatabaseDocumentInternal iDatabase, final ORecordIteratorClusters<?> iTarget,
+      final int iRangeSize) {
+    final List<Morsel> ranges = new ArrayList<Morsel>();
+
+    final ORID beginRange = iTarget.getBeginRange();
+    final ORID endRange = iTarget.getEndRange();
+
+    for (int clusterId : iTarget.getClusterIds()) {
+      final long[] range = iDatabase.getStorage().getClusterDataRange(clusterId);
+      if (range.length < 2 || range[0] < 0 || range[1] < 0)
+        continue;
+
+      long first = range[0];
+      if (beginRange != null && beginRange.getClusterId() == clusterId && beginRange.getClusterPosition() > first)
+        first = beginRange.getClusterPosition();
+
+      long last = range[1];
+      if (endRange != null && endRange.getClusterId() == clusterId && endRange.getClusterPosition() < last)
+        last = endRange.getClusterPosition();
+
+      for (long position = first; position <= last; position += iRangeSize)
+        ranges.add(new Morsel(clusterId, position, Math.min(last, position + iRangeSize - 1)));
+    }
+
+    return ranges;
+  }
+
+  /**
+   * Tells if every worker of a parallel query can aggregate records on its own groups, that is possible only if partial results
+   * of all the aggregate functions can be merged.
+   */
+  private boolean isAggregationByWorkersSupported() {
+    if (groupedResult == null || projections == null || unwindFields != null || skip > 0)
+      return false;
+
+    for (Object projection : projections.values()) {
+      if (projection instanceof OSQLFunctionRuntime && ((OSQLFunctionRuntime) projection).aggregateResults()
+          && !((OSQLFunctionRuntime) projection).getFunction().shouldMergeDistributedResult())
+        return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Merges partial results of the groups aggregated by workers of a parallel query into the groups of the query.
+   */
+  private void mergeWorkerGroups(final List<ParallelWorker> workers) {
+    final Map<Object, Object> fieldValues = new LinkedHashMap<Object, Object>();
+    final Map<Object, List<ODocument>> partialResults = new HashMap<Object, List<ODocument>>();
+
+    for (ParallelWorker worker : workers) {
+      resultCount += worker.results;
+
+      for (Entry<Object, ORuntimeResult> group : worker.groups.entrySet()) {
+        final ODocument partialResult = worker.partialResults.get(group.getKey());
+        if (partialResult == null)
+          continue;
+
+        List<ODocument> groupResults = partialResults.get(group.getKey());
+        if (groupResults == null) {
+          groupResults = new ArrayList<ODocument>();
+          partialResults.put(group.getKey(), groupResults);
+          fieldValues.put(group.getKey(), group.getValue().getFieldValue());
+        }
+        groupResults.add(partialResult);
+      }
+    }
+
+    for (Entry<Object, Object> fieldValue : fieldValues.entrySet()) {
+      final List<ODocument> groupResults = partialResults.get(fieldValue.getKey());
+      final ORuntimeResult group = getProjectionGroup(fieldValue.getValue());
+
+      final Set<String> fieldNames = new LinkedHashSet<String>();
+      for (ODocument groupResult : groupResults)
+        fieldNames.addAll(Arrays.asList(groupResult.fieldNames()));
+
+      for (String fieldName : fieldNames) {
+        final List<Object> values = new ArrayList<Object>(groupResults.size());
+        for (ODocument groupResult : groupResults) {
+          final Object value = groupResult.rawField(fieldName);
+          if (value != null)
+            values.add(value);
+        }
+
+        if (values.isEmpty())
+          continue;
+
+        final Object projection = projections.get(fieldName);
+        if (projection instanceof OSQLFunctionRuntime && ((OSQLFunctionRuntime) projection).aggregateResults())
+          group.applyValue(fieldName, ((OSQLFunctionRuntime) projection).getFunction().mergeDistributedResult(values));
+        else
+          group.applyValue(fieldName, values.get(0));
+      }
+    }
+  }
+
+  /**
+   * Unit of work of a parallel query: either a range of positions of a cluster, browsed by the worker itself, or records browsed
+   * by the thread which executes the query.
+   */
+  private static final class Morsel {
+    private final int                 clusterId;
+    private final long                first;
+    private final long                last;
+    private final List<OIdentifiable> records;
+
+    private Morsel(final int clusterId, final long first, final long last) {
+      this.clusterId = clusterId;
+      this.first = first;
+      this.last = last;
+      this.records = null;
+    }
+
+    private Morsel(final List<OIdentifiable> records) {
+      this.clusterId = -1;
+      this.first = -1;
+      this.last = -1;
+      this.records = records;
+    }
+  }
+
+  /**
+   * Worker of a parallel query. Every worker applies inline projections and aggregates records on its own instances of
+   * projections, so workers contend for the lock of the query only to collect results.
+   */
+  private final class ParallelWorker {
+    private final BlockingQueue<Morsel>       morsels;
+    private final Map<String, Object>         projections;
+    private final Map<Object, ORuntimeResult> groups;
+    private final Map<Object, ODocument>      partialResults;
+    private final List<Map<String, Object>>   groupProjections;
+    private final AtomicBoolean               claimed = new AtomicBoolean();
+    private int                               results;
+
+    private ParallelWorker(final BlockingQueue<Morsel> morsels, final boolean aggregate) {
+      this.morsels = morsels;
+
+      if (aggregate) {
+        projections = null;
+        groups = new LinkedHashMap<Object, ORuntimeResult>();
+        partialResults = new HashMap<Object, ODocument>();
+        groupProjections = new ArrayList<Map<String, Object>>();
+      } else {
+        projections = OCommandExecutorSQLSelect.this.projections != null && groupedResult == null ? createProjectionFromDefinition()
+            : null;
+        groups = null;
+        partialResults = null;
+        groupProjections = null;
+      }
+    }
+
+    /**
+     * Claims the worker either to start it or to skip it, if query has been completed before the worker was started.
+     */
+    private boolean claim() {
+      return claimed.compareAndSet(false, true);
+    }
+
+    private void run(final ODatabaseDocumentInternal db) throws InterruptedException {
+      parallelWorker.set(this);
+      try {
+        while (executing) {
+          final Morsel morsel = morsels.take();
+          if (morsel == END_OF_MORSELS)
+            break;
+
+          execute(db, morsel);
+        }
+      } finally {
+        parallelWorker.remove();
+      }
+
+      complete();
+    }
+
+    private void execute(final ODatabaseDocumentInternal db, final Morsel morsel) {
+      if (morsel.records != null) {
+        for (OIdentifiable record : morsel.records) {
+          if (!executing)
+            // LIMIT REACHED: SKIP THE REST OF THE RECORDS
+            return;
+
+          if (!executeSearchRecord(record))
+            executing = false;
+        }
+        return;
+      }
+
+      final ORecordIteratorCluster<ORecord> iterator = new ORecordIteratorCluster<ORecord>(db, (ODatabaseDocumentTx) db,
+          morsel.clusterId, morsel.first, morsel.last, false);
+      try {
+        while (executing && iterator.hasNext()) {
+          if (!executeSearchRecord(iterator.next()))
+            executing = false;
+        }
+      } catch (NoSuchElementException e) {
+        // END OF CLUSTER REACHED, IGNORE IT
+      }
+    }
+
+    private boolean aggregate(final OIdentifiable record) {
+      final Object fieldValue = getGroupByValue(record);
+      final Object key = getGroupKey(fieldValue);
+
+      ORuntimeResult group = groups.get(key);
+      if (group == null) {
+        final Map<String, Object> projections;
+        parallelLock.lock();
+        try {
+          projections = createProjectionFromDefinition();
+        } finally {
+          parallelLock.unlock();
+        }
+
+        group = new ORuntimeResult(fieldValue, projections, -1, context);
+        groups.put(key, group);
+        groupProjections.add(projections);
+      }
+
+      group.applyRecord(record);
+      results++;
+      return true;
+    }
+
+    private void complete() {
+      if (groups == null)
+        return;
+
+      // AGGREGATE FUNCTIONS RETURN RESULTS WHICH CAN BE MERGED WITH THE ONES OF THE OTHER WORKERS, LIKE SUM AND TOTAL IN CASE OF AVG
+      OScenarioThreadLocal.executeAsDistributed(new Callable<Object>() {
+        @Override
+        public Object call() {
+          int i = 0;
+          for (Entry<Object, ORuntimeResult> group : groups.entrySet()) {
+            final Map<String, Object> projections = groupProjections.get(i++);
+
+            final ODocument partialResult = group.getValue().getResult();
+            if (partialResult == null)
+              continue;
+
+            for (Entry<String, Object> projection : projections.entrySet()) {
+              if (projection.getValue() instanceof OSQLFunctionRuntime
+                  && ((OSQLFunctionRuntime) projection.getValue()).aggregateResults()) {
+                final Object value = ((OSQLFunctionRuntime) projection.getValue()).getResult();
+                if (value != null)
+                  partialResult.field(projection.getKey(), value);
+                else
+                  partialResult.removeField(projection.getKey());
+              }
+            }
+
+            partialResults.put(group.getKey(), partialResult);
+          }
+          return null;
+        }
+      });
+    }
+  }
+
   private int getQueryFetchLimit() {
     final int sqlLimit;
     final int requestLimit;
@@ -2381,6 +2860,14 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     this.projectionDefinition = projectionDefinition;
   }
 
+  public List<OPair<String, String>> getOrderedFields() {
+    return orderedFields;
+  }
+
+  public List<String> getGroupByFields() {
+    return groupByFields;
+  }
+
   public void setOrderedFields(List<OPair<String, String>> orderedFields) {
     this.orderedFields = orderedFields;
   }
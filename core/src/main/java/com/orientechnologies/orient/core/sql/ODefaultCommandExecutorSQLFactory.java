@@ -76,6 +76,8 @@ public class ODefaultCommandExecutorSQLFactory implements OCommandExecutorSQLFac
         OCommandExecutorSQLTruncateClass.class);
     commands.put(OCommandExecutorSQLTruncateCluster.KEYWORD_TRUNCATE + " " + OCommandExecutorSQLTruncateCluster.KEYWORD_CLUSTER,
         OCommandExecutorSQLTruncateCluster.class);
+    commands.put(OCommandExecutorSQLCompactCluster.KEYWORD_COMPACT + " " + OCommandExecutorSQLCompactCluster.KEYWORD_CLUSTER,
+        OCommandExecutorSQLCompactCluster.class);
     commands.put(OCommandExecutorSQLTruncateRecord.KEYWORD_TRUNCATE + " " + OCommandExecutorSQLTruncateRecord.KEYWORD_RECORD,
         OCommandExecutorSQLTruncateRecord.class);
     commands.put(OCommandExecutorSQLAlterCluster.KEYWORD_ALTER + " " + OCommandExecutorSQLAlterCluster.KEYWORD_CLUSTER,
@@ -0,0 +1,205 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.OStorage;
+
+/**
+ * LRU cache of parsed SELECT statements of a database. Executor is taken out of the cache for the time of execution, so the same
+ * instance is never used by two executions at once, and returned back when execution is finished. The cache is invalidated by
+ * {@link com.orientechnologies.orient.core.metadata.schema.OSchemaShared} and
+ * {@link com.orientechnologies.orient.core.index.OIndexManagerShared} on any change of schema or indexes, statements parsed
+ * before the change are not returned to the cache.
+ */
+public class OSQLStatementCache {
+  private static final int                                   MAX_IDLE = Runtime.getRuntime().availableProcessors();
+
+  private final ConcurrentLinkedHashMap<String, Queue<Entry>> statements;
+  private final AtomicLong                                    version  = new AtomicLong();
+
+  public OSQLStatementCache(final int capacity) {
+    statements = new ConcurrentLinkedHashMap.Builder<String, Queue<Entry>>().maximumWeightedCapacity(capacity).build();
+  }
+
+  /**
+   * @return statement cache of the storage or null if cache is disabled
+   */
+  public static OSQLStatementCache instance(final OStorage storage) {
+    final int capacity = OGlobalConfiguration.QUERY_STATEMENT_CACHE_SIZE.getValueAsInteger();
+    if (capacity <= 0)
+      return null;
+
+    return storage.getUnderlying().getResource(OSQLStatementCache.class.getSimpleName(), new Callable<OSQLStatementCache>() {
+      @Override
+      public OSQLStatementCache call() throws Exception {
+        return new OSQLStatementCache(capacity);
+      }
+    });
+  }
+
+  /**
+   * Invalidates statement cache of the storage if it was created.
+   */
+  public static void invalidateCache(final OStorage storage) {
+    if (!storage.getUnderlying().existsResource(OSQLStatementCache.class.getSimpleName()))
+      return;
+
+    final OSQLStatementCache cache = instance(storage);
+    if (cache != null)
+      cache.invalidate();
+  }
+
+  /**
+   * @return key of the statement in the cache, limit of the request is applied when the statement is parsed
+   */
+  public static String getKey(final int limit, final String text) {
+    return limit + ":" + text;
+  }
+
+  /**
+   * @return version of the cache which should be read before statement is parsed and passed to {@link #release}
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * @return false if the statement was already parsed after the last change of schema or indexes and cannot be reused
+   */
+  public boolean isReusable(final String key) {
+    return !isNotReusable(statements.get(key));
+  }
+
+  /**
+   * @param parsedVersion
+   *          version of the cache read before the statement was parsed, the mark is ignored after the cache is invalidated
+   */
+  public void markNotReusable(final String key, final long parsedVersion) {
+    if (parsedVersion == version.get())
+      statements.put(key, new NotReusable(parsedVersion));
+  }
+
+  /**
+   * Takes parsed statement out of the cache.
+   *
+   * @return parsed statement or null if there is no idle statement for the given text
+   */
+  public OCommandExecutorSQLSelect acquire(final String key) {
+    final Queue<Entry> idle = statements.get(key);
+    if (idle == null)
+      return null;
+
+    final long currentVersion = version.get();
+
+    Entry statement;
+    while ((statement = idle.poll()) != null)
+      if (statement.version == currentVersion)
+        return statement.executor;
+
+    return null;
+  }
+
+  /**
+   * Returns executed statement back to the cache, unless schema or indexes were changed after the statement was parsed.
+   *
+   * @param parsedVersion
+   *          version of the cache read before the statement was parsed
+   */
+  public void release(final String key, final OCommandExecutorSQLSelect executor, final long parsedVersion) {
+    if (parsedVersion != version.get())
+      return;
+
+    executor.clearExecutionState();
+
+    Queue<Entry> idle = statements.get(key);
+    if (isNotReusable(idle))
+      return;
+
+    if (idle instanceof NotReusable) {
+      // MARK IS LEFT BY THE STATEMENT PARSED BEFORE THE CACHE WAS INVALIDATED
+      final Queue<Entry> newIdle = new ConcurrentLinkedQueue<Entry>();
+      if (!statements.replace(key, idle, newIdle))
+        return;
+
+      idle = newIdle;
+    } else if (idle == null) {
+      idle = new ConcurrentLinkedQueue<Entry>();
+
+      final Queue<Entry> oldIdle = statements.putIfAbsent(key, idle);
+      if (oldIdle != null)
+        idle = oldIdle;
+    }
+
+    if (idle.size() < MAX_IDLE)
+      idle.offer(new Entry(executor, parsedVersion));
+  }
+
+  /**
+   * Removes all statements, statements which are executed at the moment are not returned to the cache.
+   */
+  public void invalidate() {
+    version.incrementAndGet();
+    statements.clear();
+  }
+
+  /**
+   * @return number of statements which have idle executors or may have them, statements marked as not reusable are not counted
+   */
+  public int size() {
+    int size = 0;
+    for (Queue<Entry> idle : statements.values())
+      if (!(idle instanceof NotReusable))
+        size++;
+
+    return size;
+  }
+
+  private boolean isNotReusable(final Queue<Entry> idle) {
+    return idle instanceof NotReusable && ((NotReusable) idle).version == version.get();
+  }
+
+  /**
+   * Marks the statement which cannot be reused, it never contains idle executors.
+   */
+  private static final class NotReusable extends ConcurrentLinkedQueue<Entry> {
+    private final long version;
+
+    private NotReusable(long version) {
+      this.version = version;
+    }
+  }
+
+  private static final class Entry {
+    private final OCommandExecutorSQLSelect executor;
+    private final long                      version;
+
+    private Entry(OCommandExecutorSQLSelect executor, long version) {
+      this.executor = executor;
+      this.version = version;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.filter;
+
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+
+/**
+ * Condition of WHERE clause compiled by {@link OSQLFilterCompiler}. Instances are immutable and can be evaluated by several
+ * threads at once.
+ */
+public abstract class OSQLCompiledCondition {
+  /**
+   * Evaluates the condition against the record.
+   * 
+   * @return true if the condition of the filter evaluates to {@link Boolean#TRUE} for the record, false in any other case.
+   */
+  public abstract boolean evaluate(OIdentifiable iRecord, OCommandContext iContext);
+
+  /**
+   * @return true if the condition is evaluated by {@link OSQLFilterCondition} itself.
+   */
+  public boolean isInterpreted() {
+    return false;
+  }
+}
@@ -0,0 +1,424 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.filter;
+
+import com.orientechnologies.orient.core.collate.ODefaultCollate;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordElement;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OSQLHelper;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperator;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorAnd;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorEquals;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorMajor;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorMajorEquals;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorMinor;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorMinorEquals;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorNot;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorNotEquals;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorOr;
+
+/**
+ * Compiles condition of WHERE clause in to the tree of {@link OSQLCompiledCondition} specialized on the types of properties of
+ * the scanned class. AND, OR and NOT are evaluated directly, comparisons of a property with a constant or a bound parameter read
+ * the raw field value and compare primitives without conversions of the operands and dispatching through
+ * {@link OQueryOperator}. Conditions which cannot be compiled are evaluated by {@link OSQLFilterCondition}, compiled comparison
+ * falls back to it also for records which contain value of other type than the one declared in the schema.
+ */
+public class OSQLFilterCompiler {
+  private OSQLFilterCompiler() {
+  }
+
+  /**
+   * Compiles the condition of the filter for the full scan of the class. Parameters should be bound before the call because
+   * their values are compiled in to the condition.
+   * 
+   * @return compiled condition or null if there is nothing to compile and the filter itself should be evaluated.
+   */
+  public static OSQLCompiledCondition compile(final OSQLFilter iFilter, final OClass iClass) {
+    if (iFilter == null || iFilter.getRootCondition() == null || iClass == null)
+      return null;
+
+    final OSQLCompiledCondition condition = compile(iFilter.getRootCondition(), iClass);
+    return condition.isInterpreted() ? null : condition;
+  }
+
+  private static OSQLCompiledCondition compile(final OSQLFilterCondition iCondition, final OClass iClass) {
+    final OQueryOperator operator = iCondition.getOperator();
+    final Object left = iCondition.getLeft();
+    final Object right = iCondition.getRight();
+
+    if (operator == null) {
+      if (left instanceof OSQLFilterCondition)
+        return compile((OSQLFilterCondition) left, iClass);
+
+    } else if (operator.getClass() == OQueryOperatorAnd.class) {
+      if (left instanceof OSQLFilterCondition && right instanceof OSQLFilterCondition) {
+        final OSQLCompiledCondition l = compile((OSQLFilterCondition) left, iClass);
+        final OSQLCompiledCondition r = compile((OSQLFilterCondition) right, iClass);
+        if (!l.isInterpreted() || !r.isInterpreted())
+          return new And(l, r);
+      }
+
+    } else if (operator.getClass() == OQueryOperatorOr.class) {
+      // INTERPRETED LEFT OPERAND IS NOT ALLOWED: OR IS FALSE WHEN IT RETURNS NULL, WHATEVER IS THE RIGHT ONE
+      if (left instanceof OSQLFilterCondition && right instanceof OSQLFilterCondition) {
+        final OSQLCompiledCondition l = compile((OSQLFilterCondition) left, iClass);
+        if (!l.isInterpreted())
+          return new Or(l, compile((OSQLFilterCondition) right, iClass));
+      }
+
+    } else if (operator.getClass() == OQueryOperatorNot.class) {
+      // INTERPRETED OPERAND IS NOT ALLOWED: NOT IS FALSE WHEN IT RETURNS NULL
+      if (((OQueryOperatorNot) operator).getNext() == null && left instanceof OSQLFilterCondition && right == null) {
+        final OSQLCompiledCondition l = compile((OSQLFilterCondition) left, iClass);
+        if (!l.isInterpreted())
+          return new Not(l);
+      }
+
+    } else {
+      final OSQLCompiledCondition comparison = compileComparison(iCondition, iClass);
+      if (comparison != null)
+        return comparison;
+    }
+
+    return new Interpreted(iCondition);
+  }
+
+  private static OSQLCompiledCondition compileComparison(final OSQLFilterCondition iCondition, final OClass iClass) {
+    final Comparison comparison = Comparison.of(iCondition.getOperator());
+    if (comparison == null || iCondition.getLeft() == null || iCondition.getLeft().getClass() != OSQLFilterItemField.class)
+      return null;
+
+    final OSQLFilterItemField field = (OSQLFilterItemField) iCondition.getLeft();
+    final String fieldName = field.getRoot();
+    if (field.hasChainOperators() || fieldName == null || fieldName.length() == 0 || fieldName.charAt(0) == '@'
+        || fieldName.indexOf('.') > -1 || fieldName.indexOf('[') > -1)
+      return null;
+
+    final OProperty property = iClass.getProperty(fieldName);
+    if (property == null || (property.getCollate() != null && !ODefaultCollate.NAME.equals(property.getCollate().getName())))
+      return null;
+
+    Object value = iCondition.getRight();
+    if (value instanceof OSQLFilterItemParameter)
+      value = ((OSQLFilterItemParameter) value).getValue(null, null, null);
+
+    final OType type = property.getType();
+    final Class<?> fieldType = type.getDefaultJavaType();
+    switch (type) {
+    case SHORT:
+    case INTEGER:
+    case LONG:
+    case DOUBLE:
+      if (!isNumber(value))
+        return null;
+
+      // FLOAT OPERAND MAKES THE CONDITION CONVERT THE OTHER ONE TO FLOAT BEFORE THE COMPARISON
+      if (value instanceof Float)
+        return new FloatComparison(iCondition, fieldName, fieldType, comparison, (Float) value);
+
+      final Number number = (Number) convert(value, fieldType);
+      if (number == null)
+        return null;
+
+      if (type == OType.DOUBLE)
+        return new DoubleComparison(iCondition, fieldName, comparison, number.doubleValue());
+      return new IntegralComparison(iCondition, fieldName, fieldType, comparison, number.longValue());
+
+    case FLOAT:
+      if (!isNumber(value))
+        return null;
+
+      return new FloatComparison(iCondition, fieldName, fieldType, comparison, Float.parseFloat(value.toString()));
+
+    case STRING:
+      if (!(value instanceof String) || OSQLHelper.DEFINED.equals(value) || OSQLHelper.NOT_NULL.equals(value))
+        return null;
+
+      return new StringComparison(iCondition, fieldName, comparison, (String) value);
+
+    default:
+      return null;
+    }
+  }
+
+  private static boolean isNumber(final Object iValue) {
+    return iValue instanceof Short || iValue instanceof Integer || iValue instanceof Long || iValue instanceof Float
+        || iValue instanceof Double;
+  }
+
+  /**
+   * Converts the value in the same way as comparison operators do it for every record.
+   */
+  private static Object convert(final Object iValue, final Class<?> iTargetClass) {
+    try {
+      return OType.convert(iValue, iTargetClass);
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  private enum Comparison {
+    EQUALS {
+      @Override
+      boolean matches(final int iCompareResult) {
+        return iCompareResult == 0;
+      }
+    },
+    NOT_EQUALS {
+      @Override
+      boolean matches(final int iCompareResult) {
+        return iCompareResult != 0;
+      }
+    },
+    MINOR {
+      @Override
+      boolean matches(final int iCompareResult) {
+        return iCompareResult < 0;
+      }
+    },
+    MINOR_EQUALS {
+      @Override
+      boolean matches(final int iCompareResult) {
+        return iCompareResult <= 0;
+      }
+    },
+    MAJOR {
+      @Override
+      boolean matches(final int iCompareResult) {
+        return iCompareResult > 0;
+      }
+    },
+    MAJOR_EQUALS {
+      @Override
+      boolean matches(final int iCompareResult) {
+        return iCompareResult >= 0;
+      }
+    };
+
+    abstract boolean matches(int iCompareResult);
+
+    static Comparison of(final OQueryOperator iOperator) {
+      final Class<?> operatorClass = iOperator.getClass();
+      if (operatorClass == OQueryOperatorEquals.class)
+        return EQUALS;
+      if (operatorClass == OQueryOperatorNotEquals.class)
+        return NOT_EQUALS;
+      if (operatorClass == OQueryOperatorMinor.class)
+        return MINOR;
+      if (operatorClass == OQueryOperatorMinorEquals.class)
+        return MINOR_EQUALS;
+      if (operatorClass == OQueryOperatorMajor.class)
+        return MAJOR;
+      if (operatorClass == OQueryOperatorMajorEquals.class)
+        return MAJOR_EQUALS;
+      return null;
+    }
+  }
+
+  private static final class Interpreted extends OSQLCompiledCondition {
+    private final OSQLFilterCondition condition;
+
+    private Interpreted(final OSQLFilterCondition iCondition) {
+      condition = iCondition;
+    }
+
+    @Override
+    public boolean evaluate(final OIdentifiable iRecord, final OCommandContext iContext) {
+      return Boolean.TRUE.equals(condition.evaluate(iRecord, null, iContext));
+    }
+
+    @Override
+    public boolean isInterpreted() {
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return condition.toString();
+    }
+  }
+
+  private static final class And extends OSQLCompiledCondition {
+    private final OSQLCompiledCondition left;
+    private final OSQLCompiledCondition right;
+
+    private And(final OSQLCompiledCondition iLeft, final OSQLCompiledCondition iRight) {
+      left = iLeft;
+      right = iRight;
+    }
+
+    @Override
+    public boolean evaluate(final OIdentifiable iRecord, final OCommandContext iContext) {
+      return left.evaluate(iRecord, iContext) && right.evaluate(iRecord, iContext);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + " AND " + right + ")";
+    }
+  }
+
+  private static final class Or extends OSQLCompiledCondition {
+    private final OSQLCompiledCondition left;
+    private final OSQLCompiledCondition right;
+
+    private Or(final OSQLCompiledCondition iLeft, final OSQLCompiledCondition iRight) {
+      left = iLeft;
+      right = iRight;
+    }
+
+    @Override
+    public boolean evaluate(final OIdentifiable iRecord, final OCommandContext iContext) {
+      return left.evaluate(iRecord, iContext) || right.evaluate(iRecord, iContext);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + " OR " + right + ")";
+    }
+  }
+
+  private static final class Not extends OSQLCompiledCondition {
+    private final OSQLCompiledCondition condition;
+
+    private Not(final OSQLCompiledCondition iCondition) {
+      condition = iCondition;
+    }
+
+    @Override
+    public boolean evaluate(final OIdentifiable iRecord, final OCommandContext iContext) {
+      return !condition.evaluate(iRecord, iContext);
+    }
+
+    @Override
+    public String toString() {
+      return "NOT " + condition;
+    }
+  }
+
+  private abstract static class FieldComparison extends OSQLCompiledCondition {
+    private final OSQLFilterCondition condition;
+    private final String              fieldName;
+    private final Class<?>            fieldType;
+    protected final Comparison        comparison;
+
+    protected FieldComparison(final OSQLFilterCondition iCondition, final String iFieldName, final Class<?> iFieldType,
+        final Comparison iComparison) {
+      condition = iCondition;
+      fieldName = iFieldName;
+      fieldType = iFieldType;
+      comparison = iComparison;
+    }
+
+    @Override
+    public boolean evaluate(final OIdentifiable iRecord, final OCommandContext iContext) {
+      final ORecord record = iRecord.getRecord();
+      if (!(record instanceof ODocument) || record.getInternalStatus() == ORecordElement.STATUS.NOT_LOADED)
+        return Boolean.TRUE.equals(condition.evaluate(iRecord, null, iContext));
+
+      final Object value = ((ODocument) record).rawField(fieldName);
+      if (value == null)
+        return false;
+
+      if (value.getClass() != fieldType)
+        // VALUE OF OTHER TYPE THAN DECLARED IN SCHEMA: LET THE CONDITION CONVERT IT
+        return Boolean.TRUE.equals(condition.evaluate(iRecord, null, iContext));
+
+      return comparison.matches(compare(value));
+    }
+
+    protected abstract int compare(Object iValue);
+
+    @Override
+    public String toString() {
+      return condition.toString();
+    }
+  }
+
+  private static final class IntegralComparison extends FieldComparison {
+    private final long value;
+
+    private IntegralComparison(final OSQLFilterCondition iCondition, final String iFieldName, final Class<?> iFieldType,
+        final Comparison iComparison, final long iValue) {
+      super(iCondition, iFieldName, iFieldType, iComparison);
+      value = iValue;
+    }
+
+    @Override
+    protected int compare(final Object iValue) {
+      final long v = ((Number) iValue).longValue();
+      return v < value ? -1 : (v == value ? 0 : 1);
+    }
+  }
+
+  private static final class DoubleComparison extends FieldComparison {
+    private final double value;
+
+    private DoubleComparison(final OSQLFilterCondition iCondition, final String iFieldName, final Comparison iComparison,
+        final double iValue) {
+      super(iCondition, iFieldName, Double.class, iComparison);
+      value = iValue;
+    }
+
+    @Override
+    protected int compare(final Object iValue) {
+      return Double.compare((Double) iValue, value);
+    }
+  }
+
+  private static final class FloatComparison extends FieldComparison {
+    private final float value;
+
+    private FloatComparison(final OSQLFilterCondition iCondition, final String iFieldName, final Class<?> iFieldType,
+        final Comparison iComparison, final float iValue) {
+      super(iCondition, iFieldName, iFieldType, iComparison);
+      value = iValue;
+    }
+
+    @Override
+    protected int compare(final Object iValue) {
+      // DOUBLE IS CONVERTED THROUGH ITS TEXT LIKE THE CONDITION DOES, CASTING COULD ROUND IT IN OTHER WAY
+      final float v = iValue instanceof Double ? Float.parseFloat(iValue.toString()) : ((Number) iValue).floatValue();
+      return Float.compare(v, value);
+    }
+  }
+
+  private static final class StringComparison extends FieldComparison {
+    private final String value;
+
+    private StringComparison(final OSQLFilterCondition iCondition, final String iFieldName, final Comparison iComparison,
+        final String iValue) {
+      super(iCondition, iFieldName, String.class, iComparison);
+      value = iValue;
+    }
+
+    @Override
+    protected int compare(final Object iValue) {
+      return ((String) iValue).compareTo(value);
+    }
+  }
+}
@@ -384,6 +384,10 @@ public class OSQLPredicate extends OBaseParser implements OCommandPredicate {
     }
   }
 
+  public int getParameterCount() {
+    return parameterItems == null ? 0 : parameterItems.size();
+  }
+
   public OSQLFilterItemParameter addParameter(final String iName) {
     final String name;
     if (iName.charAt(0) == OStringSerializerHelper.PARAMETER_NAMED) {
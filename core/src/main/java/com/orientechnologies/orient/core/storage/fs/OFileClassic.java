@@ -22,6 +22,7 @@ package com.orientechnologies.orient.core.storage.fs;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
+import com.orientechnologies.common.directmemory.ODirectMemoryPointer;
 import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.serialization.OBinaryProtocol;
@@ -79,6 +80,15 @@ public class OFileClassic extends OAbstractFile {
     }
   }
 
+  /**
+   * Reads <code>iLength</code> bytes starting from <code>iOffset</code> into the direct memory pointed by <code>iPointer</code>.
+   */
+  public void read(long iOffset, ODirectMemoryPointer iPointer, long iPointerOffset, int iLength) throws IOException {
+    final byte[] data = new byte[iLength];
+    read(iOffset, data, iLength, 0);
+    iPointer.set(iPointerOffset, data, 0, iLength);
+  }
+
   public void write(long iOffset, byte[] iData, int iSize, int iArrayOffset) throws IOException {
     acquireWriteLock();
     try {
@@ -0,0 +1,628 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.fs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.io.OIOException;
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+
+/**
+ * File of disk cache which keeps every page compressed. Compressed pages have variable length, so they are stored in extents of
+ * {@link #UNIT_SIZE} bytes units after the header of the file, and the position of the extent of each page is kept in the page
+ * mapping file with the same name plus {@link #MAPPING_EXTENSION}. The mapping file also keeps the page size and the name of the
+ * compression, so the file is read back with the same codec whatever is configured later. Pages which do not shrink are stored as
+ * is, pages which were allocated but never written are read as zeros.
+ *
+ * A page whose compressed content does not fit in its extent anymore is moved to a free extent or to the end of the file, the old
+ * extent is reused only after the next {@link #synch()}, so the page content referenced by the mapping on disk is never
+ * overwritten before the new mapping is durable. Free extents are not persisted, they are calculated from the mapping when the
+ * file is opened.
+ */
+public class OFileCompressed extends OFileClassic {
+  public static final String                  MAPPING_EXTENSION     = ".opm";
+
+  /**
+   * Allocation unit of the extents of compressed pages.
+   */
+  public static final int                     UNIT_SIZE             = 512;
+
+  private static final long                   MAPPING_MAGIC_NUMBER  = 0xFACB0C5EL;
+  private static final int                    MAPPING_HEADER_SIZE   = 64;
+  private static final int                    ENTRY_SIZE            = 8;
+  private static final int                    ENTRIES_PER_READ      = 8192;
+
+  private static final int                    UNITS_BITS            = 16;
+  private static final long                   UNITS_MASK            = (1L << UNITS_BITS) - 1;
+
+  private static final int                    EXTENT_HEADER_SIZE    = 4;
+  private static final int                    RAW_CONTENT           = -1;
+
+  private final int                           pageSize;
+  private final String                        compressionName;
+
+  private OCompression                        compression;
+  private RandomAccessFile                    mappingFile;
+  private FileChannel                         mappingChannel;
+  private boolean                             mappingDirty;
+
+  /**
+   * Position of the extent of each page: offset in units shifted by {@link #UNITS_BITS} plus length in units, 0 if the page is
+   * absent.
+   */
+  private long[]                              entries               = new long[0];
+  private int                                 pages;
+  private long                                endUnit;
+
+  private final TreeMap<Long, Long>           freeExtents           = new TreeMap<Long, Long>();
+  private final TreeMap<Long, TreeSet<Long>>  freeExtentsBySize     = new TreeMap<Long, TreeSet<Long>>();
+  private final List<Long>                    pendingExtents        = new ArrayList<Long>();
+
+  /**
+   * @param pageSize
+   *          size of the pages written to the file
+   * @param compressionName
+   *          name of the {@link OCompression} used when the file is created, existing files use the compression stored in their
+   *          page mapping
+   */
+  public OFileCompressed(final int pageSize, final String compressionName) {
+    this.pageSize = pageSize;
+    this.compressionName = compressionName;
+  }
+
+  /**
+   * Tells whether the file at the passed path was created as compressed, that is whether it has the page mapping file.
+   */
+  public static boolean isCompressed(final String path) {
+    return new File(path + MAPPING_EXTENSION).exists();
+  }
+
+  /**
+   * Tells whether the passed file name is the name of the page mapping file of a compressed file.
+   */
+  public static boolean isMappingFile(final String fileName) {
+    return fileName.endsWith(MAPPING_EXTENSION);
+  }
+
+  @Override
+  public void create(int iStartSize) throws IOException {
+    acquireWriteLock();
+    try {
+      super.create(iStartSize);
+
+      compression = OCompressionFactory.INSTANCE.getCompression(compressionName);
+      openMapping();
+      mappingFile.setLength(0);
+
+      final byte[] name = compression.name().getBytes("UTF-8");
+      final ByteBuffer header = ByteBuffer.allocate(MAPPING_HEADER_SIZE);
+      header.putLong(MAPPING_MAGIC_NUMBER);
+      header.putInt(pageSize);
+      header.putShort((short) name.length);
+      header.put(name);
+      header.rewind();
+      writeFully(mappingChannel, header, 0);
+      mappingChannel.force(false);
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  @Override
+  public boolean open() throws IOException {
+    acquireWriteLock();
+    try {
+      final boolean softlyClosed = super.open();
+      openMapping();
+      readMapping();
+      return softlyClosed;
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    acquireWriteLock();
+    try {
+      super.close();
+      closeMapping();
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  @Override
+  public void close(boolean softlyClosed) throws IOException {
+    acquireWriteLock();
+    try {
+      super.close(softlyClosed);
+      closeMapping();
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  @Override
+  public void delete() throws IOException {
+    acquireWriteLock();
+    try {
+      super.delete();
+
+      final File mapping = getMappingFile(osFile);
+      if (mapping.exists() && !OFileUtils.delete(mapping))
+        throw new IOException("Can not delete page mapping file " + mapping);
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  @Override
+  public boolean renameTo(final File newFile) throws IOException {
+    acquireWriteLock();
+    try {
+      close();
+
+      final File oldFile = osFile;
+      final boolean renamed = OFileUtils.renameFile(oldFile, newFile);
+      if (renamed) {
+        osFile = new File(newFile.getAbsolutePath());
+        if (!OFileUtils.renameFile(getMappingFile(oldFile), getMappingFile(osFile)))
+          throw new IOException("Can not rename page mapping file of " + oldFile + " to " + getMappingFile(osFile));
+      }
+
+      open();
+
+      return renamed;
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  @Override
+  public long allocateSpace(long size) throws IOException {
+    acquireWriteLock();
+    try {
+      final long currentSize = getFilledUpTo();
+      ensureEntries(pages + (int) ((size + pageSize - 1) / pageSize));
+      return currentSize;
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  @Override
+  public void shrink(long iSize) throws IOException {
+    acquireWriteLock();
+    try {
+      final int newPages = (int) (iSize / pageSize);
+      if (newPages >= pages)
+        return;
+
+      mappingChannel.truncate(MAPPING_HEADER_SIZE + (long) newPages * ENTRY_SIZE);
+      mappingDirty = true;
+
+      if (newPages == 0) {
+        pendingExtents.clear();
+        freeExtents.clear();
+        freeExtentsBySize.clear();
+        Arrays.fill(entries, 0);
+        pages = 0;
+        endUnit = 0;
+
+        super.shrink(0);
+        return;
+      }
+
+      for (int i = newPages; i < pages; i++)
+        if (entries[i] != 0) {
+          pendingExtents.add(entries[i]);
+          entries[i] = 0;
+        }
+
+      pages = newPages;
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  /**
+   * Logical size of the file, the one it would have if the pages were not compressed.
+   */
+  @Override
+  public long getFilledUpTo() {
+    acquireReadLock();
+    try {
+      return (long) pages * pageSize;
+    } finally {
+      releaseReadLock();
+    }
+  }
+
+  @Override
+  public void read(long iOffset, byte[] iData, int iLength, int iArrayOffset) throws IOException {
+    acquireReadLock();
+    try {
+      if (iOffset < 0 || iOffset + iLength > getFilledUpTo())
+        throw new OIOException("You cannot access outside the file size (" + getFilledUpTo()
+            + " bytes). You have requested portion " + iOffset + "-" + (iOffset + iLength) + " bytes. File: " + toString());
+
+      while (iLength > 0) {
+        final int pageIndex = (int) (iOffset / pageSize);
+        final int pageOffset = (int) (iOffset - (long) pageIndex * pageSize);
+        final int length = Math.min(iLength, pageSize - pageOffset);
+
+        final byte[] page = readPage(pageIndex);
+        if (page == null)
+          Arrays.fill(iData, iArrayOffset, iArrayOffset + length, (byte) 0);
+        else
+          System.arraycopy(page, pageOffset, iData, iArrayOffset, length);
+
+        iOffset += length;
+        iArrayOffset += length;
+        iLength -= length;
+      }
+    } finally {
+      releaseReadLock();
+    }
+  }
+
+  @Override
+  public void write(long iOffset, byte[] iData, int iSize, int iArrayOffset) throws IOException {
+    if (iSize != pageSize)
+      throw new IllegalArgumentException("Only whole pages can be written to compressed file " + getName());
+
+    write(iOffset, Arrays.copyOfRange(iData, iArrayOffset, iArrayOffset + iSize));
+  }
+
+  /**
+   * Writes the page compressed. Returned allocation diff is the page size if the page was not written before, so disk cache
+   * accounts the space of the page as used, as for not compressed files.
+   */
+  @Override
+  public long write(long iOffset, final byte[] iSourceBuffer) throws IOException {
+    if (iSourceBuffer == null)
+      return 0;
+
+    if (iOffset % pageSize != 0 || iSourceBuffer.length != pageSize)
+      throw new IllegalArgumentException("Only whole pages can be written to compressed file " + getName());
+
+    final ByteBuffer extent = compressPage(iSourceBuffer);
+    final long units = extent.limit() / UNIT_SIZE;
+
+    acquireWriteLock();
+    try {
+      final int pageIndex = (int) (iOffset / pageSize);
+      if (pageIndex >= pages)
+        ensureEntries(pageIndex + 1);
+
+      final long entry = entries[pageIndex];
+
+      final long newEntry;
+      if (entry != 0 && entryUnits(entry) >= units) {
+        newEntry = entry(entryOffset(entry), units);
+        if (entryUnits(entry) > units)
+          pendingExtents.add(entry(entryOffset(entry) + units, entryUnits(entry) - units));
+      } else {
+        newEntry = entry(allocateExtent(units), units);
+        if (entry != 0)
+          pendingExtents.add(entry);
+      }
+
+      writeFully(channel, extent, HEADER_SIZE + entryOffset(newEntry) * UNIT_SIZE);
+      setDirty();
+
+      if (newEntry != entry)
+        writeEntry(pageIndex, newEntry);
+
+      return entry == 0 ? pageSize : 0;
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  /**
+   * Forces both the pages and the page mapping to the disk, after that the extents of moved pages can be reused.
+   */
+  @Override
+  public boolean synch() throws IOException {
+    acquireWriteLock();
+    try {
+      super.synch();
+
+      if (mappingDirty) {
+        mappingDirty = false;
+        mappingChannel.force(false);
+      }
+
+      for (long extent : pendingExtents)
+        releaseExtent(entryOffset(extent), entryUnits(extent));
+      pendingExtents.clear();
+
+      return true;
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  /**
+   * Size occupied by the compressed pages, free extents included.
+   */
+  public long getCompressedSize() {
+    acquireReadLock();
+    try {
+      return endUnit * UNIT_SIZE;
+    } finally {
+      releaseReadLock();
+    }
+  }
+
+  private byte[] readPage(final int pageIndex) throws IOException {
+    final long entry = entries[pageIndex];
+    if (entry == 0)
+      return null;
+
+    final ByteBuffer extent = ByteBuffer.allocate((int) (entryUnits(entry) * UNIT_SIZE));
+    readFully(channel, extent, HEADER_SIZE + entryOffset(entry) * UNIT_SIZE);
+
+    final byte[] content = extent.array();
+    final int length = extent.getInt(0);
+    if (length == RAW_CONTENT)
+      return Arrays.copyOfRange(content, EXTENT_HEADER_SIZE, EXTENT_HEADER_SIZE + pageSize);
+
+    if (length < 0 || length > content.length - EXTENT_HEADER_SIZE)
+      throw new IOException("Invalid length " + length + " of compressed page " + pageIndex + " in file " + getName());
+
+    final byte[] page = compression.uncompress(content, EXTENT_HEADER_SIZE, length);
+    if (page.length != pageSize)
+      throw new IOException("Invalid size " + page.length + " of uncompressed page " + pageIndex + " in file " + getName());
+
+    return page;
+  }
+
+  /**
+   * Returns the extent of the page padded to the whole number of units.
+   */
+  private ByteBuffer compressPage(final byte[] page) {
+    final byte[] compressed = compression.compress(page);
+    final boolean raw = compressed.length >= pageSize;
+    final int length = raw ? pageSize : compressed.length;
+
+    final ByteBuffer extent = ByteBuffer.allocate((EXTENT_HEADER_SIZE + length + UNIT_SIZE - 1) / UNIT_SIZE * UNIT_SIZE);
+    extent.putInt(raw ? RAW_CONTENT : length);
+    extent.put(raw ? page : compressed, 0, length);
+
+    extent.rewind();
+    return extent;
+  }
+
+  private long allocateExtent(final long units) throws IOException {
+    final Map.Entry<Long, TreeSet<Long>> fit = freeExtentsBySize.ceilingEntry(units);
+    if (fit == null) {
+      final long offset = endUnit;
+      endUnit += units;
+      size = endUnit * UNIT_SIZE;
+      return offset;
+    }
+
+    final long offset = fit.getValue().first();
+    removeFreeExtent(offset, fit.getKey());
+
+    if (fit.getKey() > units)
+      addFreeExtent(offset + units, fit.getKey() - units);
+
+    return offset;
+  }
+
+  private void releaseExtent(long offset, long units) throws IOException {
+    final Map.Entry<Long, Long> previous = freeExtents.lowerEntry(offset);
+    if (previous != null && previous.getKey() + previous.getValue() == offset) {
+      removeFreeExtent(previous.getKey(), previous.getValue());
+      offset = previous.getKey();
+      units += previous.getValue();
+    }
+
+    final Long next = freeExtents.get(offset + units);
+    if (next != null) {
+      removeFreeExtent(offset + units, next);
+      units += next;
+    }
+
+    if (offset + units < endUnit) {
+      addFreeExtent(offset, units);
+      return;
+    }
+
+    // TAIL OF THE FILE IS FREE, GIVE IT BACK
+    endUnit = offset;
+    size = endUnit * UNIT_SIZE;
+    channel.truncate(HEADER_SIZE + size);
+  }
+
+  private void addFreeExtent(final long offset, final long units) {
+    freeExtents.put(offset, units);
+
+    TreeSet<Long> offsets = freeExtentsBySize.get(units);
+    if (offsets == null) {
+      offsets = new TreeSet<Long>();
+      freeExtentsBySize.put(units, offsets);
+    }
+
+    offsets.add(offset);
+  }
+
+  private void removeFreeExtent(final long offset, final long units) {
+    freeExtents.remove(offset);
+
+    final NavigableSet<Long> offsets = freeExtentsBySize.get(units);
+    offsets.remove(offset);
+    if (offsets.isEmpty())
+      freeExtentsBySize.remove(units);
+  }
+
+  private void ensureEntries(final int newPages) {
+    if (newPages > entries.length)
+      entries = Arrays.copyOf(entries, Math.max(newPages, entries.length << 1));
+
+    pages = newPages;
+  }
+
+  private void writeEntry(final int pageIndex, final long entry) throws IOException {
+    entries[pageIndex] = entry;
+
+    final ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+    buffer.putLong(0, entry);
+    writeFully(mappingChannel, buffer, MAPPING_HEADER_SIZE + (long) pageIndex * ENTRY_SIZE);
+    mappingDirty = true;
+  }
+
+  private void openMapping() throws IOException {
+    mappingFile = new RandomAccessFile(getMappingFile(osFile), mode);
+    mappingChannel = mappingFile.getChannel();
+  }
+
+  private void readMapping() throws IOException {
+    final ByteBuffer header = ByteBuffer.allocate(MAPPING_HEADER_SIZE);
+    if (mappingChannel.size() < MAPPING_HEADER_SIZE)
+      throw new IOException("Page mapping of file " + getName() + " is corrupted");
+
+    readFully(mappingChannel, header, 0);
+    if (header.getLong(0) != MAPPING_MAGIC_NUMBER || header.getInt(8) != pageSize)
+      throw new IOException("Page mapping of file " + getName() + " is corrupted or was written with other page size");
+
+    final byte[] name = new byte[header.getShort(12)];
+    header.position(14);
+    header.get(name);
+    compression = OCompressionFactory.INSTANCE.getCompression(new String(name, "UTF-8"));
+
+    final int count = (int) ((mappingChannel.size() - MAPPING_HEADER_SIZE) / ENTRY_SIZE);
+    entries = new long[count];
+    pages = count;
+
+    final ByteBuffer buffer = ByteBuffer.allocate(ENTRIES_PER_READ * ENTRY_SIZE);
+    for (int read = 0; read < count;) {
+      final int portion = Math.min(ENTRIES_PER_READ, count - read);
+      buffer.clear().limit(portion * ENTRY_SIZE);
+      readFully(mappingChannel, buffer, MAPPING_HEADER_SIZE + (long) read * ENTRY_SIZE);
+      buffer.flip();
+
+      for (int i = 0; i < portion; i++)
+        entries[read + i] = buffer.getLong();
+
+      read += portion;
+    }
+
+    restoreFreeExtents();
+  }
+
+  /**
+   * Free extents are the gaps between the extents referenced by the mapping, space after the last extent is truncated.
+   */
+  private void restoreFreeExtents() throws IOException {
+    final TreeMap<Long, Long> used = new TreeMap<Long, Long>();
+    for (int i = 0; i < pages; i++)
+      if (entries[i] != 0)
+        used.put(entryOffset(entries[i]), entryUnits(entries[i]));
+
+    freeExtents.clear();
+    freeExtentsBySize.clear();
+    pendingExtents.clear();
+
+    long end = 0;
+    for (Map.Entry<Long, Long> extent : used.entrySet()) {
+      if (extent.getKey() > end)
+        addFreeExtent(end, extent.getKey() - end);
+
+      end = Math.max(end, extent.getKey() + extent.getValue());
+    }
+
+    endUnit = end;
+    size = endUnit * UNIT_SIZE;
+    if (mode.indexOf('w') >= 0 && channel.size() > HEADER_SIZE + size)
+      channel.truncate(HEADER_SIZE + size);
+  }
+
+  private void closeMapping() throws IOException {
+    if (mappingChannel != null && mappingChannel.isOpen()) {
+      if (mappingDirty)
+        mappingChannel.force(false);
+
+      mappingChannel.close();
+    }
+
+    if (mappingFile != null)
+      mappingFile.close();
+
+    mappingChannel = null;
+    mappingFile = null;
+    mappingDirty = false;
+
+    entries = new long[0];
+    pages = 0;
+    endUnit = 0;
+    freeExtents.clear();
+    freeExtentsBySize.clear();
+    pendingExtents.clear();
+  }
+
+  private static File getMappingFile(final File file) {
+    return new File(file.getPath() + MAPPING_EXTENSION);
+  }
+
+  private static long entry(final long offset, final long units) {
+    return (offset << UNITS_BITS) | units;
+  }
+
+  private static long entryOffset(final long entry) {
+    return entry >>> UNITS_BITS;
+  }
+
+  private static long entryUnits(final long entry) {
+    return entry & UNITS_MASK;
+  }
+
+  private static void readFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      final int read = channel.read(buffer, position);
+      if (read < 0)
+        throw new IOException("Unexpected end of file");
+
+      position += read;
+    }
+  }
+
+  private static void writeFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining())
+      position += channel.write(buffer, position);
+  }
+}
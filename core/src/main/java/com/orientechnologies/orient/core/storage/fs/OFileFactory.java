@@ -35,6 +35,7 @@ public class OFileFactory extends OConfigurableStatefulFactory<String, OFile> {
 
   public OFileFactory() {
     register(OFileClassic.NAME, OFileClassic.class);
+    register(OFileMMap.NAME, OFileMMap.class);
   }
 
   public static OFileFactory instance() {
@@ -0,0 +1,208 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryPointer;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+
+/**
+ * File which serves reads from memory mapped regions ("windows") of the file, so a page is copied directly from the mapping without
+ * system call and intermediate buffer. Only windows which are completely filled by data are mapped, reads of the tail of file and
+ * all writes go through the file channel as in {@link OFileClassic}. Mapping is read only and relies on the fact that memory mapped
+ * regions and file channel share the same OS page cache, so written data are visible in the mapping.
+ *
+ * Windows are unmapped when the file is closed or shrunk, both operations are performed under exclusive lock of the file, while
+ * reads copy data from mapping under shared lock.
+ */
+public class OFileMMap extends OFileClassic {
+  public final static String          NAME         = "mmap";
+
+  private static final int            MAX_WINDOW   = 1024;
+
+  private final long                  windowSize   = Math.min(OGlobalConfiguration.FILE_MMAP_WINDOW_SIZE.getValueAsInteger(),
+                                                       MAX_WINDOW) * 1024L * 1024L;
+  private final Object                mappingLock  = new Object();
+  private volatile MappedByteBuffer[] windows      = new MappedByteBuffer[0];
+
+  @Override
+  public void read(long iOffset, byte[] iData, int iLength, int iArrayOffset) throws IOException {
+    acquireReadLock();
+    try {
+      final ByteBuffer region = mappedRegion(iOffset, iLength);
+      if (region != null) {
+        region.get(iData, iArrayOffset, iLength);
+        return;
+      }
+    } finally {
+      releaseReadLock();
+    }
+
+    super.read(iOffset, iData, iLength, iArrayOffset);
+  }
+
+  @Override
+  public void read(long iOffset, ODirectMemoryPointer iPointer, long iPointerOffset, int iLength) throws IOException {
+    acquireReadLock();
+    try {
+      final ByteBuffer region = mappedRegion(iOffset, iLength);
+      if (region != null) {
+        iPointer.set(iPointerOffset, region, iLength);
+        return;
+      }
+    } finally {
+      releaseReadLock();
+    }
+
+    super.read(iOffset, iPointer, iPointerOffset, iLength);
+  }
+
+  @Override
+  public void shrink(long iSize) throws IOException {
+    acquireWriteLock();
+    try {
+      unmapWindows();
+      super.shrink(iSize);
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    acquireWriteLock();
+    try {
+      unmapWindows();
+      super.close();
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  @Override
+  public void close(boolean softlyClosed) throws IOException {
+    acquireWriteLock();
+    try {
+      unmapWindows();
+      super.close(softlyClosed);
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  /**
+   * @return Amount of currently mapped windows.
+   */
+  public int getMappedWindows() {
+    int mapped = 0;
+    for (MappedByteBuffer window : windows)
+      if (window != null)
+        mapped++;
+
+    return mapped;
+  }
+
+  /**
+   * @return Buffer positioned at the requested data or <code>null</code> if data are not mapped and should be read from file
+   *         channel.
+   */
+  private ByteBuffer mappedRegion(final long iOffset, final int iLength) throws IOException {
+    // WINDOWS START AFTER THE HEADER, SO PAGES OF DISK CACHE NEVER CROSS THEIR BOUNDARIES
+    final long position = checkRegions(iOffset, iLength) - HEADER_SIZE;
+    final long index = position / windowSize;
+
+    if ((position + iLength - 1) / windowSize != index)
+      return null;
+
+    final MappedByteBuffer window = window((int) index);
+    if (window == null)
+      return null;
+
+    final ByteBuffer region = window.duplicate();
+    final int windowPosition = (int) (position - index * windowSize);
+    region.limit(windowPosition + iLength);
+    region.position(windowPosition);
+
+    return region;
+  }
+
+  private MappedByteBuffer window(final int index) throws IOException {
+    final MappedByteBuffer[] current = windows;
+    if (index < current.length && current[index] != null)
+      return current[index];
+
+    // CHEAP CHECK FIRST, ONLY WINDOWS WHICH ARE COMPLETELY COVERED BY DATA ARE MAPPED
+    if ((index + 1) * windowSize > size)
+      return null;
+
+    return mapWindow(index);
+  }
+
+  private MappedByteBuffer mapWindow(final int index) throws IOException {
+    synchronized (mappingLock) {
+      MappedByteBuffer[] current = windows;
+      if (index < current.length && current[index] != null)
+        return current[index];
+
+      final long start = HEADER_SIZE + index * windowSize;
+      if (channel == null || start + windowSize > channel.size())
+        return null;
+
+      final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowSize);
+
+      // ARRAY IS COPIED ON EACH CHANGE, SO READERS ALWAYS SEE COMPLETELY INITIALIZED WINDOWS WITHOUT LOCKING
+      final MappedByteBuffer[] updated = new MappedByteBuffer[Math.max(current.length, index + 1)];
+      System.arraycopy(current, 0, updated, 0, current.length);
+      updated[index] = window;
+      windows = updated;
+
+      return window;
+    }
+  }
+
+  private void unmapWindows() {
+    synchronized (mappingLock) {
+      final MappedByteBuffer[] current = windows;
+      windows = new MappedByteBuffer[0];
+
+      // MAPPING IS RELEASED EXPLICITLY, OTHERWISE FILE CAN NOT BE TRUNCATED OR DELETED ON SOME PLATFORMS TILL BUFFER IS COLLECTED
+      for (MappedByteBuffer window : current) {
+        if (window == null)
+          continue;
+
+        try {
+          final Cleaner cleaner = ((DirectBuffer) window).cleaner();
+          if (cleaner != null)
+            cleaner.clean();
+        } catch (Exception e) {
+          OLogManager.instance().debug(this, "Error during unmapping of region of file %s", e, getName());
+        }
+      }
+    }
+  }
+}
@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -44,9 +45,12 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import com.orientechnologies.common.concur.lock.OLockManager;
+import com.orientechnologies.common.concur.lock.OStripedLockManager;
 import com.orientechnologies.common.concur.lock.OModificationLock;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.OProfilerChrono;
+import com.orientechnologies.common.profiler.OProfilerMBean;
 import com.orientechnologies.common.types.OModifiableBoolean;
 import com.orientechnologies.common.util.OCommonConst;
 import com.orientechnologies.orient.core.Orient;
@@ -73,6 +77,9 @@ import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexAbstract;
+import com.orientechnologies.orient.core.index.OIndexManagerProxy;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OCacheEntry;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OCachePointer;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OPageDataVerificationError;
@@ -94,12 +101,15 @@ import com.orientechnologies.orient.core.storage.ORecordCallback;
 import com.orientechnologies.orient.core.storage.ORecordMetadata;
 import com.orientechnologies.orient.core.storage.OStorageAbstract;
 import com.orientechnologies.orient.core.storage.OStorageOperationResult;
+import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OOfflineCluster;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OOfflineClusterException;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.ORecordSerializationContext;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OStorageTransaction;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationsManager;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurablePage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.*;
 import com.orientechnologies.orient.core.tx.OTransaction;
@@ -118,11 +128,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
   private static final int                                    RECORD_LOCK_TIMEOUT                        = OGlobalConfiguration.STORAGE_RECORD_LOCK_TIMEOUT
                                                                                                              .getValueAsInteger();
 
-  private final OLockManager<ORID, OAbstractPaginatedStorage> lockManager;
-  private final String                                        PROFILER_CREATE_RECORD;
-  private final String                                        PROFILER_READ_RECORD;
-  private final String                                        PROFILER_UPDATE_RECORD;
-  private final String                                        PROFILER_DELETE_RECORD;
+  private final OStripedLockManager<ORID, OAbstractPaginatedStorage> lockManager;
+  private final OProfilerChrono                               createRecordChrono;
+  private final OProfilerChrono                               readRecordChrono;
+  private final OProfilerChrono                               updateRecordChrono;
+  private final OProfilerChrono                               deleteRecordChrono;
+  private final OProfilerChrono                               commandChrono;
   private final ConcurrentMap<String, OCluster>               clusterMap                                 = new ConcurrentHashMap<String, OCluster>();
   private final ThreadLocal<OStorageTransaction>              transaction                                = new ThreadLocal<OStorageTransaction>();
   private final OModificationLock                             modificationLock                           = new OModificationLock();
@@ -145,6 +156,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
                                                                                                              .getValueAsBoolean();
   private volatile OLowDiskSpaceInformation                   lowDiskSpace                               = null;
   private volatile boolean                                    checkpointRequest                          = false;
+  protected volatile OLogSequenceNumber                       walReplayStartLsn                          = null;
 
   private final int                                           id;
 
@@ -152,17 +164,28 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     super(name, filePath, mode, OGlobalConfiguration.STORAGE_LOCK_TIMEOUT.getValueAsInteger());
 
     this.id = id;
-    lockManager = new OLockManager<ORID, OAbstractPaginatedStorage>(true, -1) {
+    lockManager = new OStripedLockManager<ORID, OAbstractPaginatedStorage>(true, -1) {
       @Override
-      protected ORID getImmutableResourceId(ORID iResourceId) {
-        return new ORecordId(iResourceId);
+      protected ORID getImmutableResourceId(final ORID iResourceId, final ORID reusable) {
+        if (reusable == null)
+          return new ORecordId(iResourceId);
+
+        final ORecordId rid = (ORecordId) reusable;
+        rid.clusterId = iResourceId.getClusterId();
+        rid.clusterPosition = iResourceId.getClusterPosition();
+        return rid;
       }
     };
 
-    PROFILER_CREATE_RECORD = "db." + this.name + ".createRecord";
-    PROFILER_READ_RECORD = "db." + this.name + ".readRecord";
-    PROFILER_UPDATE_RECORD = "db." + this.name + ".updateRecord";
-    PROFILER_DELETE_RECORD = "db." + this.name + ".deleteRecord";
+    final OProfilerMBean profiler = Orient.instance().getProfiler();
+    createRecordChrono = profiler.registerChrono("db." + this.name + ".createRecord", "Create a record in database",
+        "db.*.createRecord");
+    readRecordChrono = profiler.registerChrono("db." + this.name + ".readRecord", "Read a record from database", "db.*.readRecord");
+    updateRecordChrono = profiler.registerChrono("db." + this.name + ".updateRecord", "Update a record to database",
+        "db.*.updateRecord");
+    deleteRecordChrono = profiler.registerChrono("db." + this.name + ".deleteRecord", "Delete a record from database",
+        "db.*.deleteRecord");
+    commandChrono = profiler.registerChrono("db." + this.name + ".command", "Command executed against the database", "db.*.command");
   }
 
   public void open(final String iUserName, final String iUserPassword, final Map<String, Object> iProperties) {
@@ -693,16 +716,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     final OCluster cluster = getClusterById(rid.clusterId);
 
     if (transaction.get() != null) {
-      final long timer = Orient.instance().getProfiler().startChrono();
+      final long timer = createRecordChrono.start();
       try {
         return doCreateRecord(rid, content, recordVersion, recordType, callback, cluster, ppos);
       } finally {
-        Orient.instance().getProfiler()
-            .stopChrono(PROFILER_CREATE_RECORD, "Create a record in database", timer, "db.*.createRecord");
+        createRecordChrono.stop(timer);
       }
     }
 
-    final long timer = Orient.instance().getProfiler().startChrono();
+    final long timer = createRecordChrono.start();
     cluster.getExternalModificationLock().requestModificationLock();
     try {
       modificationLock.requestModificationLock();
@@ -720,7 +742,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
       }
     } finally {
       cluster.getExternalModificationLock().releaseModificationLock();
-      Orient.instance().getProfiler().stopChrono(PROFILER_CREATE_RECORD, "Create a record in database", timer, "db.*.createRecord");
+      createRecordChrono.stop(timer);
     }
   }
 
@@ -777,16 +799,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
 
     final OCluster cluster = getClusterById(rid.clusterId);
     if (transaction.get() != null) {
-      final long timer = Orient.instance().getProfiler().startChrono();
+      final long timer = updateRecordChrono.start();
       try {
         return doUpdateRecord(rid, updateContent, content, version, recordType, callback, cluster);
       } finally {
-        Orient.instance().getProfiler()
-            .stopChrono(PROFILER_UPDATE_RECORD, "Update a record to database", timer, "db.*.updateRecord");
+        updateRecordChrono.stop(timer);
       }
     }
 
-    final long timer = Orient.instance().getProfiler().startChrono();
+    final long timer = updateRecordChrono.start();
     cluster.getExternalModificationLock().requestModificationLock();
     try {
       modificationLock.requestModificationLock();
@@ -811,7 +832,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
       }
     } finally {
       cluster.getExternalModificationLock().releaseModificationLock();
-      Orient.instance().getProfiler().stopChrono(PROFILER_UPDATE_RECORD, "Update a record to database", timer, "db.*.updateRecord");
+      updateRecordChrono.stop(timer);
     }
   }
 
@@ -836,16 +857,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     final OCluster cluster = getClusterById(rid.clusterId);
 
     if (transaction.get() != null) {
-      final long timer = Orient.instance().getProfiler().startChrono();
+      final long timer = deleteRecordChrono.start();
       try {
         return doDeleteRecord(rid, version, cluster);
       } finally {
-        Orient.instance().getProfiler()
-            .stopChrono(PROFILER_DELETE_RECORD, "Delete a record from database", timer, "db.*.deleteRecord");
+        deleteRecordChrono.stop(timer);
       }
     }
 
-    final long timer = Orient.instance().getProfiler().startChrono();
+    final long timer = deleteRecordChrono.start();
     cluster.getExternalModificationLock().requestModificationLock();
     try {
       modificationLock.requestModificationLock();
@@ -868,8 +888,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
       }
     } finally {
       cluster.getExternalModificationLock().releaseModificationLock();
-      Orient.instance().getProfiler()
-          .stopChrono(PROFILER_DELETE_RECORD, "Delete a record from database", timer, "db.*.deleteRecord");
+      deleteRecordChrono.stop(timer);
     }
   }
 
@@ -881,16 +900,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     final OCluster cluster = getClusterById(rid.clusterId);
 
     if (transaction.get() != null) {
-      final long timer = Orient.instance().getProfiler().startChrono();
+      final long timer = deleteRecordChrono.start();
       try {
         return doHideMethod(rid, cluster);
       } finally {
-        Orient.instance().getProfiler()
-            .stopChrono(PROFILER_DELETE_RECORD, "Delete a record from database", timer, "db.*.deleteRecord");
+        deleteRecordChrono.stop(timer);
       }
     }
 
-    final long timer = Orient.instance().getProfiler().startChrono();
+    final long timer = deleteRecordChrono.start();
     cluster.getExternalModificationLock().requestModificationLock();
     try {
       modificationLock.requestModificationLock();
@@ -913,8 +931,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
       }
     } finally {
       cluster.getExternalModificationLock().releaseModificationLock();
-      Orient.instance().getProfiler()
-          .stopChrono(PROFILER_DELETE_RECORD, "Delete a record from database", timer, "db.*.deleteRecord");
+      deleteRecordChrono.stop(timer);
     }
   }
 
@@ -982,10 +999,18 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     if (databaseRecord != null)
       ((OMetadataInternal) databaseRecord.getMetadata()).makeThreadLocalSchemaSnapshot();
 
+    // IF WAL IS ACTIVE CHANGES OF EACH CLUSTER AND INDEX ARE ISOLATED BY LOCKS OF ATOMIC OPERATION, SO STORAGE LOCK IS TAKEN IN
+    // SHARED MODE AND ONLY SCHEMA AND CLUSTER CHANGES ARE EXCLUDED
+    final boolean concurrentCommit = isConcurrentCommitEnabled();
+    OLogSequenceNumber commitLsn = null;
+
     try {
       modificationLock.requestModificationLock();
       try {
-        lock.acquireExclusiveLock();
+        if (concurrentCommit)
+          lock.acquireSharedLock();
+        else
+          lock.acquireExclusiveLock();
         try {
 
           checkOpeness();
@@ -996,6 +1021,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
           makeStorageDirty();
           startStorageTx(clientTx);
 
+          final Map<ORecord, Integer> newRecordClusters;
+          if (concurrentCommit)
+            newRecordClusters = lockTxComponents(clientTx, databaseRecord);
+          else
+            newRecordClusters = null;
+
           final List<ORecordOperation> tmpEntries = new ArrayList<ORecordOperation>();
 
           while (clientTx.getCurrentRecordEntries().iterator().hasNext()) {
@@ -1013,14 +1044,14 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
             }
             for (ORecordOperation txEntry : tmpEntries)
               // COMMIT ALL THE SINGLE ENTRIES ONE BY ONE
-              commitEntry(clientTx, txEntry);
+              commitEntry(clientTx, txEntry, concurrentCommit, newRecordClusters);
 
           }
 
           if (callback != null)
             callback.run();
 
-          endStorageTx();
+          commitLsn = endStorageTx();
 
           OTransactionAbstract.updateCacheFromEntries(clientTx, clientTx.getAllRecordEntries(), true);
 
@@ -1035,11 +1066,19 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
             throw new OStorageException("Error during transaction commit.", e);
         } finally {
           transaction.set(null);
-          lock.releaseExclusiveLock();
+
+          if (concurrentCommit)
+            lock.releaseSharedLock();
+          else
+            lock.releaseExclusiveLock();
         }
       } finally {
         modificationLock.releaseModificationLock();
       }
+
+      // LOCKS ARE ALREADY RELEASED, SO TRANSACTIONS WHICH WAIT FOR THE SAME FLUSH ARE WRITTEN AND SYNCED ALL TOGETHER
+      if (commitLsn != null && isGroupCommitEnabled())
+        writeAheadLog.flushTill(commitLsn);
     } finally {
       if (databaseRecord != null)
         ((OMetadataInternal) databaseRecord.getMetadata()).clearThreadLocalSchemaSnapshot();
@@ -1048,9 +1087,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
 
   public void rollback(final OTransaction clientTx) {
     checkOpeness();
+    // ONLY ATOMIC OPERATION OF CURRENT THREAD IS ROLLED BACK, SO SHARED LOCK IS ENOUGH IF COMMIT IS DONE UNDER SHARED LOCK TOO
+    final boolean concurrentCommit = isConcurrentCommitEnabled();
+
     modificationLock.requestModificationLock();
     try {
-      lock.acquireExclusiveLock();
+      if (concurrentCommit)
+        lock.acquireSharedLock();
+      else
+        lock.acquireExclusiveLock();
       try {
         checkOpeness();
 
@@ -1073,7 +1118,11 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
         throw new OStorageException("Error during transaction rollback.", e);
       } finally {
         transaction.set(null);
-        lock.releaseExclusiveLock();
+
+        if (concurrentCommit)
+          lock.releaseSharedLock();
+        else
+          lock.releaseExclusiveLock();
       }
     } finally {
       modificationLock.releaseModificationLock();
@@ -1248,6 +1297,18 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     modificationLock.allowModifications();
   }
 
+  /**
+   * Waits till ongoing modifications of the storage are finished and suspends new ones till {@link #resumeModifications()} is
+   * called. Unlike {@link #freeze(boolean)} files are neither flushed nor unlocked.
+   */
+  protected void suspendModifications() {
+    modificationLock.prohibitModifications(false);
+  }
+
+  protected void resumeModifications() {
+    modificationLock.allowModifications();
+  }
+
   public boolean wereDataRestoredAfterOpen() {
     return wereDataRestoredAfterOpen;
   }
@@ -1293,6 +1354,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
       throw new OCommandExecutionException("Cannot execute non idempotent command");
 
     long beginTime = Orient.instance().getProfiler().startChrono();
+    final long timer = commandChrono.start();
 
     try {
 
@@ -1320,6 +1382,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
       throw new OCommandExecutionException("Error on execution of command: " + iCommand, e);
 
     } finally {
+      commandChrono.stop(timer);
+
       if (Orient.instance().getProfiler().isRecording()) {
         OSecurityUser user = ODatabaseRecordThreadLocal.INSTANCE.get().getUser();
         String userString = user != null ? user.toString() : null;
@@ -1528,15 +1592,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
       throw new IllegalArgumentException("Cannot read record " + rid + " since the position is invalid in database '" + name + '\'');
 
     if (transaction.get() != null) {
-      final long timer = Orient.instance().getProfiler().startChrono();
+      final long timer = readRecordChrono.start();
       try {
         return doReadRecordIfNotLatest(cluster, rid, recordVersion);
       } finally {
-        Orient.instance().getProfiler().stopChrono(PROFILER_READ_RECORD, "Read a record from database", timer, "db.*.readRecord");
+        readRecordChrono.stop(timer);
       }
     }
 
-    final long timer = Orient.instance().getProfiler().startChrono();
+    final long timer = readRecordChrono.start();
     cluster.getExternalModificationLock().requestModificationLock();
     try {
       lockManager.acquireLock(this, rid, OLockManager.LOCK.SHARED);
@@ -1557,7 +1621,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     } finally {
       cluster.getExternalModificationLock().releaseModificationLock();
 
-      Orient.instance().getProfiler().stopChrono(PROFILER_READ_RECORD, "Read a record from database", timer, "db.*.readRecord");
+      readRecordChrono.stop(timer);
     }
   }
 
@@ -1568,17 +1632,17 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
       throw new IllegalArgumentException("Cannot read record " + rid + " since the position is invalid in database '" + name + '\'');
 
     if (transaction.get() != null) {
-      final long timer = Orient.instance().getProfiler().startChrono();
+      final long timer = readRecordChrono.start();
       try {
         // Disabled this assert have no meaning anymore
         // assert iLockingStrategy.equals(LOCKING_STRATEGY.DEFAULT);
         return doReadRecord(clusterSegment, rid);
       } finally {
-        Orient.instance().getProfiler().stopChrono(PROFILER_READ_RECORD, "Read a record from database", timer, "db.*.readRecord");
+        readRecordChrono.stop(timer);
       }
     }
 
-    final long timer = Orient.instance().getProfiler().startChrono();
+    final long timer = readRecordChrono.start();
     clusterSegment.getExternalModificationLock().requestModificationLock();
     try {
       lockManager.acquireLock(this, rid, OLockManager.LOCK.SHARED);
@@ -1599,14 +1663,16 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     } finally {
       clusterSegment.getExternalModificationLock().releaseModificationLock();
 
-      Orient.instance().getProfiler().stopChrono(PROFILER_READ_RECORD, "Read a record from database", timer, "db.*.readRecord");
+      readRecordChrono.stop(timer);
     }
   }
 
-  private void endStorageTx() throws IOException {
-    atomicOperationsManager.endAtomicOperation(false);
+  private OLogSequenceNumber endStorageTx() throws IOException {
+    final OAtomicOperation atomicOperation = atomicOperationsManager.endAtomicOperation(false);
 
     assert atomicOperationsManager.getCurrentOperation() == null;
+
+    return atomicOperation != null ? atomicOperation.getEndLSN() : null;
   }
 
   private void startStorageTx(OTransaction clientTx) throws IOException {
@@ -2096,7 +2162,78 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     return null;
   }
 
-  private void commitEntry(final OTransaction clientTx, final ORecordOperation txEntry) throws IOException {
+  private boolean isGroupCommitEnabled() {
+    return getConfiguration().getContextConfiguration().getValueAsBoolean(OGlobalConfiguration.WAL_GROUP_COMMIT);
+  }
+
+  private boolean isConcurrentCommitEnabled() {
+    return writeAheadLog != null
+        && getConfiguration().getContextConfiguration().getValueAsBoolean(OGlobalConfiguration.TX_CONCURRENT_COMMIT);
+  }
+
+  /**
+   * Locks clusters and indexes which are going to be modified by transaction till the end of storage transaction. Components are
+   * locked in well defined order so transactions with intersecting set of clusters or indexes wait for each other instead of
+   * deadlock.
+   * <p>
+   * Locks are taken on whole clusters, not on single records or pages, so transactions which write into the same cluster, for
+   * example new records of a class with a single cluster, are still committed one by one.
+   *
+   * @return clusters chosen for new records which had no cluster assigned yet
+   */
+  private Map<ORecord, Integer> lockTxComponents(final OTransaction clientTx, final ODatabaseDocumentInternal databaseRecord) {
+    final Set<String> componentNames = new HashSet<String>();
+    final Map<ORecord, Integer> newRecordClusters = new IdentityHashMap<ORecord, Integer>();
+
+    for (ORecordOperation txEntry : clientTx.getCurrentRecordEntries()) {
+      final ORecord rec = txEntry.getRecord();
+      if (rec == null)
+        continue;
+
+      final ORID rid = rec.getIdentity();
+      if (rid.getClusterId() == ORID.CLUSTER_ID_INVALID) {
+        if (rec instanceof ODocument) {
+          // CHOOSE CLUSTER NOW, SO ONLY THIS CLUSTER OF CLASS IS LOCKED
+          final OClass schemaClass = ODocumentInternal.getImmutableSchemaClass((ODocument) rec);
+          if (schemaClass != null) {
+            final int clusterId = schemaClass.getClusterForNewInstance((ODocument) rec);
+            newRecordClusters.put(rec, clusterId);
+            addDurableClusterName(clusterId, componentNames);
+          }
+        }
+      } else
+        addDurableClusterName(rid.getClusterId(), componentNames);
+    }
+
+    final List<String> involvedIndexes = clientTx.getInvolvedIndexes();
+    if (involvedIndexes != null && databaseRecord != null) {
+      final OIndexManagerProxy indexManager = databaseRecord.getMetadata().getIndexManager();
+      for (String indexName : involvedIndexes) {
+        final OIndex<?> index = indexManager.getIndexInternal(indexName);
+        if (index instanceof OIndexAbstract) {
+          final String componentName = ((OIndexAbstract<?>) index).getDurableComponentName();
+          if (componentName != null)
+            componentNames.add(componentName);
+        }
+      }
+    }
+
+    atomicOperationsManager.acquireExclusiveLocksTillOperationComplete(componentNames);
+
+    return newRecordClusters;
+  }
+
+  private void addDurableClusterName(final int clusterId, final Set<String> clusterNames) {
+    if (clusterId < 0 || clusterId >= clusters.size())
+      return;
+
+    final OCluster cluster = clusters.get(clusterId);
+    if (cluster instanceof ODurableComponent)
+      clusterNames.add(((ODurableComponent) cluster).getFullName());
+  }
+
+  private void commitEntry(final OTransaction clientTx, final ORecordOperation txEntry, final boolean concurrentCommit,
+      final Map<ORecord, Integer> newRecordClusters) throws IOException {
 
     final ORecord rec = txEntry.getRecord();
     if (txEntry.type != ORecordOperation.DELETED && !rec.isDirty())
@@ -2115,8 +2252,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
           && ODocumentInternal.getImmutableSchemaClass(((ODocument) rec)) != null) {
         // TRY TO FIX CLUSTER ID TO THE DEFAULT CLUSTER ID DEFINED IN SCHEMA CLASS
 
-        final OClass schemaClass = ODocumentInternal.getImmutableSchemaClass(((ODocument) rec));
-        clusterId = schemaClass.getClusterForNewInstance((ODocument) rec);
+        final Integer lockedClusterId = newRecordClusters != null ? newRecordClusters.get(rec) : null;
+        if (lockedClusterId != null)
+          clusterId = lockedClusterId;
+        else {
+          final OClass schemaClass = ODocumentInternal.getImmutableSchemaClass(((ODocument) rec));
+          clusterId = schemaClass.getClusterForNewInstance((ODocument) rec);
+        }
       }
 
       final OCluster cluster = getClusterById(clusterId);
@@ -2126,6 +2268,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
         // AVOID TO COMMIT INDEX STUFF
         return;
 
+      if (concurrentCommit && cluster instanceof ODurableComponent)
+        // CLUSTERS OF RECORDS ADDED DURING COMMIT ARE NOT LOCKED IN ADVANCE, TIMEOUT PREVENTS DEADLOCK WITH OTHER TRANSACTIONS
+        atomicOperationsManager.acquireExclusiveLockTillOperationComplete((ODurableComponent) cluster, RECORD_LOCK_TIMEOUT);
+
       if (rec instanceof OTxListener)
         ((OTxListener) rec).onEvent(txEntry, OTxListener.EVENT.BEFORE_COMMIT);
 
@@ -2214,6 +2360,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
       return false;
     }
 
+    if (walReplayStartLsn != null) {
+      // PAGES OF RESTORED BACKUP CONTAIN ALL CHANGES LOGGED BEFORE THE LSN, CHECKPOINTS OF THE SHIPPED WAL DO NOT APPLY TO THEM
+      OLogManager.instance().info(this, "Data restore of backup is started from LSN %s", walReplayStartLsn);
+      return restoreFrom(walReplayStartLsn);
+    }
+
     OLogManager.instance().info(this, "Looking for last checkpoint...");
 
     OLogSequenceNumber lastCheckPoint;
@@ -2516,19 +2668,21 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     for (OWALRecord walRecord : atomicUnit) {
       if (walRecord instanceof OFileDeletedWALRecord) {
         OFileDeletedWALRecord fileDeletedWALRecord = (OFileDeletedWALRecord) walRecord;
-        if (writeCache.exists(fileDeletedWALRecord.getFileId()))
-          readCache.deleteFile(fileDeletedWALRecord.getFileId(), writeCache);
+        final long fileId = restoredFileId(fileDeletedWALRecord.getFileId());
+        if (writeCache.exists(fileId))
+          readCache.deleteFile(fileId, writeCache);
       } else if (walRecord instanceof OFileCreatedWALRecord) {
         OFileCreatedWALRecord fileCreatedCreatedWALRecord = (OFileCreatedWALRecord) walRecord;
+        final long fileId = restoredFileId(fileCreatedCreatedWALRecord.getFileId());
         if (writeCache.exists(fileCreatedCreatedWALRecord.getFileName())) {
-          readCache.openFile(fileCreatedCreatedWALRecord.getFileName(), fileCreatedCreatedWALRecord.getFileId(), writeCache);
+          readCache.openFile(fileCreatedCreatedWALRecord.getFileName(), fileId, writeCache);
         } else {
-          readCache.addFile(fileCreatedCreatedWALRecord.getFileName(), fileCreatedCreatedWALRecord.getFileId(), writeCache);
+          readCache.addFile(fileCreatedCreatedWALRecord.getFileName(), fileId, writeCache);
         }
       } else if (walRecord instanceof OUpdatePageRecord) {
         final OUpdatePageRecord updatePageRecord = (OUpdatePageRecord) walRecord;
 
-        final long fileId = updatePageRecord.getFileId();
+        final long fileId = restoredFileId(updatePageRecord.getFileId());
         final long pageIndex = updatePageRecord.getPageIndex();
 
         if (!writeCache.isOpen(fileId))
@@ -2569,6 +2723,14 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract impleme
     }
   }
 
+  /**
+   * WAL shipped inside of online backup is written by storage with other id, so file ids of its records are bound to id of
+   * current write cache before they are applied.
+   */
+  private long restoredFileId(long fileId) {
+    return OAbstractWriteCache.composeFileId(writeCache.getId(), OAbstractWriteCache.extractFileId(fileId));
+  }
+
   private void checkLowDiskSpaceAndFullCheckpointRequests() {
     if (transaction.get() != null)
       return;
@@ -0,0 +1,60 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+/**
+ * Statistics of a single {@link OPaginatedCluster#compact(int, int)} run.
+ */
+public class OClusterCompactionResult {
+  private final long recordsMoved;
+  private final long bytesMoved;
+  private final long pagesFreed;
+
+  public OClusterCompactionResult(long recordsMoved, long bytesMoved, long pagesFreed) {
+    this.recordsMoved = recordsMoved;
+    this.bytesMoved = bytesMoved;
+    this.pagesFreed = pagesFreed;
+  }
+
+  public long getRecordsMoved() {
+    return recordsMoved;
+  }
+
+  public long getBytesMoved() {
+    return bytesMoved;
+  }
+
+  /**
+   * @return amount of pages which were left without records and are reused by next insertions into the cluster.
+   */
+  public long getPagesFreed() {
+    return pagesFreed;
+  }
+
+  public long getReclaimedBytes() {
+    return pagesFreed * OClusterPage.PAGE_SIZE;
+  }
+
+  @Override
+  public String toString() {
+    return "OClusterCompactionResult{recordsMoved=" + recordsMoved + ", bytesMoved=" + bytesMoved + ", pagesFreed=" + pagesFreed
+        + '}';
+  }
+}
@@ -213,6 +213,14 @@ public class OClusterPage extends ODurablePage {
     return recordVersion;
   }
 
+  public void setRecordVersion(int position, ORecordVersion recordVersion) throws IOException {
+    int entryIndexPosition = PAGE_INDEXES_OFFSET + position * INDEX_ITEM_SIZE;
+
+    byte[] serializedVersion = new byte[OVersionFactory.instance().getVersionSize()];
+    recordVersion.getSerializer().fastWriteTo(serializedVersion, 0, recordVersion);
+    setBinaryValue(entryIndexPosition + OIntegerSerializer.INT_SIZE, serializedVersion);
+  }
+
   public boolean isEmpty() {
     return getFreeSpace() == PAGE_SIZE - PAGE_INDEXES_OFFSET;
   }
@@ -273,6 +273,37 @@ public class OClusterPositionMap extends ODurableComponent {
     }
   }
 
+  public boolean update(final long clusterPosition, long pageIndex, int recordPosition) throws IOException {
+    OAtomicOperation atomicOperation = startAtomicOperation();
+
+    acquireExclusiveLock();
+    try {
+      long bucketIndex = clusterPosition / OClusterPositionMapBucket.MAX_ENTRIES;
+      int index = (int) (clusterPosition % OClusterPositionMapBucket.MAX_ENTRIES);
+
+      final OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, bucketIndex, false);
+      cacheEntry.acquireExclusiveLock();
+      try {
+        final OClusterPositionMapBucket bucket = new OClusterPositionMapBucket(cacheEntry, getChangesTree(atomicOperation,
+            cacheEntry));
+
+        final boolean updated = bucket.set(index, pageIndex, recordPosition);
+
+        endAtomicOperation(false);
+        return updated;
+      } catch (Throwable e) {
+        endAtomicOperation(true);
+
+        throw new OStorageException("Error during update of mapping between logical and physical record position.", e);
+      } finally {
+        cacheEntry.releaseExclusiveLock();
+        releasePage(atomicOperation, cacheEntry);
+      }
+    } finally {
+      releaseExclusiveLock();
+    }
+  }
+
   public long[] higherPositions(final long clusterPosition) throws IOException {
     atomicOperationsManager.acquireReadLock(this);
     try {
@@ -105,6 +105,24 @@ public class OClusterPositionMapBucket extends ODurablePage {
     return readEntry(position);
   }
 
+  public boolean set(int index, long pageIndex, int recordPosition) throws IOException {
+    int size = getIntValue(SIZE_OFFSET);
+
+    if (index >= size)
+      return false;
+
+    int position = entryPosition(index);
+
+    if (getByteValue(position) != FILLED)
+      return false;
+
+    position += OByteSerializer.BYTE_SIZE;
+    position += setLongValue(position, pageIndex);
+    setIntValue(position, recordPosition);
+
+    return true;
+  }
+
   private PositionEntry readEntry(int position) {
     position += OByteSerializer.BYTE_SIZE;
 
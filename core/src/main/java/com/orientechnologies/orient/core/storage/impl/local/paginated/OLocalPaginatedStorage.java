@@ -23,6 +23,7 @@ package com.orientechnologies.orient.core.storage.impl.local.paginated;
 import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.parser.OSystemVariableResolver;
 import com.orientechnologies.orient.core.command.OCommandOutputListener;
 import com.orientechnologies.orient.core.compression.impl.OZIPCompressionUtil;
@@ -33,28 +34,54 @@ import com.orientechnologies.orient.core.engine.local.OEngineLocalPaginated;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.index.engine.OHashTableIndexEngine;
 import com.orientechnologies.orient.core.index.engine.OSBTreeIndexEngine;
+import com.orientechnologies.orient.core.index.hashindex.local.cache.OCachePointer;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OReadCache;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OWOWCache;
 import com.orientechnologies.orient.core.metadata.OMetadataDefault;
+import com.orientechnologies.orient.core.storage.OCluster;
 import com.orientechnologies.orient.core.storage.OIdentifiableStorage;
+import com.orientechnologies.orient.core.storage.fs.OAbstractFile;
+import com.orientechnologies.orient.core.storage.fs.OFileCompressed;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OFreezableStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OStorageConfigurationSegment;
 import com.orientechnologies.orient.core.storage.impl.local.OStorageVariableParser;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurablePage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OAbstractPageWALRecord;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.ODiskWriteAheadLog;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OFileCreatedWALRecord;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALPage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALRecord;
 import com.orientechnologies.orient.core.util.OBackupable;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
  * @author Andrey Lomakin
@@ -67,10 +94,23 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage implements
       OHashTableIndexEngine.TREE_FILE_EXTENSION, OHashTableIndexEngine.NULL_BUCKET_FILE_EXTENSION,
       OClusterPositionMap.DEF_EXTENSION, OSBTreeIndexEngine.DATA_FILE_EXTENSION, OWOWCache.NAME_ID_MAP_EXTENSION,
       OIndexRIDContainer.INDEX_FILE_EXTENSION, OSBTreeCollectionManagerShared.DEFAULT_EXTENSION,
-      OSBTreeIndexEngine.NULL_BUCKET_FILE_EXTENSION           };
+      OSBTreeIndexEngine.NULL_BUCKET_FILE_EXTENSION, OFileCompressed.MAPPING_EXTENSION };
 
   private static final int                 ONE_KB              = 1024;
 
+  /**
+   * Option of {@link #backup} which makes the backup online, see {@link #backupOnline}.
+   */
+  public static final String               BACKUP_ONLINE_OPTION           = "online";
+
+  /**
+   * Option of {@link #backup} which makes the backup online and incremental, its value is LSN returned by previous online backup.
+   */
+  public static final String               BACKUP_INCREMENTAL_FROM_OPTION = "incrementalFrom";
+
+  private static final int                 BACKUP_PAGES_PER_BLOCK         = 64;
+  private static final int                 BACKUP_FILE_BLOCK_SIZE         = 1024 * ONE_KB;
+
   private final int                        DELETE_MAX_RETRIES;
   private final int                        DELETE_WAIT_TIME;
 
@@ -80,6 +120,8 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage implements
   private String                           storagePath;
   private ExecutorService                  checkpointExecutor;
 
+  private final AtomicBoolean              backupInProgress = new AtomicBoolean();
+
   public OLocalPaginatedStorage(final String name, final String filePath, final String mode, final int id, OReadCache readCache)
       throws IOException {
     super(name, filePath, mode, id);
@@ -141,6 +183,27 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage implements
   @Override
   public void backup(OutputStream out, Map<String, Object> options, final Callable<Object> callable,
       final OCommandOutputListener iOutput, final int compressionLevel, final int bufferSize) throws IOException {
+    if (writeAheadLog != null && options != null
+        && (Boolean.TRUE.equals(options.get(BACKUP_ONLINE_OPTION)) || options.get(BACKUP_INCREMENTAL_FROM_OPTION) != null)) {
+      if (callable != null)
+        try {
+          callable.call();
+        } catch (Exception e) {
+          OLogManager.instance().error(this, "Error on callback invocation during backup", e);
+        }
+
+      final OutputStream bo = bufferSize > 0 ? new BufferedOutputStream(out, bufferSize) : out;
+      try {
+        backupOnline(bo, (OLogSequenceNumber) options.get(BACKUP_INCREMENTAL_FROM_OPTION), iOutput, compressionLevel);
+      } finally {
+        if (bufferSize > 0) {
+          bo.flush();
+          bo.close();
+        }
+      }
+      return;
+    }
+
     freeze(false);
     try {
       if (callable != null)
@@ -171,7 +234,601 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage implements
     if (!isClosed())
       close(true, false);
 
-    OZIPCompressionUtil.uncompressDirectory(in, getStoragePath(), iListener);
+    final BufferedInputStream bin = new BufferedInputStream(in);
+    bin.mark(OIntegerSerializer.INT_SIZE);
+    final int magicNumber = new DataInputStream(bin).readInt();
+    bin.reset();
+
+    if (magicNumber == OOnlineBackupWriter.MAGIC_NUMBER)
+      restoreOnline(new DataInputStream(bin), iListener);
+    else
+      OZIPCompressionUtil.uncompressDirectory(bin, getStoragePath(), iListener);
+  }
+
+  /**
+   * Writes backup of the storage without blocking writes for the time of the backup. Pages are read through the write cache while
+   * the storage is modified and the WAL written meanwhile is added to the backup, {@link #restore} replays it, so the restored
+   * storage matches the state of the end of the backup. Writes are suspended only to find the WAL position the backup starts from
+   * and to copy the last WAL segment and the files which are not paginated. Pages are read and compressed by
+   * {@link OGlobalConfiguration#STORAGE_BACKUP_THREADS} threads.
+   *
+   * @param fromLsn
+   *          LSN returned by previous online backup, only pages changed after it are written, or null for full backup
+   * @return LSN which next incremental backup should start from
+   */
+  public OLogSequenceNumber backupOnline(final OutputStream out, final OLogSequenceNumber fromLsn,
+      final OCommandOutputListener iOutput, final int compressionLevel) throws IOException {
+    if (!(writeAheadLog instanceof ODiskWriteAheadLog))
+      throw new OStorageException("Online backup of storage " + name + " is not possible because WAL is disabled");
+
+    if (!backupInProgress.compareAndSet(false, true))
+      throw new OStorageException("Backup of storage " + name + " is already in progress");
+
+    final ODiskWriteAheadLog diskWriteAheadLog = (ODiskWriteAheadLog) writeAheadLog;
+    final OWOWCache wowCache = (OWOWCache) writeCache;
+
+    int threads = OGlobalConfiguration.STORAGE_BACKUP_THREADS.getValueAsInteger();
+    if (threads <= 0)
+      threads = Runtime.getRuntime().availableProcessors();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threads, new BackupThreadFactory());
+    final OOnlineBackupWriter writer = new OOnlineBackupWriter(out, executor, threads, compressionLevel);
+    boolean completed = false;
+    try {
+      // ALL CHANGES LOGGED BEFORE THE START LSN ARE ALREADY APPLIED TO THE PAGES
+      final OLogSequenceNumber startLsn;
+      suspendModifications();
+      try {
+        diskWriteAheadLog.flush();
+        startLsn = diskWriteAheadLog.end();
+        diskWriteAheadLog.preventCutTill(startLsn);
+      } finally {
+        resumeModifications();
+      }
+
+      if (startLsn == null)
+        throw new OStorageException("Online backup of storage " + name + " is not possible because WAL is empty");
+
+      try {
+        writer.writeHeader(fromLsn, startLsn);
+
+        final Set<String> notLoggedFiles = new HashSet<String>();
+        for (OCluster cluster : getClusterInstances())
+          if (cluster instanceof OPaginatedCluster && !((OPaginatedCluster) cluster).useWal()) {
+            notLoggedFiles.add(cluster.getName() + OPaginatedCluster.DEF_EXTENSION);
+            notLoggedFiles.add(cluster.getName() + OClusterPositionMap.DEF_EXTENSION);
+          }
+
+        final int pageSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * ONE_KB;
+        final List<String> notPaginatedFiles = new ArrayList<String>();
+
+        for (String fileName : getStorageFiles()) {
+          // PAGES ARE BACKED UP UNCOMPRESSED, SO THE RESTORED FILES DO NOT NEED THE PAGE MAPPING
+          if (OFileCompressed.isMappingFile(fileName))
+            continue;
+
+          final Long fileId = wowCache.isOpen(fileName);
+          if (fileId == null) {
+            notPaginatedFiles.add(fileName);
+            continue;
+          }
+
+          final long pages = wowCache.getFilledUpTo(fileId);
+          writer.startEntry(OOnlineBackupWriter.PAGES_ENTRY, fileName, OAbstractFile.HEADER_SIZE + pages * pageSize, 0,
+              readFileHeader(new File(getStoragePath(), fileName)));
+
+          // PAGES OF CLUSTERS WHICH DO NOT USE WAL DO NOT HAVE LSN
+          final OLogSequenceNumber pagesFromLsn = notLoggedFiles.contains(fileName) ? null : fromLsn;
+          for (long pageIndex = 0; pageIndex < pages; pageIndex += BACKUP_PAGES_PER_BLOCK)
+            writer.addBlock(readPages(wowCache, fileId, pageIndex, Math.min(pageIndex + BACKUP_PAGES_PER_BLOCK, pages),
+                pagesFromLsn));
+
+          writer.endEntry();
+
+          if (iOutput != null)
+            iOutput.onMessage("\n- " + fileName + " (" + pages + " pages)");
+        }
+
+        // RECORDS BEFORE THE PAGE OF THE START LSN ARE NOT REPLAYED, SO THEY ARE NOT COPIED
+        final long walFrom = startLsn.getPosition() / OWALPage.PAGE_SIZE * OWALPage.PAGE_SIZE;
+
+        // SEGMENTS BEFORE THE LAST ONE ARE NOT CHANGED ANYMORE
+        final List<String> walFiles = diskWriteAheadLog.getWalFiles(startLsn);
+        for (int i = 0; i < walFiles.size() - 1; i++)
+          writeBackupFile(writer, OOnlineBackupWriter.WAL_ENTRY, new File(walFiles.get(i)), i == 0 ? walFrom : 0, iOutput);
+
+        final OLogSequenceNumber endLsn;
+        suspendModifications();
+        try {
+          diskWriteAheadLog.flush();
+          endLsn = diskWriteAheadLog.end();
+
+          final List<String> lastWalFiles = diskWriteAheadLog.getWalFiles(startLsn);
+          for (int i = Math.max(walFiles.size() - 1, 0); i < lastWalFiles.size(); i++)
+            writeBackupFile(writer, OOnlineBackupWriter.WAL_ENTRY, new File(lastWalFiles.get(i)), i == 0 ? walFrom : 0, iOutput);
+
+          for (String fileName : notPaginatedFiles)
+            writeBackupFile(writer, OOnlineBackupWriter.FILE_ENTRY, new File(getStoragePath(), fileName), 0, iOutput);
+        } finally {
+          resumeModifications();
+        }
+
+        writer.finish(endLsn);
+        completed = true;
+
+        return endLsn;
+      } finally {
+        diskWriteAheadLog.preventCutTill(null);
+      }
+    } finally {
+      if (!completed)
+        writer.cancel();
+
+      executor.shutdown();
+      backupInProgress.set(false);
+    }
+  }
+
+  /**
+   * Applies the backup written by {@link #backupOnline}. Incremental backup is applied on top of the storage restored from the
+   * previous backups. The WAL written during the backup is replayed by opening the storage, which is closed after that.
+   */
+  private void restoreOnline(final DataInputStream in, final OCommandOutputListener iListener) throws IOException {
+    in.readInt();
+
+    final boolean incremental = in.readBoolean();
+    if (incremental)
+      OOnlineBackupWriter.readLsn(in);
+
+    final OLogSequenceNumber startLsn = OOnlineBackupWriter.readLsn(in);
+
+    final File storageDir = new File(getStoragePath());
+    if (!storageDir.exists())
+      storageDir.mkdirs();
+
+    deleteWalFiles();
+
+    final int pageSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * ONE_KB;
+    final byte[] page = new byte[pageSize];
+
+    final Set<String> received = new HashSet<String>();
+
+    byte type;
+    while ((type = in.readByte()) != OOnlineBackupWriter.END_ENTRY) {
+      final String fileName = in.readUTF();
+      final long length = in.readLong();
+
+      final File file;
+      if (type == OOnlineBackupWriter.WAL_ENTRY) {
+        // SEGMENT NAMES CONTAIN NAME OF THE STORAGE WHICH MAY DIFFER FROM THE NAME OF THE BACKED UP ONE
+        final String segment = fileName.substring(0, fileName.length() - ODiskWriteAheadLog.WAL_SEGMENT_EXTENSION.length());
+        file = new File(getWalPath(), name + segment.substring(segment.lastIndexOf('.'))
+            + ODiskWriteAheadLog.WAL_SEGMENT_EXTENSION);
+      } else
+        file = new File(getStoragePath(), fileName);
+
+      final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+      try {
+        byte[] block;
+        if (type == OOnlineBackupWriter.PAGES_ENTRY) {
+          final byte[] header = new byte[in.readInt()];
+          in.readFully(header);
+
+          if (!incremental)
+            raf.setLength(0);
+
+          raf.setLength(length);
+          raf.seek(0);
+          raf.write(header);
+
+          while ((block = OOnlineBackupWriter.readBlock(in)) != null) {
+            final DataInputStream pages = new DataInputStream(new ByteArrayInputStream(block));
+            while (pages.available() > 0) {
+              final long pageIndex = pages.readLong();
+              pages.readFully(page);
+
+              raf.seek(OAbstractFile.HEADER_SIZE + pageIndex * pageSize);
+              raf.write(page);
+            }
+          }
+        } else {
+          // PART OF THE WAL SEGMENT WHICH IS NOT REPLAYED IS LEFT EMPTY
+          final long from = in.readLong();
+
+          raf.setLength(0);
+          raf.seek(from);
+          while ((block = OOnlineBackupWriter.readBlock(in)) != null)
+            raf.write(block);
+        }
+      } finally {
+        raf.close();
+      }
+
+      if (type != OOnlineBackupWriter.WAL_ENTRY)
+        received.add(fileName);
+
+      if (iListener != null)
+        iListener.onMessage("\n- " + fileName + " (" + OFileUtils.getSizeAsString(length) + ")");
+    }
+
+    OOnlineBackupWriter.readLsn(in);
+
+    for (String fileName : getStorageFiles())
+      if (!received.contains(fileName))
+        OFileUtils.delete(new File(getStoragePath(), fileName));
+
+    // STORAGE IS MARKED AS DIRTY SO THE WAL IS REPLAYED ON OPEN
+    dirtyFlag.create();
+    dirtyFlag.close();
+
+    // SHIPPED SEGMENTS CONTAIN RECORDS WHICH PRECEDE THE BACKUP AND ARE ALREADY APPLIED TO THE PAGES
+    walReplayStartLsn = startLsn;
+    try {
+      open(null, null, null);
+    } finally {
+      walReplayStartLsn = null;
+    }
+    close(true, false);
+  }
+
+  private Callable<byte[]> readPages(final OWOWCache wowCache, final long fileId, final long fromPage, final long toPage,
+      final OLogSequenceNumber fromLsn) {
+    return new Callable<byte[]>() {
+      @Override
+      public byte[] call() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream pages = new DataOutputStream(bytes);
+
+        for (long pageIndex = fromPage; pageIndex < toPage; pageIndex++) {
+          // DELETION OF THE FILE IS REPLAYED FROM THE WAL
+          if (!wowCache.exists(fileId))
+            break;
+
+          final OCachePointer pointer = wowCache.load(fileId, pageIndex, false);
+          if (pointer == null)
+            break;
+
+          final byte[] content;
+          try {
+            pointer.acquireSharedLock();
+            try {
+              if (fromLsn != null && ODurablePage.getLogSequenceNumberFromPage(pointer.getDataPointer()).compareTo(fromLsn) <= 0)
+                continue;
+
+              content = wowCache.pageContent(pointer.getDataPointer());
+            } finally {
+              pointer.releaseSharedLock();
+            }
+          } finally {
+            pointer.decrementReadersReferrer();
+          }
+
+          pages.writeLong(pageIndex);
+          pages.write(content);
+        }
+
+        pages.flush();
+        return bytes.toByteArray();
+      }
+    };
+  }
+
+  private static void writeBackupFile(final OOnlineBackupWriter writer, final byte type, final File file, final long from,
+      final OCommandOutputListener iOutput) throws IOException {
+    final RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      final long length = raf.length();
+      writer.startEntry(type, file.getName(), length, from, null);
+
+      raf.seek(from);
+      for (long copied = from; copied < length;) {
+        final byte[] block = new byte[(int) Math.min(BACKUP_FILE_BLOCK_SIZE, length - copied)];
+        raf.readFully(block);
+        copied += block.length;
+
+        writer.addBlock(new Callable<byte[]>() {
+          @Override
+          public byte[] call() throws Exception {
+            return block;
+          }
+        });
+      }
+
+      writer.endEntry();
+
+      if (iOutput != null)
+        iOutput.onMessage("\n- " + file.getName() + " (" + OFileUtils.getSizeAsString(length) + ")");
+    } finally {
+      raf.close();
+    }
+  }
+
+  private static byte[] readFileHeader(final File file) throws IOException {
+    final RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      final byte[] header = new byte[(int) Math.min(OAbstractFile.HEADER_SIZE, raf.length())];
+      raf.readFully(header);
+      return header;
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * Collects the pages changed after the passed LSN by reading the WAL. Files created after the LSN are mapped to null, because
+   * they have to be copied entirely.
+   *
+   * @return changed page indexes by file name, or null if the WAL does not contain all the records after the LSN
+   */
+  public Map<String, Set<Long>> getChangedPages(final OLogSequenceNumber lsn) throws IOException {
+    if (writeAheadLog == null)
+      return null;
+
+    final OLogSequenceNumber begin = writeAheadLog.begin();
+    final OLogSequenceNumber end = writeAheadLog.end();
+    if (begin == null || end == null || begin.compareTo(lsn) > 0 || end.compareTo(lsn) < 0 || writeAheadLog.read(lsn) == null)
+      // WAL HAS BEEN CUT OR BELONGS TO ANOTHER HISTORY
+      return null;
+
+    final Map<String, Set<Long>> changedPages = new HashMap<String, Set<Long>>();
+
+    OLogSequenceNumber current = writeAheadLog.next(lsn);
+    while (current != null) {
+      final OWALRecord record = writeAheadLog.read(current);
+
+      if (record instanceof OAbstractPageWALRecord) {
+        final OAbstractPageWALRecord pageRecord = (OAbstractPageWALRecord) record;
+        if (writeCache.exists(pageRecord.getFileId())) {
+          final String fileName = writeCache.fileNameById(pageRecord.getFileId());
+          if (!changedPages.containsKey(fileName))
+            changedPages.put(fileName, new HashSet<Long>());
+
+          final Set<Long> pages = changedPages.get(fileName);
+          if (pages != null)
+            pages.add(pageRecord.getPageIndex());
+        }
+      } else if (record instanceof OFileCreatedWALRecord)
+        changedPages.put(((OFileCreatedWALRecord) record).getFileName(), null);
+
+      current = writeAheadLog.next(current);
+    }
+
+    return changedPages;
+  }
+
+  /**
+   * Returns the names of the storage files, WAL segments excluded.
+   */
+  public Set<String> getStorageFiles() {
+    final Set<String> result = new HashSet<String>();
+
+    final File[] files = new File(getStoragePath()).listFiles();
+    if (files != null)
+      for (File f : files)
+        if (f.isFile() && isDeltaFile(f.getName()))
+          result.add(f.getName());
+
+    return result;
+  }
+
+  /**
+   * Writes the storage files changed after the passed LSN, as incremental counterpart of {@link #backup}. Pages changed after the
+   * LSN locally or on the receiving side, as reported by remoteChangedPages, are written one by one together with the header and
+   * the length of their file. Files missing on the receiving side, created after the LSN, not paginated, compressed or belonging
+   * to clusters that do not use the WAL are written entirely. The result is applied by {@link #restoreDelta}.
+   *
+   * @return false if the WAL does not contain all the records after the LSN, in this case nothing is written
+   */
+  public boolean backupDelta(final OutputStream out, final OLogSequenceNumber lsn, final Map<String, Set<Long>> remoteChangedPages,
+      final Set<String> remoteFiles, final Callable<Object> callable, final OCommandOutputListener iOutput,
+      final int compressionLevel) throws IOException {
+    freeze(false);
+    try {
+      final Map<String, Set<Long>> changedPages = getChangedPages(lsn);
+      if (changedPages == null)
+        return false;
+
+      for (Map.Entry<String, Set<Long>> entry : remoteChangedPages.entrySet()) {
+        final String fileName = entry.getKey();
+        if (entry.getValue() == null)
+          changedPages.put(fileName, null);
+        else if (!changedPages.containsKey(fileName))
+          changedPages.put(fileName, new HashSet<Long>(entry.getValue()));
+        else if (changedPages.get(fileName) != null)
+          changedPages.get(fileName).addAll(entry.getValue());
+      }
+
+      for (OCluster cluster : getClusterInstances())
+        if (cluster instanceof OPaginatedCluster && !((OPaginatedCluster) cluster).useWal()) {
+          changedPages.put(cluster.getName() + OPaginatedCluster.DEF_EXTENSION, null);
+          changedPages.put(cluster.getName() + OClusterPositionMap.DEF_EXTENSION, null);
+        }
+
+      if (callable != null)
+        try {
+          callable.call();
+        } catch (Exception e) {
+          OLogManager.instance().error(this, "Error on callback invocation during backup", e);
+        }
+
+      final int pageSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * ONE_KB;
+      final byte[] buffer = new byte[pageSize];
+
+      final Deflater deflater = new Deflater(compressionLevel);
+      final DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater);
+      final DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(deflaterOut));
+      try {
+        final Set<String> fileNames = getStorageFiles();
+        dout.writeInt(fileNames.size());
+
+        for (String fileName : fileNames) {
+          final File file = new File(getStoragePath(), fileName);
+          final long length = file.length();
+
+          dout.writeUTF(fileName);
+          dout.writeLong(length);
+
+          final RandomAccessFile raf = new RandomAccessFile(file, "r");
+          try {
+            if (!remoteFiles.contains(fileName) || (changedPages.containsKey(fileName) && changedPages.get(fileName) == null)
+                || writeCache.isOpen(fileName) == null || OFileCompressed.isCompressed(file.getPath())) {
+              // WHOLE FILE
+              dout.writeBoolean(true);
+              for (long copied = 0; copied < length;) {
+                final int read = raf.read(buffer, 0, (int) Math.min(buffer.length, length - copied));
+                if (read < 0)
+                  throw new IOException("Unexpected end of file " + file);
+
+                dout.write(buffer, 0, read);
+                copied += read;
+              }
+
+              if (iOutput != null)
+                iOutput.onMessage("\n- " + fileName + " (" + OFileUtils.getSizeAsString(length) + ")");
+              continue;
+            }
+
+            dout.writeBoolean(false);
+
+            final byte[] header = new byte[(int) Math.min(OAbstractFile.HEADER_SIZE, length)];
+            raf.readFully(header);
+            dout.write(header);
+
+            final List<Long> pages = new ArrayList<Long>();
+            if (changedPages.containsKey(fileName))
+              for (Long pageIndex : changedPages.get(fileName))
+                if (OAbstractFile.HEADER_SIZE + (pageIndex + 1) * pageSize <= length)
+                  pages.add(pageIndex);
+
+            dout.writeInt(pages.size());
+            for (Long pageIndex : pages) {
+              raf.seek(OAbstractFile.HEADER_SIZE + pageIndex * pageSize);
+              raf.readFully(buffer);
+
+              dout.writeLong(pageIndex);
+              dout.write(buffer);
+            }
+
+            if (iOutput != null && !pages.isEmpty())
+              iOutput.onMessage("\n- " + fileName + " (" + pages.size() + " pages)");
+          } finally {
+            raf.close();
+          }
+        }
+      } finally {
+        dout.flush();
+        deflaterOut.finish();
+        deflater.end();
+      }
+
+      return true;
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Applies the changes written by {@link #backupDelta} to the storage files. Storage files not received are deleted, as the WAL
+   * which is not valid anymore for the updated files.
+   */
+  public void restoreDelta(final InputStream in, final OCommandOutputListener iListener) throws IOException {
+    if (!isClosed())
+      close(true, false);
+
+    final Set<String> received = new HashSet<String>();
+
+    final Inflater inflater = new Inflater();
+    final DataInputStream din = new DataInputStream(new BufferedInputStream(new InflaterInputStream(in, inflater)));
+    try {
+      final int files = din.readInt();
+      for (int i = 0; i < files; ++i) {
+        final String fileName = din.readUTF();
+        final long length = din.readLong();
+        received.add(fileName);
+
+        final File file = new File(getStoragePath(), fileName);
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+          if (din.readBoolean()) {
+            // WHOLE FILE
+            final byte[] buffer = new byte[OAbstractFile.HEADER_SIZE * 64];
+            raf.setLength(0);
+            for (long copied = 0; copied < length;) {
+              final int toRead = (int) Math.min(buffer.length, length - copied);
+              din.readFully(buffer, 0, toRead);
+              raf.write(buffer, 0, toRead);
+              copied += toRead;
+            }
+
+            if (iListener != null)
+              iListener.onMessage("\n- " + fileName + " (" + OFileUtils.getSizeAsString(length) + ")");
+            continue;
+          }
+
+          raf.setLength(length);
+
+          final byte[] header = new byte[(int) Math.min(OAbstractFile.HEADER_SIZE, length)];
+          din.readFully(header);
+          raf.seek(0);
+          raf.write(header);
+
+          final int pageSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * ONE_KB;
+          final byte[] page = new byte[pageSize];
+
+          final int pages = din.readInt();
+          for (int p = 0; p < pages; ++p) {
+            final long pageIndex = din.readLong();
+            din.readFully(page);
+
+            raf.seek(OAbstractFile.HEADER_SIZE + pageIndex * pageSize);
+            raf.write(page);
+          }
+
+          if (iListener != null && pages > 0)
+            iListener.onMessage("\n- " + fileName + " (" + pages + " pages)");
+        } finally {
+          raf.close();
+        }
+      }
+    } finally {
+      inflater.end();
+    }
+
+    for (String fileName : getStorageFiles())
+      if (!received.contains(fileName))
+        OFileUtils.delete(new File(getStoragePath(), fileName));
+
+    // THE WAL DOES NOT MATCH THE RECEIVED PAGES ANYMORE
+    deleteWalFiles();
+  }
+
+  private String getWalPath() {
+    final String walPath = OGlobalConfiguration.WAL_LOCATION.getValueAsString();
+    if (walPath == null)
+      return getStoragePath();
+
+    return walPath;
+  }
+
+  private void deleteWalFiles() throws IOException {
+    final File[] walFiles = new File(getWalPath()).listFiles();
+    if (walFiles != null)
+      for (File f : walFiles)
+        if ((f.getName().startsWith(name + ".") && ODiskWriteAheadLog.validateName(f.getName()))
+            || f.getName().equals(name + ODiskWriteAheadLog.MASTER_RECORD_EXTENSION))
+          OFileUtils.delete(f);
+  }
+
+  private static boolean isDeltaFile(final String fileName) {
+    if (fileName.endsWith(ODiskWriteAheadLog.WAL_SEGMENT_EXTENSION)
+        || fileName.endsWith(ODiskWriteAheadLog.MASTER_RECORD_EXTENSION))
+      return false;
+
+    for (String ext : ALL_FILE_EXTENSIONS)
+      if (fileName.endsWith(ext))
+        return true;
+
+    return false;
   }
 
   @Override
@@ -312,4 +969,13 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage implements
       return thread;
     }
   }
+
+  private static class BackupThreadFactory implements ThreadFactory {
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r);
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
 }
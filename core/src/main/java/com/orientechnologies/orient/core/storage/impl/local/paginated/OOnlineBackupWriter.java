@@ -0,0 +1,265 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.orientechnologies.common.concur.lock.OInterruptedException;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+
+/**
+ * Writes the stream of online backup of {@link OLocalPaginatedStorage}. The stream consists of entries, each entry is a header
+ * followed by blocks of content which are compressed independently of each other, so blocks are compressed in parallel by passed
+ * executor while the order of the stream is preserved.
+ *
+ * <p>
+ * Layout of the stream: magic number, LSN which incremental backup starts from or <code>false</code> for full backup, LSN which
+ * replay of the shipped WAL starts from, entries, {@link #END_ENTRY} and LSN of the WAL end which the backup is consistent with.
+ * Every entry is type, file name, file length and, for {@link #PAGES_ENTRY}, file header, for other entries position of the first
+ * copied byte, then blocks. Every block is length of compressed data, length of uncompressed data and compressed data, 0 length
+ * terminates the entry. Blocks of {@link #PAGES_ENTRY} are sequences of page indexes and pages, blocks of other entries are
+ * consecutive parts of the file starting from the position.
+ * </p>
+ */
+public class OOnlineBackupWriter {
+  public static final int        MAGIC_NUMBER = 0x4F4F4231;
+
+  public static final byte       END_ENTRY    = 0;
+  public static final byte       PAGES_ENTRY  = 1;
+  public static final byte       FILE_ENTRY   = 2;
+  public static final byte       WAL_ENTRY    = 3;
+
+  private final DataOutputStream out;
+  private final ExecutorService  executor;
+  private final int              compressionLevel;
+  private final int              maxPendingBlocks;
+
+  /**
+   * Parts of the stream in order they are written, either byte arrays or futures of compressed blocks.
+   */
+  private final Deque<Object>    pending      = new ArrayDeque<Object>();
+
+  public OOnlineBackupWriter(OutputStream out, ExecutorService executor, int threads, int compressionLevel) {
+    this.out = new DataOutputStream(out);
+    this.executor = executor;
+    this.compressionLevel = compressionLevel;
+    this.maxPendingBlocks = 2 * threads;
+  }
+
+  public void writeHeader(OLogSequenceNumber fromLsn, OLogSequenceNumber startLsn) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream header = new DataOutputStream(bytes);
+
+    header.writeInt(MAGIC_NUMBER);
+    header.writeBoolean(fromLsn != null);
+    if (fromLsn != null)
+      writeLsn(header, fromLsn);
+    writeLsn(header, startLsn);
+
+    header.flush();
+    add(bytes.toByteArray());
+  }
+
+  public void startEntry(byte type, String fileName, long length, long from, byte[] fileHeader) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream header = new DataOutputStream(bytes);
+
+    header.writeByte(type);
+    header.writeUTF(fileName);
+    header.writeLong(length);
+
+    if (type == PAGES_ENTRY) {
+      header.writeInt(fileHeader.length);
+      header.write(fileHeader);
+    } else
+      header.writeLong(from);
+
+    header.flush();
+    add(bytes.toByteArray());
+  }
+
+  /**
+   * Adds block of the current entry. Content of the block is produced and compressed by the executor, blocks with empty content
+   * are skipped.
+   */
+  public void addBlock(final Callable<byte[]> content) throws IOException {
+    add(executor.submit(new Callable<byte[]>() {
+      @Override
+      public byte[] call() throws Exception {
+        return compress(content.call());
+      }
+    }));
+  }
+
+  public void endEntry() throws IOException {
+    add(new byte[OIntegerSerializer.INT_SIZE]);
+  }
+
+  /**
+   * Writes the end of the stream and waits till all blocks are written.
+   */
+  public void finish(OLogSequenceNumber endLsn) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream trailer = new DataOutputStream(bytes);
+
+    trailer.writeByte(END_ENTRY);
+    writeLsn(trailer, endLsn);
+    trailer.flush();
+
+    add(bytes.toByteArray());
+
+    writePending(0);
+    out.flush();
+  }
+
+  /**
+   * Cancels blocks which are not written yet, is called if backup fails.
+   */
+  public void cancel() {
+    for (Object part : pending)
+      if (part instanceof Future)
+        ((Future<?>) part).cancel(true);
+
+    pending.clear();
+  }
+
+  public static OLogSequenceNumber readLsn(DataInputStream in) throws IOException {
+    final long segment = in.readLong();
+    final long position = in.readLong();
+
+    return new OLogSequenceNumber(segment, position);
+  }
+
+  /**
+   * Reads next block of the current entry.
+   *
+   * @return uncompressed content of the block, or null if the entry does not contain more blocks
+   */
+  public static byte[] readBlock(DataInputStream in) throws IOException {
+    final int compressedLength = in.readInt();
+    if (compressedLength == 0)
+      return null;
+
+    final int length = in.readInt();
+
+    final byte[] compressed = new byte[compressedLength];
+    in.readFully(compressed);
+
+    final byte[] content = new byte[length];
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(compressed);
+      int inflated = 0;
+      while (inflated < length && !inflater.finished())
+        inflated += inflater.inflate(content, inflated, length - inflated);
+
+      if (inflated < length)
+        throw new IOException("Backup block is truncated");
+    } catch (DataFormatException e) {
+      throw new IOException("Backup block is broken", e);
+    } finally {
+      inflater.end();
+    }
+
+    return content;
+  }
+
+  private static void writeLsn(DataOutputStream out, OLogSequenceNumber lsn) throws IOException {
+    out.writeLong(lsn.getSegment());
+    out.writeLong(lsn.getPosition());
+  }
+
+  private byte[] compress(byte[] content) throws IOException {
+    if (content == null || content.length == 0)
+      return null;
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream block = new DataOutputStream(bytes);
+    final byte[] buffer = new byte[64 * 1024];
+
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    final Deflater deflater = new Deflater(compressionLevel);
+    try {
+      deflater.setInput(content);
+      deflater.finish();
+
+      while (!deflater.finished()) {
+        final int deflated = deflater.deflate(buffer);
+        compressed.write(buffer, 0, deflated);
+      }
+    } finally {
+      deflater.end();
+    }
+
+    block.writeInt(compressed.size());
+    block.writeInt(content.length);
+    compressed.writeTo(block);
+    block.flush();
+
+    return bytes.toByteArray();
+  }
+
+  private void add(Object part) throws IOException {
+    pending.addLast(part);
+
+    if (pending.size() > maxPendingBlocks)
+      writePending(maxPendingBlocks);
+  }
+
+  private void writePending(int keep) throws IOException {
+    while (pending.size() > keep) {
+      final Object part = pending.removeFirst();
+
+      final byte[] bytes;
+      if (part instanceof Future)
+        try {
+          bytes = ((Future<byte[]>) part).get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new OInterruptedException(e);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException)
+            throw (IOException) e.getCause();
+
+          throw new OStorageException("Error during reading of pages for backup", e.getCause());
+        }
+      else
+        bytes = (byte[]) part;
+
+      if (bytes != null)
+        out.write(bytes);
+    }
+  }
+}
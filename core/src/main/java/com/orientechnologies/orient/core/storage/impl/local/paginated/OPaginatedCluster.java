@@ -101,6 +101,16 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
     }
   }
 
+  private static final class MoveEntryResult {
+    private final int     entrySize;
+    private final boolean pageFreed;
+
+    private MoveEntryResult(int entrySize, boolean pageFreed) {
+      this.entrySize = entrySize;
+      this.pageFreed = pageFreed;
+    }
+  }
+
   public OPaginatedCluster(String name, OAbstractPaginatedStorage storage) {
     super(storage, name, ".pcl");
     useCRC32 = OGlobalConfiguration.STORAGE_USE_CRC32_FOR_EACH_RECORD.getValueAsBoolean();
@@ -1197,6 +1207,62 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
     }
   }
 
+  /**
+   * Moves records out of sparsely filled pages into pages which are already filled better, so pages left after mass deletions
+   * become empty and are reused by next insertions. Cluster positions and versions of records are not changed, only the mapping
+   * between position and page is updated. Every record is moved in a separate atomic operation, so the cluster is available for
+   * other operations during compaction and compaction may be stopped by interruption of the current thread at any moment.
+   *
+   * @param minPageFill
+   *          records are moved only out of pages filled by less than this percent
+   * @param maxKbPerSecond
+   *          maximum amount of kilobytes of records moved per second, 0 means no limit
+   */
+  public OClusterCompactionResult compact(int minPageFill, int maxKbPerSecond) throws IOException {
+    final long startTime = System.currentTimeMillis();
+
+    long recordsMoved = 0;
+    long bytesMoved = 0;
+    long pagesFreed = 0;
+
+    OPhysicalPosition[] positions = ceilingPositions(new OPhysicalPosition(0));
+    compaction: while (positions.length > 0) {
+      for (OPhysicalPosition position : positions) {
+        if (Thread.currentThread().isInterrupted())
+          break compaction;
+
+        final MoveEntryResult moveEntryResult = moveEntry(position.clusterPosition, minPageFill);
+        if (moveEntryResult == null)
+          continue;
+
+        recordsMoved++;
+        bytesMoved += moveEntryResult.entrySize;
+        if (moveEntryResult.pageFreed)
+          pagesFreed++;
+
+        if (maxKbPerSecond > 0) {
+          final long delay = bytesMoved * 1000 / (maxKbPerSecond * (long) ONE_KB) - (System.currentTimeMillis() - startTime);
+          if (delay > 0) {
+            try {
+              Thread.sleep(delay);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              break compaction;
+            }
+          }
+        }
+      }
+
+      positions = higherPositions(positions[positions.length - 1]);
+    }
+
+    final OClusterCompactionResult result = new OClusterCompactionResult(recordsMoved, bytesMoved, pagesFreed);
+    OLogManager.instance().info(this, "Compaction of cluster %s moved %d records (%d bytes), %d pages were freed in %d ms",
+        getName(), recordsMoved, bytesMoved, pagesFreed, System.currentTimeMillis() - startTime);
+
+    return result;
+  }
+
   @Override
   public boolean isHashBased() {
     return false;
@@ -1473,8 +1539,11 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
 
   private AddEntryResult addEntry(ORecordVersion recordVersion, byte[] entryContent, OAtomicOperation atomicOperation)
       throws IOException {
-    final FindFreePageResult findFreePageResult = findFreePage(entryContent.length, atomicOperation);
+    return addEntry(recordVersion, entryContent, findFreePage(entryContent.length, atomicOperation), atomicOperation);
+  }
 
+  private AddEntryResult addEntry(ORecordVersion recordVersion, byte[] entryContent, FindFreePageResult findFreePageResult,
+      OAtomicOperation atomicOperation) throws IOException {
     int freePageIndex = findFreePageResult.freePageIndex;
     long pageIndex = findFreePageResult.pageIndex;
 
@@ -1512,6 +1581,112 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
     return new AddEntryResult(pageIndex, position, finalVersion, recordSizesDiff);
   }
 
+  private MoveEntryResult moveEntry(long clusterPosition, int minPageFill) throws IOException {
+    externalModificationLock.requestModificationLock();
+    try {
+      OAtomicOperation atomicOperation = startAtomicOperation();
+      acquireExclusiveLock();
+      try {
+        final OClusterPositionMapBucket.PositionEntry positionEntry = clusterPositionMap.get(clusterPosition);
+        if (positionEntry == null) {
+          endAtomicOperation(false);
+          return null;
+        }
+
+        final long pageIndex = positionEntry.getPageIndex();
+        final int recordPosition = positionEntry.getRecordPosition();
+
+        if (getFilledUpTo(atomicOperation, fileId) <= pageIndex) {
+          endAtomicOperation(false);
+          return null;
+        }
+
+        final byte[] content;
+        final ORecordVersion recordVersion;
+        final int sourceFreePageIndex;
+
+        OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, pageIndex, false);
+        try {
+          final OClusterPage localPage = new OClusterPage(cacheEntry, false, getChangesTree(atomicOperation, cacheEntry));
+          final int pageFill = (int) ((OClusterPage.PAGE_SIZE - localPage.getFreeSpace()) * 100L / OClusterPage.PAGE_SIZE);
+
+          if (localPage.isDeleted(recordPosition) || pageFill >= minPageFill) {
+            endAtomicOperation(false);
+            return null;
+          }
+
+          content = localPage.getRecordBinaryValue(recordPosition, 0, localPage.getRecordSize(recordPosition));
+          recordVersion = localPage.getRecordVersion(recordPosition);
+          sourceFreePageIndex = calculateFreePageIndex(localPage);
+        } finally {
+          releasePage(atomicOperation, cacheEntry);
+        }
+
+        // ONLY RECORDS STORED IN A SINGLE CHUNK ARE MOVED, SO POINTERS BETWEEN CHUNKS NEVER CHANGE
+        if (content[content.length - OLongSerializer.LONG_SIZE - OByteSerializer.BYTE_SIZE] == 0
+            || OLongSerializer.INSTANCE.deserializeNative(content, content.length - OLongSerializer.LONG_SIZE) >= 0) {
+          endAtomicOperation(false);
+          return null;
+        }
+
+        // RECORD IS MOVED ONLY INTO A PAGE WHICH IS ALREADY FILLED BETTER, NEVER INTO AN EMPTY OR A NEW ONE
+        final FindFreePageResult findFreePageResult = findFreePage(content.length, atomicOperation);
+        if (findFreePageResult.pageIndex == pageIndex || findFreePageResult.freePageIndex >= sourceFreePageIndex) {
+          endAtomicOperation(false);
+          return null;
+        }
+
+        final AddEntryResult addEntryResult = addEntry(recordVersion, content, findFreePageResult, atomicOperation);
+        if (!addEntryResult.recordVersion.equals(recordVersion)) {
+          cacheEntry = loadPage(atomicOperation, fileId, addEntryResult.pageIndex, false);
+          cacheEntry.acquireExclusiveLock();
+          try {
+            final OClusterPage localPage = new OClusterPage(cacheEntry, false, getChangesTree(atomicOperation, cacheEntry));
+            localPage.setRecordVersion(addEntryResult.pagePosition, recordVersion);
+          } finally {
+            cacheEntry.releaseExclusiveLock();
+            releasePage(atomicOperation, cacheEntry);
+          }
+        }
+
+        final int initialFreePageIndex;
+        final int removedContentSize;
+        final boolean pageFreed;
+
+        cacheEntry = loadPage(atomicOperation, fileId, pageIndex, false);
+        cacheEntry.acquireExclusiveLock();
+        try {
+          final OClusterPage localPage = new OClusterPage(cacheEntry, false, getChangesTree(atomicOperation, cacheEntry));
+          initialFreePageIndex = calculateFreePageIndex(localPage);
+
+          final int initialFreeSpace = localPage.getFreeSpace();
+          localPage.deleteRecord(recordPosition);
+
+          removedContentSize = localPage.getFreeSpace() - initialFreeSpace;
+          pageFreed = localPage.getRecordsCount() == 0;
+        } finally {
+          cacheEntry.releaseExclusiveLock();
+          releasePage(atomicOperation, cacheEntry);
+        }
+
+        updateFreePagesIndex(initialFreePageIndex, pageIndex, atomicOperation);
+        updateClusterState(0, addEntryResult.recordsSizeDiff - removedContentSize, atomicOperation);
+
+        clusterPositionMap.update(clusterPosition, addEntryResult.pageIndex, addEntryResult.pagePosition);
+        endAtomicOperation(false);
+
+        return new MoveEntryResult(content.length, pageFreed);
+      } catch (Throwable e) {
+        endAtomicOperation(true);
+        throw new OStorageException(null, e);
+      } finally {
+        releaseExclusiveLock();
+      }
+    } finally {
+      externalModificationLock.releaseModificationLock();
+    }
+  }
+
   private FindFreePageResult findFreePage(int contentSize, OAtomicOperation atomicOperation) throws IOException {
     final OCacheEntry pinnedStateEntry = loadPage(atomicOperation, fileId, pinnedStateEntryIndex, true);
     try {
@@ -45,6 +45,7 @@ public class OAtomicOperation {
   private final int                storageId;
   private final OLogSequenceNumber startLSN;
   private final OOperationUnitId   operationUnitId;
+  private OLogSequenceNumber       endLSN;
 
   private int                      startCounter;
   private boolean                  rollback;
@@ -75,6 +76,17 @@ public class OAtomicOperation {
     return operationUnitId;
   }
 
+  /**
+   * @return LSN of the record which marks the end of atomic operation, or null if operation is not completed yet.
+   */
+  public OLogSequenceNumber getEndLSN() {
+    return endLSN;
+  }
+
+  void setEndLSN(OLogSequenceNumber endLSN) {
+    this.endLSN = endLSN;
+  }
+
   public OCacheEntry loadPage(long fileId, long pageIndex, boolean checkPinnedPages) throws IOException {
     fileId = checkFileIdCompatibilty(fileId, storageId);
 
@@ -33,6 +33,10 @@ import com.sun.org.apache.xpath.internal.operations.*;
 
 import java.io.IOException;
 import java.lang.String;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author Andrey Lomakin (a.lomakin-at-orientechnologies.com)
@@ -135,7 +139,8 @@ public class OAtomicOperationsManager {
       if (!operation.isRollback())
         operation.commitChanges(writeAheadLog);
 
-      writeAheadLog.logAtomicOperationEndRecord(operation.getOperationUnitId(), rollback, operation.getStartLSN());
+      operation.setEndLSN(writeAheadLog.logAtomicOperationEndRecord(operation.getOperationUnitId(), rollback,
+          operation.getStartLSN()));
       currentOperation.set(null);
 
       for (String lockObject : operation.lockedObjects())
@@ -145,7 +150,47 @@ public class OAtomicOperationsManager {
     return operation;
   }
 
+  /**
+   * Acquires exclusive locks on passed in components till the end of current atomic operation. Locks are acquired in order of
+   * component names, so two operations which lock intersecting sets of components by this method can not deadlock each other.
+   *
+   * @param fullNames
+   *          Full names of durable components to lock.
+   */
+  public void acquireExclusiveLocksTillOperationComplete(Collection<String> fullNames) {
+    if (writeAheadLog == null)
+      return;
+
+    final List<String> sortedNames = new ArrayList<String>(fullNames);
+    Collections.sort(sortedNames);
+
+    for (String fullName : sortedNames)
+      acquireExclusiveLockTillOperationComplete(fullName);
+  }
+
+  /**
+   * Acquires exclusive lock on passed in component till the end of current atomic operation. It is used for components which are
+   * locked out of order, so timeout is used instead of infinite wait to break possible deadlock.
+   *
+   * @param durableComponent
+   *          Component to lock.
+   * @param timeout
+   *          Maximum time to wait for the lock in milliseconds.
+   */
+  public void acquireExclusiveLockTillOperationComplete(ODurableComponent durableComponent, long timeout) {
+    if (writeAheadLog == null)
+      return;
+
+    assert durableComponent.getFullName() != null;
+
+    acquireExclusiveLockTillOperationComplete(durableComponent.getFullName(), timeout);
+  }
+
   private void acquireExclusiveLockTillOperationComplete(String fullName) {
+    acquireExclusiveLockTillOperationComplete(fullName, -1);
+  }
+
+  private void acquireExclusiveLockTillOperationComplete(String fullName, long timeout) {
     final OAtomicOperation operation = currentOperation.get();
     if (operation == null)
       return;
@@ -153,7 +198,7 @@ public class OAtomicOperationsManager {
     if (operation.containsInLockedObjects(fullName))
       return;
 
-    lockManager.acquireLock(this, fullName, OLockManager.LOCK.EXCLUSIVE);
+    lockManager.acquireLock(this, fullName, OLockManager.LOCK.EXCLUSIVE, timeout);
     operation.addLockedObject(fullName);
   }
 
@@ -25,6 +25,7 @@ import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OByteSerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.common.serialization.types.OShortSerializer;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OCacheEntry;
 import com.orientechnologies.orient.core.index.hashindex.local.cache.OCachePointer;
@@ -94,6 +95,13 @@ public class ODurablePage {
     return new OLogSequenceNumber(segment, position);
   }
 
+  protected short getShortValue(int pageOffset) {
+    if (changesTree == null)
+      return OShortSerializer.INSTANCE.deserializeFromDirectMemory(pagePointer, pageOffset + PAGE_PADDING);
+
+    return OShortSerializer.INSTANCE.deserializeFromDirectMemory(changesTree.wrap(pagePointer), pageOffset + PAGE_PADDING);
+  }
+
   protected int getIntValue(int pageOffset) {
     if (changesTree == null)
       return OIntegerSerializer.INSTANCE.deserializeFromDirectMemory(pagePointer, pageOffset + PAGE_PADDING);
@@ -115,6 +123,15 @@ public class ODurablePage {
     return changesTree.getBinaryValue(pagePointer, pageOffset + PAGE_PADDING, valLen);
   }
 
+  protected void getBinaryValue(int pageOffset, byte[] buffer, int bufferOffset, int valLen) {
+    if (changesTree == null) {
+      pagePointer.get(pageOffset + PAGE_PADDING, buffer, bufferOffset, valLen);
+      return;
+    }
+
+    System.arraycopy(changesTree.getBinaryValue(pagePointer, pageOffset + PAGE_PADDING, valLen), 0, buffer, bufferOffset, valLen);
+  }
+
   protected int getObjectSizeInDirectMemory(OBinarySerializer binarySerializer, long offset) {
     if (changesTree == null)
       return binarySerializer.getObjectSizeInDirectMemory(pagePointer, offset + PAGE_PADDING);
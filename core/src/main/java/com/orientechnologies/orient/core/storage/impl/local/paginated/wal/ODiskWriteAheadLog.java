@@ -24,9 +24,15 @@ import com.orientechnologies.common.concur.lock.OInterruptedException;
 import com.orientechnologies.common.directmemory.ODirectMemoryPointer;
 import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.OAbstractProfiler.OProfilerHookValue;
+import com.orientechnologies.common.profiler.OProfilerChrono;
+import com.orientechnologies.common.profiler.OProfilerCounter;
+import com.orientechnologies.common.profiler.OProfilerMBean;
+import com.orientechnologies.common.profiler.OProfilerMBean.METRIC_TYPE;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.storage.impl.local.OFullCheckpointRequestListener;
@@ -45,10 +51,17 @@ import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.CRC32;
@@ -80,11 +93,25 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
   private OLogSequenceNumber                                        firstMasterRecord;
   private OLogSequenceNumber                                        secondMasterRecord;
   private volatile OLogSequenceNumber                               flushedLsn;
+  private volatile OLogSequenceNumber                               syncedLsn;
+  private volatile OLogSequenceNumber                               cutTillLimit;
 
   private boolean                                                   segmentCreationFlag     = false;
   private final Condition                                           segmentCreationComplete = syncObject.newCondition();
 
   private final Set<OOperationUnitId>                               activeOperations        = new HashSet<OOperationUnitId>();
+
+  private final int                                                 groupCommitWindow;
+  private final Lock                                                groupCommitLock         = new ReentrantLock();
+  private final Condition                                           lsnSynced               = groupCommitLock.newCondition();
+  private final AtomicBoolean                                       groupFlushScheduled     = new AtomicBoolean();
+  private final AtomicInteger                                       pendingCommits          = new AtomicInteger();
+  private final AtomicLongArray                                     groupCommitBatches      = new AtomicLongArray(16);
+  private final String                                              groupCommitMetric;
+  private final OProfilerChrono                                     flushChrono;
+  private final OProfilerChrono                                     groupCommitWaitChrono;
+  private final OProfilerCounter                                    groupCommitFlushes;
+  private final OProfilerCounter                                    groupCommitTransactions;
   private final List<WeakReference<OLowDiskSpaceListener>>          lowDiskSpaceListeners   = Collections
                                                                                                 .synchronizedList(new ArrayList<WeakReference<OLowDiskSpaceListener>>());
   private final List<WeakReference<OFullCheckpointRequestListener>> fullCheckpointListeners = Collections
@@ -126,18 +153,20 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
       @Override
       public void run() {
         try {
-          commit();
+          commit(false);
         } catch (Throwable e) {
           OLogManager.instance().error(this, "Error during WAL background flush", e);
         }
       }
 
-      private void commit() throws IOException {
-        if (pagesCache.isEmpty())
-          return;
+      private void commit(boolean forceSync) throws IOException {
+        if (pagesCache.isEmpty() || !flushNewData) {
+          if (forceSync)
+            // DATA MAY HAVE BEEN WRITTEN BY A FLUSH WITHOUT SYNC
+            syncFlushedData();
 
-        if (!flushNewData)
           return;
+        }
 
         flushNewData = false;
 
@@ -185,6 +214,9 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
           flushedPages++;
         }
 
+        final boolean synced = forceSync || OGlobalConfiguration.WAL_SYNC_ON_PAGE_FLUSH.getValueAsBoolean();
+
+        final long timer = flushChrono.start();
         synchronized (rndFile) {
           rndFile.seek(filePointer);
           for (int i = 0; i < pagesToFlush.length; i++) {
@@ -197,15 +229,19 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
             filePointer += OWALPage.PAGE_SIZE;
           }
 
-          if (OGlobalConfiguration.WAL_SYNC_ON_PAGE_FLUSH.getValueAsBoolean())
+          if (synced)
             rndFile.getFD().sync();
         }
+        flushChrono.stop(timer);
 
         nextPositionToFlush = filePointer - OWALPage.PAGE_SIZE;
 
         if (lastLSNToFlush != null)
           flushedLsn = lastLSNToFlush;
 
+        if (synced)
+          updateSyncedLsn(flushedLsn);
+
         for (int i = 0; i < flushedPages - 1; i++) {
           OWALPage page = pagesCache.poll();
           page.getPagePointer().free();
@@ -224,6 +260,15 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
         }
       }
 
+      private void syncFlushedData() throws IOException {
+        final OLogSequenceNumber flushed = flushedLsn;
+        if (flushed == null || isSynced(flushed))
+          return;
+
+        sync();
+        updateSyncedLsn(flushed);
+      }
+
       private void flushPage(byte[] content) throws IOException {
         CRC32 crc32 = new CRC32();
         crc32.update(content, OIntegerSerializer.INT_SIZE, OWALPage.PAGE_SIZE - OIntegerSerializer.INT_SIZE);
@@ -233,6 +278,28 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
       }
     }
 
+    private final class GroupFlushTask implements Runnable {
+      @Override
+      public void run() {
+        try {
+          // GIVE CONCURRENT TRANSACTIONS CHANCE TO JOIN THE GROUP
+          if (groupCommitWindow > 0)
+            LockSupport.parkNanos(groupCommitWindow * 1000L);
+
+          // TRANSACTIONS WHICH COME AFTER THIS POINT SCHEDULE NEXT FLUSH
+          groupFlushScheduled.set(false);
+          final int batchSize = pendingCommits.getAndSet(0);
+
+          new FlushTask().commit(true);
+
+          if (batchSize > 0)
+            registerGroupCommit(batchSize);
+        } catch (Throwable e) {
+          OLogManager.instance().error(this, "Error during WAL group commit", e);
+        }
+      }
+    }
+
     private LogSegment(File file, int maxPagesCacheSize) throws IOException {
       this.file = file;
       this.maxPagesCacheSize = maxPagesCacheSize;
@@ -268,6 +335,15 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
       return order;
     }
 
+    /**
+     * Forces data already written to the segment file to the storage device.
+     */
+    public void sync() throws IOException {
+      synchronized (rndFile) {
+        rndFile.getFD().sync();
+      }
+    }
+
     public void init() throws IOException {
       selfCheck();
 
@@ -326,7 +402,6 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     }
 
     public OLogSequenceNumber logRecord(byte[] record) throws IOException {
-      flushNewData = true;
       int pageOffset = (int) (filledUpTo % OWALPage.PAGE_SIZE);
       long pageIndex = filledUpTo / OWALPage.PAGE_SIZE;
 
@@ -387,6 +462,10 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
         }
       }
 
+      // FLAG IS SET ONLY WHEN RECORD IS COMPLETELY WRITTEN, OTHERWISE CONCURRENT FLUSH MAY RESET IT BEFORE LAST CHUNKS OF RECORD
+      // ARE ADDED AND THEY WILL NOT BE FLUSHED ON SEGMENT CLOSE
+      flushNewData = true;
+
       if (pagesCache.size() > maxPagesCacheSize) {
         OLogManager.instance().info(this, "Max cache limit is reached (%d vs. %d), sync flush is performed.", maxPagesCacheSize,
             pagesCache.size());
@@ -539,6 +618,19 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
       }
     }
 
+    public boolean scheduleGroupFlush() {
+      if (commitExecutor.isShutdown())
+        return false;
+
+      try {
+        commitExecutor.submit(new GroupFlushTask());
+        return true;
+      } catch (RejectedExecutionException e) {
+        // SEGMENT IS CLOSED, ITS CONTENT IS ALREADY FLUSHED
+        return false;
+      }
+    }
+
     private void initPageCache() throws IOException {
       synchronized (rndFile) {
         long pagesCount = rndFile.length() / OWALPage.PAGE_SIZE;
@@ -654,6 +746,18 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     this.commitDelay = commitDelay;
     this.maxSegmentSize = maxSegmentSize;
     this.storage = storage;
+    this.groupCommitWindow = OGlobalConfiguration.WAL_GROUP_COMMIT_WINDOW.getValueAsInteger();
+    this.groupCommitMetric = "db." + storage.getName() + ".wal.groupCommit";
+
+    final OProfilerMBean profiler = Orient.instance().getProfiler();
+    this.flushChrono = profiler.registerChrono("db." + storage.getName() + ".wal.flush", "Time to write WAL pages on disk",
+        "db.*.wal.flush");
+    this.groupCommitWaitChrono = profiler.registerChrono(groupCommitMetric + ".wait",
+        "Time spent by transaction waiting for WAL group commit", "db.*.wal.groupCommit.wait");
+    this.groupCommitFlushes = profiler.registerCounter(groupCommitMetric + ".flushes", "Number of WAL group commits",
+        "db.*.wal.groupCommit.flushes");
+    this.groupCommitTransactions = profiler.registerCounter(groupCommitMetric + ".transactions",
+        "Number of transactions committed by WAL group commits", "db.*.wal.groupCommit.transactions");
 
     try {
       this.walLocation = new File(calculateWalPath(this.storage));
@@ -678,6 +782,7 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
         logSize = 0;
 
         flushedLsn = null;
+        syncedLsn = null;
       } else {
 
         logSize = 0;
@@ -694,6 +799,7 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
 
         logSegments.get(logSegments.size() - 1).startFlush();
         flushedLsn = readFlushedLSN();
+        syncedLsn = flushedLsn;
       }
 
       masterRecordFile = new File(walLocation, this.storage.getName() + MASTER_RECORD_EXTENSION);
@@ -722,6 +828,14 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
 
       fixMasterRecords();
 
+      Orient.instance().getProfiler().registerHookValue(groupCommitMetric + ".batchSizes",
+          "Histogram of amount of transactions committed by single WAL group commit", METRIC_TYPE.TEXT, new OProfilerHookValue() {
+            @Override
+            public Object getValue() {
+              return getGroupCommitBatchHistogram();
+            }
+          }, "db.*.wal.groupCommit.batchSizes");
+
     } catch (FileNotFoundException e) {
       // never happened
       OLogManager.instance().error(this, "Error during file initialization for storage %s", e, this.storage.getName());
@@ -810,6 +924,113 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     }
   }
 
+  @Override
+  public void flushTill(OLogSequenceNumber lsn) {
+    if (isSynced(lsn))
+      return;
+
+    final long timer = groupCommitWaitChrono.start();
+
+    pendingCommits.incrementAndGet();
+    try {
+      while (!isSynced(lsn)) {
+        scheduleGroupFlush();
+
+        groupCommitLock.lock();
+        try {
+          if (!isSynced(lsn))
+            lsnSynced.await(100, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new OInterruptedException(e);
+        } finally {
+          groupCommitLock.unlock();
+        }
+      }
+    } finally {
+      groupCommitWaitChrono.stop(timer);
+    }
+  }
+
+  private boolean isSynced(OLogSequenceNumber lsn) {
+    final OLogSequenceNumber synced = syncedLsn;
+    return synced != null && synced.compareTo(lsn) >= 0;
+  }
+
+  private void scheduleGroupFlush() {
+    if (!groupFlushScheduled.compareAndSet(false, true))
+      return;
+
+    final LogSegment last;
+    syncObject.lock();
+    try {
+      checkForClose();
+
+      last = logSegments.get(logSegments.size() - 1);
+    } catch (RuntimeException e) {
+      groupFlushScheduled.set(false);
+      throw e;
+    } finally {
+      syncObject.unlock();
+    }
+
+    if (!last.scheduleGroupFlush())
+      groupFlushScheduled.set(false);
+  }
+
+  /**
+   * Records that all the records till passed LSN are forced to the storage device and wakes up transactions waiting for them.
+   */
+  private void updateSyncedLsn(OLogSequenceNumber lsn) {
+    if (lsn == null || isSynced(lsn))
+      return;
+
+    groupCommitLock.lock();
+    try {
+      if (!isSynced(lsn))
+        syncedLsn = lsn;
+
+      lsnSynced.signalAll();
+    } finally {
+      groupCommitLock.unlock();
+    }
+  }
+
+  private void registerGroupCommit(int batchSize) {
+    final int bucket = Math.min(31 - Integer.numberOfLeadingZeros(batchSize), groupCommitBatches.length() - 1);
+    groupCommitBatches.incrementAndGet(bucket);
+
+    groupCommitFlushes.increment();
+    groupCommitTransactions.add(batchSize);
+  }
+
+  /**
+   * @return Histogram of WAL group commit sizes, amount of group commits for each power of two range of transactions in group.
+   */
+  public String getGroupCommitBatchHistogram() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < groupCommitBatches.length(); i++) {
+      final long count = groupCommitBatches.get(i);
+      if (count == 0)
+        continue;
+
+      if (builder.length() > 0)
+        builder.append(", ");
+
+      final int from = 1 << i;
+      if (i == groupCommitBatches.length() - 1)
+        builder.append(from).append('+');
+      else if (i == 0)
+        builder.append(from);
+      else
+        builder.append(from).append('-').append((1 << (i + 1)) - 1);
+
+      builder.append(": ").append(count);
+    }
+
+    return builder.toString();
+  }
+
   @Override
   public OLogSequenceNumber logAtomicOperationStartRecord(boolean isRollbackSupported, OOperationUnitId unitId) throws IOException {
     syncObject.lock();
@@ -888,6 +1109,10 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
             || (!(record instanceof OOperationUnitRecord) && activeOperations.isEmpty())) {
           last.stopFlush(true);
 
+          // TRANSACTIONS WAITING FOR GROUP COMMIT ARE SYNCED BY FLUSHES OF THE NEW SEGMENT ONLY
+          last.sync();
+          updateSyncedLsn(flushedLsn);
+
           last = new LogSegment(new File(walLocation, getSegmentName(last.getOrder() + 1)), maxPagesCacheSize);
           last.init();
           last.startFlush();
@@ -937,6 +1162,32 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     return result;
   }
 
+  /**
+   * Returns the paths of the segments which contain records starting from the passed LSN.
+   */
+  public List<String> getWalFiles(OLogSequenceNumber lsn) {
+    final ArrayList<String> result = new ArrayList<String>();
+    syncObject.lock();
+    try {
+      for (LogSegment segment : logSegments) {
+        if (segment.getOrder() >= lsn.getSegment())
+          result.add(segment.getPath());
+      }
+    } finally {
+      syncObject.unlock();
+    }
+
+    return result;
+  }
+
+  /**
+   * Prevents removal of the segments which contain records starting from the passed LSN by {@link #cutTill(OLogSequenceNumber)},
+   * for example while they are copied by online backup. <code>null</code> removes the limit.
+   */
+  public void preventCutTill(OLogSequenceNumber lsn) {
+    cutTillLimit = lsn;
+  }
+
   public String getWMRFile() {
     syncObject.lock();
     try {
@@ -981,6 +1232,9 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
         logSegment.close(flush);
 
       masterRecordLSNHolder.close();
+
+      if (Orient.instance().getProfiler() != null)
+        Orient.instance().getProfiler().unregisterHookValue(groupCommitMetric + ".batchSizes");
     } finally {
       syncObject.unlock();
     }
@@ -1075,6 +1329,14 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     return flushedLsn;
   }
 
+  /**
+   * @return LSN of the last record which is flushed and synced on disk, flushed records may stay in OS cache if sync on page flush
+   *         is switched off.
+   */
+  public OLogSequenceNumber getSyncedLSN() {
+    return syncedLsn;
+  }
+
   public void cutTill(OLogSequenceNumber lsn) throws IOException {
     syncObject.lock();
     try {
@@ -1082,6 +1344,10 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
 
       flush();
 
+      final OLogSequenceNumber limit = cutTillLimit;
+      if (limit != null && limit.compareTo(lsn) < 0)
+        lsn = limit;
+
       int lastTruncateIndex = -1;
 
       for (int i = 0; i < logSegments.size() - 1; i++) {
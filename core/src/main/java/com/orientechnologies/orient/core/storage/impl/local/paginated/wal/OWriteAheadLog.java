@@ -46,6 +46,12 @@ public interface OWriteAheadLog {
 
   void flush();
 
+  /**
+   * Makes sure that all records till passed in LSN are written and synced on disk. Threads which call this method concurrently are
+   * served by single flush.
+   */
+  void flushTill(OLogSequenceNumber lsn);
+
   OLogSequenceNumber logAtomicOperationStartRecord(boolean isRollbackSupported, OOperationUnitId unitId) throws IOException;
 
   OLogSequenceNumber logAtomicOperationEndRecord(OOperationUnitId operationUnitId, boolean rollback, OLogSequenceNumber startLsn) throws IOException;
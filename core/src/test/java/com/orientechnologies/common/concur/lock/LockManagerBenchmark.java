@@ -0,0 +1,164 @@
+package com.orientechnologies.common.concur.lock;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+
+/**
+ * Compares throughput of record lock managers under contention: threads lock random records of a small set with 80% of shared and
+ * 20% of exclusive locks. Lock managers copy ids of locked records the same way as storage does.
+ */
+@Test(enabled = false)
+public class LockManagerBenchmark {
+  private static final int      THREADS         = 8;
+  private static final int      RECORDS         = 1024;
+  private static final int      DURATION        = 20 * 1000;
+
+  private final ORecordId[]     rids            = new ORecordId[RECORDS];
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+  private volatile boolean      stop;
+  private volatile long         c               = 47;
+
+  public LockManagerBenchmark() {
+    for (int i = 0; i < RECORDS; i++)
+      rids[i] = new ORecordId(9, i);
+  }
+
+  public void benchmarkLockManager() throws Exception {
+    final OLockManager<ORecordId, Object> lockManager = new OLockManager<ORecordId, Object>(true, -1) {
+      @Override
+      protected ORecordId getImmutableResourceId(ORecordId iResourceId) {
+        return new ORecordId(iResourceId);
+      }
+    };
+
+    run("OLockManager", new RecordLocker() {
+      @Override
+      public void lock(ORecordId rid, boolean exclusive) {
+        lockManager.acquireLock(this, rid, exclusive ? OLockManager.LOCK.EXCLUSIVE : OLockManager.LOCK.SHARED);
+      }
+
+      @Override
+      public void unlock(ORecordId rid, boolean exclusive) {
+        lockManager.releaseLock(this, rid, exclusive ? OLockManager.LOCK.EXCLUSIVE : OLockManager.LOCK.SHARED);
+      }
+    });
+  }
+
+  public void benchmarkNewLockManager() throws Exception {
+    final ONewLockManager<ORecordId> lockManager = new ONewLockManager<ORecordId>();
+
+    run("ONewLockManager", new RecordLocker() {
+      @Override
+      public void lock(ORecordId rid, boolean exclusive) {
+        if (exclusive)
+          lockManager.acquireExclusiveLock(rid);
+        else
+          lockManager.acquireSharedLock(rid);
+      }
+
+      @Override
+      public void unlock(ORecordId rid, boolean exclusive) {
+        if (exclusive)
+          lockManager.releaseExclusiveLock(rid);
+        else
+          lockManager.releaseSharedLock(rid);
+      }
+    });
+  }
+
+  public void benchmarkStripedLockManager() throws Exception {
+    final OStripedLockManager<ORecordId, Object> lockManager = new OStripedLockManager<ORecordId, Object>(true, -1) {
+      @Override
+      protected ORecordId getImmutableResourceId(ORecordId iResourceId, ORecordId reusable) {
+        if (reusable == null)
+          return new ORecordId(iResourceId);
+
+        reusable.clusterId = iResourceId.clusterId;
+        reusable.clusterPosition = iResourceId.clusterPosition;
+        return reusable;
+      }
+    };
+
+    run("OStripedLockManager", new RecordLocker() {
+      @Override
+      public void lock(ORecordId rid, boolean exclusive) {
+        lockManager.acquireLock(this, rid, exclusive ? OLockManager.LOCK.EXCLUSIVE : OLockManager.LOCK.SHARED);
+      }
+
+      @Override
+      public void unlock(ORecordId rid, boolean exclusive) {
+        lockManager.releaseLock(this, rid, exclusive ? OLockManager.LOCK.EXCLUSIVE : OLockManager.LOCK.SHARED);
+      }
+    });
+  }
+
+  private void run(final String name, final RecordLocker locker) throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicLong operations = new AtomicLong();
+    stop = false;
+
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+    for (int i = 0; i < THREADS; i++)
+      futures.add(executorService.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final Random random = new Random();
+          long count = 0;
+
+          latch.await();
+
+          while (!stop) {
+            final ORecordId rid = rids[random.nextInt(RECORDS)];
+            final boolean exclusive = random.nextInt(10) < 2;
+
+            locker.lock(rid, exclusive);
+            try {
+              consumeCPU(100);
+            } finally {
+              locker.unlock(rid, exclusive);
+            }
+
+            count++;
+          }
+
+          operations.addAndGet(count);
+          return null;
+        }
+      }));
+
+    latch.countDown();
+    Thread.sleep(DURATION);
+    stop = true;
+
+    for (Future<Void> future : futures)
+      future.get();
+
+    System.out.println(name + " : " + (operations.get() * 1000 / DURATION) + " lock/unlock operations per second.");
+  }
+
+  private interface RecordLocker {
+    void lock(ORecordId rid, boolean exclusive);
+
+    void unlock(ORecordId rid, boolean exclusive);
+  }
+
+  private void consumeCPU(int cycles) {
+    long c1 = c;
+    for (int i = 0; i < cycles; i++) {
+      c1 += c1 * 31 + i * 51;
+    }
+    c = c1;
+  }
+}
@@ -0,0 +1,140 @@
+package com.orientechnologies.common.concur.lock;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+
+@Test
+public class OStripedLockManagerTest {
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+  public void testReentrantLocks() {
+    final OStripedLockManager<Integer, Object> lockManager = new OStripedLockManager<Integer, Object>(true, -1, 1);
+
+    lockManager.acquireLock(this, 1, OLockManager.LOCK.EXCLUSIVE);
+    lockManager.acquireLock(this, 1, OLockManager.LOCK.EXCLUSIVE);
+    lockManager.acquireLock(this, 1, OLockManager.LOCK.SHARED);
+    lockManager.acquireLock(this, 2, OLockManager.LOCK.SHARED);
+    Assert.assertEquals(lockManager.getCountCurrentLocks(), 2);
+
+    lockManager.releaseLock(this, 1, OLockManager.LOCK.SHARED);
+    lockManager.releaseLock(this, 1, OLockManager.LOCK.EXCLUSIVE);
+    Assert.assertEquals(lockManager.getCountCurrentLocks(), 2);
+
+    lockManager.releaseLock(this, 1, OLockManager.LOCK.EXCLUSIVE);
+    lockManager.releaseLock(this, 2, OLockManager.LOCK.SHARED);
+    Assert.assertEquals(lockManager.getCountCurrentLocks(), 0);
+  }
+
+  public void testResourcesOfSameStripeAreIndependent() throws Exception {
+    final OStripedLockManager<Integer, Object> lockManager = new OStripedLockManager<Integer, Object>(true, -1, 1);
+
+    lockManager.acquireLock(this, 1, OLockManager.LOCK.EXCLUSIVE);
+    try {
+      final Future<Void> future = executorService.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          lockManager.acquireLock(this, 2, OLockManager.LOCK.EXCLUSIVE, 1000);
+          lockManager.releaseLock(this, 2, OLockManager.LOCK.EXCLUSIVE);
+          return null;
+        }
+      });
+
+      future.get(10, TimeUnit.SECONDS);
+    } finally {
+      lockManager.releaseLock(this, 1, OLockManager.LOCK.EXCLUSIVE);
+    }
+  }
+
+  public void testExclusiveLockWaitsForSharedLocks() throws Exception {
+    final OStripedLockManager<Integer, Object> lockManager = new OStripedLockManager<Integer, Object>(true, -1);
+
+    lockManager.acquireLock(this, 1, OLockManager.LOCK.SHARED);
+
+    final Future<Boolean> timedOut = executorService.submit(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        try {
+          lockManager.acquireLock(this, 1, OLockManager.LOCK.EXCLUSIVE, 100);
+          return false;
+        } catch (OLockException e) {
+          return true;
+        }
+      }
+    });
+    Assert.assertTrue(timedOut.get());
+    Assert.assertEquals(lockManager.getCountCurrentLocks(), 1);
+
+    final Future<Void> acquired = executorService.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        lockManager.acquireLock(this, 1, OLockManager.LOCK.EXCLUSIVE);
+        lockManager.releaseLock(this, 1, OLockManager.LOCK.EXCLUSIVE);
+        return null;
+      }
+    });
+
+    Thread.sleep(100);
+    Assert.assertFalse(acquired.isDone());
+
+    lockManager.releaseLock(this, 1, OLockManager.LOCK.SHARED);
+    acquired.get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(lockManager.getCountCurrentLocks(), 0);
+  }
+
+  public void testReleasedIdIsReused() throws Exception {
+    final AtomicInteger copies = new AtomicInteger();
+    final OStripedLockManager<ORID, Object> lockManager = new OStripedLockManager<ORID, Object>(true, -1, 1) {
+      @Override
+      protected ORID getImmutableResourceId(ORID iResourceId, ORID reusable) {
+        if (reusable == null) {
+          copies.incrementAndGet();
+          return new ORecordId(iResourceId);
+        }
+
+        final ORecordId rid = (ORecordId) reusable;
+        rid.clusterId = iResourceId.getClusterId();
+        rid.clusterPosition = iResourceId.getClusterPosition();
+        return rid;
+      }
+    };
+
+    final ORecordId first = new ORecordId(1, 1);
+    final ORecordId second = new ORecordId(1, 2);
+
+    lockManager.acquireLock(this, first, OLockManager.LOCK.EXCLUSIVE);
+    lockManager.releaseLock(this, first, OLockManager.LOCK.EXCLUSIVE);
+
+    lockManager.acquireLock(this, second, OLockManager.LOCK.EXCLUSIVE);
+    Assert.assertEquals(copies.get(), 1);
+    Assert.assertEquals(first, new ORecordId(1, 1));
+
+    final Future<Void> future = executorService.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        lockManager.acquireLock(this, new ORecordId(1, 1), OLockManager.LOCK.EXCLUSIVE, 1000);
+        lockManager.releaseLock(this, new ORecordId(1, 1), OLockManager.LOCK.EXCLUSIVE);
+        return null;
+      }
+    });
+    future.get(10, TimeUnit.SECONDS);
+
+    lockManager.releaseLock(this, new ORecordId(1, 2), OLockManager.LOCK.EXCLUSIVE);
+    Assert.assertEquals(lockManager.getCountCurrentLocks(), 0);
+  }
+
+  @Test(expectedExceptions = OLockException.class)
+  public void testReleaseOfNotAcquiredLock() {
+    final OStripedLockManager<Integer, Object> lockManager = new OStripedLockManager<Integer, Object>(true, -1);
+    lockManager.releaseLock(this, 1, OLockManager.LOCK.EXCLUSIVE);
+  }
+}
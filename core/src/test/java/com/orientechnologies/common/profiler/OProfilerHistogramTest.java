@@ -0,0 +1,78 @@
+package com.orientechnologies.common.profiler;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class OProfilerHistogramTest {
+
+  @Test
+  public void testBucketBoundsAreContinuous() {
+    long previousUpperBound = -1;
+    for (int i = 0; i < OProfilerHistogram.bucketIndex(1L << OProfilerHistogram.MAX_EXPONENT); i++) {
+      final long upperBound = OProfilerHistogram.bucketUpperBound(i);
+      assertEquals(OProfilerHistogram.bucketIndex(previousUpperBound + 1), i);
+      assertEquals(OProfilerHistogram.bucketIndex(upperBound), i);
+      previousUpperBound = upperBound;
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    final OProfilerHistogram histogram = new OProfilerHistogram();
+    for (long i = 1; i <= 100000; i++)
+      histogram.record(i);
+
+    assertEquals(histogram.getCount(), 100000);
+    assertEquals(histogram.getMin(), 1);
+    assertEquals(histogram.getMax(), 100000);
+    assertEquals(histogram.getTotal(), 100000L * 100001 / 2);
+
+    assertRelativeError(histogram.getPercentile(50), 50000);
+    assertRelativeError(histogram.getPercentile(99), 99000);
+    assertRelativeError(histogram.getPercentile(99.9), 99900);
+    assertEquals(histogram.getPercentile(100), 100000);
+
+    histogram.reset();
+    assertEquals(histogram.getCount(), 0);
+    assertEquals(histogram.getPercentile(99), 0);
+  }
+
+  @Test
+  public void testDisabledChronoDoesNotRecord() {
+    final OProfilerChrono chrono = new OProfilerChrono("test", "test", null, false);
+    chrono.stop(chrono.start());
+    assertEquals(chrono.getHistogram().getCount(), 0);
+
+    chrono.setEnabled(true);
+    chrono.stop(chrono.start());
+    assertEquals(chrono.getHistogram().getCount(), 1);
+  }
+
+  @Test
+  public void testStripedCounter() throws Exception {
+    final OProfilerCounter counter = new OProfilerCounter("test", "test", null, true);
+    final Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          for (int n = 0; n < 10000; n++)
+            counter.increment();
+        }
+      };
+      threads[i].start();
+    }
+
+    for (Thread thread : threads)
+      thread.join();
+
+    assertEquals(counter.get(), 80000);
+  }
+
+  private void assertRelativeError(final long actual, final long expected) {
+    assertTrue(Math.abs(actual - expected) <= expected / OProfilerHistogram.SUB_BUCKETS, "expected ~" + expected + " but was "
+        + actual);
+  }
+}
@@ -0,0 +1,187 @@
+package com.orientechnologies.orient.core.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+@Test
+public class IndexRebuildSorterTest {
+  private static final int    DOCUMENTS_COUNT = 20000;
+  private static final int    BUFFER_SIZE     = 1000;
+
+  private ODatabaseDocumentTx databaseDocumentTx;
+  private OClass              sortedClass;
+
+  private int                 oldBufferSize;
+  private int                 oldThreads;
+
+  @BeforeClass
+  public void beforeClass() {
+    databaseDocumentTx = new ODatabaseDocumentTx("memory:" + IndexRebuildSorterTest.class.getSimpleName());
+    databaseDocumentTx.create();
+
+    sortedClass = databaseDocumentTx.getMetadata().getSchema().createClass("SortedRebuild");
+    sortedClass.addCluster("SortedRebuild_second");
+    sortedClass.createProperty("id", OType.INTEGER);
+    sortedClass.createProperty("group", OType.STRING);
+    sortedClass.createProperty("tags", OType.EMBEDDEDLIST, OType.STRING);
+
+    for (int i = 0; i < DOCUMENTS_COUNT; i++) {
+      final ODocument document = new ODocument("SortedRebuild");
+      document.field("id", i);
+      if (i % 10 != 0)
+        document.field("group", "group " + (i % 100));
+      document.field("tags", Arrays.asList("tag " + (i % 7), "tag " + (i % 13)));
+      document.save(i % 2 == 0 ? "SortedRebuild" : "SortedRebuild_second");
+    }
+  }
+
+  @AfterClass
+  public void afterClass() {
+    databaseDocumentTx.drop();
+  }
+
+  @BeforeMethod
+  public void beforeMethod() {
+    oldBufferSize = OGlobalConfiguration.INDEX_BULK_LOAD_BUFFER_SIZE.getValueAsInteger();
+    oldThreads = OGlobalConfiguration.INDEX_REBUILD_THREADS.getValueAsInteger();
+
+    OGlobalConfiguration.INDEX_BULK_LOAD_BUFFER_SIZE.setValue(BUFFER_SIZE);
+    OGlobalConfiguration.INDEX_REBUILD_THREADS.setValue(4);
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    OGlobalConfiguration.INDEX_BULK_LOAD_BUFFER_SIZE.setValue(oldBufferSize);
+    OGlobalConfiguration.INDEX_REBUILD_THREADS.setValue(oldThreads);
+  }
+
+  public void testSortedEntries() {
+    final OIndex<?> index = sortedClass.createIndex("SortedRebuild.sortedEntries", OClass.INDEX_TYPE.NOTUNIQUE, "group");
+
+    final OIndexRebuildSorter sorter = new OIndexRebuildSorter((OIndexInternal<?>) index.getInternal(), databaseDocumentTx,
+        Arrays.asList("sortedrebuild", "sortedrebuild_second"), BUFFER_SIZE, 4);
+    try {
+      final long[] metrics = sorter.sort(null, 0);
+      Assert.assertEquals(metrics[0], DOCUMENTS_COUNT);
+      Assert.assertEquals(metrics[1], DOCUMENTS_COUNT - DOCUMENTS_COUNT / 10);
+      Assert.assertEquals(sorter.getEntriesCount(), DOCUMENTS_COUNT - DOCUMENTS_COUNT / 10);
+
+      Map.Entry<Object, ORID> prevEntry = null;
+      int count = 0;
+
+      final Iterator<Map.Entry<Object, ORID>> entries = sorter.iterator();
+      while (entries.hasNext()) {
+        final Map.Entry<Object, ORID> entry = entries.next();
+        if (prevEntry != null) {
+          final int compareResult = ODefaultComparator.INSTANCE.compare(prevEntry.getKey(), entry.getKey());
+          Assert.assertTrue(compareResult < 0 || compareResult == 0 && prevEntry.getValue().compareTo(entry.getValue()) < 0);
+        }
+
+        final ODocument document = entry.getValue().getRecord();
+        Assert.assertEquals(document.field("group"), entry.getKey());
+
+        prevEntry = entry;
+        count++;
+      }
+
+      Assert.assertEquals(count, DOCUMENTS_COUNT - DOCUMENTS_COUNT / 10);
+    } finally {
+      sorter.close();
+    }
+  }
+
+  public void testUniqueIndex() {
+    final OIndex<?> index = sortedClass.createIndex("SortedRebuild.id", OClass.INDEX_TYPE.UNIQUE, "id");
+
+    Assert.assertEquals(index.getSize(), DOCUMENTS_COUNT);
+    Assert.assertEquals(index.rebuild(), DOCUMENTS_COUNT);
+    Assert.assertEquals(index.getSize(), DOCUMENTS_COUNT);
+
+    for (int i = 0; i < DOCUMENTS_COUNT; i++) {
+      final ODocument document = ((OIdentifiable) index.get(i)).getRecord();
+      Assert.assertEquals(document.field("id"), i);
+    }
+  }
+
+  public void testNotUniqueIndex() {
+    final OIndex<?> index = sortedClass.createIndex("SortedRebuild.group", OClass.INDEX_TYPE.NOTUNIQUE, "group");
+
+    Assert.assertEquals(index.getSize(), DOCUMENTS_COUNT - DOCUMENTS_COUNT / 10);
+    Assert.assertEquals(index.getKeySize(), 90);
+
+    for (int i = 1; i < 100; i++) {
+      if (i % 10 == 0)
+        continue;
+
+      final Collection<?> result = (Collection<?>) index.get("group " + i);
+      Assert.assertEquals(result.size(), DOCUMENTS_COUNT / 100);
+    }
+  }
+
+  public void testCollectionIndex() {
+    final OIndex<?> index = sortedClass.createIndex("SortedRebuild.tags", OClass.INDEX_TYPE.NOTUNIQUE, "tags");
+
+    int expectedSize = 0;
+    for (int i = 0; i < DOCUMENTS_COUNT; i++)
+      expectedSize += (i % 7) == (i % 13) ? 1 : 2;
+
+    Assert.assertEquals(index.getSize(), expectedSize);
+    Assert.assertEquals(index.getKeySize(), 13);
+
+    final List<Integer> ids = new ArrayList<Integer>();
+    for (OIdentifiable identifiable : (Collection<OIdentifiable>) index.get("tag 12")) {
+      final ODocument document = identifiable.getRecord();
+      ids.add(document.<Integer> field("id"));
+    }
+
+    Assert.assertEquals(ids.size(), (DOCUMENTS_COUNT + 13 - 1 - 12) / 13);
+    for (int id : ids)
+      Assert.assertEquals(id % 13, 12);
+  }
+
+  public void testCompositeIndex() {
+    final OIndex<?> index = sortedClass.createIndex("SortedRebuild.groupId", OClass.INDEX_TYPE.UNIQUE, "group", "id");
+
+    Assert.assertEquals(index.getSize(), DOCUMENTS_COUNT - DOCUMENTS_COUNT / 10);
+
+    for (int i = 1; i < DOCUMENTS_COUNT; i += 37) {
+      if (i % 10 == 0)
+        continue;
+
+      final OIdentifiable identifiable = (OIdentifiable) index.get(new OCompositeKey("group " + (i % 100), i));
+      Assert.assertNotNull(identifiable);
+
+      final ODocument document = identifiable.getRecord();
+      Assert.assertEquals(document.field("id"), i);
+    }
+  }
+
+  public void testHashIndex() {
+    final OIndex<?> index = sortedClass.createIndex("SortedRebuild.idHash", OClass.INDEX_TYPE.UNIQUE_HASH_INDEX, "id");
+
+    Assert.assertEquals(index.getSize(), DOCUMENTS_COUNT);
+
+    for (int i = 0; i < DOCUMENTS_COUNT; i += 11)
+      Assert.assertNotNull(index.get(i));
+  }
+}
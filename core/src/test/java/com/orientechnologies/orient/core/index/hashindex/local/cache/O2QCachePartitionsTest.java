@@ -0,0 +1,155 @@
+package com.orientechnologies.orient.core.index.hashindex.local.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+
+@Test
+public class O2QCachePartitionsTest {
+  private static final int       PARTITIONS   = 8;
+  private static final int       THREADS      = 8;
+
+  private final int              systemOffset = OIntegerSerializer.INT_SIZE + 3 * OLongSerializer.LONG_SIZE;
+  private final int              pageSize     = systemOffset + OLongSerializer.LONG_SIZE;
+  private final int              cachePages   = PARTITIONS * O2QCache.MIN_PARTITION_SIZE;
+
+  private OLocalPaginatedStorage storageLocal;
+  private int                    partitions;
+
+  private O2QCache               readCache;
+  private OWriteCache            writeCache;
+
+  @BeforeClass
+  public void beforeClass() throws IOException {
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+    partitions = OGlobalConfiguration.DISK_CACHE_PARTITIONS.getValueAsInteger();
+    OGlobalConfiguration.DISK_CACHE_PARTITIONS.setValue(PARTITIONS);
+
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    storageLocal = (OLocalPaginatedStorage) Orient.instance().loadStorage("plocal:" + buildDirectory + "/O2QCachePartitionsTest");
+    storageLocal.create(null);
+    storageLocal.close(true, false);
+  }
+
+  @AfterClass
+  public void afterClass() throws IOException {
+    OGlobalConfiguration.DISK_CACHE_PARTITIONS.setValue(partitions);
+    storageLocal.delete();
+  }
+
+  @BeforeMethod
+  public void beforeMethod() throws IOException {
+    final int entrySize = pageSize + 2 * OWOWCache.PAGE_PADDING;
+    writeCache = new OWOWCache(false, pageSize, -1, null, -1, 4L * cachePages * entrySize, 5L * cachePages * entrySize,
+        storageLocal, false, 1);
+    readCache = new O2QCache((long) cachePages * entrySize, pageSize, false);
+  }
+
+  @AfterMethod
+  public void afterMethod() throws IOException {
+    readCache.deleteStorage(writeCache);
+    readCache.clear();
+
+    new File(storageLocal.getConfiguration().getDirectory() + File.separator + "name_id_map.cm").delete();
+  }
+
+  public void testCacheIsPartitioned() {
+    Assert.assertEquals(readCache.getPartitionsCount(), PARTITIONS);
+  }
+
+  public void testSmallCacheHasSinglePartition() {
+    final O2QCache smallCache = new O2QCache((long) (O2QCache.MIN_PARTITION_SIZE - 1) * (pageSize + 2 * OWOWCache.PAGE_PADDING),
+        pageSize, false);
+    Assert.assertEquals(smallCache.getPartitionsCount(), 1);
+  }
+
+  public void testConcurrentLoadOfPagesFromAllPartitions() throws Exception {
+    final long fileId = readCache.addFile("partitionsTest.tst", writeCache);
+    final int pages = 3 * cachePages;
+
+    for (int i = 0; i < pages; i++) {
+      final OCacheEntry cacheEntry = readCache.allocateNewPage(fileId, writeCache);
+      Assert.assertEquals(cacheEntry.getPageIndex(), i);
+
+      writeValue(cacheEntry, i);
+      readCache.release(cacheEntry, writeCache);
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+    for (int n = 0; n < THREADS; n++) {
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final Random random = new Random();
+          for (int i = 0; i < 20000; i++) {
+            final int pageIndex = random.nextInt(pages);
+            final OCacheEntry cacheEntry = readCache.load(fileId, pageIndex, false, writeCache);
+            try {
+              Assert.assertEquals(readValue(cacheEntry), pageIndex);
+            } finally {
+              readCache.release(cacheEntry, writeCache);
+            }
+          }
+
+          return null;
+        }
+      }));
+    }
+
+    for (Future<Void> future : futures)
+      future.get();
+
+    executor.shutdown();
+
+    // EACH PARTITION IS LIMITED BY ITS OWN SHARE OF THE CACHE
+    final long entrySize = pageSize + 2 * OWOWCache.PAGE_PADDING;
+    Assert.assertTrue(readCache.getUsedMemory() <= (cachePages + THREADS * PARTITIONS) * entrySize);
+
+    readCache.truncateFile(fileId, writeCache);
+    Assert.assertEquals(readCache.getUsedMemory(), 0);
+    Assert.assertNull(readCache.load(fileId, 0, false, writeCache));
+  }
+
+  private void writeValue(OCacheEntry cacheEntry, long value) {
+    cacheEntry.getCachePointer().acquireExclusiveLock();
+    try {
+      cacheEntry.markDirty();
+      cacheEntry.getCachePointer().getDataPointer().setLong(systemOffset + OWOWCache.PAGE_PADDING, value);
+    } finally {
+      cacheEntry.getCachePointer().releaseExclusiveLock();
+    }
+  }
+
+  private long readValue(OCacheEntry cacheEntry) {
+    cacheEntry.getCachePointer().acquireSharedLock();
+    try {
+      return cacheEntry.getCachePointer().getDataPointer().getLong(systemOffset + OWOWCache.PAGE_PADDING);
+    } finally {
+      cacheEntry.getCachePointer().releaseSharedLock();
+    }
+  }
+}
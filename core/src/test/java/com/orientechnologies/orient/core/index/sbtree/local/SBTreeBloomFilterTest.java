@@ -0,0 +1,94 @@
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+
+@Test
+public class SBTreeBloomFilterTest {
+  private static final int               KEYS_COUNT = 10000;
+
+  private OSBTree<String, OIdentifiable> sbTree;
+  private ODatabaseDocumentTx            databaseDocumentTx;
+
+  @BeforeClass
+  public void beforeClass() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    databaseDocumentTx = new ODatabaseDocumentTx("plocal:" + buildDirectory + "/localSBTreeBloomFilterTest");
+    if (databaseDocumentTx.exists()) {
+      databaseDocumentTx.open("admin", "admin");
+      databaseDocumentTx.drop();
+    }
+
+    databaseDocumentTx.create();
+
+    sbTree = new OSBTree<String, OIdentifiable>("sbTreeBloomFilter", ".sbt", false, ".nbt",
+        (OAbstractPaginatedStorage) databaseDocumentTx.getStorage());
+    sbTree.create(OStringSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, true, KEYS_COUNT);
+  }
+
+  @AfterMethod
+  public void afterMethod() throws Exception {
+    sbTree.clear();
+  }
+
+  @AfterClass
+  public void afterClass() throws Exception {
+    sbTree.clear();
+    sbTree.delete();
+    databaseDocumentTx.drop();
+  }
+
+  public void testPut() throws Exception {
+    for (int i = 0; i < KEYS_COUNT; i++)
+      sbTree.put("key" + i, new ORecordId(i % 32000, i));
+
+    for (int i = 0; i < KEYS_COUNT; i++)
+      Assert.assertEquals(sbTree.get("key" + i), new ORecordId(i % 32000, i));
+
+    for (int i = KEYS_COUNT; i < 2 * KEYS_COUNT; i++)
+      Assert.assertNull(sbTree.get("key" + i));
+  }
+
+  public void testBulkLoad() throws Exception {
+    final TreeMap<String, OIdentifiable> entries = new TreeMap<String, OIdentifiable>();
+    for (int i = 0; i < KEYS_COUNT; i++)
+      entries.put("key" + i, new ORecordId(i % 32000, i));
+
+    sbTree.bulkLoad(entries.entrySet().iterator());
+
+    for (Map.Entry<String, OIdentifiable> entry : entries.entrySet())
+      Assert.assertEquals(sbTree.get(entry.getKey()), entry.getValue());
+
+    for (int i = KEYS_COUNT; i < 2 * KEYS_COUNT; i++)
+      Assert.assertNull(sbTree.get("key" + i));
+  }
+
+  public void testClear() throws Exception {
+    for (int i = 0; i < KEYS_COUNT; i++)
+      sbTree.put("key" + i, new ORecordId(i % 32000, i));
+
+    sbTree.clear();
+
+    for (int i = 0; i < KEYS_COUNT; i++)
+      Assert.assertNull(sbTree.get("key" + i));
+
+    sbTree.put("key" + 1, new ORecordId(1, 1));
+    Assert.assertEquals(sbTree.get("key" + 1), new ORecordId(1, 1));
+  }
+}
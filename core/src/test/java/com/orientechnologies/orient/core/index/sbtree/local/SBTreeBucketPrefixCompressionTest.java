@@ -0,0 +1,254 @@
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryPointer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.hashindex.local.cache.OCacheEntry;
+import com.orientechnologies.orient.core.index.hashindex.local.cache.OCachePointer;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurablePage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+
+@Test
+public class SBTreeBucketPrefixCompressionTest {
+  private OCachePointer cachePointer;
+  private OCacheEntry   cacheEntry;
+
+  @BeforeMethod
+  public void beforeMethod() {
+    ODirectMemoryPointer pointer = new ODirectMemoryPointer(OSBTreeBucket.MAX_PAGE_SIZE_BYTES + ODurablePage.PAGE_PADDING);
+    cachePointer = new OCachePointer(pointer, new OLogSequenceNumber(0, 0), 0, 0);
+    cachePointer.incrementReferrer();
+
+    cacheEntry = new OCacheEntry(0, 0, cachePointer, false);
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    cachePointer.decrementReferrer();
+  }
+
+  public void testInitialization() throws Exception {
+    OSBTreeBucket<String, OIdentifiable> treeBucket = new OSBTreeBucket<String, OIdentifiable>(cacheEntry, true,
+        OStringSerializer.INSTANCE, null, OLinkSerializer.INSTANCE, true, null);
+    Assert.assertEquals(treeBucket.size(), 0);
+    Assert.assertTrue(treeBucket.isLeaf());
+    Assert.assertTrue(treeBucket.isPrefixCompression());
+    Assert.assertEquals(treeBucket.getSharedPartSize(), 0);
+
+    treeBucket = new OSBTreeBucket<String, OIdentifiable>(cacheEntry, OStringSerializer.INSTANCE, null, OLinkSerializer.INSTANCE,
+        null);
+    Assert.assertEquals(treeBucket.size(), 0);
+    Assert.assertTrue(treeBucket.isLeaf());
+    Assert.assertTrue(treeBucket.isPrefixCompression());
+    Assert.assertEquals(treeBucket.getLeftSibling(), -1);
+    Assert.assertEquals(treeBucket.getRightSibling(), -1);
+  }
+
+  public void testAddAllCompressesKeys() throws Exception {
+    final List<String> keys = generateKeys("com.orientechnologies.orient.core.index.", 1000);
+
+    OSBTreeBucket<String, OIdentifiable> treeBucket = new OSBTreeBucket<String, OIdentifiable>(cacheEntry, true,
+        OStringSerializer.INSTANCE, null, OLinkSerializer.INSTANCE, true, null);
+
+    final List<OSBTreeBucket.SBTreeEntry<String, OIdentifiable>> entries = new ArrayList<OSBTreeBucket.SBTreeEntry<String, OIdentifiable>>();
+    for (int i = 0; i < keys.size(); i++)
+      entries.add(new OSBTreeBucket.SBTreeEntry<String, OIdentifiable>(-1, -1, keys.get(i), new OSBTreeValue<OIdentifiable>(false,
+          -1, new ORecordId(i, i))));
+
+    treeBucket.addAll(entries);
+
+    Assert.assertTrue(treeBucket.getSharedPartSize() >= "com.orientechnologies.orient.core.index.".length() * 2);
+
+    treeBucket = new OSBTreeBucket<String, OIdentifiable>(cacheEntry, OStringSerializer.INSTANCE, null, OLinkSerializer.INSTANCE,
+        null);
+    assertKeys(treeBucket, keys);
+  }
+
+  public void testAddEntryAndCompressKeys() throws Exception {
+    final List<String> keys = generateKeys("prefix of the keys which is shared by all of them ", 5000);
+    final List<String> shuffledKeys = new ArrayList<String>(keys);
+    Collections.shuffle(shuffledKeys, new Random(42));
+
+    OSBTreeBucket<String, OIdentifiable> treeBucket = new OSBTreeBucket<String, OIdentifiable>(cacheEntry, true,
+        OStringSerializer.INSTANCE, null, OLinkSerializer.INSTANCE, true, null);
+
+    final List<String> addedKeys = new ArrayList<String>();
+    for (String key : shuffledKeys) {
+      int index = treeBucket.find(key);
+      Assert.assertTrue(index < 0);
+      index = -index - 1;
+
+      final OSBTreeBucket.SBTreeEntry<String, OIdentifiable> entry = new OSBTreeBucket.SBTreeEntry<String, OIdentifiable>(-1, -1,
+          key, new OSBTreeValue<OIdentifiable>(false, -1, new ORecordId(key.length(), keys.indexOf(key))));
+
+      if (!treeBucket.addEntry(index, entry, true)) {
+        if (!treeBucket.compressKeys())
+          break;
+
+        Assert.assertTrue(treeBucket.getSharedPartSize() > 0);
+        Assert.assertTrue(treeBucket.addEntry(index, entry, true));
+      }
+
+      addedKeys.add(key);
+    }
+
+    Assert.assertTrue(treeBucket.getSharedPartSize() > 0);
+    Assert.assertFalse(treeBucket.compressKeys());
+
+    Collections.sort(addedKeys);
+    assertKeys(treeBucket, addedKeys);
+
+    for (int i = 0; i < treeBucket.size(); i++) {
+      final String key = treeBucket.getKey(i);
+      Assert.assertEquals(treeBucket.getEntry(i).value.getValue(), new ORecordId(key.length(), keys.indexOf(key)));
+    }
+  }
+
+  public void testAddKeyWithoutSharedPart() throws Exception {
+    final List<String> keys = generateKeys("shared prefix ", 100);
+
+    OSBTreeBucket<String, OIdentifiable> treeBucket = new OSBTreeBucket<String, OIdentifiable>(cacheEntry, true,
+        OStringSerializer.INSTANCE, null, OLinkSerializer.INSTANCE, true, null);
+
+    for (int i = 0; i < keys.size(); i++)
+      Assert.assertTrue(treeBucket.addEntry(i, new OSBTreeBucket.SBTreeEntry<String, OIdentifiable>(-1, -1, keys.get(i),
+          new OSBTreeValue<OIdentifiable>(false, -1, new ORecordId(i, i))), true));
+
+    Assert.assertTrue(treeBucket.compressKeys());
+    final int sharedPartSize = treeBucket.getSharedPartSize();
+
+    Assert.assertTrue(treeBucket.addEntry(keys.size(), new OSBTreeBucket.SBTreeEntry<String, OIdentifiable>(-1, -1, "shared!",
+        new OSBTreeValue<OIdentifiable>(false, -1, new ORecordId(1, 1))), true));
+    Assert.assertTrue(treeBucket.getSharedPartSize() < sharedPartSize);
+
+    Assert.assertTrue(treeBucket.addEntry(0, new OSBTreeBucket.SBTreeEntry<String, OIdentifiable>(-1, -1, "",
+        new OSBTreeValue<OIdentifiable>(false, -1, new ORecordId(2, 2))), true));
+    Assert.assertEquals(treeBucket.getSharedPartSize(), 0);
+
+    final List<String> expectedKeys = new ArrayList<String>(keys);
+    expectedKeys.add("shared!");
+    expectedKeys.add(0, "");
+
+    assertKeys(treeBucket, expectedKeys);
+  }
+
+  public void testRemoveAndShrink() throws Exception {
+    final List<String> keys = generateKeys("removed keys prefix ", 500);
+
+    OSBTreeBucket<String, OIdentifiable> treeBucket = new OSBTreeBucket<String, OIdentifiable>(cacheEntry, true,
+        OStringSerializer.INSTANCE, null, OLinkSerializer.INSTANCE, true, null);
+
+    for (int i = 0; i < keys.size(); i++)
+      Assert.assertTrue(treeBucket.addEntry(i, new OSBTreeBucket.SBTreeEntry<String, OIdentifiable>(-1, -1, keys.get(i),
+          new OSBTreeValue<OIdentifiable>(false, -1, new ORecordId(i, i))), true));
+
+    Assert.assertTrue(treeBucket.compressKeys());
+
+    final List<String> expectedKeys = new ArrayList<String>(keys);
+    for (int i = expectedKeys.size() - 1; i >= 0; i -= 3) {
+      Assert.assertEquals(treeBucket.remove(i), -1);
+      expectedKeys.remove(i);
+    }
+
+    assertKeys(treeBucket, expectedKeys);
+
+    treeBucket.shrink(100);
+    assertKeys(treeBucket, expectedKeys.subList(0, 100));
+
+    for (int i = 0; i < treeBucket.size(); i++) {
+      final String key = treeBucket.getKey(i);
+      Assert.assertEquals(treeBucket.getEntry(i).value.getValue(), new ORecordId(keys.indexOf(key), keys.indexOf(key)));
+    }
+  }
+
+  public void testNonLeafBucket() throws Exception {
+    final List<String> keys = generateKeys("non leaf bucket ", 1000);
+
+    OSBTreeBucket<String, OIdentifiable> treeBucket = new OSBTreeBucket<String, OIdentifiable>(cacheEntry, false,
+        OStringSerializer.INSTANCE, null, OLinkSerializer.INSTANCE, true, null);
+
+    int size = 0;
+    for (int i = 0; i < keys.size(); i++) {
+      if (!treeBucket.addEntry(i, new OSBTreeBucket.SBTreeEntry<String, OIdentifiable>(i, i + 1, keys.get(i), null), true))
+        break;
+
+      size++;
+    }
+
+    treeBucket.compressKeys();
+    Assert.assertTrue(treeBucket.getSharedPartSize() > 0);
+
+    treeBucket = new OSBTreeBucket<String, OIdentifiable>(cacheEntry, OStringSerializer.INSTANCE, null, OLinkSerializer.INSTANCE,
+        null);
+    Assert.assertFalse(treeBucket.isLeaf());
+
+    assertKeys(treeBucket, keys.subList(0, size));
+    for (int i = 0; i < size; i++) {
+      final OSBTreeBucket.SBTreeEntry<String, OIdentifiable> entry = treeBucket.getEntry(i);
+      Assert.assertEquals(entry.leftChild, i);
+      Assert.assertEquals(entry.rightChild, i + 1);
+    }
+  }
+
+  public void testFixedLengthKeys() throws Exception {
+    OSBTreeBucket<Long, OIdentifiable> treeBucket = new OSBTreeBucket<Long, OIdentifiable>(cacheEntry, true,
+        OLongSerializer.INSTANCE, null, OLinkSerializer.INSTANCE, true, null);
+
+    // HIGH AND LOW BYTES OF KEYS ARE THE SAME, SO KEYS HAVE SHARED PREFIX FOR ANY BYTE ORDER
+    final long base = 0x0102030000000405L;
+    int size = 0;
+    while (treeBucket.addEntry(size, new OSBTreeBucket.SBTreeEntry<Long, OIdentifiable>(-1, -1, base + ((long) size << 24),
+        new OSBTreeValue<OIdentifiable>(false, -1, new ORecordId(size, size))), true))
+      size++;
+
+    Assert.assertTrue(treeBucket.compressKeys());
+    Assert.assertTrue(treeBucket.getSharedPartSize() > 0);
+
+    while (treeBucket.addEntry(size, new OSBTreeBucket.SBTreeEntry<Long, OIdentifiable>(-1, -1, base + ((long) size << 24),
+        new OSBTreeValue<OIdentifiable>(false, -1, new ORecordId(size, size))), true))
+      size++;
+
+    Assert.assertEquals(treeBucket.size(), size);
+    for (int i = 0; i < size; i++) {
+      Assert.assertEquals(treeBucket.getKey(i).longValue(), base + ((long) i << 24));
+      Assert.assertEquals(treeBucket.find(base + ((long) i << 24)), i);
+      Assert.assertEquals(treeBucket.getEntry(i).value.getValue(), new ORecordId(i, i));
+    }
+  }
+
+  private List<String> generateKeys(String prefix, int count) {
+    final Random random = new Random(42);
+    final List<String> keys = new ArrayList<String>();
+
+    while (keys.size() < count) {
+      final String key = prefix + random.nextInt(Integer.MAX_VALUE);
+      if (!keys.contains(key))
+        keys.add(key);
+    }
+
+    Collections.sort(keys);
+    return keys;
+  }
+
+  private void assertKeys(OSBTreeBucket<String, OIdentifiable> treeBucket, List<String> keys) {
+    Assert.assertEquals(treeBucket.size(), keys.size());
+
+    for (int i = 0; i < keys.size(); i++) {
+      Assert.assertEquals(treeBucket.getKey(i), keys.get(i));
+      Assert.assertEquals(treeBucket.find(keys.get(i)), i);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+
+@Test
+public class SBTreeBulkLoadTest {
+  private static final int                 KEYS_COUNT = 100000;
+
+  private OSBTree<String, OIdentifiable>   sbTree;
+  private ODatabaseDocumentTx              databaseDocumentTx;
+
+  @BeforeClass
+  public void beforeClass() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    databaseDocumentTx = new ODatabaseDocumentTx("plocal:" + buildDirectory + "/localSBTreeBulkLoadTest");
+    if (databaseDocumentTx.exists()) {
+      databaseDocumentTx.open("admin", "admin");
+      databaseDocumentTx.drop();
+    }
+
+    databaseDocumentTx.create();
+
+    sbTree = new OSBTree<String, OIdentifiable>("sbTreeBulkLoad", ".sbt", false, ".nbt",
+        (OAbstractPaginatedStorage) databaseDocumentTx.getStorage());
+    sbTree.create(OStringSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, true);
+  }
+
+  @AfterMethod
+  public void afterMethod() throws Exception {
+    sbTree.clear();
+  }
+
+  @AfterClass
+  public void afterClass() throws Exception {
+    sbTree.clear();
+    sbTree.delete();
+    databaseDocumentTx.drop();
+  }
+
+  public void testBulkLoad() throws Exception {
+    final TreeMap<String, OIdentifiable> entries = generateEntries(KEYS_COUNT);
+
+    sbTree.bulkLoad(entries.entrySet().iterator());
+
+    assertTreeContent(entries);
+  }
+
+  public void testBulkLoadSingleBucket() throws Exception {
+    final TreeMap<String, OIdentifiable> entries = generateEntries(10);
+
+    sbTree.bulkLoad(entries.entrySet().iterator());
+
+    assertTreeContent(entries);
+  }
+
+  public void testBulkLoadAndUpdate() throws Exception {
+    final TreeMap<String, OIdentifiable> entries = generateEntries(KEYS_COUNT);
+
+    sbTree.put(null, new ORecordId(1, 1));
+    sbTree.bulkLoad(entries.entrySet().iterator());
+    Assert.assertEquals(sbTree.size(), KEYS_COUNT + 1);
+
+    final Random random = new Random(42);
+    for (int i = 0; i < KEYS_COUNT / 2; i++) {
+      final String key = "updated key " + random.nextInt();
+      final ORecordId value = new ORecordId(2, i);
+
+      sbTree.put(key, value);
+      entries.put(key, value);
+    }
+
+    int counter = 0;
+    final Iterator<String> keysIterator = entries.keySet().iterator();
+    while (keysIterator.hasNext()) {
+      final String key = keysIterator.next();
+      if (counter % 3 == 0) {
+        Assert.assertNotNull(sbTree.remove(key));
+        keysIterator.remove();
+      }
+
+      counter++;
+    }
+
+    Assert.assertEquals(sbTree.get(null), new ORecordId(1, 1));
+    Assert.assertEquals(sbTree.size(), entries.size() + 1);
+
+    for (Map.Entry<String, OIdentifiable> entry : entries.entrySet())
+      Assert.assertEquals(sbTree.get(entry.getKey()), entry.getValue());
+  }
+
+  public void testStreamingBulkLoad() throws Exception {
+    final TreeMap<String, OIdentifiable> entries = generateEntries(KEYS_COUNT);
+
+    final OSBTree<String, OIdentifiable>.OSBTreeBulkLoad bulkLoad = sbTree.startBulkLoad();
+    for (Map.Entry<String, OIdentifiable> entry : entries.entrySet())
+      bulkLoad.add(entry.getKey(), entry.getValue());
+    bulkLoad.complete();
+
+    assertTreeContent(entries);
+  }
+
+  public void testCancelBulkLoad() throws Exception {
+    final OSBTree<String, OIdentifiable>.OSBTreeBulkLoad bulkLoad = sbTree.startBulkLoad();
+    for (Map.Entry<String, OIdentifiable> entry : generateEntries(1000).entrySet())
+      bulkLoad.add(entry.getKey(), entry.getValue());
+    bulkLoad.cancel();
+
+    Assert.assertEquals(sbTree.size(), 0);
+    Assert.assertNull(sbTree.firstKey());
+
+    final TreeMap<String, OIdentifiable> entries = generateEntries(10);
+    sbTree.bulkLoad(entries.entrySet().iterator());
+
+    assertTreeContent(entries);
+  }
+
+  @Test(expectedExceptions = OSBTreeException.class)
+  public void testBulkLoadUnsortedKeys() throws Exception {
+    final TreeMap<String, OIdentifiable> entries = generateEntries(1000);
+    final TreeMap<String, OIdentifiable> reversed = new TreeMap<String, OIdentifiable>(Collections.reverseOrder());
+    reversed.putAll(entries);
+
+    sbTree.bulkLoad(reversed.entrySet().iterator());
+  }
+
+  @Test(expectedExceptions = OSBTreeException.class)
+  public void testBulkLoadNonEmptyTree() throws Exception {
+    sbTree.put("key", new ORecordId(1, 1));
+
+    sbTree.bulkLoad(generateEntries(10).entrySet().iterator());
+  }
+
+  public void testIndexRebuild() throws Exception {
+    final OClass bulkLoadClass = databaseDocumentTx.getMetadata().getSchema().createClass("BulkLoad");
+    bulkLoadClass.createProperty("name", OType.STRING);
+    bulkLoadClass.createProperty("group", OType.INTEGER);
+
+    for (int i = 0; i < 10000; i++) {
+      final ODocument document = new ODocument("BulkLoad");
+      document.field("name", "bulk load document " + i);
+      document.field("group", i % 100);
+      document.save();
+    }
+
+    final OIndex<?> uniqueIndex = bulkLoadClass.createIndex("BulkLoad.name", OClass.INDEX_TYPE.UNIQUE, "name");
+    final OIndex<?> notUniqueIndex = bulkLoadClass.createIndex("BulkLoad.group", OClass.INDEX_TYPE.NOTUNIQUE, "group");
+    final OIndex<?> compositeIndex = bulkLoadClass.createIndex("BulkLoad.groupName", OClass.INDEX_TYPE.UNIQUE, "group", "name");
+
+    Assert.assertEquals(uniqueIndex.getSize(), 10000);
+    Assert.assertEquals(notUniqueIndex.getSize(), 10000);
+    Assert.assertEquals(notUniqueIndex.getKeySize(), 100);
+    Assert.assertEquals(compositeIndex.getSize(), 10000);
+
+    Assert.assertEquals(uniqueIndex.rebuild(), 10000);
+    Assert.assertEquals(notUniqueIndex.rebuild(), 10000);
+    Assert.assertEquals(compositeIndex.rebuild(), 10000);
+
+    for (int i = 0; i < 10000; i++) {
+      final ODocument document = ((OIdentifiable) uniqueIndex.get("bulk load document " + i)).getRecord();
+      Assert.assertEquals(document.field("group"), i % 100);
+    }
+
+    for (int i = 0; i < 100; i++)
+      Assert.assertEquals(((Iterable<?>) notUniqueIndex.get(i)).iterator().hasNext(), true);
+
+    final List<ODocument> result = databaseDocumentTx.query(new OSQLSynchQuery<ODocument>(
+        "select from BulkLoad where group = 7 and name = 'bulk load document 107'"));
+    Assert.assertEquals(result.size(), 1);
+  }
+
+  private TreeMap<String, OIdentifiable> generateEntries(int count) {
+    final Random random = new Random(42);
+    final TreeMap<String, OIdentifiable> entries = new TreeMap<String, OIdentifiable>();
+
+    while (entries.size() < count) {
+      final int value = random.nextInt(Integer.MAX_VALUE);
+      entries.put("bulk loaded key " + value, new ORecordId(value % 32000, value));
+    }
+
+    return entries;
+  }
+
+  private void assertTreeContent(TreeMap<String, OIdentifiable> entries) {
+    Assert.assertEquals(sbTree.size(), entries.size());
+
+    for (Map.Entry<String, OIdentifiable> entry : entries.entrySet())
+      Assert.assertEquals(sbTree.get(entry.getKey()), entry.getValue());
+
+    Assert.assertEquals(sbTree.firstKey(), entries.firstKey());
+    Assert.assertEquals(sbTree.lastKey(), entries.lastKey());
+
+    final OSBTree.OSBTreeCursor<String, OIdentifiable> cursor = sbTree.iterateEntriesMajor(entries.firstKey(), true, true);
+    for (Map.Entry<String, OIdentifiable> entry : entries.entrySet()) {
+      final Map.Entry<String, OIdentifiable> treeEntry = cursor.next(-1);
+      Assert.assertEquals(treeEntry.getKey(), entry.getKey());
+      Assert.assertEquals(treeEntry.getValue(), entry.getValue());
+    }
+
+    Assert.assertNull(cursor.next(-1));
+
+    final OSBTree.OSBTreeCursor<String, OIdentifiable> descCursor = sbTree.iterateEntriesMinor(entries.lastKey(), true, false);
+    for (String key : entries.descendingKeySet())
+      Assert.assertEquals(descCursor.next(-1).getKey(), key);
+
+    Assert.assertNull(descCursor.next(-1));
+  }
+}
@@ -0,0 +1,204 @@
+package com.orientechnologies.orient.core.serialization.serializer.binary.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinaryV0;
+
+@Test
+public class ORecordSerializerBinaryV1Test {
+  private static final int    WIDE_FIELDS = 200;
+
+  private ODatabaseDocumentTx db;
+
+  @BeforeClass
+  public void beforeClass() {
+    OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_BINARY_VERSION.setValue(1);
+
+    db = new ODatabaseDocumentTx("memory:" + ORecordSerializerBinaryV1Test.class.getSimpleName());
+    db.create();
+
+    final OClass wideClass = db.getMetadata().getSchema().createClass("Wide");
+    for (int i = 0; i < WIDE_FIELDS; i += 2)
+      wideClass.createProperty("field" + i, OType.STRING);
+    wideClass.createProperty("any", OType.ANY);
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+
+    OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_BINARY_VERSION.setValue(0);
+  }
+
+  public void testWideSchemalessDocument() {
+    final ODocument document = createWideDocument(null);
+    final byte[] stream = ORecordSerializerBinary.INSTANCE.toStream(document, false);
+    assertEquals(stream[0], 1);
+
+    assertWideDocument((ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(), null));
+    assertPartialDeserialization(stream);
+  }
+
+  public void testWideSchemafullDocument() {
+    final ODocument document = createWideDocument("Wide");
+    document.field("any", 42);
+
+    final byte[] stream = ORecordSerializerBinary.INSTANCE.toStream(document, false);
+
+    final ODocument full = (ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(), null);
+    assertWideDocument(full);
+    assertEquals(full.field("any"), 42);
+
+    assertPartialDeserialization(stream);
+
+    final ODocument partial = (ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(),
+        new String[] { "any" });
+    assertEquals(partial.field("any"), 42);
+  }
+
+  public void testSmallDocument() {
+    final ODocument document = new ODocument();
+    document.field("name", "small");
+    document.field("value", 10);
+    document.field("empty", (Object) null);
+
+    final byte[] stream = ORecordSerializerBinary.INSTANCE.toStream(document, false);
+
+    final ODocument full = (ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(), null);
+    assertEquals(full.field("name"), "small");
+    assertEquals(full.field("value"), 10);
+    assertTrue(full.containsField("empty"));
+
+    final ODocument partial = (ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(),
+        new String[] { "value" });
+    assertEquals(partial.rawField("value"), 10);
+    assertFalse(ODocumentInternal.rawContainsField(partial, "name"));
+  }
+
+  public void testEmbeddedWideDocument() {
+    final ODocument document = new ODocument();
+    document.field("name", "parent");
+    document.field("embedded", createWideDocument(null), OType.EMBEDDED);
+    document.field("list", Arrays.asList(createWideDocument(null), createWideDocument(null)), OType.EMBEDDEDLIST);
+
+    final byte[] stream = ORecordSerializerBinary.INSTANCE.toStream(document, false);
+
+    final ODocument full = (ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(), null);
+    assertEquals(full.field("name"), "parent");
+    assertWideDocument((ODocument) full.field("embedded"));
+
+    final List<ODocument> list = full.field("list");
+    assertEquals(list.size(), 2);
+    for (ODocument item : list)
+      assertWideDocument(item);
+
+    final ODocument partial = (ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(),
+        new String[] { "embedded" });
+    assertWideDocument((ODocument) partial.rawField("embedded"));
+  }
+
+  public void testPreviousVersionIsReadable() {
+    final ODocument document = createWideDocument("Wide");
+
+    final BytesContainer container = new BytesContainer();
+    container.bytes[container.alloc(1)] = 0;
+    new ORecordSerializerBinaryV0().serialize(document, container, false);
+    final byte[] stream = container.fitBytes();
+
+    assertWideDocument((ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(), null));
+    assertPartialDeserialization(stream);
+  }
+
+  public void testDatabaseOfPreviousVersionIsWrittenInPreviousVersion() {
+    OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_BINARY_VERSION.setValue(0);
+
+    final ODatabaseDocumentTx previousDb = new ODatabaseDocumentTx("memory:" + ORecordSerializerBinaryV1Test.class.getSimpleName()
+        + "Previous");
+    previousDb.create();
+    try {
+      assertEquals(previousDb.getStorage().getConfiguration().getRecordSerializerVersion(), 0);
+
+      // VERSION STORED IN DATABASE IS USED EVEN IF DEFAULT VERSION IS CHANGED
+      OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_BINARY_VERSION.setValue(1);
+
+      final byte[] stream = ORecordSerializerBinary.INSTANCE.toStream(createWideDocument(null), false);
+      assertEquals(stream[0], 0);
+
+      assertWideDocument((ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(), null));
+    } finally {
+      OGlobalConfiguration.DB_DOCUMENT_SERIALIZER_BINARY_VERSION.setValue(1);
+
+      previousDb.drop();
+      db.activateOnCurrentThread();
+    }
+  }
+
+  public void testLazyFieldOfLoadedDocument() {
+    final ODocument document = createWideDocument("Wide");
+    document.save();
+
+    db.getLocalCache().clear();
+
+    final ODocument loaded = db.load(document.getIdentity());
+    assertEquals(loaded.field("field150"), "value150");
+    assertEquals(loaded.field("field151"), "value151");
+    assertFalse(ODocumentInternal.rawContainsField(loaded, "field3"));
+
+    assertWideDocument(loaded);
+  }
+
+  private ODocument createWideDocument(String className) {
+    final ODocument document = className != null ? new ODocument(className) : new ODocument();
+    for (int i = 0; i < WIDE_FIELDS; i++)
+      document.field("field" + i, "value" + i);
+
+    // FIELDS WITH THE SAME HASH CODE
+    document.field("Aa", "first");
+    document.field("BB", "second");
+    document.field("nullValue", (Object) null);
+
+    return document;
+  }
+
+  private void assertWideDocument(ODocument document) {
+    for (int i = 0; i < WIDE_FIELDS; i++)
+      assertEquals(document.field("field" + i), "value" + i);
+
+    assertEquals(document.field("Aa"), "first");
+    assertEquals(document.field("BB"), "second");
+    assertTrue(document.containsField("nullValue"));
+    assertNull(document.field("nullValue"));
+  }
+
+  private void assertPartialDeserialization(byte[] stream) {
+    final ODocument partial = (ODocument) ORecordSerializerBinary.INSTANCE.fromStream(stream, new ODocument(), new String[] {
+        "field7", "field100", "BB", "nullValue", "absent" });
+
+    assertEquals(partial.rawField("field7"), "value7");
+    assertEquals(partial.rawField("field100"), "value100");
+    assertEquals(partial.rawField("BB"), "second");
+    assertTrue(ODocumentInternal.rawContainsField(partial, "nullValue"));
+
+    assertFalse(ODocumentInternal.rawContainsField(partial, "Aa"));
+    assertFalse(ODocumentInternal.rawContainsField(partial, "field8"));
+    assertFalse(ODocumentInternal.rawContainsField(partial, "absent"));
+  }
+}
@@ -0,0 +1,69 @@
+package com.orientechnologies.orient.core.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+@Test
+public class OCommandExecutorSQLCompactClusterTest {
+  private ODatabaseDocumentTx db;
+
+  @BeforeClass
+  public void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OCommandExecutorSQLCompactClusterTest");
+    db.create();
+
+    db.command(new OCommandSQL("create class Person")).execute();
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+  }
+
+  public void testCompactCluster() {
+    final char[] name = new char[1000];
+    final List<ORID> rids = new ArrayList<ORID>();
+    final List<Integer> versions = new ArrayList<Integer>();
+    for (int i = 0; i < 2000; i++) {
+      ODocument document = new ODocument("Person");
+      document.field("id", i);
+      document.field("name", new String(name));
+      document.save();
+
+      rids.add(document.getIdentity());
+      versions.add(document.getVersion());
+    }
+
+    // FIRST HALF OF PAGES IS LEFT ALMOST EMPTY, SECOND HALF IS LEFT HALF FILLED
+    for (int i = 0; i < rids.size(); i++) {
+      if (i < rids.size() / 2 ? i % 10 != 0 : i % 2 != 0)
+        db.delete(rids.get(i));
+    }
+
+    final ODocument result = db.command(new OCommandSQL("compact cluster person pagefill 50 rate 0")).execute();
+    Assert.assertEquals(result.field("cluster"), "person");
+    Assert.assertTrue(result.<Long> field("recordsMoved") > 0);
+    Assert.assertTrue(result.<Long> field("pagesFreed") > 0);
+
+    db.getLocalCache().clear();
+    for (int i = 0; i < rids.size(); i += 10) {
+      final ODocument document = db.load(rids.get(i));
+      Assert.assertEquals(document.<Integer> field("id").intValue(), i);
+      Assert.assertEquals(document.getVersion(), versions.get(i).intValue());
+    }
+  }
+
+  @Test(expectedExceptions = OCommandSQLParsingException.class)
+  public void testInvalidPageFill() {
+    db.command(new OCommandSQL("compact cluster person pagefill 150")).execute();
+  }
+}
@@ -63,4 +63,40 @@ public class OLiveQueryTest {
     }
   }
 
+  @Test
+  public void testLiveInsertFiltered() {
+    OLiveCommandExecutorSQLFactory.init();
+
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx("memory:OLiveQueryTestFiltered");
+    db.activateOnCurrentThread();
+    db.registerHook(new OLiveQueryHook(db));
+    db.create();
+    try {
+      db.getMetadata().getSchema().createClass("test");
+      db.getMetadata().getSchema().createClass("testSub", db.getMetadata().getSchema().getClass("test"));
+      db.getMetadata().getSchema().createClass("test2");
+      MyLiveQueryListener listener = new MyLiveQueryListener();
+
+      db.query(new OLiveQuery<ODocument>("live select from test where name = 'foo'", listener));
+
+      db.command(new OCommandSQL("insert into test set name = 'foo', surname = 'bar'")).execute();
+      db.command(new OCommandSQL("insert into test set name = 'baz', surname = 'bar'")).execute();
+      db.command(new OCommandSQL("insert into testSub set name = 'foo', surname = 'baz'")).execute();
+      db.command(new OCommandSQL("insert into test2 set name = 'foo'")).execute();
+
+      try {
+        Thread.sleep(3000);
+      } catch (InterruptedException e) {
+        e.printStackTrace();
+      }
+      Assert.assertEquals(listener.ops.size(), 2);
+      for (ORecordOperation doc : listener.ops) {
+        Assert.assertEquals(doc.type, ORecordOperation.CREATED);
+        Assert.assertEquals(((ODocument) doc.record).field("name"), "foo");
+      }
+    } finally {
+      db.drop();
+    }
+  }
+
 }
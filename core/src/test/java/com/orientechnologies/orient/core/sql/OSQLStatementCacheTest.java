@@ -0,0 +1,102 @@
+package com.orientechnologies.orient.core.sql;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+
+@Test
+public class OSQLStatementCacheTest {
+  private ODatabaseDocumentTx db;
+  private OSQLStatementCache  cache;
+
+  @BeforeClass
+  public void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OSQLStatementCacheTest");
+    db.create();
+
+    db.command(new OCommandSQL("create class Person")).execute();
+    db.command(new OCommandSQL("create property Person.name STRING")).execute();
+    db.command(new OCommandSQL("create property Person.age INTEGER")).execute();
+
+    for (int i = 0; i < 10; i++)
+      db.command(new OCommandSQL("insert into Person (name, age) values (?, ?)")).execute("name" + i, i);
+
+    cache = OSQLStatementCache.instance(db.getStorage());
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+  }
+
+  @BeforeMethod
+  public void beforeMethod() {
+    cache.invalidate();
+  }
+
+  public void testReuseWithOtherParameters() {
+    for (int i = 0; i < 10; i++) {
+      List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from Person where name = ?"), "name" + i);
+      Assert.assertEquals(result.size(), 1);
+      Assert.assertEquals(result.get(0).<Integer> field("age").intValue(), i);
+    }
+
+    for (int i = 0; i < 10; i++) {
+      List<ODocument> result = db.command(new OCommandSQL("select from Person where age < :age")).execute(
+          Collections.singletonMap("age", i));
+      Assert.assertEquals(result.size(), i);
+    }
+
+    Assert.assertEquals(cache.size(), 2);
+  }
+
+  public void testSkipAndLimitOfReusedStatement() {
+    for (int i = 0; i < 3; i++) {
+      List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from Person order by age skip 2 limit 3"));
+      Assert.assertEquals(result.size(), 3);
+      Assert.assertEquals(result.get(0).<Integer> field("age").intValue(), 2);
+    }
+
+    Assert.assertEquals(cache.size(), 1);
+  }
+
+  public void testStatementsWithFunctionsAreNotCached() {
+    for (int i = 0; i < 3; i++) {
+      List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select count(*) from Person"));
+      Assert.assertEquals(((Number) result.get(0).field("count")).intValue(), 10);
+    }
+
+    Assert.assertFalse(cache.isReusable(OSQLStatementCache.getKey(-1, "select count(*) from Person")));
+  }
+
+  public void testInvalidationOnIndexChange() {
+    db.query(new OSQLSynchQuery<ODocument>("select from Person where age = ?"), 1);
+    Assert.assertEquals(cache.size(), 1);
+
+    db.command(new OCommandSQL("create index Person.age on Person (age) NOTUNIQUE")).execute();
+    Assert.assertEquals(cache.size(), 0);
+
+    List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from Person where age = ?"), 1);
+    Assert.assertEquals(result.size(), 1);
+
+    db.command(new OCommandSQL("drop index Person.age")).execute();
+    Assert.assertEquals(cache.size(), 0);
+  }
+
+  public void testInvalidationOnSchemaChange() {
+    db.query(new OSQLSynchQuery<ODocument>("select from Person where name = ?"), "name1");
+    Assert.assertEquals(cache.size(), 1);
+
+    db.command(new OCommandSQL("create property Person.surname STRING")).execute();
+    Assert.assertEquals(cache.size(), 0);
+  }
+}
@@ -0,0 +1,92 @@
+package com.orientechnologies.orient.core.sql.filter;
+
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.intent.OIntentMassiveInsert;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+
+/**
+ * Compares full scans of a class of 10M records filtered by interpreted and compiled conditions. Needs a heap of few GB, amount
+ * of records can be changed by "benchmarkRecords" system property.
+ */
+@Test(enabled = false)
+public class OSQLFilterCompilerBenchmark {
+  private static final int      RECORDS    = Integer.getInteger("benchmarkRecords", 10000000);
+  private static final int      ITERATIONS = 5;
+
+  private static final String[] CONDITIONS = { "age > 30 and age < 40 and salary >= 5000.0",
+      "name = 'name42' or (age >= 60 and score < 0.5)", "not (age < 18) and city <> 'Rome' and salary < 2000.0 and score > 0.9" };
+
+  private ODatabaseDocumentTx   db;
+
+  @BeforeClass
+  public void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OSQLFilterCompilerBenchmark");
+    db.create();
+
+    final OClass personClass = db.getMetadata().getSchema().createClass("Person");
+    personClass.createProperty("name", OType.STRING);
+    personClass.createProperty("city", OType.STRING);
+    personClass.createProperty("age", OType.INTEGER);
+    personClass.createProperty("salary", OType.LONG);
+    personClass.createProperty("score", OType.DOUBLE);
+
+    final String[] cities = { "Rome", "London", "Berlin", "Paris", "Madrid" };
+    final Random random = new Random(42);
+
+    db.declareIntent(new OIntentMassiveInsert());
+    for (int i = 0; i < RECORDS; i++) {
+      final ODocument document = new ODocument("Person");
+      document.field("name", "name" + random.nextInt(1000));
+      document.field("city", cities[random.nextInt(cities.length)]);
+      document.field("age", random.nextInt(100));
+      document.field("salary", (long) random.nextInt(10000));
+      document.field("score", random.nextDouble());
+      document.save();
+    }
+    db.declareIntent(null);
+  }
+
+  @AfterClass
+  public void afterClass() {
+    OGlobalConfiguration.QUERY_COMPILE_CONDITIONS.setValue(false);
+    db.drop();
+  }
+
+  public void benchmarkInterpretedConditions() {
+    run("Interpreted", false);
+  }
+
+  public void benchmarkCompiledConditions() {
+    run("Compiled", true);
+  }
+
+  private void run(final String name, final boolean compile) {
+    OGlobalConfiguration.QUERY_COMPILE_CONDITIONS.setValue(compile);
+
+    for (String condition : CONDITIONS) {
+      long best = Long.MAX_VALUE;
+      long count = 0;
+
+      for (int i = 0; i < ITERATIONS; i++) {
+        final long start = System.nanoTime();
+        final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select count(*) from Person where " + condition));
+        best = Math.min(best, System.nanoTime() - start);
+        count = result.get(0).<Number> field("count").longValue();
+      }
+
+      System.out.println(name + " : " + condition + " : " + count + " records matched, " + best / 1000000 + " ms per scan of "
+          + RECORDS + " records.");
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.orientechnologies.orient.core.sql.filter;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
+
+@Test
+public class OSQLFilterCompilerTest {
+  private static final String[] CONDITIONS = { "i > 50", "i >= 50 and l < 70", "d <= 10.5 or s = 'v7'", "not (i = 3)",
+      "i <> 4 and s like 'v1%'", "s like 'v1%' or i < 3", "i > 20.5", "l = 5", "sh < 10", "s >= 'v5'",
+      "tag = 'odd' and i > 10", "i > '10'", "i = 3 or i = 4 or i = 5", "d > 30 and not (s = 'v33' or l < 35)",
+      "f > 20.3 and f < 70", "d = 12.5", "i <= 12.0d" };
+
+  private ODatabaseDocumentTx   db;
+  private OClass                itemClass;
+
+  @BeforeClass
+  public void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OSQLFilterCompilerTest");
+    db.create();
+
+    itemClass = db.getMetadata().getSchema().createClass("Item");
+    itemClass.createProperty("i", OType.INTEGER);
+    itemClass.createProperty("l", OType.LONG);
+    itemClass.createProperty("sh", OType.SHORT);
+    itemClass.createProperty("f", OType.FLOAT);
+    itemClass.createProperty("d", OType.DOUBLE);
+    itemClass.createProperty("s", OType.STRING);
+
+    for (int i = 0; i < 100; i++) {
+      final ODocument document = new ODocument("Item");
+      if (i % 10 != 9) {
+        document.field("i", i);
+        document.field("l", (long) i);
+        document.field("sh", (short) i);
+        document.field("f", i + 0.25f);
+        document.field("d", i + 0.5);
+        document.field("s", "v" + i);
+      }
+      document.field("tag", i % 2 == 0 ? "even" : "odd");
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    OGlobalConfiguration.QUERY_COMPILE_CONDITIONS.setValue(false);
+  }
+
+  public void testCompiledConditionsReturnTheSameRecords() {
+    for (String condition : CONDITIONS) {
+      final Set<ORID> expected = select("select from Item where " + condition, Collections.emptyMap(), false);
+      final Set<ORID> actual = select("select from Item where " + condition, Collections.emptyMap(), true);
+
+      Assert.assertEquals(actual, expected, condition);
+    }
+  }
+
+  public void testCompiledConditionWithParameters() {
+    final Map<Object, Object> parameters = Collections.<Object, Object> singletonMap("min", 42);
+
+    final Set<ORID> expected = select("select from Item where i >= :min and tag = 'even'", parameters, false);
+    final Set<ORID> actual = select("select from Item where i >= :min and tag = 'even'", parameters, true);
+
+    Assert.assertEquals(actual.size(), 29);
+    Assert.assertEquals(actual, expected);
+  }
+
+  public void testCompile() {
+    Assert.assertNotNull(compile("i > 50"));
+    Assert.assertNotNull(compile("d <= 10.5 or s like 'v1%'"));
+    Assert.assertNotNull(compile("not (i = 3)"));
+
+    Assert.assertNull(compile("s like 'v1%'"));
+    Assert.assertNull(compile("s like 'v1%' or i < 3"));
+    Assert.assertNull(compile("tag = 'odd'"));
+    Assert.assertNull(compile("i > '10'"));
+  }
+
+  private OSQLCompiledCondition compile(final String iCondition) {
+    return OSQLFilterCompiler.compile(OSQLEngine.getInstance().parseCondition(iCondition, null, "WHERE"), itemClass);
+  }
+
+  private Set<ORID> select(final String iQuery, final Map<Object, Object> iParameters, final boolean iCompile) {
+    OGlobalConfiguration.QUERY_COMPILE_CONDITIONS.setValue(iCompile);
+
+    final List<ODocument> result = db.command(new OCommandSQL(iQuery)).execute(iParameters);
+    final Set<ORID> rids = new HashSet<ORID>();
+    for (ODocument document : result)
+      rids.add(document.getIdentity());
+
+    return rids;
+  }
+}
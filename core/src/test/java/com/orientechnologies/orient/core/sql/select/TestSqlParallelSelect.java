@@ -0,0 +1,140 @@
+package com.orientechnologies.orient.core.sql.select;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+
+@Test
+public class TestSqlParallelSelect {
+  private static final int    RECORDS = 5000;
+
+  private ODatabaseDocumentTx db;
+
+  @BeforeClass
+  public void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:" + TestSqlParallelSelect.class.getSimpleName());
+    db.create();
+    db.getMetadata().getSchema().createClass("ParallelScan");
+
+    for (int i = 0; i < RECORDS; i++) {
+      final ODocument document = new ODocument("ParallelScan");
+      document.field("value", i);
+      document.field("bucket", i % 10);
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+  }
+
+  public void testFilter() {
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>(
+        "select from ParallelScan where value >= 1000 and bucket = 3 parallel"));
+    Assert.assertEquals(result.size(), 400);
+
+    final Set<Integer> values = new HashSet<Integer>();
+    for (ODocument document : result) {
+      final int value = (Integer) document.field("value");
+      Assert.assertTrue(value >= 1000);
+      Assert.assertEquals(value % 10, 3);
+      values.add(value);
+    }
+
+    Assert.assertEquals(values.size(), 400);
+  }
+
+  public void testLimit() {
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from ParallelScan where bucket = 5 limit 7 parallel"));
+    Assert.assertEquals(result.size(), 7);
+  }
+
+  public void testAggregates() {
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>(
+        "select count(*) as total, sum(value) as sum, min(value) as min, max(value) as max from ParallelScan parallel"));
+    Assert.assertEquals(result.size(), 1);
+
+    final ODocument aggregates = result.get(0);
+    Assert.assertEquals(((Number) aggregates.field("total")).longValue(), RECORDS);
+    Assert.assertEquals(((Number) aggregates.field("sum")).longValue(), (long) RECORDS * (RECORDS - 1) / 2);
+    Assert.assertEquals(((Number) aggregates.field("min")).intValue(), 0);
+    Assert.assertEquals(((Number) aggregates.field("max")).intValue(), RECORDS - 1);
+  }
+
+  public void testGroupBy() {
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>(
+        "select bucket, count(*) as total from ParallelScan group by bucket parallel"));
+
+    int groups = 0;
+    for (ODocument document : result) {
+      if (document.field("bucket") == null)
+        continue;
+
+      groups++;
+      Assert.assertEquals(((Number) document.field("total")).longValue(), RECORDS / 10);
+    }
+
+    Assert.assertEquals(groups, 10);
+  }
+
+  public void testAverageGroupBy() {
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>(
+        "select bucket, avg(value) as average, max(value) as max from ParallelScan group by bucket parallel"));
+
+    int groups = 0;
+    for (ODocument document : result) {
+      final Integer bucket = document.field("bucket");
+      if (bucket == null)
+        continue;
+
+      groups++;
+      Assert.assertEquals(((Number) document.field("average")).intValue(), (RECORDS - 10) / 2 + bucket);
+      Assert.assertEquals(((Number) document.field("max")).intValue(), RECORDS - 10 + bucket);
+    }
+
+    Assert.assertEquals(groups, 10);
+  }
+
+  public void testProjections() {
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>(
+        "select value, bucket.append('-') as label from ParallelScan where bucket = 7 parallel"));
+    Assert.assertEquals(result.size(), RECORDS / 10);
+
+    final Set<Integer> values = new HashSet<Integer>();
+    final Set<Object> identities = new HashSet<Object>();
+    for (ODocument document : result) {
+      Assert.assertEquals(document.field("label"), "7-");
+      values.add((Integer) document.field("value"));
+      identities.add(document.getIdentity());
+    }
+
+    Assert.assertEquals(values.size(), RECORDS / 10);
+    Assert.assertEquals(identities.size(), RECORDS / 10);
+  }
+
+  public void testInTransaction() {
+    db.begin();
+    try {
+      final ODocument document = new ODocument("ParallelScan");
+      document.field("value", RECORDS);
+      document.field("bucket", 3);
+      document.save();
+
+      final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>(
+          "select count(*) as total from ParallelScan where bucket = 3 parallel"));
+      Assert.assertEquals(((Number) result.get(0).field("total")).longValue(), RECORDS / 10 + 1);
+    } finally {
+      db.rollback();
+    }
+  }
+}
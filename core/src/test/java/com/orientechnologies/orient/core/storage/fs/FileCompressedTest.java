@@ -0,0 +1,199 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import java.io.File;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryPointer;
+import com.orientechnologies.orient.core.compression.impl.OGZIPCompression;
+import com.orientechnologies.orient.core.compression.impl.ONothingCompression;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+
+@Test
+public class FileCompressedTest {
+  private static final int PAGE_SIZE = 64 * 1024;
+
+  private String           buildDirectory;
+
+  @BeforeClass
+  public void beforeClass() {
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+
+    buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty())
+      buildDirectory = ".";
+  }
+
+  public void testReadWriteAndReopen() throws Exception {
+    final String path = buildDirectory + File.separator + "compressedReopen.tst";
+    OFileCompressed file = createFile(path);
+    Assert.assertTrue(OFileCompressed.isCompressed(path));
+
+    final int pages = 10;
+    final byte[][] content = writePages(file, pages, 1, 100);
+    file.synch();
+
+    Assert.assertEquals(file.getFilledUpTo(), pages * (long) PAGE_SIZE);
+    Assert.assertTrue(file.getCompressedSize() < pages * (long) PAGE_SIZE / 4);
+    assertPages(file, content);
+    file.close();
+
+    // COMPRESSION OF EXISTING FILE IS TAKEN FROM THE PAGE MAPPING
+    file = new OFileCompressed(PAGE_SIZE, ONothingCompression.NAME);
+    file.init(path, "rw");
+    file.open();
+
+    try {
+      Assert.assertEquals(file.getFilledUpTo(), pages * (long) PAGE_SIZE);
+      assertPages(file, content);
+
+      final ODirectMemoryPointer pointer = new ODirectMemoryPointer(PAGE_SIZE + 16);
+      try {
+        file.read(PAGE_SIZE, pointer, 8, PAGE_SIZE);
+        Assert.assertEquals(pointer.get(8, PAGE_SIZE), content[1]);
+      } finally {
+        pointer.free();
+      }
+    } finally {
+      file.delete();
+    }
+
+    Assert.assertFalse(OFileCompressed.isCompressed(path));
+  }
+
+  public void testNotWrittenPagesAreReadAsZeros() throws Exception {
+    final OFileCompressed file = createFile(buildDirectory + File.separator + "compressedAllocated.tst");
+
+    try {
+      file.allocateSpace(2 * PAGE_SIZE);
+      final byte[][] content = writePages(file, 1, 2, 100);
+
+      final byte[] data = new byte[PAGE_SIZE];
+      file.read(0, data, PAGE_SIZE);
+      Assert.assertEquals(data, content[0]);
+
+      file.read(PAGE_SIZE, data, PAGE_SIZE);
+      Assert.assertEquals(data, new byte[PAGE_SIZE]);
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testIncompressiblePagesAreStoredAsIs() throws Exception {
+    final OFileCompressed file = createFile(buildDirectory + File.separator + "compressedRaw.tst");
+
+    try {
+      final byte[][] content = writePages(file, 3, 3, PAGE_SIZE);
+      assertPages(file, content);
+      Assert.assertTrue(file.getCompressedSize() > 3 * (long) PAGE_SIZE);
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testExtentOfMovedPageIsReusedAfterSynch() throws Exception {
+    final OFileCompressed file = createFile(buildDirectory + File.separator + "compressedMove.tst");
+
+    try {
+      final byte[][] content = writePages(file, 4, 4, 100);
+      file.synch();
+      final long compressedSize = file.getCompressedSize();
+
+      // PAGE DOES NOT FIT IN ITS EXTENT ANYMORE AND IS MOVED TO THE END OF FILE
+      content[1] = page(new Random(5), PAGE_SIZE);
+      Assert.assertEquals(file.write(PAGE_SIZE, content[1]), 0);
+      Assert.assertTrue(file.getCompressedSize() > compressedSize + PAGE_SIZE);
+      assertPages(file, content);
+
+      file.synch();
+      final long movedSize = file.getCompressedSize();
+
+      // NEW PAGE TAKES THE EXTENT FREED BY THE MOVE
+      final byte[][] newContent = new byte[5][];
+      System.arraycopy(content, 0, newContent, 0, 4);
+      newContent[4] = page(new Random(6), 100);
+      file.allocateSpace(PAGE_SIZE);
+      file.write(4 * PAGE_SIZE, newContent[4]);
+      Assert.assertEquals(file.getCompressedSize(), movedSize);
+
+      // PAGE SHRINKS IN PLACE, TAIL OF ITS EXTENT IS GIVEN BACK AFTER SYNCH
+      newContent[1] = page(new Random(7), 100);
+      file.write(PAGE_SIZE, newContent[1]);
+      Assert.assertEquals(file.getCompressedSize(), movedSize);
+      assertPages(file, newContent);
+
+      file.synch();
+      Assert.assertEquals(file.getCompressedSize(), compressedSize + OFileCompressed.UNIT_SIZE);
+      assertPages(file, newContent);
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testShrinkAndRename() throws Exception {
+    final String path = buildDirectory + File.separator + "compressedShrink.tst";
+    final OFileCompressed file = createFile(path);
+
+    try {
+      writePages(file, 3, 8, 100);
+      file.shrink(0);
+      file.synch();
+
+      Assert.assertEquals(file.getFilledUpTo(), 0);
+      Assert.assertEquals(file.getCompressedSize(), 0);
+
+      final byte[][] content = writePages(file, 2, 9, 100);
+
+      final File newFile = new File(buildDirectory + File.separator + "compressedRenamed.tst");
+      Assert.assertTrue(file.renameTo(newFile));
+      Assert.assertFalse(OFileCompressed.isCompressed(path));
+      Assert.assertTrue(OFileCompressed.isCompressed(newFile.getPath()));
+
+      assertPages(file, content);
+    } finally {
+      file.delete();
+    }
+  }
+
+  private OFileCompressed createFile(String path) throws Exception {
+    final OFileCompressed file = new OFileCompressed(PAGE_SIZE, OGZIPCompression.NAME);
+    file.init(path, "rw");
+    file.create(-1);
+    return file;
+  }
+
+  private static void assertPages(OFileCompressed file, byte[][] content) throws Exception {
+    final byte[] data = new byte[PAGE_SIZE];
+    for (int i = 0; i < content.length; i++) {
+      file.read(i * (long) PAGE_SIZE, data, PAGE_SIZE);
+      Assert.assertEquals(data, content[i]);
+    }
+  }
+
+  private static byte[][] writePages(OFileCompressed file, int pages, long seed, int randomBytes) throws Exception {
+    final Random random = new Random(seed);
+    final byte[][] content = new byte[pages][];
+
+    for (int i = 0; i < pages; i++) {
+      content[i] = page(random, randomBytes);
+
+      if (file.getFilledUpTo() < (i + 1) * (long) PAGE_SIZE)
+        file.allocateSpace(PAGE_SIZE);
+
+      Assert.assertEquals(file.write(i * (long) PAGE_SIZE, content[i]), PAGE_SIZE);
+    }
+
+    return content;
+  }
+
+  private static byte[] page(Random random, int randomBytes) {
+    final byte[] page = new byte[PAGE_SIZE];
+    final byte[] head = new byte[randomBytes];
+    random.nextBytes(head);
+    System.arraycopy(head, 0, page, 0, randomBytes);
+    return page;
+  }
+}
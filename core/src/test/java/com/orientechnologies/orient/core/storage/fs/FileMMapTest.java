@@ -0,0 +1,148 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import java.io.File;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryPointer;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+
+@Test
+public class FileMMapTest {
+  private static final int WINDOW    = 1024 * 1024;
+  private static final int PAGE_SIZE = 64 * 1024;
+
+  private String           buildDirectory;
+  private int              windowSize;
+
+  @BeforeClass
+  public void beforeClass() {
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+    windowSize = OGlobalConfiguration.FILE_MMAP_WINDOW_SIZE.getValueAsInteger();
+    OGlobalConfiguration.FILE_MMAP_WINDOW_SIZE.setValue(WINDOW / (1024 * 1024));
+
+    buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty())
+      buildDirectory = ".";
+  }
+
+  @AfterClass
+  public void afterClass() {
+    OGlobalConfiguration.FILE_MMAP_WINDOW_SIZE.setValue(windowSize);
+  }
+
+  public void testFactoryCreatesMMapFile() throws Exception {
+    final OFile file = OFileFactory.instance().create(OFileMMap.NAME, buildDirectory + File.separator + "mmapFactory.tst", "rw");
+    Assert.assertTrue(file instanceof OFileMMap);
+  }
+
+  public void testReadFromMappedWindows() throws Exception {
+    final OFileMMap file = new OFileMMap();
+    file.init(buildDirectory + File.separator + "mmapRead.tst", "rw");
+    file.create(-1);
+
+    try {
+      final int pages = 2 * WINDOW / PAGE_SIZE + 3;
+      final byte[][] content = writePages(file, pages, 1);
+
+      for (int i = 0; i < pages; i++) {
+        final byte[] data = new byte[PAGE_SIZE];
+        file.read(i * (long) PAGE_SIZE, data, PAGE_SIZE);
+        Assert.assertEquals(data, content[i]);
+
+        final ODirectMemoryPointer pointer = new ODirectMemoryPointer(PAGE_SIZE + 16);
+        try {
+          file.read(i * (long) PAGE_SIZE, pointer, 8, PAGE_SIZE);
+          Assert.assertEquals(pointer.get(8, PAGE_SIZE), content[i]);
+        } finally {
+          pointer.free();
+        }
+      }
+
+      // ONLY COMPLETELY FILLED WINDOWS ARE MAPPED, TAIL OF FILE IS READ THROUGH CHANNEL
+      Assert.assertEquals(file.getMappedWindows(), 2);
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testWritesAreVisibleInMapping() throws Exception {
+    final OFileMMap file = new OFileMMap();
+    file.init(buildDirectory + File.separator + "mmapWrite.tst", "rw");
+    file.create(-1);
+
+    try {
+      final int pages = WINDOW / PAGE_SIZE;
+      writePages(file, pages, 2);
+
+      final byte[] data = new byte[PAGE_SIZE];
+      file.read(0, data, PAGE_SIZE);
+      Assert.assertEquals(file.getMappedWindows(), 1);
+
+      final byte[][] updated = writePages(file, pages, 3);
+      for (int i = 0; i < pages; i++) {
+        file.read(i * (long) PAGE_SIZE, data, PAGE_SIZE);
+        Assert.assertEquals(data, updated[i]);
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testReopenAndShrink() throws Exception {
+    final String path = buildDirectory + File.separator + "mmapReopen.tst";
+    OFileMMap file = new OFileMMap();
+    file.init(path, "rw");
+    file.create(-1);
+
+    final int pages = WINDOW / PAGE_SIZE + 1;
+    final byte[][] content = writePages(file, pages, 4);
+
+    final byte[] data = new byte[PAGE_SIZE];
+    file.read(0, data, PAGE_SIZE);
+    Assert.assertEquals(file.getMappedWindows(), 1);
+    file.close();
+    Assert.assertEquals(file.getMappedWindows(), 0);
+
+    file = new OFileMMap();
+    file.init(path, "rw");
+    file.open();
+
+    try {
+      for (int i = 0; i < pages; i++) {
+        file.read(i * (long) PAGE_SIZE, data, PAGE_SIZE);
+        Assert.assertEquals(data, content[i]);
+      }
+
+      file.shrink(PAGE_SIZE);
+      Assert.assertEquals(file.getMappedWindows(), 0);
+
+      file.read(0, data, PAGE_SIZE);
+      Assert.assertEquals(data, content[0]);
+      Assert.assertEquals(file.getMappedWindows(), 0);
+    } finally {
+      file.delete();
+    }
+  }
+
+  private byte[][] writePages(OFileMMap file, int pages, long seed) throws Exception {
+    final Random random = new Random(seed);
+    final byte[][] content = new byte[pages][];
+
+    for (int i = 0; i < pages; i++) {
+      content[i] = new byte[PAGE_SIZE];
+      random.nextBytes(content[i]);
+
+      if (file.getFilledUpTo() < (i + 1) * (long) PAGE_SIZE)
+        file.allocateSpace(PAGE_SIZE);
+
+      file.write(i * (long) PAGE_SIZE, content[i]);
+    }
+
+    return content;
+  }
+}
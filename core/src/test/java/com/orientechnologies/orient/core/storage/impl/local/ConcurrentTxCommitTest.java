@@ -0,0 +1,240 @@
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.exception.OConcurrentModificationException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that transactions committed in parallel do not lose updates and keep data of disjoint clusters intact.
+ */
+@Test
+public class ConcurrentTxCommitTest {
+  private static final int    THREADS        = 8;
+  private static final int    TX_PER_THREAD  = 100;
+  private static final int    RECORDS_PER_TX = 5;
+
+  private ODatabaseDocumentTx db;
+  private ORID                counterRid;
+
+  @BeforeMethod
+  public void beforeMethod() {
+    db = new ODatabaseDocumentTx("memory:" + ConcurrentTxCommitTest.class.getSimpleName());
+    db.create();
+
+    for (int i = 0; i < THREADS; i++)
+      db.getMetadata().getSchema().createClass("Writer" + i);
+
+    db.getMetadata().getSchema().createClass("Counter");
+
+    final ODocument counter = new ODocument("Counter");
+    counter.field("value", 0);
+    counter.save();
+
+    counterRid = counter.getIdentity();
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    db.activateOnCurrentThread();
+    db.drop();
+  }
+
+  public void testDisjointClusters() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+    for (int i = 0; i < THREADS; i++) {
+      final String className = "Writer" + i;
+
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final ODatabaseDocumentTx database = new ODatabaseDocumentTx(db.getURL());
+          database.open("admin", "admin");
+          try {
+            for (int n = 0; n < TX_PER_THREAD; n++) {
+              database.begin();
+              for (int r = 0; r < RECORDS_PER_TX; r++) {
+                final ODocument document = new ODocument(className);
+                document.field("tx", n);
+                document.field("record", r);
+                document.save();
+              }
+              database.commit();
+            }
+          } finally {
+            database.close();
+          }
+
+          return null;
+        }
+      }));
+    }
+
+    for (Future<Void> future : futures)
+      future.get();
+
+    executor.shutdown();
+
+    db.activateOnCurrentThread();
+    for (int i = 0; i < THREADS; i++)
+      Assert.assertEquals(db.countClass("Writer" + i), TX_PER_THREAD * RECORDS_PER_TX);
+  }
+
+  public void testSameClass() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+    for (int i = 0; i < THREADS; i++) {
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final ODatabaseDocumentTx database = new ODatabaseDocumentTx(db.getURL());
+          database.open("admin", "admin");
+          try {
+            for (int n = 0; n < TX_PER_THREAD; n++) {
+              database.begin();
+              for (int r = 0; r < RECORDS_PER_TX; r++) {
+                final ODocument document = new ODocument("Writer0");
+                document.field("tx", n);
+                document.field("record", r);
+                document.save();
+              }
+              database.commit();
+            }
+          } finally {
+            database.close();
+          }
+
+          return null;
+        }
+      }));
+    }
+
+    for (Future<Void> future : futures)
+      future.get(5, TimeUnit.MINUTES);
+
+    executor.shutdown();
+
+    db.activateOnCurrentThread();
+    Assert.assertEquals(db.countClass("Writer0"), THREADS * TX_PER_THREAD * RECORDS_PER_TX);
+  }
+
+  public void testCrossedIndexes() throws Exception {
+    for (String className : new String[] { "IndexedA", "IndexedB" }) {
+      final OClass indexedClass = db.getMetadata().getSchema().createClass(className);
+      indexedClass.createProperty("key", OType.INTEGER);
+      indexedClass.createIndex(className + ".key", OClass.INDEX_TYPE.NOTUNIQUE, "key");
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+    for (int i = 0; i < THREADS; i++) {
+      // HALF OF WRITERS CHANGE INDEXES IN REVERSE ORDER
+      final String[] classNames = i % 2 == 0 ? new String[] { "IndexedA", "IndexedB" } : new String[] { "IndexedB", "IndexedA" };
+
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final ODatabaseDocumentTx database = new ODatabaseDocumentTx(db.getURL());
+          database.open("admin", "admin");
+          try {
+            for (int n = 0; n < TX_PER_THREAD; n++) {
+              database.begin();
+              for (String className : classNames) {
+                final ODocument document = new ODocument(className);
+                document.field("key", n);
+                document.save();
+              }
+              database.commit();
+            }
+          } finally {
+            database.close();
+          }
+
+          return null;
+        }
+      }));
+    }
+
+    for (Future<Void> future : futures)
+      future.get(5, TimeUnit.MINUTES);
+
+    executor.shutdown();
+
+    db.activateOnCurrentThread();
+    Assert.assertEquals(db.countClass("IndexedA"), THREADS * TX_PER_THREAD);
+    Assert.assertEquals(db.countClass("IndexedB"), THREADS * TX_PER_THREAD);
+    Assert.assertEquals(db.getMetadata().getIndexManager().getIndex("IndexedA.key").getSize(), THREADS * TX_PER_THREAD);
+  }
+
+  public void testSameRecordUpdates() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+    for (int i = 0; i < THREADS; i++) {
+      final String className = "Writer" + i;
+
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final ODatabaseDocumentTx database = new ODatabaseDocumentTx(db.getURL());
+          database.open("admin", "admin");
+          try {
+            int committed = 0;
+            while (committed < TX_PER_THREAD) {
+              try {
+                database.begin();
+
+                final ODocument document = new ODocument(className);
+                document.field("tx", committed);
+                document.save();
+
+                final ODocument counter = database.load(counterRid, null, true);
+                counter.field("value", (Integer) counter.field("value") + 1);
+                counter.save();
+
+                database.commit();
+                committed++;
+              } catch (OConcurrentModificationException e) {
+                database.rollback();
+              }
+            }
+          } finally {
+            database.close();
+          }
+
+          return null;
+        }
+      }));
+    }
+
+    for (Future<Void> future : futures)
+      future.get();
+
+    executor.shutdown();
+
+    db.activateOnCurrentThread();
+    final ODocument counter = db.load(counterRid, null, true);
+    Assert.assertEquals(counter.field("value"), THREADS * TX_PER_THREAD);
+
+    for (int i = 0; i < THREADS; i++)
+      Assert.assertEquals(db.countClass("Writer" + i), TX_PER_THREAD);
+  }
+}
@@ -1231,4 +1231,72 @@ public class LocalPaginatedClusterTest {
         + (OByteSerializer.BYTE_SIZE + OLongSerializer.LONG_SIZE));
     readCache.release(cacheEntry, writeCache);
   }
+
+  public void testCompaction() throws IOException {
+    paginatedCluster.set(OCluster.ATTRIBUTES.COMPRESSION, ONothingCompression.NAME);
+
+    final int records = 6000;
+    MersenneTwisterFast mersenneTwisterFast = new MersenneTwisterFast(42);
+
+    Map<Long, byte[]> positionRecordMap = new HashMap<Long, byte[]>();
+    Map<Long, ORecordVersion> positionVersionMap = new HashMap<Long, ORecordVersion>();
+
+    for (int i = 0; i < records; i++) {
+      byte[] record = new byte[1000];
+      mersenneTwisterFast.nextBytes(record);
+
+      ORecordVersion recordVersion = OVersionFactory.instance().createVersion();
+      for (int n = 0; n < i % 5; n++)
+        recordVersion.increment();
+
+      final OPhysicalPosition physicalPosition = paginatedCluster.createRecord(record, recordVersion, (byte) 1);
+      positionRecordMap.put(physicalPosition.clusterPosition, record);
+      positionVersionMap.put(physicalPosition.clusterPosition, recordVersion);
+    }
+
+    // FIRST HALF OF PAGES IS LEFT ALMOST EMPTY, SECOND HALF IS LEFT HALF FILLED
+    Iterator<Long> positionIterator = positionRecordMap.keySet().iterator();
+    while (positionIterator.hasNext()) {
+      final long clusterPosition = positionIterator.next();
+      if (clusterPosition < records / 2 ? clusterPosition % 10 != 0 : clusterPosition % 2 != 0) {
+        Assert.assertTrue(paginatedCluster.deleteRecord(clusterPosition));
+        positionIterator.remove();
+      }
+    }
+
+    OClusterCompactionResult result = paginatedCluster.compact(30, 0);
+
+    Assert.assertTrue(result.getRecordsMoved() > 0);
+    Assert.assertTrue(result.getPagesFreed() > 0);
+    Assert.assertEquals(result.getReclaimedBytes(), result.getPagesFreed() * OClusterPage.PAGE_SIZE);
+    Assert.assertEquals(paginatedCluster.getEntries(), positionRecordMap.size());
+
+    for (Map.Entry<Long, byte[]> entry : positionRecordMap.entrySet()) {
+      ORawBuffer rawBuffer = paginatedCluster.readRecord(entry.getKey());
+      Assert.assertNotNull(rawBuffer);
+
+      Assert.assertEquals(rawBuffer.version, positionVersionMap.get(entry.getKey()));
+      Assert.assertEquals(rawBuffer.buffer, entry.getValue());
+      Assert.assertEquals(rawBuffer.recordType, 1);
+    }
+
+    // SECOND RUN FINDS NOTHING TO MOVE OUT OF FREED PAGES
+    result = paginatedCluster.compact(30, 0);
+    Assert.assertEquals(result.getPagesFreed(), 0);
+
+    for (int i = 0; i < 1000; i++) {
+      byte[] record = new byte[1000];
+      mersenneTwisterFast.nextBytes(record);
+
+      final OPhysicalPosition physicalPosition = paginatedCluster.createRecord(record, OVersionFactory.instance().createVersion(),
+          (byte) 1);
+      positionRecordMap.put(physicalPosition.clusterPosition, record);
+    }
+
+    for (Map.Entry<Long, byte[]> entry : positionRecordMap.entrySet()) {
+      ORawBuffer rawBuffer = paginatedCluster.readRecord(entry.getKey());
+      Assert.assertNotNull(rawBuffer);
+      Assert.assertEquals(rawBuffer.buffer, entry.getValue());
+    }
+  }
 }
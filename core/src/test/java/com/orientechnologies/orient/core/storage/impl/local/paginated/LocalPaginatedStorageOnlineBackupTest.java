@@ -0,0 +1,207 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.core.command.OCommandOutputListener;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.tool.ODatabaseCompare;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+
+@Test
+public class LocalPaginatedStorageOnlineBackupTest {
+  private ODatabaseDocumentTx baseDocumentTx;
+  private ODatabaseDocumentTx testDocumentTx;
+  private File                buildDir;
+
+  private ExecutorService     executorService = Executors.newCachedThreadPool();
+
+  @BeforeClass
+  public void beforeClass() {
+    OGlobalConfiguration.FILE_LOCK.setValue(false);
+
+    String buildDirectory = System.getProperty("buildDirectory", ".");
+    buildDirectory += "/localPaginatedStorageOnlineBackupTest";
+
+    buildDir = new File(buildDirectory);
+    if (buildDir.exists())
+      buildDir.delete();
+
+    buildDir.mkdir();
+  }
+
+  @AfterClass
+  public void afterClass() {
+    executorService.shutdown();
+    buildDir.delete();
+  }
+
+  @BeforeMethod
+  public void beforeMethod() {
+    baseDocumentTx = new ODatabaseDocumentTx("plocal:" + buildDir.getAbsolutePath() + "/baseOnlineBackupTest");
+    if (baseDocumentTx.exists()) {
+      baseDocumentTx.open("admin", "admin");
+      baseDocumentTx.drop();
+    }
+
+    baseDocumentTx.create();
+    createSchema(baseDocumentTx);
+
+    testDocumentTx = new ODatabaseDocumentTx("plocal:" + buildDir.getAbsolutePath() + "/testOnlineBackupTest");
+    if (testDocumentTx.exists()) {
+      testDocumentTx.open("admin", "admin");
+      testDocumentTx.drop();
+    }
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    testDocumentTx.open("admin", "admin");
+    testDocumentTx.drop();
+
+    baseDocumentTx.open("admin", "admin");
+    baseDocumentTx.drop();
+
+    new File(buildDir, "full.obk").delete();
+    new File(buildDir, "incremental.obk").delete();
+  }
+
+  public void testFullAndIncrementalBackupUnderLoad() throws Exception {
+    ODatabaseRecordThreadLocal.INSTANCE.set(baseDocumentTx);
+    addDocuments(baseDocumentTx, 1000, new Random());
+    final long countBeforeBackup = baseDocumentTx.countClass("TestOne");
+
+    final AtomicBoolean stop = new AtomicBoolean();
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+    for (int i = 0; i < 4; i++)
+      futures.add(executorService.submit(new DataPropagationTask(stop)));
+
+    final OLocalPaginatedStorage storage = (OLocalPaginatedStorage) baseDocumentTx.getStorage().getUnderlying();
+
+    final File fullBackup = new File(buildDir, "full.obk");
+    final OLogSequenceNumber lsn;
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(fullBackup));
+    try {
+      lsn = storage.backupOnline(out, null, null, 9);
+    } finally {
+      out.close();
+    }
+
+    stop.set(true);
+    for (Future<Void> future : futures)
+      future.get();
+
+    Assert.assertNotNull(lsn);
+
+    restore(fullBackup);
+
+    testDocumentTx.open("admin", "admin");
+    Assert.assertTrue(testDocumentTx.countClass("TestOne") >= countBeforeBackup);
+    testDocumentTx.close();
+
+    ODatabaseRecordThreadLocal.INSTANCE.set(baseDocumentTx);
+    addDocuments(baseDocumentTx, 1000, new Random());
+
+    final File incrementalBackup = new File(buildDir, "incremental.obk");
+    out = new BufferedOutputStream(new FileOutputStream(incrementalBackup));
+    try {
+      Assert.assertTrue(storage.backupOnline(out, lsn, null, 9).compareTo(lsn) > 0);
+    } finally {
+      out.close();
+    }
+
+    Assert.assertTrue(incrementalBackup.length() < fullBackup.length());
+
+    restore(incrementalBackup);
+    baseDocumentTx.close();
+
+    ODatabaseCompare databaseCompare = new ODatabaseCompare(testDocumentTx.getURL(), baseDocumentTx.getURL(), "admin", "admin",
+        new OCommandOutputListener() {
+          @Override
+          public void onMessage(String text) {
+            System.out.println(text);
+          }
+        });
+    databaseCompare.setCompareIndexMetadata(true);
+
+    Assert.assertTrue(databaseCompare.compare());
+  }
+
+  private void restore(File backup) throws Exception {
+    final InputStream in = new BufferedInputStream(new FileInputStream(backup));
+    try {
+      testDocumentTx.restore(in, null, null, null);
+    } finally {
+      in.close();
+    }
+  }
+
+  private void createSchema(ODatabaseDocumentTx databaseDocumentTx) {
+    ODatabaseRecordThreadLocal.INSTANCE.set(databaseDocumentTx);
+
+    OSchema schema = databaseDocumentTx.getMetadata().getSchema();
+    OClass testOneClass = schema.createClass("TestOne");
+
+    testOneClass.createProperty("intProp", OType.INTEGER).createIndex(OClass.INDEX_TYPE.NOTUNIQUE);
+    testOneClass.createProperty("stringProp", OType.STRING);
+  }
+
+  private static void addDocuments(ODatabaseDocumentTx db, int count, Random random) {
+    for (int i = 0; i < count; i++) {
+      ODocument document = new ODocument("TestOne");
+      document.field("intProp", random.nextInt());
+      document.field("stringProp", "value" + random.nextInt());
+      document.save();
+    }
+  }
+
+  private final class DataPropagationTask implements Callable<Void> {
+    private final AtomicBoolean stop;
+
+    private DataPropagationTask(AtomicBoolean stop) {
+      this.stop = stop;
+    }
+
+    @Override
+    public Void call() throws Exception {
+      final Random random = new Random();
+
+      final ODatabaseDocumentTx db = new ODatabaseDocumentTx(baseDocumentTx.getURL());
+      db.open("admin", "admin");
+      try {
+        while (!stop.get())
+          addDocuments(db, 100, random);
+      } finally {
+        db.close();
+      }
+
+      return null;
+    }
+  }
+}
@@ -11,6 +11,10 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -21,6 +25,7 @@ import org.testng.annotations.Test;
 
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
 
 /**
@@ -1610,6 +1615,79 @@ public class WriteAheadLogTest {
     Assert.assertEquals(startLSN, lsn);
   }
 
+  public void testFlushTill() throws Exception {
+    TestRecord writtenRecord = new TestRecord(30, false);
+    OLogSequenceNumber lsn = writeAheadLog.log(writtenRecord);
+
+    writeAheadLog.flushTill(lsn);
+    Assert.assertTrue(writeAheadLog.getFlushedLSN().compareTo(lsn) >= 0);
+
+    writeAheadLog.close(false);
+    writeAheadLog = createWAL();
+
+    Assert.assertEquals(writeAheadLog.read(lsn), writtenRecord);
+  }
+
+  public void testFlushTillSyncsRecordsFlushedWithoutSync() throws Exception {
+    final boolean syncOnPageFlush = OGlobalConfiguration.WAL_SYNC_ON_PAGE_FLUSH.getValueAsBoolean();
+    OGlobalConfiguration.WAL_SYNC_ON_PAGE_FLUSH.setValue(false);
+    try {
+      final OLogSequenceNumber lsn = writeAheadLog.log(new TestRecord(30, false));
+
+      writeAheadLog.flush();
+      Assert.assertTrue(writeAheadLog.getFlushedLSN().compareTo(lsn) >= 0);
+      Assert.assertTrue(writeAheadLog.getSyncedLSN() == null || writeAheadLog.getSyncedLSN().compareTo(lsn) < 0);
+
+      writeAheadLog.flushTill(lsn);
+      Assert.assertTrue(writeAheadLog.getSyncedLSN().compareTo(lsn) >= 0);
+    } finally {
+      OGlobalConfiguration.WAL_SYNC_ON_PAGE_FLUSH.setValue(syncOnPageFlush);
+    }
+  }
+
+  public void testGroupCommitOfConcurrentWriters() throws Exception {
+    final int writers = 8;
+    final int recordsPerWriter = 100;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(writers);
+    final List<Future<List<TestRecord>>> futures = new ArrayList<Future<List<TestRecord>>>();
+
+    for (int i = 0; i < writers; i++) {
+      futures.add(executor.submit(new Callable<List<TestRecord>>() {
+        @Override
+        public List<TestRecord> call() throws Exception {
+          final Random random = new Random();
+          final List<TestRecord> records = new ArrayList<TestRecord>();
+
+          for (int n = 0; n < recordsPerWriter; n++) {
+            final TestRecord record = new TestRecord(random.nextInt(2 * OWALPage.PAGE_SIZE) + 30, false);
+            final OLogSequenceNumber lsn = writeAheadLog.log(record);
+
+            writeAheadLog.flushTill(lsn);
+            Assert.assertTrue(writeAheadLog.getSyncedLSN().compareTo(lsn) >= 0);
+
+            records.add(record);
+          }
+
+          return records;
+        }
+      }));
+    }
+
+    final List<TestRecord> writtenRecords = new ArrayList<TestRecord>();
+    for (Future<List<TestRecord>> future : futures)
+      writtenRecords.addAll(future.get());
+
+    executor.shutdown();
+
+    // RECORDS WHICH ARE FLUSHED BY GROUP COMMIT SHOULD SURVIVE CLOSE WITHOUT FLUSH
+    writeAheadLog.close(false);
+    writeAheadLog = createWAL();
+
+    for (TestRecord writtenRecord : writtenRecords)
+      Assert.assertEquals(writeAheadLog.read(writtenRecord.getLsn()), writtenRecord);
+  }
+
   private void assertLogContent(ODiskWriteAheadLog writeAheadLog, List<? extends OWALRecord> writtenRecords) throws Exception {
     Iterator<? extends OWALRecord> iterator = writtenRecords.iterator();
 
@@ -50,8 +50,12 @@ import com.orientechnologies.orient.server.distributed.task.OTxTask;
 import com.orientechnologies.orient.server.distributed.task.OUpdateRecordTask;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -69,8 +73,9 @@ public class ODistributedWorker extends Thread {
   protected final OHazelcastDistributedMessageService msgService;
   protected final String                              databaseName;
   protected final IQueue<ODistributedRequest>         requestQueue;
-  protected Queue<ODistributedRequest>                localQueue          = new ArrayBlockingQueue<ODistributedRequest>(
-                                                                              LOCAL_QUEUE_MAXSIZE);
+  protected Queue<ODistributedRequest>                localQueue          = new LinkedBlockingQueue<ODistributedRequest>();
+  protected Map<String, List<ODistributedResponse>>   pendingResponses    = new HashMap<String, List<ODistributedResponse>>();
+  protected long                                      unpackedMessages    = 0;
   protected volatile ODatabaseDocumentTx              database;
   protected volatile OUser                            lastUser;
   protected boolean                                   restoringMessages;
@@ -94,7 +99,7 @@ public class ODistributedWorker extends Thread {
     long lastMessageId = -1;
 
     for (long processedMessages = 0; running; processedMessages++) {
-      if (restoringMessages && processedMessages >= queuedMsg) {
+      if (restoringMessages && processedMessages >= queuedMsg + unpackedMessages) {
         // END OF RESTORING MESSAGES, SET IT ONLINE
         ODistributedServerLog.debug(this, getLocalNodeName(), null, DIRECTION.NONE,
             "executed all pending tasks in queue (%d), set restoringMessages=false and database '%s' as online. Last req=%d",
@@ -148,6 +153,8 @@ public class ODistributedWorker extends Thread {
       }
     }
 
+    sendPendingResponses();
+
     ODistributedServerLog.debug(this, manager.getLocalNodeName(), null, DIRECTION.NONE, "end of reading requests for database %s",
         databaseName);
   }
@@ -245,12 +252,28 @@ public class ODistributedWorker extends Thread {
   }
 
   protected ODistributedRequest nextMessage() throws InterruptedException {
+    if (localQueue.isEmpty())
+      // NOTHING ELSE TO EXECUTE: SEND BACK THE RESPONSES BEFORE WAITING
+      sendPendingResponses();
+
     while (localQueue.isEmpty()) {
+      final List<ODistributedRequest> messages = new ArrayList<ODistributedRequest>();
+
       // WAIT FOR THE FIRST MESSAGE
-      localQueue.offer(requestQueue.take());
+      messages.add(requestQueue.take());
 
       // READ MULTIPLE MSGS IN ONE SHOT BY USING LOCAL QUEUE TO IMPROVE PERFORMANCE
-      requestQueue.drainTo(localQueue, LOCAL_QUEUE_MAXSIZE - 1);
+      requestQueue.drainTo(messages, LOCAL_QUEUE_MAXSIZE - 1);
+
+      for (ODistributedRequest message : messages) {
+        if (message instanceof OHazelcastDistributedRequestBatch) {
+          // UNPACK THE BATCH KEEPING THE ORDER OF ITS REQUESTS
+          final List<ODistributedRequest> requests = ((OHazelcastDistributedRequestBatch) message).getRequests();
+          localQueue.addAll(requests);
+          unpackedMessages += requests.size() - 1;
+        } else
+          localQueue.offer(message);
+      }
     }
 
     return localQueue.poll();
@@ -424,16 +447,53 @@ public class ODistributedWorker extends Thread {
     final OHazelcastDistributedResponse response = new OHazelcastDistributedResponse(iRequest.getId(), manager.getLocalNodeName(),
         iRequest.getSenderNodeName(), responsePayload);
 
+    final int batchSize = OGlobalConfiguration.DISTRIBUTED_BATCH_SIZE.getValueAsInteger();
+    if (batchSize > 1) {
+      // SEND IT BACK TOGETHER WITH THE NEXT RESPONSES TO THE SAME NODE
+      List<ODistributedResponse> responses = pendingResponses.get(iRequest.getSenderNodeName());
+      if (responses == null) {
+        responses = new ArrayList<ODistributedResponse>();
+        pendingResponses.put(iRequest.getSenderNodeName(), responses);
+      }
+      responses.add(response);
+
+      if (responses.size() >= batchSize)
+        sendResponses(iRequest.getSenderNodeName(), responses);
+      return;
+    }
+
+    sendResponse(iRequest.getSenderNodeName(), response);
+  }
+
+  private void sendPendingResponses() {
+    for (Map.Entry<String, List<ODistributedResponse>> entry : pendingResponses.entrySet())
+      if (!entry.getValue().isEmpty())
+        try {
+          sendResponses(entry.getKey(), entry.getValue());
+        } catch (ODistributedException e) {
+          ODistributedServerLog.error(this, getLocalNodeName(), entry.getKey(), DIRECTION.OUT, "error on sending back responses", e);
+        }
+  }
+
+  private void sendResponses(final String iSenderNodeName, final List<ODistributedResponse> iResponses) {
+    final ODistributedResponse response = iResponses.size() == 1 ? iResponses.get(0) : new OHazelcastDistributedResponseBatch(
+        new ArrayList<ODistributedResponse>(iResponses));
+    iResponses.clear();
+
+    sendResponse(iSenderNodeName, response);
+  }
+
+  private void sendResponse(final String iSenderNodeName, final ODistributedResponse response) {
     try {
       // GET THE SENDER'S RESPONSE QUEUE
       final IQueue<ODistributedResponse> queue = msgService.getQueue(OHazelcastDistributedMessageService
-          .getResponseQueueName(iRequest.getSenderNodeName()));
+          .getResponseQueueName(iSenderNodeName));
 
       if (!queue.offer(response, OGlobalConfiguration.DISTRIBUTED_QUEUE_TIMEOUT.getValueAsLong(), TimeUnit.MILLISECONDS))
-        throw new ODistributedException("Timeout on dispatching response to the thread queue " + iRequest.getSenderNodeName());
+        throw new ODistributedException("Timeout on dispatching response to the thread queue " + iSenderNodeName);
 
     } catch (Exception e) {
-      throw new ODistributedException("Cannot dispatch response to the thread queue " + iRequest.getSenderNodeName(), e);
+      throw new ODistributedException("Cannot dispatch response to the thread queue " + iSenderNodeName, e);
     }
   }
 
@@ -34,7 +34,9 @@ import com.orientechnologies.orient.server.distributed.ODistributedResponseManag
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog.DIRECTION;
 import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
+import com.orientechnologies.orient.server.distributed.task.OAbstractRecordReplicatedTask;
 import com.orientechnologies.orient.server.distributed.task.OAbstractRemoteTask;
+import com.orientechnologies.orient.server.distributed.task.OCompletedTxTask;
 import com.orientechnologies.orient.server.distributed.task.OCreateRecordTask;
 import com.orientechnologies.orient.server.distributed.task.ODeleteRecordTask;
 import com.orientechnologies.orient.server.distributed.task.OFixTxTask;
@@ -71,6 +73,7 @@ public class OHazelcastDistributedDatabase implements ODistributedDatabase {
   protected final OHazelcastDistributedMessageService msgService;
   protected final String                              databaseName;
   protected final Lock                                requestLock;
+  protected final OHazelcastDistributedRequestBatcher batcher;
   protected final int                                 numWorkers                 = 8;
   protected volatile boolean                          restoringMessages          = false;
   protected AtomicBoolean                             status                     = new AtomicBoolean(false);
@@ -85,6 +88,7 @@ public class OHazelcastDistributedDatabase implements ODistributedDatabase {
     this.databaseName = iDatabaseName;
 
     this.requestLock = manager.getHazelcastInstance().getLock(NODE_LOCK_PREFIX + iDatabaseName);
+    this.batcher = new OHazelcastDistributedRequestBatcher(this);
 
     checkLocalNodeInConfiguration();
 
@@ -162,27 +166,33 @@ public class OHazelcastDistributedDatabase implements ODistributedDatabase {
     final long timeout = OGlobalConfiguration.DISTRIBUTED_QUEUE_TIMEOUT.getValueAsLong();
 
     try {
-      requestLock.lock();
-      try {
-        // LOCK = ASSURE MESSAGES IN THE QUEUE ARE INSERTED SEQUENTIALLY AT CLUSTER LEVEL
-        // BROADCAST THE REQUEST TO ALL THE NODE QUEUES
+      if (isBatchable(iRequest.getTask()))
+        // SEND IT TOGETHER WITH THE REQUESTS OF THE OTHER THREADS
+        batcher.send(iRequest, reqQueues, currentResponseMgr);
+      else {
+        requestLock.lock();
+        try {
+          // LOCK = ASSURE MESSAGES IN THE QUEUE ARE INSERTED SEQUENTIALLY AT CLUSTER LEVEL
+          // BROADCAST THE REQUEST TO ALL THE NODE QUEUES
+
+          // TODO: CAN I MOVE THIS OUTSIDE?
+          iRequest.setId(msgService.getMessageIdCounter().getAndIncrement());
 
-        // TODO: CAN I MOVE THIS OUTSIDE?
-        iRequest.setId(msgService.getMessageIdCounter().getAndIncrement());
+          if (ODistributedServerLog.isDebugEnabled())
+            ODistributedServerLog.debug(this, getLocalNodeName(), iNodes.toString(), DIRECTION.OUT, "sending request %s",
+                iRequest);
 
-        if (ODistributedServerLog.isDebugEnabled())
-          ODistributedServerLog.debug(this, getLocalNodeName(), iNodes.toString(), DIRECTION.OUT, "sending request %s", iRequest);
+          // TODO: CAN I MOVE THIS OUTSIDE?
+          msgService.registerRequest(iRequest.getId(), currentResponseMgr);
 
-        // TODO: CAN I MOVE THIS OUTSIDE?
-        msgService.registerRequest(iRequest.getId(), currentResponseMgr);
+          for (IQueue<ODistributedRequest> queue : reqQueues) {
+            if (queue != null)
+              queue.offer(iRequest, timeout, TimeUnit.MILLISECONDS);
+          }
 
-        for (IQueue<ODistributedRequest> queue : reqQueues) {
-          if (queue != null)
-            queue.offer(iRequest, timeout, TimeUnit.MILLISECONDS);
+        } finally {
+          requestLock.unlock();
         }
-
-      } finally {
-        requestLock.unlock();
       }
 
       if (ODistributedServerLog.isDebugEnabled())
@@ -388,6 +398,17 @@ public class OHazelcastDistributedDatabase implements ODistributedDatabase {
     return quorum;
   }
 
+  /**
+   * Record and transaction replication requests are sent in batch with the ones of other threads, if batching is enabled.
+   */
+  protected boolean isBatchable(final OAbstractRemoteTask iTask) {
+    if (OGlobalConfiguration.DISTRIBUTED_BATCH_SIZE.getValueAsInteger() <= 1)
+      return false;
+
+    return iTask instanceof OAbstractRecordReplicatedTask || iTask instanceof OTxTask || iTask instanceof OCompletedTxTask
+        || iTask instanceof OFixTxTask;
+  }
+
   protected ODistributedResponse waitForResponse(final ODistributedRequest iRequest,
       final ODistributedResponseManager currentResponseMgr) throws InterruptedException {
     if (iRequest.getExecutionMode() == ODistributedRequest.EXECUTION_MODE.NO_RESPONSE)
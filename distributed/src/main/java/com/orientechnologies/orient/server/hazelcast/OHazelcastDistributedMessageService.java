@@ -109,10 +109,21 @@ public class OHazelcastDistributedMessageService implements ODistributedMessageS
 
             if (message != null) {
               senderNode = message.getSenderNodeName();
-              final long responseTime = dispatchResponseToThread(message);
 
-              if (responseTime > -1)
-                collectMetric(responseTime);
+              if (message instanceof OHazelcastDistributedResponseBatch) {
+                // DISPATCH EVERY RESPONSE OF THE BATCH TO ITS OWN RESPONSE MANAGER
+                for (ODistributedResponse response : ((OHazelcastDistributedResponseBatch) message).getResponses()) {
+                  final long responseTime = dispatchResponseToThread(response);
+
+                  if (responseTime > -1)
+                    collectMetric(responseTime);
+                }
+              } else {
+                final long responseTime = dispatchResponseToThread(message);
+
+                if (responseTime > -1)
+                  collectMetric(responseTime);
+              }
             }
 
           } catch (InterruptedException e) {
@@ -0,0 +1,188 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.server.hazelcast;
+
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+import com.orientechnologies.orient.core.compression.impl.ONothingCompression;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.server.distributed.ODistributedRequest;
+import com.orientechnologies.orient.server.distributed.task.OAbstractRemoteTask;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Envelope of replication requests sent to the same node and database with one message. Requests are executed by the receiving
+ * {@link ODistributedWorker} in the same order they have in the envelope. The envelope can be compressed with one of the
+ * {@link OCompression} implementations.
+ */
+public class OHazelcastDistributedRequestBatch implements ODistributedRequest, Externalizable {
+  private List<ODistributedRequest> requests;
+  private String                    compression;
+
+  /**
+   * Constructor used by serializer.
+   */
+  public OHazelcastDistributedRequestBatch() {
+  }
+
+  public OHazelcastDistributedRequestBatch(final List<ODistributedRequest> requests, final String compression) {
+    this.requests = requests;
+    this.compression = compression;
+  }
+
+  public List<ODistributedRequest> getRequests() {
+    return requests;
+  }
+
+  /**
+   * Returns the id of the first request of the envelope.
+   */
+  @Override
+  public long getId() {
+    return requests.get(0).getId();
+  }
+
+  @Override
+  public void setId(final long iId) {
+    throw new UnsupportedOperationException("setId");
+  }
+
+  @Override
+  public EXECUTION_MODE getExecutionMode() {
+    return requests.get(0).getExecutionMode();
+  }
+
+  @Override
+  public String getDatabaseName() {
+    return requests.get(0).getDatabaseName();
+  }
+
+  @Override
+  public ODistributedRequest setDatabaseName(final String databaseName) {
+    throw new UnsupportedOperationException("setDatabaseName");
+  }
+
+  @Override
+  public String getSenderNodeName() {
+    return requests.get(0).getSenderNodeName();
+  }
+
+  @Override
+  public ODistributedRequest setSenderNodeName(final String localNodeName) {
+    throw new UnsupportedOperationException("setSenderNodeName");
+  }
+
+  @Override
+  public OAbstractRemoteTask getTask() {
+    return null;
+  }
+
+  @Override
+  public ODistributedRequest setTask(final OAbstractRemoteTask payload) {
+    throw new UnsupportedOperationException("setTask");
+  }
+
+  @Override
+  public ORID getUserRID() {
+    return null;
+  }
+
+  @Override
+  public void setUserRID(final ORID iUserRID) {
+    throw new UnsupportedOperationException("setUserRID");
+  }
+
+  @Override
+  public void writeExternal(final ObjectOutput out) throws IOException {
+    out.writeUTF(compression);
+
+    if (ONothingCompression.NAME.equals(compression)) {
+      writeRequests(out);
+      return;
+    }
+
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    final ObjectOutputStream stream = new ObjectOutputStream(buffer);
+    writeRequests(stream);
+    stream.close();
+
+    final byte[] compressed = OCompressionFactory.INSTANCE.getCompression(compression).compress(buffer.toByteArray());
+    out.writeInt(compressed.length);
+    out.write(compressed);
+  }
+
+  @Override
+  public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+    compression = in.readUTF();
+
+    if (ONothingCompression.NAME.equals(compression)) {
+      readRequests(in);
+      return;
+    }
+
+    final byte[] compressed = new byte[in.readInt()];
+    in.readFully(compressed);
+
+    final ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(OCompressionFactory.INSTANCE.getCompression(
+        compression).uncompress(compressed)));
+    try {
+      readRequests(stream);
+    } finally {
+      stream.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder buffer = new StringBuilder(256);
+    buffer.append("batch of ");
+    buffer.append(requests.size());
+    buffer.append(" requests, ids=");
+    buffer.append(getId());
+    buffer.append("-");
+    buffer.append(requests.get(requests.size() - 1).getId());
+    buffer.append(" from=");
+    buffer.append(getSenderNodeName());
+    return buffer.toString();
+  }
+
+  private void writeRequests(final ObjectOutput out) throws IOException {
+    out.writeInt(requests.size());
+    for (ODistributedRequest request : requests)
+      out.writeObject(request);
+  }
+
+  private void readRequests(final ObjectInput in) throws IOException, ClassNotFoundException {
+    final int size = in.readInt();
+    requests = new ArrayList<ODistributedRequest>(size);
+    for (int i = 0; i < size; ++i)
+      requests.add((ODistributedRequest) in.readObject());
+  }
+}
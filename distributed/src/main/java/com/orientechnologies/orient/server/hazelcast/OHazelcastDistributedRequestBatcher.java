@@ -0,0 +1,186 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.server.hazelcast;
+
+import com.hazelcast.core.IQueue;
+import com.orientechnologies.common.concur.lock.OInterruptedException;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.server.distributed.ODistributedException;
+import com.orientechnologies.orient.server.distributed.ODistributedRequest;
+import com.orientechnologies.orient.server.distributed.ODistributedResponseManager;
+import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
+import com.orientechnologies.orient.server.distributed.ODistributedServerLog.DIRECTION;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces the replication requests of concurrent threads bound to the same node queues into
+ * {@link OHazelcastDistributedRequestBatch} envelopes. The first thread that finds no batch in flight sends all the pending
+ * requests (up to {@link OGlobalConfiguration#DISTRIBUTED_BATCH_SIZE}), while the requests of the other threads are collected to be
+ * sent with the next envelope. If {@link OGlobalConfiguration#DISTRIBUTED_BATCH_DELAY} is set, the sending thread waits up to
+ * that time for the batch to be filled.
+ * <p>
+ * The ids of the requests are assigned at sending time under the cluster lock of the database, so requests are in id order in
+ * every node queue like the ones sent one by one.
+ */
+public class OHazelcastDistributedRequestBatcher {
+  private final OHazelcastDistributedDatabase distributed;
+  private final Lock                          sendLock = new ReentrantLock();
+  private final List<Entry>                   pending  = new ArrayList<Entry>();
+
+  private static class Entry {
+    private final ODistributedRequest           request;
+    private final IQueue<ODistributedRequest>[] queues;
+    private final ODistributedResponseManager   responseMgr;
+    private boolean                             sent;
+    private Throwable                           error;
+
+    private Entry(final ODistributedRequest request, final IQueue<ODistributedRequest>[] queues,
+        final ODistributedResponseManager responseMgr) {
+      this.request = request;
+      this.queues = queues;
+      this.responseMgr = responseMgr;
+    }
+  }
+
+  public OHazelcastDistributedRequestBatcher(final OHazelcastDistributedDatabase distributed) {
+    this.distributed = distributed;
+  }
+
+  /**
+   * Sends the request to the queues, alone or in batch with the requests of other threads. Returns once the request has been
+   * offered to the queues.
+   */
+  public void send(final ODistributedRequest iRequest, final IQueue<ODistributedRequest>[] iQueues,
+      final ODistributedResponseManager iResponseMgr) throws InterruptedException {
+    final int batchSize = OGlobalConfiguration.DISTRIBUTED_BATCH_SIZE.getValueAsInteger();
+    final Entry entry = new Entry(iRequest, iQueues, iResponseMgr);
+
+    synchronized (this) {
+      pending.add(entry);
+      if (pending.size() >= batchSize)
+        // WAKE UP THE SENDER WAITING FOR MORE REQUESTS
+        notifyAll();
+    }
+
+    while (true) {
+      sendLock.lock();
+      try {
+        if (entry.sent)
+          break;
+
+        final List<Entry> batch = nextBatch(batchSize);
+        try {
+          sendBatch(batch);
+        } catch (Throwable t) {
+          for (Entry e : batch)
+            e.error = t;
+        } finally {
+          for (Entry e : batch)
+            e.sent = true;
+        }
+      } finally {
+        sendLock.unlock();
+      }
+    }
+
+    if (entry.error instanceof InterruptedException)
+      throw (InterruptedException) entry.error;
+    if (entry.error != null)
+      throw new ODistributedException("Error on sending request " + iRequest + " in batch", entry.error);
+  }
+
+  private synchronized List<Entry> nextBatch(final int batchSize) {
+    final int delay = OGlobalConfiguration.DISTRIBUTED_BATCH_DELAY.getValueAsInteger();
+    if (delay > 0 && pending.size() < batchSize) {
+      // WAIT FOR MORE REQUESTS TO FILL THE BATCH
+      final long deadline = System.currentTimeMillis() + delay;
+      long wait = delay;
+      while (pending.size() < batchSize && wait > 0) {
+        try {
+          wait(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new OInterruptedException(e);
+        }
+        wait = deadline - System.currentTimeMillis();
+      }
+    }
+
+    final int size = Math.min(batchSize, pending.size());
+    final List<Entry> subList = pending.subList(0, size);
+    final List<Entry> batch = new ArrayList<Entry>(subList);
+    subList.clear();
+    return batch;
+  }
+
+  private void sendBatch(final List<Entry> iBatch) throws InterruptedException {
+    final long timeout = OGlobalConfiguration.DISTRIBUTED_QUEUE_TIMEOUT.getValueAsLong();
+    final String compression = OGlobalConfiguration.DISTRIBUTED_BATCH_COMPRESSION.getValueAsString();
+
+    distributed.requestLock.lock();
+    try {
+      // LOCK = ASSURE MESSAGES IN THE QUEUE ARE INSERTED SEQUENTIALLY AT CLUSTER LEVEL. RESERVE ALL THE IDS AT ONCE
+      long id = distributed.msgService.getMessageIdCounter().getAndAdd(iBatch.size());
+
+      final Map<String, IQueue<ODistributedRequest>> queues = new LinkedHashMap<String, IQueue<ODistributedRequest>>();
+      final Map<String, List<ODistributedRequest>> requestsByQueue = new LinkedHashMap<String, List<ODistributedRequest>>();
+
+      for (Entry e : iBatch) {
+        e.request.setId(id++);
+        distributed.msgService.registerRequest(e.request.getId(), e.responseMgr);
+
+        for (IQueue<ODistributedRequest> queue : e.queues) {
+          if (queue == null)
+            continue;
+
+          List<ODistributedRequest> requests = requestsByQueue.get(queue.getName());
+          if (requests == null) {
+            requests = new ArrayList<ODistributedRequest>();
+            requestsByQueue.put(queue.getName(), requests);
+            queues.put(queue.getName(), queue);
+          }
+          requests.add(e.request);
+        }
+      }
+
+      for (Map.Entry<String, List<ODistributedRequest>> q : requestsByQueue.entrySet()) {
+        final List<ODistributedRequest> requests = q.getValue();
+
+        if (ODistributedServerLog.isDebugEnabled())
+          ODistributedServerLog.debug(this, distributed.getLocalNodeName(), q.getKey(), DIRECTION.OUT,
+              "sending %d requests in batch", requests.size());
+
+        final ODistributedRequest message = requests.size() == 1 ? requests.get(0) : new OHazelcastDistributedRequestBatch(
+            requests, compression);
+        queues.get(q.getKey()).offer(message, timeout, TimeUnit.MILLISECONDS);
+      }
+
+    } finally {
+      distributed.requestLock.unlock();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.server.hazelcast;
+
+import com.orientechnologies.orient.server.distributed.ODistributedResponse;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Responses to the requests of one or more {@link OHazelcastDistributedRequestBatch} executed by the same node, sent back to the
+ * sender node with one message. The sender dispatches every response to its own
+ * {@link com.orientechnologies.orient.server.distributed.ODistributedResponseManager}.
+ */
+public class OHazelcastDistributedResponseBatch implements ODistributedResponse, Externalizable {
+  private List<ODistributedResponse> responses;
+
+  /**
+   * Constructor used by serializer.
+   */
+  public OHazelcastDistributedResponseBatch() {
+  }
+
+  public OHazelcastDistributedResponseBatch(final List<ODistributedResponse> responses) {
+    this.responses = responses;
+  }
+
+  public List<ODistributedResponse> getResponses() {
+    return responses;
+  }
+
+  @Override
+  public String getExecutorNodeName() {
+    return responses.get(0).getExecutorNodeName();
+  }
+
+  @Override
+  public ODistributedResponse setExecutorNodeName(final String iExecutor) {
+    throw new UnsupportedOperationException("setExecutorNodeName");
+  }
+
+  @Override
+  public String getSenderNodeName() {
+    return responses.get(0).getSenderNodeName();
+  }
+
+  @Override
+  public Object getPayload() {
+    return responses;
+  }
+
+  @Override
+  public ODistributedResponse setPayload(final Object iPayload) {
+    throw new UnsupportedOperationException("setPayload");
+  }
+
+  /**
+   * Returns the id of the request of the first response.
+   */
+  @Override
+  public long getRequestId() {
+    return responses.get(0).getRequestId();
+  }
+
+  @Override
+  public boolean isExecutedOnLocalNode() {
+    return getExecutorNodeName().equals(getSenderNodeName());
+  }
+
+  @Override
+  public void writeExternal(final ObjectOutput out) throws IOException {
+    out.writeInt(responses.size());
+    for (ODistributedResponse response : responses)
+      out.writeObject(response);
+  }
+
+  @Override
+  public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+    final int size = in.readInt();
+    responses = new ArrayList<ODistributedResponse>(size);
+    for (int i = 0; i < size; ++i)
+      responses.add((ODistributedResponse) in.readObject());
+  }
+
+  @Override
+  public String toString() {
+    return "batch of " + responses.size() + " responses from=" + getExecutorNodeName();
+  }
+}
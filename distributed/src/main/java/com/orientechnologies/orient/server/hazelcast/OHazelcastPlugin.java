@@ -48,6 +48,8 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.OCommandSQLParsingException;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
 import com.orientechnologies.orient.server.OClientConnectionManager;
 import com.orientechnologies.orient.server.OServer;
 import com.orientechnologies.orient.server.config.OServerConfiguration;
@@ -97,6 +99,7 @@ public class OHazelcastPlugin extends ODistributedAbstractPlugin implements Memb
   protected static final String                 CONFIG_DBSTATUS_PREFIX = "dbstatus.";
   protected static final String                 CONFIG_DATABASE_PREFIX = "database.";
   protected final static String                 BACKUP_DIR             = "../backup/databases";
+  protected static final String                 FILE_DISTRIBUTED_SYNC  = "distributed-sync.json";
   protected String                              nodeId;
   protected String                              hazelcastConfigFile    = "hazelcast.xml";
   protected Map<String, Member>                 activeNodes            = new ConcurrentHashMap<String, Member>();
@@ -868,22 +871,42 @@ public class OHazelcastPlugin extends ODistributedAbstractPlugin implements Memb
     // GET ALL THE OTHER SERVERS
     final Collection<String> nodes = cfg.getServers(null, getLocalNodeName());
 
+    final String dbPath = serverInstance.getDatabaseDirectory() + databaseName;
+
     // GET THE FIRST ONE TO ASK FOR DATABASE. THIS FORCES TO HAVE ONE NODE TO DO BACKUP SAVING RESOURCES IN CASE BACKUP IS STILL
     // VALID FOR FURTHER NODES
     final List<String> firstNode = new ArrayList<String>();
     if (nodes.iterator().hasNext())
       firstNode.add(nodes.iterator().next());
 
+    OSyncDatabaseTask syncTask = null;
+    if (backupDatabase && configuredDatabases.contains(databaseName)
+        && OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_DELTA.getValueAsBoolean()) {
+      // ASK ONLY FOR THE CHANGES TO THE NODE OF THE LAST SYNCHRONIZATION, IF STILL AVAILABLE
+      final ODocument syncPoint = loadSyncPoint(databaseName);
+      if (syncPoint != null) {
+        final String syncNode = syncPoint.field("node");
+        if (nodes.contains(syncNode) && isNodeAvailable(syncNode, databaseName)) {
+          syncTask = createDeltaSyncTask(databaseName, dbPath, syncPoint);
+          if (syncTask != null) {
+            firstNode.clear();
+            firstNode.add(syncNode);
+          }
+        }
+      }
+    }
+
+    if (syncTask == null)
+      syncTask = new OSyncDatabaseTask(OSyncDatabaseTask.MODE.FULL_REPLACE);
+
     ODistributedServerLog.warn(this, getLocalNodeName(), firstNode.toString(), DIRECTION.OUT,
         "requesting deploy of database '%s' on local server...", databaseName);
 
-    final Map<String, Object> results = (Map<String, Object>) sendRequest(databaseName, null, firstNode, new OSyncDatabaseTask(
-        OSyncDatabaseTask.MODE.FULL_REPLACE), EXECUTION_MODE.RESPONSE);
+    final Map<String, Object> results = (Map<String, Object>) sendRequest(databaseName, null, firstNode, syncTask,
+        EXECUTION_MODE.RESPONSE);
 
     ODistributedServerLog.debug(this, getLocalNodeName(), firstNode.toString(), DIRECTION.OUT, "deploy returned: %s", results);
 
-    final String dbPath = serverInstance.getDatabaseDirectory() + databaseName;
-
     // EXTRACT THE REAL RESULT
     for (Entry<String, Object> r : results.entrySet()) {
       final Object value = r.getValue();
@@ -894,7 +917,7 @@ public class OHazelcastPlugin extends ODistributedAbstractPlugin implements Memb
         ODistributedServerLog.error(this, getLocalNodeName(), r.getKey(), DIRECTION.IN, "error on installing database %s in %s",
             (Exception) value, databaseName, dbPath);
       } else if (value instanceof ODistributedDatabaseChunk) {
-        if (backupDatabase)
+        if (backupDatabase && !((ODistributedDatabaseChunk) value).delta)
           backupCurrentDatabase(databaseName);
 
         final Set<String> toSyncClusters = installDatabaseFromNetwork(dbPath, databaseName, distrDatabase, cfg, r.getKey(),
@@ -1004,9 +1027,12 @@ public class OHazelcastPlugin extends ODistributedAbstractPlugin implements Memb
       }
     }
 
-    final ODatabaseDocumentTx db = installDatabaseOnLocalNode(distrDatabase, databaseName, dbPath, iNode, fileName);
+    final ODatabaseDocumentTx db = value.delta ? installDeltaOnLocalNode(databaseName, dbPath, iNode, fileName)
+        : installDatabaseOnLocalNode(distrDatabase, databaseName, dbPath, iNode, fileName);
 
     if (db != null) {
+      saveSyncPoint(databaseName, dbPath, iNode, value.lastLSN);
+
       db.close();
       final OStorage stg = Orient.instance().getStorage(databaseName);
       if (stg != null)
@@ -1359,6 +1385,159 @@ public class OHazelcastPlugin extends ODistributedAbstractPlugin implements Memb
     return null;
   }
 
+  /**
+   * Applies the pages changed since the last synchronization, received from the node of the last synchronization.
+   */
+  protected ODatabaseDocumentTx installDeltaOnLocalNode(final String databaseName, final String dbPath, final String iNode,
+      final String iDatabaseDeltaFile) {
+    ODistributedServerLog.warn(this, getLocalNodeName(), iNode, DIRECTION.IN, "updating database '%s' in: %s...", databaseName,
+        dbPath);
+
+    try {
+      final OStorage stg = Orient.instance().loadStorage("plocal:" + dbPath);
+
+      final FileInputStream in = new FileInputStream(iDatabaseDeltaFile);
+      try {
+        ((OLocalPaginatedStorage) stg).restoreDelta(in, this);
+      } finally {
+        in.close();
+      }
+
+      ODistributedServerLog.info(this, getLocalNodeName(), null, DIRECTION.NONE, "updated database '%s'", databaseName);
+
+      return new ODatabaseDocumentTx("plocal:" + dbPath);
+
+    } catch (IOException e) {
+      ODistributedServerLog.warn(this, getLocalNodeName(), null, DIRECTION.IN, "error on updating database '%s' on local server", e,
+          databaseName);
+    }
+    return null;
+  }
+
+  /**
+   * Creates the request of the pages changed since the last synchronization.
+   *
+   * @return null if the local WAL does not contain all the changes, so the whole database has to be deployed
+   */
+  protected OSyncDatabaseTask createDeltaSyncTask(final String databaseName, final String dbPath, final ODocument syncPoint) {
+    final OStorage stg = Orient.instance().loadStorage("plocal:" + dbPath);
+    if (!(stg instanceof OLocalPaginatedStorage))
+      return null;
+
+    final OLocalPaginatedStorage storage = (OLocalPaginatedStorage) stg;
+    final boolean wasClosed = storage.isClosed();
+    try {
+      if (wasClosed)
+        storage.open(null, null, null);
+
+      final Map<String, Set<Long>> changedPages = storage.getChangedPages(new OLogSequenceNumber(
+          ((Number) syncPoint.field("localSegment")).longValue(), ((Number) syncPoint.field("localPosition")).longValue()));
+
+      if (changedPages == null) {
+        ODistributedServerLog.info(this, getLocalNodeName(), null, DIRECTION.NONE,
+            "local changes of database '%s' since last synchronization are not available anymore", databaseName);
+        return null;
+      }
+
+      return new OSyncDatabaseTask(new OLogSequenceNumber(((Number) syncPoint.field("nodeSegment")).longValue(),
+          ((Number) syncPoint.field("nodePosition")).longValue()), changedPages, storage.getStorageFiles());
+
+    } catch (Exception e) {
+      ODistributedServerLog.warn(this, getLocalNodeName(), null, DIRECTION.NONE,
+          "error on collecting local changes of database '%s' since last synchronization", e, databaseName);
+      return null;
+    } finally {
+      if (wasClosed)
+        storage.close(true, false);
+    }
+  }
+
+  /**
+   * Stores the WAL positions of the installed database on both the nodes, to ask only for the changes after them on next
+   * synchronization.
+   */
+  protected void saveSyncPoint(final String databaseName, final String dbPath, final String iNode,
+      final OLogSequenceNumber iNodeLSN) {
+    final File file = getSyncPointFile(databaseName);
+    file.delete();
+
+    if (iNodeLSN == null)
+      return;
+
+    final OStorage stg = Orient.instance().loadStorage("plocal:" + dbPath);
+    if (!(stg instanceof OLocalPaginatedStorage))
+      return;
+
+    final OLocalPaginatedStorage storage = (OLocalPaginatedStorage) stg;
+    final boolean wasClosed = storage.isClosed();
+    FileOutputStream f = null;
+    try {
+      if (wasClosed)
+        storage.open(null, null, null);
+
+      if (storage.getWALInstance() == null)
+        return;
+
+      // THE CHECKPOINT LOGGED BY SYNCH IS THE FIRST RECORD OF THE INSTALLED DATABASE
+      storage.synch();
+      final OLogSequenceNumber localLSN = storage.getWALInstance().end();
+
+      final ODocument syncPoint = new ODocument();
+      syncPoint.field("node", iNode);
+      syncPoint.field("nodeSegment", iNodeLSN.getSegment());
+      syncPoint.field("nodePosition", iNodeLSN.getPosition());
+      syncPoint.field("localSegment", localLSN.getSegment());
+      syncPoint.field("localPosition", localLSN.getPosition());
+
+      f = new FileOutputStream(file);
+      f.write(syncPoint.toJSON().getBytes());
+      f.flush();
+
+    } catch (Exception e) {
+      ODistributedServerLog.error(this, getLocalNodeName(), null, DIRECTION.NONE,
+          "Error on saving synchronization point of database '%s'", e, databaseName);
+      file.delete();
+    } finally {
+      if (f != null)
+        try {
+          f.close();
+        } catch (IOException e) {
+        }
+      if (wasClosed)
+        storage.close(true, false);
+    }
+  }
+
+  protected ODocument loadSyncPoint(final String databaseName) {
+    final File file = getSyncPointFile(databaseName);
+    if (!file.exists() || file.length() == 0)
+      return null;
+
+    FileInputStream f = null;
+    try {
+      f = new FileInputStream(file);
+      final byte[] buffer = new byte[(int) file.length()];
+      f.read(buffer);
+
+      return new ODocument().fromJSON(new String(buffer));
+
+    } catch (Exception e) {
+      ODistributedServerLog.error(this, getLocalNodeName(), null, DIRECTION.NONE,
+          "Error on loading synchronization point of database '%s'", e, databaseName);
+    } finally {
+      if (f != null)
+        try {
+          f.close();
+        } catch (IOException e) {
+        }
+    }
+    return null;
+  }
+
+  protected File getSyncPointFile(final String databaseName) {
+    return new File(serverInstance.getDatabaseDirectory() + databaseName + "/" + FILE_DISTRIBUTED_SYNC);
+  }
+
   @Override
   protected ODocument loadDatabaseConfiguration(final String iDatabaseName, final File file) {
     // FIRST LOOK IN THE CLUSTER
@@ -0,0 +1,81 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Only reader of a multiplexed channel. Every frame is routed to the request it is tagged with, frames tagged by
+ * {@link OChannelBinaryProtocol#MULTIPLEXED_PUSH_ID} contain data pushed by the server and are passed to the listener like
+ * {@link OAsynchChannelServiceThread} does for exclusive channels.
+ */
+public class OAsynchChannelDemultiplexerThread extends OAsynchChannelServiceThread {
+  private final OChannelBinaryClientMultiplexer multiplexer;
+
+  public OAsynchChannelDemultiplexerThread(final ORemoteServerEventListener iRemoteServerEventListener,
+      final OChannelBinaryClientMultiplexer iMultiplexer) {
+    super(iRemoteServerEventListener, iMultiplexer.getChannel(), "OrientDB <- Multiplexed Client ("
+        + iMultiplexer.getChannel().socket.getRemoteSocketAddress() + ")");
+    multiplexer = iMultiplexer;
+    start();
+  }
+
+  @Override
+  protected void execute() throws Exception {
+    final OChannelBinaryAsynchClient network = multiplexer.getChannel();
+    try {
+      final int requestId = network.readInt();
+      final byte[] content = network.readBytes();
+
+      if (requestId == OChannelBinaryProtocol.MULTIPLEXED_PUSH_ID)
+        readPush(content);
+      else
+        multiplexer.deliver(requestId, content);
+
+    } catch (IOException ioe) {
+      // THE SOCKET HAS BEEN CLOSED: THE WAITING REQUESTS ARE NOTIFIED BY THE MULTIPLEXER
+      sendShutdown();
+      network.close();
+    }
+  }
+
+  private void readPush(final byte[] iContent) throws IOException {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(iContent));
+
+    // SKIP STATUS AND SESSION ID, THE SAME AS FOR EXCLUSIVE CHANNELS
+    in.readByte();
+    in.readInt();
+
+    Object obj = null;
+    final byte request = in.readByte();
+    switch (request) {
+    case OChannelBinaryProtocol.REQUEST_PUSH_DISTRIB_CONFIG:
+    case OChannelBinaryProtocol.REQUEST_PUSH_LIVE_QUERY:
+      final byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      obj = bytes;
+      break;
+    }
+
+    notifyListener(request, obj);
+  }
+}
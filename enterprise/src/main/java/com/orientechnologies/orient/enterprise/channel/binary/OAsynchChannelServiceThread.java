@@ -37,11 +37,19 @@ public class OAsynchChannelServiceThread extends OSoftThread {
 
   public OAsynchChannelServiceThread(final ORemoteServerEventListener iRemoteServerEventListener,
       final OChannelBinaryAsynchClient iChannel) {
-    super(Orient.instance().getThreadGroup(), "OrientDB <- Asynch Client (" + iChannel.socket.getRemoteSocketAddress() + ")");
+    this(iRemoteServerEventListener, iChannel, "OrientDB <- Asynch Client (" + iChannel.socket.getRemoteSocketAddress() + ")");
+    start();
+  }
+
+  /**
+   * Creates the thread without starting it, so the subclass can complete its initialization first.
+   */
+  protected OAsynchChannelServiceThread(final ORemoteServerEventListener iRemoteServerEventListener,
+      final OChannelBinaryAsynchClient iChannel, final String iName) {
+    super(Orient.instance().getThreadGroup(), iName);
     sessionId = Integer.MIN_VALUE;
     remoteServerEventListener = iRemoteServerEventListener;
     network = iChannel;
-    start();
   }
 
   @Override
@@ -57,8 +65,7 @@ public class OAsynchChannelServiceThread extends OSoftThread {
         break;
       }
 
-      if (remoteServerEventListener != null)
-        remoteServerEventListener.onRequest(request, obj);
+      notifyListener(request, obj);
 
     } catch (IOException ioe) {
       // EXCEPTION RECEIVED (THE SOCKET HAS BEEN CLOSED?) ASSURE TO UNLOCK THE READ AND EXIT THIS THREAD
@@ -78,4 +85,9 @@ public class OAsynchChannelServiceThread extends OSoftThread {
   public void setTokenBased(boolean tokenBased) {
     this.tokenBased = tokenBased;
   }
+
+  protected void notifyListener(final byte iRequest, final Object iObject) {
+    if (remoteServerEventListener != null)
+      remoteServerEventListener.onRequest(iRequest, iObject);
+  }
 }
@@ -353,6 +353,21 @@ public abstract class OChannelBinary extends OChannel {
     writeInt(version.getCounter());
   }
 
+  /**
+   * Writes a frame of a multiplexed channel and flushes it. The frame is made by the id of the request it belongs to followed by
+   * the content, frames written by concurrent threads are never interleaved.
+   */
+  public void writeFrame(final int iRequestId, final byte[] iContent, final int iLength) throws IOException {
+    acquireWriteLock();
+    try {
+      writeInt(iRequestId);
+      writeBytes(iContent, iLength);
+      flush();
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
   public void clearInput() throws IOException {
     if (in == null)
       return;
@@ -116,6 +116,25 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     }
   }
 
+  /**
+   * Creates a channel which shares the socket of another channel, the streams are provided by the subclass.
+   */
+  protected OChannelBinaryAsynchClient(final OChannelBinaryAsynchClient iPhysical, final OContextConfiguration iConfig)
+      throws IOException {
+    super(getConnectedSocket(iPhysical), iConfig);
+    maxUnreadResponses = iPhysical.maxUnreadResponses;
+    serverURL = iPhysical.serverURL;
+    socketTimeout = iPhysical.socketTimeout;
+    srvProtocolVersion = iPhysical.srvProtocolVersion;
+  }
+
+  private static Socket getConnectedSocket(final OChannelBinaryAsynchClient iChannel) throws IOException {
+    final Socket s = iChannel.socket;
+    if (s == null)
+      throw new IOException("Channel is closed");
+    return s;
+  }
+
   @SuppressWarnings("unchecked")
   private static RuntimeException createException(final String iClassName, final String iMessage, final Exception iPrevious) {
     RuntimeException rootException = null;
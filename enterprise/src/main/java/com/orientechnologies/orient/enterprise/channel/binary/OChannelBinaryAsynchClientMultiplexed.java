@@ -0,0 +1,212 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.serialization.OMemoryStream;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side channel of one request sent over a multiplexed channel. The request is buffered and sent as one frame tagged by the
+ * request id when it is flushed, the frames of the response are handed over by {@link OAsynchChannelDemultiplexerThread}, so the
+ * response is read by the requester without locking the shared socket.
+ */
+public class OChannelBinaryAsynchClientMultiplexed extends OChannelBinaryAsynchClient {
+  private static final byte[]                   CLOSED   = new byte[0];
+  private final OChannelBinaryClientMultiplexer multiplexer;
+  private final OMemoryStream                   request  = new OMemoryStream();
+  private final BlockingQueue<byte[]>           response = new LinkedBlockingQueue<byte[]>();
+  private final ResponseInputStream             responseStream;
+  private int                                   requestId;
+  private long                                  responseTimeout;
+
+  public OChannelBinaryAsynchClientMultiplexed(final OChannelBinaryClientMultiplexer iMultiplexer,
+      final OContextConfiguration iConfig) throws IOException {
+    super(iMultiplexer.getChannel(), iConfig);
+    multiplexer = iMultiplexer;
+    out = new DataOutputStream(request);
+    responseStream = new ResponseInputStream();
+    in = new DataInputStream(responseStream);
+  }
+
+  /**
+   * Binds the channel to a new request id, frames still received for the previous one are ignored.
+   */
+  public synchronized void begin(final int iRequestId) {
+    requestId = iRequestId;
+    request.reset();
+    response.clear();
+    responseStream.clear();
+  }
+
+  public synchronized int getRequestId() {
+    return requestId;
+  }
+
+  /**
+   * Called by the demultiplexer thread when a frame of the response is received.
+   */
+  public synchronized void onFrame(final int iRequestId, final byte[] iContent) {
+    if (iRequestId == requestId)
+      response.offer(iContent);
+  }
+
+  /**
+   * Called when the multiplexed channel is closed, pending read of the response fails.
+   */
+  public void onClose() {
+    response.offer(CLOSED);
+  }
+
+  /**
+   * Sends the buffered request as one frame.
+   */
+  @Override
+  public void flush() throws IOException {
+    updateMetricFlushes();
+
+    if (request.getPosition() == 0)
+      return;
+
+    try {
+      multiplexer.send(getRequestId(), request.getInternalBuffer(), request.getPosition());
+    } finally {
+      request.reset();
+    }
+  }
+
+  @Override
+  public byte[] beginResponse(final int iRequesterId, final long iTimeout, final boolean token) throws IOException {
+    responseTimeout = iTimeout > 0 ? iTimeout : OGlobalConfiguration.NETWORK_REQUEST_TIMEOUT.getValueAsInteger();
+
+    final byte status = readByte();
+    final int sessionId = readInt();
+
+    if (debug)
+      OLogManager.instance().debug(this, "%s - Read response of request %d: %d-%d", socket.getLocalAddress(), getRequestId(),
+          (int) status, sessionId);
+
+    byte[] renew = null;
+    if (token)
+      renew = readBytes();
+    handleStatus(status, sessionId);
+    return renew;
+  }
+
+  @Override
+  public void endResponse() {
+    // NOTHING TO UNLOCK: THE SOCKET IS READ BY THE DEMULTIPLEXER THREAD
+  }
+
+  /**
+   * Returns the channel to the multiplexer to be reused by next request.
+   */
+  public void release() {
+    multiplexer.release(this);
+  }
+
+  /**
+   * Discards the request, the shared socket is not closed.
+   */
+  @Override
+  public void close() {
+    multiplexer.discard(this);
+    onClose();
+  }
+
+  @Override
+  public boolean isConnected() {
+    return multiplexer.isConnected();
+  }
+
+  @Override
+  public OAsynchChannelServiceThread getServiceThread() {
+    return multiplexer.getServiceThread();
+  }
+
+  private class ResponseInputStream extends InputStream {
+    private byte[] frame;
+    private int    position;
+
+    @Override
+    public int read() throws IOException {
+      if (!nextFrame())
+        return -1;
+      return frame[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] iBuffer, final int iOffset, final int iLength) throws IOException {
+      if (iLength == 0)
+        return 0;
+      if (!nextFrame())
+        return -1;
+
+      final int read = Math.min(iLength, frame.length - position);
+      System.arraycopy(frame, position, iBuffer, iOffset, read);
+      position += read;
+      return read;
+    }
+
+    @Override
+    public int available() {
+      return frame != null ? frame.length - position : 0;
+    }
+
+    private void clear() {
+      frame = null;
+      position = 0;
+    }
+
+    private boolean nextFrame() throws IOException {
+      while (frame == null || position >= frame.length) {
+        if (frame == CLOSED)
+          return false;
+
+        final byte[] next;
+        try {
+          next = response.poll(responseTimeout > 0 ? responseTimeout : socketTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for the response of request " + getRequestId());
+        }
+
+        if (next == null)
+          throw new OTimeoutException("Timeout on reading response from the server " + getServerURL() + " for the request "
+              + getRequestId());
+
+        frame = next;
+        position = 0;
+      }
+      return true;
+    }
+  }
+}
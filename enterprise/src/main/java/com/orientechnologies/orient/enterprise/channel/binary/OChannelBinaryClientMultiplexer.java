@@ -0,0 +1,174 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.enterprise.channel.OChannel;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carries concurrent requests of many threads over one binary channel. The channel is switched to multiplexed mode by
+ * {@link OChannelBinaryProtocol#REQUEST_CHANNEL_MULTIPLEX}, then every request is sent as a frame tagged by its own request id
+ * and the frames of the responses, which the server sends in any order, are routed back to the waiting requests by
+ * {@link OAsynchChannelDemultiplexerThread}. Every request uses its own {@link OChannelBinaryAsynchClientMultiplexed}, so the
+ * protocol code is the same as for exclusive channels.
+ */
+public class OChannelBinaryClientMultiplexer implements OChannelListener {
+  private final OChannelBinaryAsynchClient                                        channel;
+  private final OContextConfiguration                                             configuration;
+  private final OAsynchChannelDemultiplexerThread                                 serviceThread;
+  private final AtomicInteger                                                     requestIds = new AtomicInteger();
+  private final ConcurrentHashMap<Integer, OChannelBinaryAsynchClientMultiplexed> inFlight;
+  private final Queue<OChannelBinaryAsynchClientMultiplexed>                      idle;
+  private volatile boolean                                                        closed     = false;
+
+  /**
+   * Switches the channel to multiplexed mode, the channel must not be used by anybody else.
+   *
+   * @throws IOException
+   *           if the channel cannot be switched, like in case the server does not allow multiplexing, the channel is not closed
+   */
+  public OChannelBinaryClientMultiplexer(final OChannelBinaryAsynchClient iChannel, final OContextConfiguration iConfig,
+      final ORemoteServerEventListener iListener) throws IOException {
+    channel = iChannel;
+    configuration = iConfig;
+    inFlight = new ConcurrentHashMap<Integer, OChannelBinaryAsynchClientMultiplexed>();
+    idle = new ConcurrentLinkedQueue<OChannelBinaryAsynchClientMultiplexed>();
+
+    channel.beginRequest();
+    try {
+      channel.writeByte(OChannelBinaryProtocol.REQUEST_CHANNEL_MULTIPLEX);
+      channel.writeInt(-1);
+      channel.writeShort((short) OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION);
+    } finally {
+      channel.endRequest();
+    }
+
+    try {
+      channel.beginResponse(-1, false);
+    } finally {
+      channel.endResponse();
+    }
+
+    // THE CHANNEL IS IDLE WHILE NO REQUEST IS IN FLIGHT: TIMEOUTS ARE CHECKED BY THE REQUESTS
+    channel.socket.setSoTimeout(0);
+
+    channel.registerListener(this);
+    serviceThread = new OAsynchChannelDemultiplexerThread(iListener, this);
+  }
+
+  /**
+   * Returns the channel of a new request.
+   */
+  public OChannelBinaryAsynchClientMultiplexed acquire() throws IOException {
+    OChannelBinaryAsynchClientMultiplexed request = idle.poll();
+    if (request == null)
+      request = new OChannelBinaryAsynchClientMultiplexed(this, configuration);
+
+    int requestId;
+    do {
+      requestId = requestIds.incrementAndGet() & Integer.MAX_VALUE;
+    } while (requestId == 0 || inFlight.putIfAbsent(requestId, request) != null);
+
+    request.begin(requestId);
+
+    if (closed)
+      // CLOSED WHILE THE REQUEST WAS REGISTERED: IT COULD BE MISSED BY THE NOTIFICATION
+      request.onClose();
+
+    return request;
+  }
+
+  /**
+   * Ends the request, the channel is reused by next request.
+   */
+  public void release(final OChannelBinaryAsynchClientMultiplexed iRequest) {
+    discard(iRequest);
+    iRequest.begin(0);
+    idle.offer(iRequest);
+  }
+
+  /**
+   * Ends the request without reusing its channel.
+   */
+  public void discard(final OChannelBinaryAsynchClientMultiplexed iRequest) {
+    inFlight.remove(iRequest.getRequestId(), iRequest);
+  }
+
+  public void send(final int iRequestId, final byte[] iContent, final int iLength) throws IOException {
+    try {
+      channel.writeFrame(iRequestId, iContent, iLength);
+    } catch (IOException e) {
+      // FRAME COULD BE PARTIALLY WRITTEN: NO OTHER REQUEST CAN USE THE CHANNEL
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Routes a frame received by the demultiplexer thread to its request. Frames of requests which are not waiting anymore, like
+   * the discarded ones, are ignored.
+   */
+  public void deliver(final int iRequestId, final byte[] iContent) {
+    final OChannelBinaryAsynchClientMultiplexed request = inFlight.get(iRequestId);
+    if (request != null && iContent != null)
+      request.onFrame(iRequestId, iContent);
+    else
+      OLogManager.instance().debug(this, "Ignored response frame of request %d, the request is not waiting for it", iRequestId);
+  }
+
+  public boolean isConnected() {
+    return !closed && channel.isConnected();
+  }
+
+  public void close() {
+    channel.close();
+  }
+
+  @Override
+  public void onChannelClose(final OChannel iChannel) {
+    closed = true;
+
+    for (OChannelBinaryAsynchClientMultiplexed request : inFlight.values())
+      request.onClose();
+
+    if (serviceThread != null)
+      serviceThread.sendShutdown();
+  }
+
+  public OChannelBinaryAsynchClient getChannel() {
+    return channel;
+  }
+
+  public OAsynchChannelServiceThread getServiceThread() {
+    return serviceThread;
+  }
+
+  @Override
+  public String toString() {
+    return channel.toString();
+  }
+}
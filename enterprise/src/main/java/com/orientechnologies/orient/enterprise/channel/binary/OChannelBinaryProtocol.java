@@ -74,6 +74,7 @@ public class OChannelBinaryProtocol {
   public static final byte  REQUEST_POSITIONS_CEILING                 = 42;                 // since 1.3.0
   public static final byte  REQUEST_RECORD_HIDE                       = 43;                 // since 1.7
   public static final byte  REQUEST_RECORD_LOAD_IF_VERSION_NOT_LATEST = 44;                 // since 2.1
+  public static final byte  REQUEST_RECORD_BATCH                      = 45;                 // since 2.1
 
   public static final byte  REQUEST_TX_COMMIT                         = 60;
 
@@ -82,6 +83,7 @@ public class OChannelBinaryProtocol {
   public static final byte  REQUEST_CONFIG_LIST                       = 72;
   public static final byte  REQUEST_DB_RELOAD                         = 73;                 // SINCE 1.0rc4
   public static final byte  REQUEST_DB_LIST                           = 74;                 // SINCE 1.0rc6
+  public static final byte  REQUEST_CHANNEL_MULTIPLEX                 = 75;                 // SINCE 2.1
 
   public static final byte  REQUEST_PUSH_DISTRIB_CONFIG               = 80;
   public static final byte  REQUEST_PUSH_LIVE_QUERY                   = 81;                 // SINCE 2.1
@@ -130,10 +132,22 @@ public class OChannelBinaryProtocol {
                                                                                              // SOCKET CONNECTION
   public static final int   PROTOCOL_VERSION_29                       = 29;                 // ADDED PUSH SUPPORT FOR LIVE QUERY
   public static final int   PROTOCOL_VERSION_30                       = 30;                 // NEW COMMAND TO READ RECORD ONLY IF
-                                                                                             // VERSION IS NOT LATEST WAS ADD
-  public static final int   PROTOCOL_VERSION_31                       = 30;                 // NEW INDEX COMMANDS: INDEX_GET,
-                                                                                             // INDEX_PUT, INDEX_REMOVE
-  public static final int   CURRENT_PROTOCOL_VERSION                  = PROTOCOL_VERSION_31;
+                                                                                             // VERSION IS NOT LATEST WAS ADD,
+                                                                                             // NEW INDEX COMMANDS: INDEX_GET,
+                                                                                             // INDEX_PUT, INDEX_REMOVE ARE SENT
+                                                                                             // WITH THIS VERSION TOO
+  public static final int   PROTOCOL_VERSION_31                       = 31;                 // NEW COMMAND TO CREATE, UPDATE AND
+                                                                                             // DELETE BATCH OF RECORDS, INDEX
+                                                                                             // COMMANDS WERE DECLARED AS 31 BUT
+                                                                                             // WERE SENT AS 30, SO 31 WAS NEVER
+                                                                                             // SENT BEFORE
+  public static final int   PROTOCOL_VERSION_32                       = 32;                 // CHANNEL CAN BE SWITCHED TO FRAMES
+                                                                                             // TAGGED BY REQUEST ID BY
+                                                                                             // REQUEST_CHANNEL_MULTIPLEX
+  public static final int   CURRENT_PROTOCOL_VERSION                  = PROTOCOL_VERSION_32;
+
+  // MULTIPLEXED CHANNELS: EVERY FRAME IS [INT REQUEST ID][INT LENGTH][BYTES], PUSHED DATA IS SENT WITH THIS REQUEST ID
+  public static final int   MULTIPLEXED_PUSH_ID                       = Integer.MIN_VALUE;
 
   public static OIdentifiable readIdentifiable(final OChannelBinaryAsynchClient network) throws IOException {
     final int classId = network.readShort();
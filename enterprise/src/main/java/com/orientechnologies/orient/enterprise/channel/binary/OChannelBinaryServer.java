@@ -42,4 +42,11 @@ public class OChannelBinaryServer extends OChannelBinary {
 		in = new DataInputStream(inStream);
 		connected();
 	}
+
+	/**
+	 * Creates a channel which shares the socket of another channel, the streams are provided by the subclass.
+	 */
+	protected OChannelBinaryServer(final OChannelBinary iPhysical, final OContextConfiguration iConfig) throws IOException {
+		super(iPhysical.socket, iConfig);
+	}
 }
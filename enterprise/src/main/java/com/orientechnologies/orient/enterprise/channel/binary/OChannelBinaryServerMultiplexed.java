@@ -0,0 +1,91 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.serialization.OMemoryStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Server side channel of one request received by a multiplexed channel. The request is read from the frame it was received in,
+ * the response is buffered and sent as frames tagged by the id of the request on every flush. Data flushed by other threads than
+ * the one executing the request, like pushed records of live queries, is sent tagged by
+ * {@link OChannelBinaryProtocol#MULTIPLEXED_PUSH_ID}.
+ */
+public class OChannelBinaryServerMultiplexed extends OChannelBinaryServer {
+  private final OChannelBinaryServer physical;
+  private final OMemoryStream        output = new OMemoryStream();
+  private volatile int               requestId;
+  private volatile Thread            executor;
+
+  public OChannelBinaryServerMultiplexed(final OChannelBinaryServer iPhysical, final OContextConfiguration iConfig)
+      throws IOException {
+    super(iPhysical, iConfig);
+    physical = iPhysical;
+    out = new DataOutputStream(output);
+  }
+
+  /**
+   * Binds the channel to the request, its response is written by the current thread.
+   */
+  public void beginRequest(final int iRequestId, final byte[] iRequest) {
+    requestId = iRequestId;
+    executor = Thread.currentThread();
+    in = new DataInputStream(new ByteArrayInputStream(iRequest));
+  }
+
+  /**
+   * Sends the rest of the response and unbinds the channel from the request.
+   */
+  public void endRequest() throws IOException {
+    try {
+      flush();
+    } finally {
+      executor = null;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    updateMetricFlushes();
+
+    if (output.getPosition() == 0)
+      return;
+
+    final int frameId = Thread.currentThread() == executor ? requestId : OChannelBinaryProtocol.MULTIPLEXED_PUSH_ID;
+    try {
+      physical.writeFrame(frameId, output.getInternalBuffer(), output.getPosition());
+    } finally {
+      output.reset();
+    }
+  }
+
+  /**
+   * Closes the shared socket, so all the requests of the multiplexed channel are terminated.
+   */
+  @Override
+  public void close() {
+    physical.close();
+  }
+}
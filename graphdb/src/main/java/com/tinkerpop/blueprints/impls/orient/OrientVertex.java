@@ -617,7 +617,7 @@ public class OrientVertex extends OrientElement implements OrientExtendedVertex
               iterable.add(new OrientVertexIterator(this, coll.iterator(), connection, iLabels, -1));
           }
         } else if (fieldValue instanceof ORidBag) {
-          iterable.add(new OrientVertexIterator(this, ((ORidBag) fieldValue).rawIterator(), connection, iLabels, -1));
+          iterable.add(new OrientVertexIterator(this, ((ORidBag) fieldValue).rawBatchIterator(), connection, iLabels, -1));
         }
     }
 
@@ -1098,7 +1098,7 @@ public class OrientVertex extends OrientElement implements OrientExtendedVertex
               iterable.add(new OrientEdgeIterator(this, iDestination, coll.iterator(), connection, iLabels, -1));
           }
         } else if (fieldValue instanceof ORidBag) {
-          iterable.add(new OrientEdgeIterator(this, iDestination, ((ORidBag) fieldValue).rawIterator(), connection, iLabels,
+          iterable.add(new OrientEdgeIterator(this, iDestination, ((ORidBag) fieldValue).rawBatchIterator(), connection, iLabels,
               ((ORidBag) fieldValue).size()));
         }
       }
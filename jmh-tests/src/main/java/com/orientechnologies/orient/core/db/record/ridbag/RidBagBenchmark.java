@@ -0,0 +1,117 @@
+package com.orientechnologies.orient.core.db.record.ridbag;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Measures iteration over links of {@link ORidBag} and creation of documents which contain bags. With {@code bag=sbtree} bags are
+ * always backed by {@link com.orientechnologies.orient.core.db.record.ridbag.sbtree.OSBTreeRidBag}, with {@code bag=embedded} links
+ * are always kept inside of document. Iteration goes over all links of single prefilled bag without loading of linked records,
+ * each invocation of {@code addAndSave} saves new document with bag of {@link #ADD_BATCH} links. Links are generated from fixed
+ * seed.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RidBagBenchmark {
+  private static final long   SEED      = 42;
+  private static final int    ADD_BATCH = 100;
+
+  @Param({ "memory", "plocal" })
+  private String              engine;
+
+  @Param({ "embedded", "sbtree" })
+  private String              bag;
+
+  @Param({ "10000" })
+  private int                 links;
+
+  private ODatabaseDocumentTx db;
+  private ORidBag             ridBag;
+  private int                 threshold;
+  private final Random        random    = new Random(SEED);
+
+  @Setup(Level.Trial)
+  public void setup() {
+    threshold = OGlobalConfiguration.RID_BAG_EMBEDDED_TO_SBTREEBONSAI_THRESHOLD.getValueAsInteger();
+    OGlobalConfiguration.RID_BAG_EMBEDDED_TO_SBTREEBONSAI_THRESHOLD.setValue(bag.equals("sbtree") ? -1 : Integer.MAX_VALUE);
+
+    final String url = engine.equals("memory") ? "memory:RidBagBenchmark" : "plocal:" + System.getProperty("java.io.tmpdir")
+        + File.separator + "RidBagBenchmark";
+
+    db = new ODatabaseDocumentTx(url);
+    if (db.exists()) {
+      db.open("admin", "admin");
+      db.drop();
+      db = new ODatabaseDocumentTx(url);
+    }
+    db.create();
+
+    final Random random = new Random(SEED);
+    final ODocument document = new ODocument();
+    final ORidBag prefilled = new ORidBag();
+    for (int i = 0; i < links; i++)
+      prefilled.add(new ORecordId(9, random.nextInt(Integer.MAX_VALUE)));
+
+    document.field("links", prefilled);
+    document.save();
+
+    ridBag = db.<ODocument> load(document.getIdentity(), null, true).field("links");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    db.activateOnCurrentThread();
+    db.drop();
+
+    OGlobalConfiguration.RID_BAG_EMBEDDED_TO_SBTREEBONSAI_THRESHOLD.setValue(threshold);
+  }
+
+  @Benchmark
+  public int iterate() {
+    db.activateOnCurrentThread();
+
+    int iterated = 0;
+    final Iterator<OIdentifiable> iterator = ridBag.rawIterator();
+    while (iterator.hasNext()) {
+      iterator.next();
+      iterated++;
+    }
+
+    return iterated;
+  }
+
+  @Benchmark
+  public ODocument addAndSave() {
+    db.activateOnCurrentThread();
+
+    final ODocument document = new ODocument();
+    final ORidBag newBag = new ORidBag();
+    for (int i = 0; i < ADD_BATCH; i++)
+      newBag.add(new ORecordId(9, random.nextInt(Integer.MAX_VALUE)));
+
+    document.field("links", newBag);
+    return document.save();
+  }
+}
@@ -0,0 +1,98 @@
+package com.orientechnologies.orient.core.index.hashindex.local;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+
+/**
+ * Measures lookups and inserts of {@link OLocalHashTable} with integer keys and string values. Table is prefilled by keys from
+ * {@code 0} till {@code entries}, values are generated from fixed seed, so every run works on the table of the same shape. Inserts
+ * put random keys, most of them are new for the table, so they include cost of bucket splits.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LocalHashTableBenchmark {
+  private static final long SEED   = 42;
+
+  private final Random      random = new Random(SEED);
+
+  @State(Scope.Benchmark)
+  public static class HashTable {
+    @Param({ "memory", "plocal" })
+    private String                          engine;
+
+    @Param({ "100000" })
+    private int                             entries;
+
+    private ODatabaseDocumentTx             db;
+    private OLocalHashTable<Integer, String> hashTable;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      final String url = engine.equals("memory") ? "memory:LocalHashTableBenchmark" : "plocal:"
+          + System.getProperty("java.io.tmpdir") + File.separator + "LocalHashTableBenchmark";
+
+      db = new ODatabaseDocumentTx(url);
+      if (db.exists()) {
+        db.open("admin", "admin");
+        db.drop();
+        db = new ODatabaseDocumentTx(url);
+      }
+      db.create();
+
+      final OMurmurHash3HashFunction<Integer> murmurHash3HashFunction = new OMurmurHash3HashFunction<Integer>();
+      murmurHash3HashFunction.setValueSerializer(OIntegerSerializer.INSTANCE);
+
+      hashTable = new OLocalHashTable<Integer, String>("localHashTableBenchmark", ".imc", ".tsc", ".obf", ".nbh",
+          murmurHash3HashFunction, false, (OAbstractPaginatedStorage) db.getStorage());
+      hashTable.create(OIntegerSerializer.INSTANCE, OBinarySerializerFactory.getInstance().<String> getObjectSerializer(OType.STRING),
+          null, false);
+
+      final Random random = new Random(SEED);
+      for (int i = 0; i < entries; i++)
+        hashTable.put(i, value(random));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      hashTable.delete();
+
+      db.activateOnCurrentThread();
+      db.drop();
+    }
+  }
+
+  @Benchmark
+  public String get(HashTable hashTable) {
+    return hashTable.hashTable.get(random.nextInt(hashTable.entries));
+  }
+
+  @Benchmark
+  public void put(HashTable hashTable) {
+    hashTable.hashTable.put(random.nextInt(), value(random));
+  }
+
+  private static String value(Random random) {
+    return "value" + random.nextLong();
+  }
+}
@@ -0,0 +1,117 @@
+package com.orientechnologies.orient.core.index.hashindex.local.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+
+/**
+ * Benchmark for the whole {@link O2QCache}: threads load and release random pages of a single file. With {@code datasetFactor}
+ * less than 1 all pages fit in the cache, so only cost of lookups and LRU updates is measured, with bigger factor most of loads
+ * evict pages. {@code partitions=1} shows the cache which is evicted under single lock, 0 means amount of partitions which is
+ * chosen by amount of cores.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadCacheBenchmark_Load {
+  private static final int PAGE_SIZE   = 4 * 1024;
+  private static final int CACHE_PAGES = 16 * 1024;
+
+  private final Random     r           = new Random();
+
+  @State(Scope.Benchmark)
+  public static class PreparedCache {
+    @Param({ "1", "0" })
+    private int                    partitions;
+
+    @Param({ "0.5", "4" })
+    private double                 datasetFactor;
+
+    private OLocalPaginatedStorage storage;
+    private O2QCache               readCache;
+    private OWriteCache            writeCache;
+    private long                   fileId;
+    private int                    pages;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+      OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+      OGlobalConfiguration.DISK_CACHE_PARTITIONS.setValue(partitions);
+
+      storage = (OLocalPaginatedStorage) Orient.instance().loadStorage(
+          "plocal:" + System.getProperty("java.io.tmpdir") + File.separator + "ReadCacheBenchmark");
+      if (storage.exists())
+        storage.delete();
+
+      storage = (OLocalPaginatedStorage) Orient.instance().loadStorage(
+          "plocal:" + System.getProperty("java.io.tmpdir") + File.separator + "ReadCacheBenchmark");
+      storage.create(null);
+      storage.close(true, false);
+
+      final long entrySize = PAGE_SIZE + 2 * OWOWCache.PAGE_PADDING;
+      pages = (int) (CACHE_PAGES * datasetFactor);
+
+      writeCache = new OWOWCache(false, PAGE_SIZE, -1, null, -1, entrySize * CACHE_PAGES, entrySize * CACHE_PAGES * 2, storage,
+          false, 1);
+      readCache = new O2QCache(entrySize * CACHE_PAGES, PAGE_SIZE, false);
+
+      fileId = readCache.addFile("readCacheBenchmark.tst", writeCache);
+      for (int i = 0; i < pages; i++)
+        readCache.release(readCache.allocateNewPage(fileId, writeCache), writeCache);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      readCache.deleteStorage(writeCache);
+      storage.delete();
+    }
+
+    public void load(int pageIndex) throws IOException {
+      readCache.release(readCache.load(fileId, pageIndex, false, writeCache), writeCache);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void load_1thread(PreparedCache cache) throws IOException {
+    cache.load(r.nextInt(cache.pages));
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void load_8thread(PreparedCache cache) throws IOException {
+    cache.load(r.nextInt(cache.pages));
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void load_16thread(PreparedCache cache) throws IOException {
+    cache.load(r.nextInt(cache.pages));
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void load_64thread(PreparedCache cache) throws IOException {
+    cache.load(r.nextInt(cache.pages));
+  }
+}
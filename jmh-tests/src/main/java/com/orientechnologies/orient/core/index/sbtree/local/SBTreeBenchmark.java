@@ -0,0 +1,121 @@
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+
+/**
+ * Measures point lookups, inserts and range scans of {@link OSBTree} with integer keys and links as values, the same layout which
+ * is used by unique indexes. Tree is prefilled by keys from {@code 0} till {@code entries} inserted in order shuffled by fixed seed,
+ * so every run works on the tree of the same shape. Range scan fetches {@link #RANGE_SIZE} entries starting from random key.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SBTreeBenchmark {
+  private static final long SEED       = 42;
+  private static final int  RANGE_SIZE = 100;
+
+  private final Random      random     = new Random(SEED);
+
+  @State(Scope.Benchmark)
+  public static class Tree {
+    @Param({ "memory", "plocal" })
+    private String                          engine;
+
+    @Param({ "100000" })
+    private int                             entries;
+
+    private ODatabaseDocumentTx             db;
+    private OSBTree<Integer, OIdentifiable> sbTree;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      final String url = engine.equals("memory") ? "memory:SBTreeBenchmark" : "plocal:" + System.getProperty("java.io.tmpdir")
+          + File.separator + "SBTreeBenchmark";
+
+      db = new ODatabaseDocumentTx(url);
+      if (db.exists()) {
+        db.open("admin", "admin");
+        db.drop();
+        db = new ODatabaseDocumentTx(url);
+      }
+      db.create();
+
+      sbTree = new OSBTree<Integer, OIdentifiable>("sbTreeBenchmark", ".sbt", false, ".nbt",
+          (OAbstractPaginatedStorage) db.getStorage());
+      sbTree.create(OIntegerSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, false);
+
+      final int[] keys = new int[entries];
+      for (int i = 0; i < entries; i++)
+        keys[i] = i;
+
+      final Random random = new Random(SEED);
+      for (int i = entries - 1; i > 0; i--) {
+        final int j = random.nextInt(i + 1);
+        final int key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+      }
+
+      for (int key : keys)
+        sbTree.put(key, new ORecordId(1, key));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      sbTree.delete();
+
+      db.activateOnCurrentThread();
+      db.drop();
+    }
+  }
+
+  @Benchmark
+  public OIdentifiable get(Tree tree) {
+    return tree.sbTree.get(random.nextInt(tree.entries));
+  }
+
+  @Benchmark
+  public void put(Tree tree) {
+    final int key = random.nextInt();
+    tree.sbTree.put(key, new ORecordId(1, key));
+  }
+
+  @Benchmark
+  public int range(Tree tree) {
+    final int from = random.nextInt(tree.entries);
+    final OSBTree.OSBTreeCursor<Integer, OIdentifiable> cursor = tree.sbTree.iterateEntriesBetween(from, true, from + RANGE_SIZE
+        - 1, true, true);
+
+    int fetched = 0;
+    Map.Entry<Integer, OIdentifiable> entry = cursor.next(-1);
+    while (entry != null) {
+      fetched++;
+      entry = cursor.next(-1);
+    }
+
+    return fetched;
+  }
+}
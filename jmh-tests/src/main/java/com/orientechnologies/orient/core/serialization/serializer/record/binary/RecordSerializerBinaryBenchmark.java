@@ -0,0 +1,175 @@
+package com.orientechnologies.orient.core.serialization.serializer.record.binary;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Measures serialization, full deserialization and deserialization of two fields of a document by
+ * {@link ORecordSerializerBinary}. Document contains {@code fields} fields of different types, including embedded collections and
+ * embedded document, values are generated from fixed seed. With {@code schema=full} all fields are declared as properties of the
+ * document class, so field names are replaced by ids of global properties, with {@code schema=none} document is schemaless.
+ * {@code version} is version of binary format used by deserialization benchmarks, version 1 contains directory of fields which is
+ * used to find requested fields without scan of header.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RecordSerializerBinaryBenchmark {
+  private static final long     SEED           = 42;
+  private static final String[] PARTIAL_FIELDS = { "field3", "field17" };
+
+  @Param({ "none", "full" })
+  private String                schema;
+
+  @Param({ "20", "200" })
+  private int                   fields;
+
+  @Param({ "0", "1" })
+  private byte                  version;
+
+  private ODatabaseDocumentTx   db;
+  private ODocument             document;
+  private byte[]                serialized;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    db = new ODatabaseDocumentTx("memory:RecordSerializerBinaryBenchmark");
+    db.create();
+
+    final OClass benchmarkClass = db.getMetadata().getSchema().createClass("SerializerBenchmark");
+
+    final Random random = new Random(SEED);
+    document = new ODocument();
+    for (int i = 0; i < fields; i++) {
+      final String name = "field" + i;
+      final OType type;
+
+      switch (i % 10) {
+      case 0:
+        type = OType.STRING;
+        document.field(name, "value" + random.nextLong());
+        break;
+      case 1:
+        type = OType.INTEGER;
+        document.field(name, random.nextInt());
+        break;
+      case 2:
+        type = OType.LONG;
+        document.field(name, random.nextLong());
+        break;
+      case 3:
+        type = OType.DOUBLE;
+        document.field(name, random.nextDouble());
+        break;
+      case 4:
+        type = OType.BOOLEAN;
+        document.field(name, random.nextBoolean());
+        break;
+      case 5:
+        type = OType.DATETIME;
+        document.field(name, new Date(random.nextInt() & Integer.MAX_VALUE));
+        break;
+      case 6:
+        type = OType.LINK;
+        document.field(name, new ORecordId(5, random.nextInt(1000)));
+        break;
+      case 7: {
+        type = OType.EMBEDDEDLIST;
+        final List<String> list = new ArrayList<String>();
+        for (int n = 0; n < 10; n++)
+          list.add("item" + random.nextInt());
+
+        document.field(name, list);
+        break;
+      }
+      case 8: {
+        type = OType.EMBEDDEDMAP;
+        final Map<String, Integer> map = new HashMap<String, Integer>();
+        for (int n = 0; n < 10; n++)
+          map.put("key" + n, random.nextInt());
+
+        document.field(name, map);
+        break;
+      }
+      default: {
+        type = OType.EMBEDDED;
+        final ODocument embedded = new ODocument();
+        embedded.field("name", "embedded" + random.nextInt());
+        embedded.field("value", random.nextLong());
+
+        document.field(name, embedded, OType.EMBEDDED);
+        break;
+      }
+      }
+
+      if (schema.equals("full"))
+        benchmarkClass.createProperty(name, type);
+    }
+
+    if (schema.equals("full"))
+      document.setClassName(benchmarkClass.getName());
+
+    final ODocumentSerializer serializer = version == 0 ? new ORecordSerializerBinaryV0() : new ORecordSerializerBinaryV1();
+    final BytesContainer container = new BytesContainer();
+    container.bytes[container.alloc(1)] = version;
+    serializer.serialize(document, container, false);
+    serialized = container.fitBytes();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    db.activateOnCurrentThread();
+    db.drop();
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    db.activateOnCurrentThread();
+    return ORecordSerializerBinary.INSTANCE.toStream(document, false);
+  }
+
+  @Benchmark
+  public ORecord deserialize() {
+    db.activateOnCurrentThread();
+    return ORecordSerializerBinary.INSTANCE.fromStream(serialized, new ODocument(), null);
+  }
+
+  @Benchmark
+  public ORecord deserializePartial() {
+    db.activateOnCurrentThread();
+    return ORecordSerializerBinary.INSTANCE.fromStream(serialized, new ODocument(), PARTIAL_FIELDS);
+  }
+
+  @Benchmark
+  public Object lazyField() {
+    db.activateOnCurrentThread();
+
+    final ODocument loaded = new ODocument().fromStream(serialized);
+    return loaded.field(PARTIAL_FIELDS[1]);
+  }
+}
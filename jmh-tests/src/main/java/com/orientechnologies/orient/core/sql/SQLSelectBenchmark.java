@@ -0,0 +1,109 @@
+package com.orientechnologies.orient.core.sql;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+
+/**
+ * Measures SQL select by equality and by range of values, with and without indexes on the queried properties. Class contains
+ * {@code records} documents with unique {@code id} and {@code value} which is evenly distributed over {@link #VALUES} values, so
+ * range of {@link #RANGE_SIZE} values matches about {@code records * RANGE_SIZE / VALUES} documents. Data set and query
+ * parameters are generated from fixed seed.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SQLSelectBenchmark {
+  private static final long                  SEED       = 42;
+  private static final int                   VALUES     = 10000;
+  private static final int                   RANGE_SIZE = 10;
+
+  @Param({ "memory", "plocal" })
+  private String                             engine;
+
+  @Param({ "true", "false" })
+  private boolean                            indexed;
+
+  @Param({ "100000" })
+  private int                                records;
+
+  private ODatabaseDocumentTx                db;
+  private final Random                       random     = new Random(SEED);
+
+  private final OSQLSynchQuery<ODocument>    byId       = new OSQLSynchQuery<ODocument>("select from Item where id = ?");
+  private final OSQLSynchQuery<ODocument>    byRange    = new OSQLSynchQuery<ODocument>(
+                                                            "select from Item where value between ? and ?");
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final String url = engine.equals("memory") ? "memory:SQLSelectBenchmark" : "plocal:" + System.getProperty("java.io.tmpdir")
+        + File.separator + "SQLSelectBenchmark";
+
+    db = new ODatabaseDocumentTx(url);
+    if (db.exists()) {
+      db.open("admin", "admin");
+      db.drop();
+      db = new ODatabaseDocumentTx(url);
+    }
+    db.create();
+
+    final OClass itemClass = db.getMetadata().getSchema().createClass("Item");
+    itemClass.createProperty("id", OType.INTEGER);
+    itemClass.createProperty("value", OType.INTEGER);
+    itemClass.createProperty("name", OType.STRING);
+
+    if (indexed) {
+      itemClass.createIndex("Item.id", OClass.INDEX_TYPE.UNIQUE, "id");
+      itemClass.createIndex("Item.value", OClass.INDEX_TYPE.NOTUNIQUE, "value");
+    }
+
+    final Random random = new Random(SEED);
+    for (int i = 0; i < records; i++) {
+      final ODocument document = new ODocument("Item");
+      document.field("id", i);
+      document.field("value", random.nextInt(VALUES));
+      document.field("name", "item" + random.nextLong());
+      document.save();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    db.activateOnCurrentThread();
+    db.drop();
+  }
+
+  @Benchmark
+  public List<ODocument> selectById() {
+    db.activateOnCurrentThread();
+    return db.query(byId, random.nextInt(records));
+  }
+
+  @Benchmark
+  public List<ODocument> selectByRange() {
+    db.activateOnCurrentThread();
+
+    final int from = random.nextInt(VALUES - RANGE_SIZE);
+    return db.query(byRange, from, from + RANGE_SIZE - 1);
+  }
+}
@@ -0,0 +1,128 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Measures latency of random record reads when data set is several times bigger than the read cache, so most of reads are cache
+ * misses which load pages from data files. Compares pages loaded through file channel ({@code classic}) with pages copied from
+ * memory mapped regions ({@code mmap}). Database is created once in temporary directory and reused by all runs, the read cache is
+ * limited to 16 megabytes by JVM arguments of the fork.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Dstorage.diskCache.bufferSize=16", "-Dstorage.diskCache.writeCachePart=50" })
+public class PageReadBenchmark {
+  private static final int RECORD_SIZE = 1024;
+
+  @State(Scope.Benchmark)
+  public static class Database {
+    @Param({ "classic", "mmap" })
+    private String                            fileType;
+
+    @Param({ "200000" })
+    private int                               records;
+
+    private String                            url;
+    private int                               clusterId;
+
+    private final ThreadLocal<Reader>         reader = new ThreadLocal<Reader>() {
+                                                       @Override
+                                                       protected Reader initialValue() {
+                                                         final ODatabaseDocumentTx db = new ODatabaseDocumentTx(url);
+                                                         db.open("admin", "admin");
+                                                         return new Reader(db, clusterId, records);
+                                                       }
+                                                     };
+
+    @Setup(Level.Trial)
+    public void setup() {
+      OGlobalConfiguration.DISK_CACHE_FILE_TYPE.setValue(fileType);
+
+      url = "plocal:" + System.getProperty("java.io.tmpdir") + File.separator + "PageReadBenchmark" + records;
+
+      final ODatabaseDocumentTx db = new ODatabaseDocumentTx(url);
+      if (db.exists())
+        db.open("admin", "admin");
+      else {
+        db.create();
+        db.getMetadata().getSchema().createClass("PageRead");
+
+        final Random random = new Random();
+        final byte[] payload = new byte[RECORD_SIZE];
+        for (int i = 0; i < records; i++) {
+          random.nextBytes(payload);
+
+          final ODocument document = new ODocument("PageRead");
+          document.field("payload", payload);
+          document.save();
+        }
+      }
+
+      clusterId = db.getClusterIdByName("pageread");
+      db.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      final ODatabaseDocumentTx db = new ODatabaseDocumentTx(url);
+      db.open("admin", "admin");
+      db.getStorage().close(true, false);
+    }
+
+    public Reader reader() {
+      return reader.get();
+    }
+  }
+
+  public static class Reader {
+    private final ODatabaseDocumentTx db;
+    private final int                 clusterId;
+    private final int                 records;
+    private final Random              random = new Random();
+
+    public Reader(ODatabaseDocumentTx db, int clusterId, int records) {
+      this.db = db;
+      this.clusterId = clusterId;
+      this.records = records;
+    }
+
+    public ODocument read() {
+      db.activateOnCurrentThread();
+      return db.load(new ORecordId(clusterId, random.nextInt(records)), null, true);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public ODocument randomRead_1thread(Database database) {
+    return database.reader().read();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public ODocument randomRead_8thread(Database database) {
+    return database.reader().read();
+  }
+}
@@ -0,0 +1,165 @@
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Measures throughput of transaction commit when several writers commit in parallel. With {@code sharedClass=false} each writer
+ * works with its own class, so transactions touch disjoint clusters. With {@code sharedClass=true} all writers add records to the
+ * same class, which has a single cluster, so transactions contend for the lock of this cluster. Results with
+ * {@code concurrentCommit=false} show throughput of storage which is exclusively locked during commit.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TxCommitBenchmark {
+  private static final int MAX_WRITERS    = 32;
+  private static final int RECORDS_PER_TX = 10;
+
+  @State(Scope.Benchmark)
+  public static class Database {
+    @Param({ "memory", "plocal" })
+    private String                            storageType;
+
+    @Param({ "true", "false" })
+    private String                            concurrentCommit;
+
+    @Param({ "false", "true" })
+    private String                            sharedClass;
+
+    private String                            url;
+
+    private final AtomicInteger               writersCounter = new AtomicInteger();
+    private final List<ODatabaseDocumentTx>   openedDbs      = new CopyOnWriteArrayList<ODatabaseDocumentTx>();
+    private final ThreadLocal<Writer>         writer         = new ThreadLocal<Writer>() {
+                                                               @Override
+                                                               protected Writer initialValue() {
+                                                                 final ODatabaseDocumentTx db = new ODatabaseDocumentTx(url);
+                                                                 db.open("admin", "admin");
+                                                                 openedDbs.add(db);
+
+                                                                 final int writerIndex = Boolean.valueOf(sharedClass) ? 0
+                                                                     : writersCounter.getAndIncrement() % MAX_WRITERS;
+                                                                 return new Writer(db, "Writer" + writerIndex);
+                                                               }
+                                                             };
+
+    @Setup(Level.Trial)
+    public void setup() {
+      OGlobalConfiguration.TX_CONCURRENT_COMMIT.setValue(Boolean.valueOf(concurrentCommit));
+
+      if ("plocal".equals(storageType))
+        url = "plocal:" + System.getProperty("java.io.tmpdir") + File.separator + "TxCommitBenchmark";
+      else
+        url = "memory:TxCommitBenchmark";
+
+      final ODatabaseDocumentTx db = new ODatabaseDocumentTx(url);
+      if (db.exists()) {
+        db.open("admin", "admin");
+        db.drop();
+      }
+
+      db.create();
+      for (int i = 0; i < MAX_WRITERS; i++)
+        db.getMetadata().getSchema().createClass("Writer" + i);
+
+      db.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      for (ODatabaseDocumentTx db : openedDbs) {
+        db.activateOnCurrentThread();
+        db.close();
+      }
+
+      final ODatabaseDocumentTx db = new ODatabaseDocumentTx(url);
+      db.open("admin", "admin");
+      db.drop();
+    }
+
+    public Writer writer() {
+      return writer.get();
+    }
+  }
+
+  public static class Writer {
+    private final ODatabaseDocumentTx db;
+    private final String              className;
+    private int                       counter;
+
+    public Writer(ODatabaseDocumentTx db, String className) {
+      this.db = db;
+      this.className = className;
+    }
+
+    public void commit() {
+      db.activateOnCurrentThread();
+
+      db.begin();
+      for (int i = 0; i < RECORDS_PER_TX; i++) {
+        final ODocument document = new ODocument(className);
+        document.field("counter", counter++);
+        document.field("name", "record" + counter);
+        document.save();
+      }
+      db.commit();
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void commit_1thread(Database database) {
+    database.writer().commit();
+  }
+
+  @Benchmark
+  @Threads(2)
+  public void commit_2thread(Database database) {
+    database.writer().commit();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void commit_4thread(Database database) {
+    database.writer().commit();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void commit_8thread(Database database) {
+    database.writer().commit();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void commit_16thread(Database database) {
+    database.writer().commit();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void commit_32thread(Database database) {
+    database.writer().commit();
+  }
+}
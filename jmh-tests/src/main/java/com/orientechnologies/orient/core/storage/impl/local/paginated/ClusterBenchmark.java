@@ -0,0 +1,105 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.storage.OCluster;
+import com.orientechnologies.orient.core.storage.OPhysicalPosition;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.version.OVersionFactory;
+
+/**
+ * Measures create, read and update of raw records directly on {@link OPaginatedCluster}, bypassing database and serialization
+ * layers. Cluster is filled by records of fixed size with content generated from fixed seed, so every run works on the same data
+ * set. Reads and updates access random positions of the prefilled records, creates append new records to the cluster.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClusterBenchmark {
+  private static final long SEED   = 42;
+
+  private final Random      random = new Random(SEED);
+
+  @State(Scope.Benchmark)
+  public static class Cluster {
+    @Param({ "memory", "plocal" })
+    private String              engine;
+
+    @Param({ "256", "4096" })
+    private int                 recordSize;
+
+    @Param({ "100000" })
+    private int                 records;
+
+    private ODatabaseDocumentTx db;
+    private OCluster            cluster;
+    private long[]              positions;
+    private byte[]              content;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+      final String url = engine.equals("memory") ? "memory:ClusterBenchmark" : "plocal:" + System.getProperty("java.io.tmpdir")
+          + File.separator + "ClusterBenchmark";
+
+      db = new ODatabaseDocumentTx(url);
+      if (db.exists()) {
+        db.open("admin", "admin");
+        db.drop();
+        db = new ODatabaseDocumentTx(url);
+      }
+      db.create();
+
+      final OAbstractPaginatedStorage storage = (OAbstractPaginatedStorage) db.getStorage();
+      cluster = storage.getClusterById(db.addCluster("clusterBenchmark"));
+
+      final Random random = new Random(SEED);
+      content = new byte[recordSize];
+      positions = new long[records];
+
+      for (int i = 0; i < records; i++) {
+        random.nextBytes(content);
+        positions[i] = cluster.createRecord(content, OVersionFactory.instance().createVersion(), (byte) 'b').clusterPosition;
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      db.activateOnCurrentThread();
+      db.drop();
+    }
+  }
+
+  @Benchmark
+  public OPhysicalPosition create(Cluster cluster) throws IOException {
+    return cluster.cluster.createRecord(cluster.content, OVersionFactory.instance().createVersion(), (byte) 'b');
+  }
+
+  @Benchmark
+  public ORawBuffer read(Cluster cluster) throws IOException {
+    return cluster.cluster.readRecord(cluster.positions[random.nextInt(cluster.records)]);
+  }
+
+  @Benchmark
+  public void update(Cluster cluster) throws IOException {
+    cluster.cluster.updateRecord(cluster.positions[random.nextInt(cluster.records)], cluster.content, OVersionFactory.instance()
+        .createVersion(), (byte) 'b');
+  }
+}
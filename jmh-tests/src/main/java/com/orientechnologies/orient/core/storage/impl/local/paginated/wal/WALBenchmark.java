@@ -0,0 +1,150 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+
+/**
+ * Measures throughput of {@link ODiskWriteAheadLog#log(OWALRecord)} for records of different size. {@code log} only appends
+ * records to the log, {@code logAndFlush} additionally waits till appended record is synced on disk, the same way as durable
+ * commit of transaction does, so concurrent writers are served by group commit. WAL is created in temporary directory, all
+ * segments except of the last one are removed after each iteration, so log does not grow during the run. Content of records is
+ * generated from fixed seed.
+ *
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WALBenchmark {
+  private static final long      SEED = 42;
+
+  @Param({ "64", "1024", "16384" })
+  private int                    recordSize;
+
+  private OLocalPaginatedStorage storage;
+  private ODiskWriteAheadLog     writeAheadLog;
+  private BenchmarkRecord        record;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+    OWALRecordsFactory.INSTANCE.registerNewRecord((byte) 128, BenchmarkRecord.class);
+
+    final String url = "plocal:" + System.getProperty("java.io.tmpdir") + File.separator + "WALBenchmark";
+    storage = (OLocalPaginatedStorage) Orient.instance().loadStorage(url);
+    if (storage.exists())
+      storage.delete();
+
+    storage = (OLocalPaginatedStorage) Orient.instance().loadStorage(url);
+    storage.create(null);
+    storage.close(true, false);
+
+    writeAheadLog = new ODiskWriteAheadLog(storage);
+
+    final byte[] data = new byte[recordSize];
+    new Random(SEED).nextBytes(data);
+    record = new BenchmarkRecord(data);
+  }
+
+  @TearDown(Level.Iteration)
+  public void truncate() throws IOException {
+    writeAheadLog.truncate();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    writeAheadLog.delete();
+    storage.delete();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public OLogSequenceNumber log_1thread() throws IOException {
+    return writeAheadLog.log(record);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public OLogSequenceNumber log_8thread() throws IOException {
+    return writeAheadLog.log(record);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public OLogSequenceNumber logAndFlush_1thread() throws IOException {
+    final OLogSequenceNumber lsn = writeAheadLog.log(record);
+    writeAheadLog.flushTill(lsn);
+    return lsn;
+  }
+
+  @Benchmark
+  @Threads(8)
+  public OLogSequenceNumber logAndFlush_8thread() throws IOException {
+    final OLogSequenceNumber lsn = writeAheadLog.log(record);
+    writeAheadLog.flushTill(lsn);
+    return lsn;
+  }
+
+  public static final class BenchmarkRecord extends OAbstractWALRecord {
+    private byte[] data;
+
+    public BenchmarkRecord() {
+    }
+
+    public BenchmarkRecord(byte[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public int toStream(byte[] content, int offset) {
+      OIntegerSerializer.INSTANCE.serializeNative(data.length, content, offset);
+      offset += OIntegerSerializer.INT_SIZE;
+
+      System.arraycopy(data, 0, content, offset, data.length);
+      offset += data.length;
+
+      return offset;
+    }
+
+    @Override
+    public int fromStream(byte[] content, int offset) {
+      final int size = OIntegerSerializer.INSTANCE.deserializeNative(content, offset);
+      offset += OIntegerSerializer.INT_SIZE;
+
+      data = new byte[size];
+      System.arraycopy(content, offset, data, 0, size);
+      offset += size;
+
+      return offset;
+    }
+
+    @Override
+    public int serializedSize() {
+      return OIntegerSerializer.INT_SIZE + data.length;
+    }
+
+    @Override
+    public boolean isUpdateMasterRecord() {
+      return false;
+    }
+  }
+}
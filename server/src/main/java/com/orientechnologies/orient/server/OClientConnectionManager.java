@@ -192,6 +192,10 @@ public class OClientConnectionManager {
 
       // KILL THE NETWORK MANAGER TOO
       protocol.sendShutdown();
+
+      if (protocol instanceof ONetworkProtocolBinary && ((ONetworkProtocolBinary) protocol).getNetworkSelector() != null)
+        // NO THREAD OF ITS OWN CHECKS THE SHUTDOWN FLAG: CLOSE THE CHANNEL DIRECTLY
+        ((ONetworkProtocolBinary) protocol).closeSelectedConnection();
     }
   }
 
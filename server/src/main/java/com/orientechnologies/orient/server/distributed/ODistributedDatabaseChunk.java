@@ -27,13 +27,16 @@ import java.io.Externalizable;
  import java.io.ObjectOutput;
 
  import com.orientechnologies.common.io.OFileUtils;
+ import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
 
 public class ODistributedDatabaseChunk implements Externalizable {
-   public long    lastOperationId;
-   public String  filePath;
-   public long    offset;
-   public byte[]  buffer;
-   public boolean last;
+   public long               lastOperationId;
+   public String             filePath;
+   public long               offset;
+   public byte[]             buffer;
+   public boolean            last;
+   public boolean            delta;
+   public OLogSequenceNumber lastLSN;
 
    public ODistributedDatabaseChunk() {
    }
@@ -84,6 +87,12 @@ public class ODistributedDatabaseChunk implements Externalizable {
      out.writeInt(buffer.length);
      out.write(buffer);
      out.writeBoolean(last);
+     out.writeBoolean(delta);
+     out.writeBoolean(lastLSN != null);
+     if (lastLSN != null) {
+       out.writeLong(lastLSN.getSegment());
+       out.writeLong(lastLSN.getPosition());
+     }
    }
 
    @Override
@@ -95,5 +104,8 @@ public class ODistributedDatabaseChunk implements Externalizable {
      buffer = new byte[size];
      in.readFully(buffer);
      last = in.readBoolean();
+     delta = in.readBoolean();
+     if (in.readBoolean())
+       lastLSN = new OLogSequenceNumber(in.readLong(), in.readLong());
    }
  }
@@ -26,6 +26,7 @@ import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.util.OCallable;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandDistributedReplicateRequest;
 import com.orientechnologies.orient.core.command.OCommandExecutor;
 import com.orientechnologies.orient.core.command.OCommandManager;
@@ -41,6 +42,7 @@ import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.OScenarioThreadLocal;
 import com.orientechnologies.orient.core.db.OScenarioThreadLocal.RUN_MODE;
 import com.orientechnologies.orient.core.db.record.OCurrentStorageComponentsFactory;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.OPlaceholder;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.db.record.ridbag.sbtree.OSBTreeCollectionManager;
@@ -55,6 +57,7 @@ import com.orientechnologies.orient.core.metadata.schema.clusterselection.OClust
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.ORecordInternal;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentComparator;
 import com.orientechnologies.orient.core.sql.OCommandExecutorSQLDelegate;
 import com.orientechnologies.orient.core.sql.OCommandExecutorSQLSelect;
 import com.orientechnologies.orient.core.sql.OCommandSQL;
@@ -86,7 +89,10 @@ import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -263,18 +269,26 @@ public class ODistributedStorage implements OStorage, OFreezableStorage, OAutosh
             // LOCAL NODE, AVOID TO DISTRIBUTE IT
             return wrapped.command(iCommand);
 
+          final OCommandExecutorSQLSelect select = exec instanceof OCommandExecutorSQLSelect ? (OCommandExecutorSQLSelect) exec
+              : null;
+
           // SELECT: SPLIT CLASSES/CLUSTER IF ANY
-          final Map<String, Object> results = executeOnServers(iCommand, involvedClusters, nodeClusterMap);
+          final Map<String, Object> results = executeOnServers(iCommand, select, involvedClusters, nodeClusterMap);
 
-          if (results.size() == 1)
+          if (results.size() == 1) {
             // ONE RESULT ONLY: RETURN IT DIRECTLY
             result = results.values().iterator().next();
-          else {
-            final OCommandExecutorSQLSelect select = exec instanceof OCommandExecutorSQLSelect ? (OCommandExecutorSQLSelect) exec
-                : null;
 
+            if (isLimitPushedDown(select) && result instanceof List)
+              result = applyLimitAndSkip(select, (List<Object>) result);
+          } else {
             if (select != null && select.isAnyFunctionAggregates()) {
-              result = mergeResultByAggegation(select, results);
+              if (isGroupByMergeable(select))
+                result = mergeResultByGroup(select, results);
+              else
+                result = mergeResultByAggegation(select, results);
+            } else if (isSortMergeable(select, results)) {
+              result = mergeResultBySort(select, results);
             } else {
               // MIX & FILTER RESULT SET AVOIDING DUPLICATES
               // TODO: ONCE OPTIMIZED (SEE ABOVE) AVOID TO FILTER HERE
@@ -288,6 +302,9 @@ public class ODistributedStorage implements OStorage, OFreezableStorage, OAutosh
                   throw (Exception) nodeResult;
               }
               result = new ArrayList<Object>(set);
+
+              if (isLimitPushedDown(select))
+                result = applyLimitAndSkip(select, (List<Object>) result);
             }
           }
         } else {
@@ -333,26 +350,255 @@ public class ODistributedStorage implements OStorage, OFreezableStorage, OAutosh
     }
   }
 
-  protected Map<String, Object> executeOnServers(OCommandRequestText iCommand, Collection<String> involvedClusters,
-      Map<String, Collection<String>> nodeClusterMap) {
+  /**
+   * Executes the command on every server against its own clusters. The requests are sent in parallel, so the time to get all the
+   * results is the one of the slowest server.
+   */
+  protected Map<String, Object> executeOnServers(final OCommandRequestText iCommand, final OCommandExecutorSQLSelect iSelect,
+      final Collection<String> involvedClusters, final Map<String, Collection<String>> nodeClusterMap) throws Exception {
     final Map<String, Object> results = new HashMap<String, Object>(nodeClusterMap.size());
+    final Map<String, Future<Object>> futures = new HashMap<String, Future<Object>>(nodeClusterMap.size());
+
+    final ODatabaseDocumentInternal currentDatabase = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
 
     // EXECUTE DIFFERENT TASK ON EACH SERVER
-    final List<String> nodes = new ArrayList<String>(1);
-    for (Map.Entry<String, Collection<String>> c : nodeClusterMap.entrySet()) {
+    final Iterator<Map.Entry<String, Collection<String>>> it = nodeClusterMap.entrySet().iterator();
+    while (it.hasNext()) {
+      final Map.Entry<String, Collection<String>> c = it.next();
 
       final OAbstractCommandTask task = iCommand instanceof OCommandScript ? new OScriptTask(iCommand) : new OSQLCommandTask(
           iCommand, c.getValue());
       task.setResultStrategy(OAbstractRemoteTask.RESULT_STRATEGY.ANY);
 
-      nodes.clear();
-      nodes.add(c.getKey());
+      if (task instanceof OSQLCommandTask && isLimitPushedDown(iSelect)) {
+        // EVERY SERVER RETURNS THE FIRST SKIP+LIMIT RECORDS, THE SKIP IS APPLIED ON MERGING
+        ((OSQLCommandTask) task).setSkip(0);
+        if (iSelect.getLimit() > -1)
+          ((OSQLCommandTask) task).setLimit(iSelect.getLimit() + Math.max(iSelect.getSkip(), 0));
+      }
+
+      final Collection<String> nodes = Collections.singletonList(c.getKey());
+
+      if (!it.hasNext()) {
+        // EXECUTE THE LAST ONE IN THE CURRENT THREAD
+        results.put(c.getKey(), dManager.sendRequest(getName(), involvedClusters, nodes, task, EXECUTION_MODE.RESPONSE));
+        break;
+      }
+
+      final Callable<Object> request = new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          if (currentDatabase != null)
+            ODatabaseRecordThreadLocal.INSTANCE.set(currentDatabase);
+          try {
+            return dManager.sendRequest(getName(), involvedClusters, nodes, task, EXECUTION_MODE.RESPONSE);
+          } finally {
+            ODatabaseRecordThreadLocal.INSTANCE.remove();
+          }
+        }
+      };
+
+      try {
+        futures.put(c.getKey(), Orient.instance().getWorkers().submit(request));
+      } catch (RejectedExecutionException e) {
+        // NO WORKERS AVAILABLE: EXECUTE IT IN THE CURRENT THREAD
+        results.put(c.getKey(), dManager.sendRequest(getName(), involvedClusters, nodes, task, EXECUTION_MODE.RESPONSE));
+      }
+    }
 
-      results.put(c.getKey(), dManager.sendRequest(getName(), involvedClusters, nodes, task, EXECUTION_MODE.RESPONSE));
+    for (Map.Entry<String, Future<Object>> f : futures.entrySet()) {
+      try {
+        results.put(f.getKey(), f.getValue().get());
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof Exception)
+          throw (Exception) e.getCause();
+        throw e;
+      }
     }
+
+    // THE WORKERS HAVE CHANGED THE DATABASE OF THE THREAD ONLY, BUT RESTORE IT IN CASE THE LAST REQUEST RUN IN THE CURRENT THREAD
+    if (currentDatabase != null)
+      ODatabaseRecordThreadLocal.INSTANCE.set(currentDatabase);
+
     return results;
   }
 
+  /**
+   * Returns true if servers return their first SKIP+LIMIT records, while SKIP and LIMIT are applied to the merged result.
+   */
+  protected boolean isLimitPushedDown(final OCommandExecutorSQLSelect iSelect) {
+    return OGlobalConfiguration.DISTRIBUTED_QUERY_PUSH_DOWN_LIMIT.getValueAsBoolean() && iSelect != null
+        && !iSelect.isAnyFunctionAggregates()
+        && (iSelect.getGroupByFields() == null || iSelect.getGroupByFields().isEmpty())
+        && (iSelect.getLimit() > -1 || iSelect.getSkip() > 0);
+  }
+
+  /**
+   * Returns true if results of servers are sorted by fields available in the returned records, so they can be merged keeping the
+   * order.
+   */
+  protected boolean isSortMergeable(final OCommandExecutorSQLSelect iSelect, final Map<String, Object> iResults) {
+    if (iSelect == null || iSelect.getOrderedFields() == null || iSelect.getOrderedFields().isEmpty()
+        || iSelect.isAnyFunctionAggregates() || (iSelect.getGroupByFields() != null && !iSelect.getGroupByFields().isEmpty()))
+      return false;
+
+    final Map<String, Object> proj = iSelect.getProjections();
+    if (proj != null)
+      for (OPair<String, String> field : iSelect.getOrderedFields())
+        if (!proj.containsKey(field.getKey()))
+          return false;
+
+    for (Object nodeResult : iResults.values()) {
+      if (!(nodeResult instanceof Collection))
+        return false;
+      for (Object r : (Collection<?>) nodeResult)
+        if (!(r instanceof OIdentifiable))
+          return false;
+    }
+    return true;
+  }
+
+  /**
+   * Merges the sorted results of the servers with a k-way merge, stopping once SKIP+LIMIT records are merged.
+   */
+  protected Object mergeResultBySort(final OCommandExecutorSQLSelect select, final Map<String, Object> iResults) {
+    final ODocumentComparator comparator = new ODocumentComparator(select.getOrderedFields(), new OBasicCommandContext());
+
+    // THE HEAD OF EVERY NODE RESULT IS IN THE QUEUE, ORDERED BY THE COMPARATOR
+    final PriorityQueue<OPair<OIdentifiable, Iterator<OIdentifiable>>> heads;
+    heads = new PriorityQueue<OPair<OIdentifiable, Iterator<OIdentifiable>>>(iResults.size(),
+        new Comparator<OPair<OIdentifiable, Iterator<OIdentifiable>>>() {
+          @Override
+          public int compare(final OPair<OIdentifiable, Iterator<OIdentifiable>> o1,
+              final OPair<OIdentifiable, Iterator<OIdentifiable>> o2) {
+            return comparator.compare(o1.getKey(), o2.getKey());
+          }
+        });
+
+    for (Object nodeResult : iResults.values()) {
+      final Iterator<OIdentifiable> it = ((Collection<OIdentifiable>) nodeResult).iterator();
+      if (it.hasNext())
+        heads.add(new OPair<OIdentifiable, Iterator<OIdentifiable>>(it.next(), it));
+    }
+
+    // IF LIMIT IS NOT PUSHED DOWN THE SERVERS HAVE ALREADY SKIPPED THEIR RECORDS
+    final int skip = isLimitPushedDown(select) ? Math.max(select.getSkip(), 0) : 0;
+    final int limit = select.getLimit();
+
+    final List<Object> result = new ArrayList<Object>();
+    final Set<ORID> merged = new HashSet<ORID>();
+    int skipped = 0;
+
+    while (!heads.isEmpty() && (limit == -1 || result.size() < limit)) {
+      final OPair<OIdentifiable, Iterator<OIdentifiable>> head = heads.poll();
+      final OIdentifiable record = head.getKey();
+
+      if (head.getValue().hasNext())
+        heads.add(new OPair<OIdentifiable, Iterator<OIdentifiable>>(head.getValue().next(), head.getValue()));
+
+      if (record.getIdentity().isPersistent() && !merged.add(record.getIdentity()))
+        // AVOID DUPLICATES
+        continue;
+
+      if (skipped < skip)
+        skipped++;
+      else
+        result.add(record);
+    }
+
+    return result;
+  }
+
+  protected List<Object> applyLimitAndSkip(final OCommandExecutorSQLSelect select, final List<Object> iResult) {
+    final int start = Math.min(Math.max(select.getSkip(), 0), iResult.size());
+    final int end = select.getLimit() > -1 ? Math.min(start + select.getLimit(), iResult.size()) : iResult.size();
+    return new ArrayList<Object>(iResult.subList(start, end));
+  }
+
+  /**
+   * Returns true if the aggregated results of the servers can be merged by group, because all the GROUP BY fields are returned.
+   */
+  protected boolean isGroupByMergeable(final OCommandExecutorSQLSelect select) {
+    final List<String> groupBy = select.getGroupByFields();
+    if (groupBy == null || groupBy.isEmpty())
+      return false;
+
+    final Map<String, Object> proj = select.getProjections();
+    for (String field : groupBy)
+      if (proj == null || !proj.containsKey(field))
+        return false;
+    return true;
+  }
+
+  /**
+   * Merges the partial aggregates computed by the servers for every group.
+   */
+  protected Object mergeResultByGroup(final OCommandExecutorSQLSelect select, final Map<String, Object> iResults)
+      throws Exception {
+    final List<String> groupBy = select.getGroupByFields();
+    final Map<String, Object> proj = select.getProjections();
+
+    final Map<List<Object>, List<ODocument>> groups = new LinkedHashMap<List<Object>, List<ODocument>>();
+    for (Object nodeResult : iResults.values()) {
+      if (nodeResult instanceof Exception)
+        // RECEIVED EXCEPTION
+        throw (Exception) nodeResult;
+
+      for (Object r : (Collection<Object>) nodeResult) {
+        if (r instanceof ODocument) {
+          final ODocument d = (ODocument) r;
+
+          final List<Object> key = new ArrayList<Object>(groupBy.size());
+          for (String field : groupBy)
+            key.add(d.rawField(field));
+
+          List<ODocument> group = groups.get(key);
+          if (group == null) {
+            group = new ArrayList<ODocument>();
+            groups.put(key, group);
+          }
+          group.add(d);
+        }
+      }
+    }
+
+    final List<Object> result = new ArrayList<Object>(groups.size());
+    final List<Object> toMerge = new ArrayList<Object>();
+
+    for (List<ODocument> group : groups.values()) {
+      final ODocument doc = new ODocument();
+
+      for (Map.Entry<String, Object> p : proj.entrySet()) {
+        if (p.getValue() instanceof OSQLFunctionRuntime && ((OSQLFunctionRuntime) p.getValue()).aggregateResults()) {
+          toMerge.clear();
+          for (ODocument d : group)
+            toMerge.add(d.rawField(p.getKey()));
+
+          doc.field(p.getKey(), ((OSQLFunctionRuntime) p.getValue()).getFunction().mergeDistributedResult(toMerge));
+        } else
+          // GROUP BY AND NON AGGREGATED FIELDS ARE THE SAME IN ALL THE RECORDS OF THE GROUP
+          doc.field(p.getKey(), (Object) group.get(0).rawField(p.getKey()));
+      }
+
+      result.add(doc);
+    }
+
+    if (select.getOrderedFields() != null && !select.getOrderedFields().isEmpty()) {
+      // SORT THE MERGED GROUPS
+      boolean sortable = true;
+      for (OPair<String, String> field : select.getOrderedFields())
+        if (!proj.containsKey(field.getKey())) {
+          sortable = false;
+          break;
+        }
+
+      if (sortable)
+        Collections.sort((List) result, new ODocumentComparator(select.getOrderedFields(), new OBasicCommandContext()));
+    }
+
+    return result;
+  }
+
   protected Object mergeResultByAggegation(final OCommandExecutorSQLSelect select, final Map<String, Object> iResults) {
     final List<Object> list = new ArrayList<Object>();
     final ODocument doc = new ODocument();
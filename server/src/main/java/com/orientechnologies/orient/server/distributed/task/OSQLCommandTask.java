@@ -37,6 +37,7 @@ import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog.DIRECTION;
 import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
@@ -53,6 +54,7 @@ import java.util.Map;
  */
 public class OSQLCommandTask extends OAbstractCommandTask {
   private static final long                                 serialVersionUID = 1L;
+  private static final byte                                 LIMIT_SKIP       = 1;
 
   protected String                                          text;
   protected Map<Object, Object>                             params;
@@ -60,6 +62,8 @@ public class OSQLCommandTask extends OAbstractCommandTask {
   protected Collection<String>                              clusters;
   protected OCommandDistributedReplicateRequest.QUORUM_TYPE quorumType;
   protected long                                            timeout;
+  protected int                                             limit            = -1;
+  protected int                                             skip             = -1;
 
   public OSQLCommandTask() {
     clusters = new HashSet<String>();
@@ -109,6 +113,14 @@ public class OSQLCommandTask extends OAbstractCommandTask {
       ((OCommandExecutorSQLSelect) exec).setTarget(filteredTarget);
     }
 
+    if (exec instanceof OCommandExecutorSQLSelect) {
+      // OVERRIDE LIMIT AND SKIP OF THE QUERY IF THE RESULT IS MERGED WITH THE ONES OF OTHER NODES
+      if (limit > -1)
+        ((OCommandExecutorSQLSelect) exec).setLimit(limit);
+      if (skip > -1)
+        ((OCommandExecutorSQLSelect) exec).setSkip(skip);
+    }
+
     final Object res;
     if (params != null)
       // EXECUTE WITH PARAMETERS
@@ -137,6 +149,22 @@ public class OSQLCommandTask extends OAbstractCommandTask {
     return timeout;
   }
 
+  /**
+   * Sets the limit of the query executed on the node, overriding the one of the query. -1 means use the limit of the query.
+   */
+  public OSQLCommandTask setLimit(final int iLimit) {
+    limit = iLimit;
+    return this;
+  }
+
+  /**
+   * Sets the records to skip on the node, overriding the value of the query. -1 means use the skip of the query.
+   */
+  public OSQLCommandTask setSkip(final int iSkip) {
+    skip = iSkip;
+    return this;
+  }
+
   @Override
   public void writeExternal(final ObjectOutput out) throws IOException {
     out.writeUTF(text);
@@ -145,6 +173,13 @@ public class OSQLCommandTask extends OAbstractCommandTask {
     out.writeInt(clusters.size());
     for (String c : clusters)
       out.writeUTF(c);
+
+    if (limit > -1 || skip > -1) {
+      // OPTIONAL SECTION AT THE END: NODES OF PREVIOUS VERSIONS DO NOT READ IT AND SKIP IT AS THE REST OF THE OBJECT DATA
+      out.writeByte(LIMIT_SKIP);
+      out.writeInt(limit);
+      out.writeInt(skip);
+    }
   }
 
   @Override
@@ -156,6 +191,19 @@ public class OSQLCommandTask extends OAbstractCommandTask {
     clusters = new HashSet<String>(cSize);
     for (int i = 0; i < cSize; ++i)
       clusters.add(in.readUTF());
+
+    final byte section;
+    try {
+      section = in.readByte();
+    } catch (EOFException e) {
+      // SENT WITHOUT LIMIT AND SKIP OR BY A NODE OF PREVIOUS VERSION
+      return;
+    }
+
+    if (section == LIMIT_SKIP) {
+      limit = in.readInt();
+      skip = in.readInt();
+    }
   }
 
   @Override
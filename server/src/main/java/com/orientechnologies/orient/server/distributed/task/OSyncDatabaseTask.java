@@ -26,6 +26,9 @@ import com.orientechnologies.orient.core.command.OCommandDistributedReplicateReq
 import com.orientechnologies.orient.core.command.OCommandOutputListener;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.storage.OStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
 import com.orientechnologies.orient.server.OServer;
 import com.orientechnologies.orient.server.distributed.ODistributedDatabaseChunk;
 import com.orientechnologies.orient.server.distributed.ODistributedException;
@@ -39,9 +42,14 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -54,11 +62,16 @@ public class OSyncDatabaseTask extends OAbstractReplicatedTask implements OComma
   public static final String DEPLOYDB       = "deploydb.";
 
   public enum MODE {
-    FULL_REPLACE
+    FULL_REPLACE, DELTA
   }
 
-  protected MODE mode = MODE.FULL_REPLACE;
-  protected long random;
+  protected MODE                   mode = MODE.FULL_REPLACE;
+  protected long                   random;
+
+  // DELTA MODE ONLY: LSN OF THE LAST SYNCHRONIZATION AND WHAT THE REQUESTING NODE CHANGED SINCE THEN
+  protected OLogSequenceNumber     deltaLSN;
+  protected Map<String, Set<Long>> changedPages;
+  protected Set<String>            files;
 
   public OSyncDatabaseTask() {
   }
@@ -68,6 +81,24 @@ public class OSyncDatabaseTask extends OAbstractReplicatedTask implements OComma
     random = UUID.randomUUID().getLeastSignificantBits();
   }
 
+  /**
+   * Asks only for the pages changed since the last synchronization with the same node.
+   *
+   * @param iDeltaLSN
+   *          LSN of the WAL of the receiving node at the last synchronization
+   * @param iChangedPages
+   *          pages changed on the requesting node since the last synchronization, see
+   *          {@link OLocalPaginatedStorage#getChangedPages(OLogSequenceNumber)}
+   * @param iFiles
+   *          storage files of the requesting node
+   */
+  public OSyncDatabaseTask(final OLogSequenceNumber iDeltaLSN, final Map<String, Set<Long>> iChangedPages, final Set<String> iFiles) {
+    this(MODE.DELTA);
+    deltaLSN = iDeltaLSN;
+    changedPages = iChangedPages;
+    files = iFiles;
+  }
+
   @Override
   public Object execute(final OServer iServer, ODistributedServerManager iManager, final ODatabaseDocumentTx database)
       throws Exception {
@@ -98,40 +129,72 @@ public class OSyncDatabaseTask extends OAbstractReplicatedTask implements OComma
               databaseName);
 
           final AtomicLong lastOperationId = new AtomicLong(-1);
+          final AtomicReference<OLogSequenceNumber> lastLSN = new AtomicReference<OLogSequenceNumber>();
+          final OStorage storage = ((ODistributedStorage) database.getStorage()).getUnderlying();
+
+          final Callable<Object> callback = new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+              lastOperationId.set(database.getStorage().getLastOperationId());
+              if (storage instanceof OLocalPaginatedStorage && ((OLocalPaginatedStorage) storage).getWALInstance() != null)
+                // THE REQUESTING NODE ASKS FOR THE CHANGES AFTER IT ON NEXT SYNCHRONIZATION
+                lastLSN.set(((OLocalPaginatedStorage) storage).getWALInstance().end());
+              return null;
+            }
+          };
 
-          File backupFile = ((ODistributedStorage) database.getStorage()).getLastValidBackup();
+          File backupFile = null;
+          boolean delta = false;
 
-          if (backupFile == null || !backupFile.exists()) {
-            // CREATE A BACKUP OF DATABASE FROM SCRATCH
-            backupFile = new File(Orient.getTempPath() + "/backup_" + database.getName() + ".zip");
+          if (mode == MODE.DELTA && storage instanceof OLocalPaginatedStorage) {
+            backupFile = new File(Orient.getTempPath() + "/delta_" + database.getName() + ".bin");
 
             ODistributedServerLog.info(this, iManager.getLocalNodeName(), getNodeSource(), DIRECTION.OUT,
-                "creating backup of database '%s' in directory: %s...", databaseName, backupFile.getAbsolutePath());
+                "collecting pages of database '%s' changed since last synchronization in: %s...", databaseName,
+                backupFile.getAbsolutePath());
 
-            if (backupFile.exists())
-              backupFile.delete();
-            else
-              backupFile.getParentFile().mkdirs();
-            backupFile.createNewFile();
+            createFile(backupFile);
 
             final FileOutputStream fileOutputStream = new FileOutputStream(backupFile);
             try {
-              database.backup(fileOutputStream, null, new Callable<Object>() {
-                @Override
-                public Object call() throws Exception {
-                  lastOperationId.set(database.getStorage().getLastOperationId());
-                  return null;
-                }
-              }, this, OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_TASK_COMPRESSION.getValueAsInteger(), CHUNK_MAX_SIZE);
+              delta = ((OLocalPaginatedStorage) storage).backupDelta(fileOutputStream, deltaLSN, changedPages, files, callback, this,
+                  OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_TASK_COMPRESSION.getValueAsInteger());
             } finally {
               fileOutputStream.close();
             }
 
-            // RECORD LAST BACKUP TO BE REUSED IN CASE ANOTHER NODE ASK FOR THE SAME IN SHORT TIME WHILE THE DB IS NOT UPDATED
-            ((ODistributedStorage) database.getStorage()).setLastValidBackup(backupFile);
-          } else
-            ODistributedServerLog.info(this, iManager.getLocalNodeName(), getNodeSource(), DIRECTION.OUT,
-                "reusing last backup of database '%s' in directory: %s...", databaseName, backupFile.getAbsolutePath());
+            if (!delta)
+              ODistributedServerLog.warn(this, iManager.getLocalNodeName(), getNodeSource(), DIRECTION.OUT,
+                  "changes of database '%s' since last synchronization are not available anymore, deploying the whole database",
+                  databaseName);
+          }
+
+          if (!delta) {
+            backupFile = ((ODistributedStorage) database.getStorage()).getLastValidBackup();
+
+            if (backupFile == null || !backupFile.exists()) {
+              // CREATE A BACKUP OF DATABASE FROM SCRATCH
+              backupFile = new File(Orient.getTempPath() + "/backup_" + database.getName() + ".zip");
+
+              ODistributedServerLog.info(this, iManager.getLocalNodeName(), getNodeSource(), DIRECTION.OUT,
+                  "creating backup of database '%s' in directory: %s...", databaseName, backupFile.getAbsolutePath());
+
+              createFile(backupFile);
+
+              final FileOutputStream fileOutputStream = new FileOutputStream(backupFile);
+              try {
+                database.backup(fileOutputStream, null, callback, this,
+                    OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_TASK_COMPRESSION.getValueAsInteger(), CHUNK_MAX_SIZE);
+              } finally {
+                fileOutputStream.close();
+              }
+
+              // RECORD LAST BACKUP TO BE REUSED IN CASE ANOTHER NODE ASK FOR THE SAME IN SHORT TIME WHILE THE DB IS NOT UPDATED
+              ((ODistributedStorage) database.getStorage()).setLastValidBackup(backupFile);
+            } else
+              ODistributedServerLog.info(this, iManager.getLocalNodeName(), getNodeSource(), DIRECTION.OUT,
+                  "reusing last backup of database '%s' in directory: %s...", databaseName, backupFile.getAbsolutePath());
+          }
 
           final long fileSize = backupFile.length();
 
@@ -141,6 +204,8 @@ public class OSyncDatabaseTask extends OAbstractReplicatedTask implements OComma
 
           final ODistributedDatabaseChunk chunk = new ODistributedDatabaseChunk(lastOperationId.get(), backupFile, 0,
               CHUNK_MAX_SIZE);
+          chunk.delta = delta;
+          chunk.lastLSN = lastLSN.get();
 
           ODistributedServerLog.info(this, iManager.getLocalNodeName(), getNodeSource(), ODistributedServerLog.DIRECTION.OUT,
               "- transferring chunk #%d offset=%d size=%s...", 1, 0, OFileUtils.getSizeAsNumber(chunk.buffer.length));
@@ -202,12 +267,57 @@ public class OSyncDatabaseTask extends OAbstractReplicatedTask implements OComma
   public void writeExternal(final ObjectOutput out) throws IOException {
     out.writeUTF(mode.name());
     out.writeLong(random);
+
+    if (mode == MODE.DELTA) {
+      out.writeLong(deltaLSN.getSegment());
+      out.writeLong(deltaLSN.getPosition());
+
+      out.writeInt(files.size());
+      for (String f : files)
+        out.writeUTF(f);
+
+      out.writeInt(changedPages.size());
+      for (Map.Entry<String, Set<Long>> entry : changedPages.entrySet()) {
+        out.writeUTF(entry.getKey());
+        if (entry.getValue() == null)
+          out.writeInt(-1);
+        else {
+          out.writeInt(entry.getValue().size());
+          for (Long pageIndex : entry.getValue())
+            out.writeLong(pageIndex);
+        }
+      }
+    }
   }
 
   @Override
   public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
     mode = MODE.valueOf(in.readUTF());
     random = in.readLong();
+
+    if (mode == MODE.DELTA) {
+      deltaLSN = new OLogSequenceNumber(in.readLong(), in.readLong());
+
+      final int filesSize = in.readInt();
+      files = new HashSet<String>(filesSize);
+      for (int i = 0; i < filesSize; ++i)
+        files.add(in.readUTF());
+
+      final int changedFiles = in.readInt();
+      changedPages = new HashMap<String, Set<Long>>(changedFiles);
+      for (int i = 0; i < changedFiles; ++i) {
+        final String fileName = in.readUTF();
+        final int pages = in.readInt();
+        if (pages < 0)
+          changedPages.put(fileName, null);
+        else {
+          final Set<Long> pageIndexes = new HashSet<Long>(pages);
+          for (int p = 0; p < pages; ++p)
+            pageIndexes.add(in.readLong());
+          changedPages.put(fileName, pageIndexes);
+        }
+      }
+    }
   }
 
   @Override
@@ -225,4 +335,12 @@ public class OSyncDatabaseTask extends OAbstractReplicatedTask implements OComma
     return true;
   }
 
+  private static void createFile(final File file) throws IOException {
+    if (file.exists())
+      file.delete();
+    else
+      file.getParentFile().mkdirs();
+    file.createNewFile();
+  }
+
 }
@@ -33,6 +33,7 @@ import com.orientechnologies.orient.server.config.OServerCommandConfiguration;
 import com.orientechnologies.orient.server.config.OServerParameterConfiguration;
 import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
 import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
 import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommand;
 
 import java.io.IOException;
@@ -44,8 +45,14 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class OServerNetworkListener extends Thread {
   private OServerSocketFactory              socketFactory;
@@ -59,6 +66,8 @@ public class OServerNetworkListener extends Thread {
   private OContextConfiguration             configuration;
   private OServer                           server;
   private int                               protocolVersion   = -1;
+  private OServerNetworkSelector            networkSelector;
+  private ThreadPoolExecutor                multiplexedRequestExecutor;
 
   public OServerNetworkListener(final OServer iServer, final OServerSocketFactory iSocketFactory, final String iHostName,
       final String iHostPortRange, final String iProtocolName, final Class<? extends ONetworkProtocol> iProtocol,
@@ -77,11 +86,11 @@ public class OServerNetworkListener extends Thread {
       OLogManager.instance().error(this, "Error on reading protocol version for %s", e, ONetworkProtocolException.class, iProtocol);
     }
 
-    listen(iHostName, iHostPortRange, iProtocolName);
-    protocolType = iProtocol;
-
     readParameters(iServer.getContextConfiguration(), iParameters);
 
+    protocolType = iProtocol;
+    listen(iHostName, iHostPortRange, iProtocolName);
+
     if (iCommands != null) {
       for (int i = 0; i < iCommands.length; ++i) {
         if (iCommands[i].stateful)
@@ -171,6 +180,14 @@ public class OServerNetworkListener extends Thread {
   public void shutdown() {
     this.active = false;
 
+    if (networkSelector != null)
+      networkSelector.shutdown();
+
+    synchronized (this) {
+      if (multiplexedRequestExecutor != null)
+        multiplexedRequestExecutor.shutdown();
+    }
+
     if (serverSocket != null)
       try {
         serverSocket.close();
@@ -250,12 +267,43 @@ public class OServerNetworkListener extends Thread {
     return protocolType;
   }
 
+  /**
+   * Returns the selector which parks idle connections of this listener, or null if every connection is served by its own thread.
+   */
+  public OServerNetworkSelector getNetworkSelector() {
+    return networkSelector;
+  }
+
+  /**
+   * Returns the executor of the requests received by multiplexed channels, it is created at first use.
+   */
+  public synchronized ThreadPoolExecutor getMultiplexedRequestExecutor() {
+    if (multiplexedRequestExecutor == null) {
+      final int workersCount = OGlobalConfiguration.NETWORK_BINARY_MULTIPLEX_WORKERS.getValueAsInteger();
+      final AtomicInteger workerCounter = new AtomicInteger();
+      multiplexedRequestExecutor = new ThreadPoolExecutor(workersCount, workersCount, 60, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+              final Thread thread = new Thread(Orient.instance().getThreadGroup(), r, OServerNetworkListener.this.getName()
+                  + " multiplexed request worker " + workerCounter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+      multiplexedRequestExecutor.allowCoreThreadTimeOut(true);
+    }
+    return multiplexedRequestExecutor;
+  }
+
   public InetSocketAddress getInboundAddr() {
     return inboundAddr;
   }
 
   public String getListeningAddress(final boolean resolveMultiIfcWithLocal) {
-    String address = serverSocket.getInetAddress().getHostAddress().toString();
+    // CHANNEL BASED SERVER SOCKETS REPORT THE WILDCARD ADDRESS IN IPV6 FORM, USE THE CONFIGURED ONE
+    final InetAddress bindAddress = serverSocket.getInetAddress();
+    String address = bindAddress.isAnyLocalAddress() ? inboundAddr.getAddress().getHostAddress() : bindAddress.getHostAddress();
     if (resolveMultiIfcWithLocal && address.equals("0.0.0.0"))
       try {
         address = InetAddress.getLocalHost().getHostAddress().toString();
@@ -299,13 +347,29 @@ public class OServerNetworkListener extends Thread {
    */
   private void listen(final String iHostName, final String iHostPortRange, final String iProtocolName) {
     final int[] ports = getPorts(iHostPortRange);
+    final boolean useSelector = isSelectorEnabled();
 
     for (int port : ports) {
       inboundAddr = new InetSocketAddress(iHostName, port);
       try {
-        serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
+        if (useSelector) {
+          // SOCKETS ACCEPTED BY A CHANNEL BASED SERVER SOCKET CAN BE PARKED IN THE SELECTOR
+          final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+          serverSocket = serverChannel.socket();
+          serverSocket.bind(new InetSocketAddress(InetAddress.getByName(iHostName), port), 0);
+        } else
+          serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
 
         if (serverSocket.isBound()) {
+          if (useSelector) {
+            final int workers = configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_SELECTOR_WORKERS);
+            networkSelector = new OServerNetworkSelector("OrientDB " + protocolType.getSimpleName() + " selector at " + iHostName
+                + ":" + port, workers);
+
+            OLogManager.instance().info(this, "Idle " + iProtocolName + " connections are parked in selector, %d workers serve requests",
+                workers);
+          }
+
           OLogManager.instance().info(
               this,
               "Listening " + iProtocolName + " connections on " + inboundAddr.getAddress().getHostAddress() + ":"
@@ -329,6 +393,22 @@ public class OServerNetworkListener extends Thread {
     ShutdownHelper.shutdown(1);
   }
 
+  private boolean isSelectorEnabled() {
+    if (!configuration.getValueAsBoolean(OGlobalConfiguration.NETWORK_BINARY_SELECTOR))
+      return false;
+
+    if (!ONetworkProtocolBinary.class.isAssignableFrom(protocolType))
+      return false;
+
+    if (socketFactory != OServerSocketFactory.getDefault()) {
+      OLogManager.instance().warn(this, "Selector is not supported by custom socket factory '%s', a thread per connection is used",
+          socketFactory.getName());
+      return false;
+    }
+
+    return true;
+  }
+
   /**
    * Initializes connection parameters by the reading XML configuration. If not specified, get the parameters defined as global
    * configuration.
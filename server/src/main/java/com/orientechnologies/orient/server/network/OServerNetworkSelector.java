@@ -0,0 +1,210 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves binary connections without a dedicated thread per connection. Idle connections are parked in a NIO selector, as soon as
+ * request arrives the connection is handed to a pool of worker threads which execute the request by the usual blocking protocol
+ * code, so the wire format of binary protocol is not affected. Once input buffer of the channel is drained the connection is
+ * parked again.
+ */
+public class OServerNetworkSelector extends Thread {
+  private final Selector                      selector;
+  private final ThreadPoolExecutor            workers;
+  private final Queue<ONetworkProtocolBinary> parkQueue = new ConcurrentLinkedQueue<ONetworkProtocolBinary>();
+  private volatile boolean                    active    = true;
+
+  public OServerNetworkSelector(final String name, final int workersCount) throws IOException {
+    super(Orient.instance().getThreadGroup(), name);
+    setDaemon(true);
+
+    selector = Selector.open();
+
+    final AtomicInteger workerCounter = new AtomicInteger();
+    workers = new ThreadPoolExecutor(workersCount, workersCount, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactory() {
+          @Override
+          public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(Orient.instance().getThreadGroup(), r, OServerNetworkSelector.this.getName()
+                + " worker " + workerCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    workers.allowCoreThreadTimeOut(true);
+
+    start();
+  }
+
+  /**
+   * Parks connection till next request is received.
+   */
+  public void park(final ONetworkProtocolBinary protocol) {
+    if (!active) {
+      protocol.shutdown();
+      return;
+    }
+
+    parkQueue.add(protocol);
+    selector.wakeup();
+  }
+
+  /**
+   * Removes connection from the selector if it is parked, channel of the connection is not closed.
+   */
+  public void unpark(final ONetworkProtocolBinary protocol) {
+    parkQueue.remove(protocol);
+
+    final SelectionKey key = protocol.getChannel().socket.getChannel().keyFor(selector);
+    if (key != null) {
+      key.cancel();
+      selector.wakeup();
+    }
+  }
+
+  public int getActiveWorkers() {
+    return workers.getActiveCount();
+  }
+
+  public int getParkedConnections() {
+    return selector.keys().size();
+  }
+
+  public void shutdown() {
+    active = false;
+    selector.wakeup();
+
+    workers.shutdown();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (active) {
+        registerParkedConnections();
+
+        selector.select();
+
+        if (!active)
+          break;
+
+        final List<ONetworkProtocolBinary> ready = new ArrayList<ONetworkProtocolBinary>();
+        collectReadyConnections(ready);
+
+        // CANCELLED KEYS ARE REMOVED FROM SELECTOR ONLY DURING NEXT SELECTION, CHANNEL CAN NOT BE SWITCHED BACK TO BLOCKING MODE
+        // BEFORE THAT
+        while (selector.selectNow() > 0 || !selector.selectedKeys().isEmpty())
+          collectReadyConnections(ready);
+
+        for (ONetworkProtocolBinary protocol : ready)
+          dispatch(protocol);
+      }
+    } catch (Throwable t) {
+      if (active)
+        OLogManager.instance().error(this, "Error in network selector, all parked connections will be closed", t);
+    } finally {
+      closeParkedConnections();
+    }
+  }
+
+  private void registerParkedConnections() {
+    ONetworkProtocolBinary protocol;
+    while ((protocol = parkQueue.poll()) != null) {
+      final SocketChannel channel = protocol.getChannel().socket.getChannel();
+
+      try {
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, protocol);
+      } catch (IOException e) {
+        OLogManager.instance().debug(this, "Error on parking of connection %s, connection will be closed", e, protocol.getName());
+        protocol.shutdown();
+      }
+    }
+  }
+
+  private void collectReadyConnections(final List<ONetworkProtocolBinary> ready) {
+    final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+    while (keys.hasNext()) {
+      final SelectionKey key = keys.next();
+      keys.remove();
+
+      key.cancel();
+      ready.add((ONetworkProtocolBinary) key.attachment());
+    }
+  }
+
+  private void dispatch(final ONetworkProtocolBinary protocol) {
+    try {
+      protocol.getChannel().socket.getChannel().configureBlocking(true);
+    } catch (IOException e) {
+      OLogManager.instance().debug(this, "Error on activation of connection %s, connection will be closed", e, protocol.getName());
+      protocol.shutdown();
+      return;
+    }
+
+    workers.execute(new Runnable() {
+      @Override
+      public void run() {
+        if (protocol.executePendingRequests())
+          park(protocol);
+      }
+    });
+  }
+
+  private void closeParkedConnections() {
+    registerParkedConnections();
+
+    for (SelectionKey key : selector.keys()) {
+      final ONetworkProtocolBinary protocol = (ONetworkProtocolBinary) key.attachment();
+      key.cancel();
+
+      try {
+        protocol.shutdown();
+      } catch (Exception e) {
+        OLogManager.instance().debug(this, "Error on closing of connection %s", e, protocol.getName());
+      }
+    }
+
+    try {
+      selector.close();
+    } catch (IOException e) {
+      OLogManager.instance().debug(this, "Error on closing of network selector", e);
+    }
+  }
+}
@@ -363,6 +363,11 @@ public abstract class OBinaryNetworkProtocolAbstract extends ONetworkProtocol {
 
   protected ORecordVersion updateRecord(final ODatabaseDocumentInternal iDatabase, final ORecordId rid, final byte[] buffer,
       final ORecordVersion version, final byte recordType, boolean updateContent) {
+    return updateRecordInstance(iDatabase, rid, buffer, version, recordType, updateContent).getRecordVersion();
+  }
+
+  protected ORecord updateRecordInstance(final ODatabaseDocumentInternal iDatabase, final ORecordId rid, final byte[] buffer,
+      final ORecordVersion version, final byte recordType, boolean updateContent) {
     final ORecord newRecord = Orient.instance().getRecordFactoryManager().newInstance(recordType);
     fillRecord(rid, buffer, version, newRecord, null);
 
@@ -389,7 +394,7 @@ public abstract class OBinaryNetworkProtocolAbstract extends ONetworkProtocol {
       // FORCE INDEX MANAGER UPDATE. THIS HAPPENS FOR DIRECT CHANGES FROM REMOTE LIKE IN GRAPH
       iDatabase.getMetadata().getIndexManager().reload();
     }
-    return currentRecord.getRecordVersion();
+    return currentRecord;
   }
 
   protected void handleConnectionError(final OChannelBinaryServer channel, final Throwable e) {
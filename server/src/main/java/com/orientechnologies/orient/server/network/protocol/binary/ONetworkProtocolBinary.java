@@ -54,6 +54,7 @@ import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.db.record.ridbag.sbtree.OBonsaiCollectionPointer;
 import com.orientechnologies.orient.core.db.record.ridbag.sbtree.OSBTreeCollectionManager;
 import com.orientechnologies.orient.core.db.record.ridbag.sbtree.OSBTreeRidBag;
@@ -98,20 +99,30 @@ import com.orientechnologies.orient.core.version.ORecordVersion;
 import com.orientechnologies.orient.core.version.OVersionFactory;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryServer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryServerMultiplexed;
+import com.orientechnologies.orient.enterprise.channel.binary.ONetworkProtocolException;
 import com.orientechnologies.orient.server.OClientConnection;
 import com.orientechnologies.orient.server.OClientConnectionManager;
 import com.orientechnologies.orient.server.OServer;
 import com.orientechnologies.orient.server.ShutdownHelper;
 import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
 import com.orientechnologies.orient.server.network.OServerNetworkListener;
+import com.orientechnologies.orient.server.network.OServerNetworkSelector;
 import com.orientechnologies.orient.server.plugin.OServerPlugin;
 import com.orientechnologies.orient.server.plugin.OServerPluginHelper;
 import com.orientechnologies.orient.server.security.OSecurityServerUser;
 import com.orientechnologies.orient.server.tx.OTransactionOptimisticProxy;
 
 public class ONetworkProtocolBinary extends OBinaryNetworkProtocolAbstract {
-  protected OClientConnection connection;
-  protected Boolean           tokenBased;
+  protected OClientConnection                         connection;
+  protected volatile Boolean                          tokenBased;
+  private volatile OServerNetworkSelector             networkSelector;
+  private final Object                                workerLock = new Object();
+  private Thread                                      worker;
+  private OServerNetworkListener                      listener;
+  private OContextConfiguration                       contextConfiguration;
+  private volatile ONetworkProtocolBinaryMultiplexer multiplexer;
+  private ONetworkProtocolBinary                      parent;
 
   public ONetworkProtocolBinary() {
     super("OrientDB <- BinaryClient/?");
@@ -128,17 +139,196 @@ public class ONetworkProtocolBinary extends OBinaryNetworkProtocolAbstract {
     connection = OClientConnectionManager.instance().connect(this);
 
     super.config(iListener, iServer, iSocket, iConfig);
+    listener = iListener;
+    contextConfiguration = iConfig;
 
     // SEND PROTOCOL VERSION
     channel.writeShort((short) getVersion());
 
     channel.flush();
-    start();
     setName("OrientDB <- BinaryClient (" + iSocket.getRemoteSocketAddress() + ")");
+
+    final OServerNetworkSelector selector = iListener.getNetworkSelector();
+    if (selector != null && iSocket.getChannel() != null) {
+      // NO DEDICATED THREAD: THE CONNECTION IS PARKED TILL THE FIRST REQUEST
+      networkSelector = selector;
+      startup();
+      selector.park(this);
+    } else
+      start();
+  }
+
+  /**
+   * Executes requests already received by the channel, used when connection is served by {@link OServerNetworkSelector} instead of
+   * dedicated thread.
+   *
+   * @return true if connection should be parked again, false if it has been closed or it is not served by the selector anymore
+   */
+  public boolean executePendingRequests() {
+    synchronized (workerLock) {
+      worker = Thread.currentThread();
+    }
+
+    try {
+      do {
+        try {
+          execute();
+        } catch (Throwable t) {
+          if (isDumpExceptions())
+            OLogManager.instance().error(this, "Error on executing request of connection %s", t, getName());
+        }
+      } while (!isShutdownFlag() && channel.inStream != null && channel.inStream.available() > 0);
+    } catch (IOException e) {
+      sendShutdown();
+    } finally {
+      synchronized (workerLock) {
+        worker = null;
+        // INTERRUPTION OF THE REQUEST MUST NOT AFFECT THE NEXT CONNECTION SERVED BY THE SAME WORKER
+        Thread.interrupted();
+      }
+    }
+
+    if (isShutdownFlag()) {
+      shutdown();
+      return false;
+    }
+
+    if (multiplexer != null) {
+      // THE CHANNEL IS WRITTEN BY CONCURRENT REQUESTS ALSO WHILE IT IS IDLE: IT CAN'T BE PARKED IN NON-BLOCKING MODE ANYMORE
+      networkSelector = null;
+      start();
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Configures the protocol which executes requests received by the multiplexed channel of another connection.
+   */
+  void configMultiplexed(final ONetworkProtocolBinary iParent, final OChannelBinaryServerMultiplexed iChannel) {
+    parent = iParent;
+    server = iParent.server;
+    tokenHandler = iParent.tokenHandler;
+    channel = iChannel;
+    setName(iParent.getName());
+  }
+
+  /**
+   * Executes one request received by the multiplexed channel of the parent connection, the response is sent tagged by the id of
+   * the request.
+   */
+  void executeMultiplexedRequest(final int iRequestId, final byte[] iRequest) throws Exception {
+    synchronized (workerLock) {
+      worker = Thread.currentThread();
+    }
+
+    // THE AUTHENTICATION MODE IS THE SAME FOR ALL THE REQUESTS OF THE CONNECTION
+    tokenBased = parent.tokenBased;
+    try {
+      final OChannelBinaryServerMultiplexed multiplexedChannel = (OChannelBinaryServerMultiplexed) channel;
+      multiplexedChannel.beginRequest(iRequestId, iRequest);
+      try {
+        execute();
+      } finally {
+        multiplexedChannel.endRequest();
+      }
+    } finally {
+      if (parent.tokenBased == null)
+        parent.tokenBased = tokenBased;
+
+      synchronized (workerLock) {
+        worker = null;
+        // INTERRUPTION OF THE REQUEST MUST NOT AFFECT THE NEXT REQUEST EXECUTED BY THE SAME WORKER
+        Thread.interrupted();
+      }
+    }
+  }
+
+  /**
+   * Creates the protocol which executes the requests received by the multiplexed channel of this connection.
+   */
+  protected ONetworkProtocolBinary newMultiplexedProtocol() {
+    return new ONetworkProtocolBinary(getName());
+  }
+
+  /**
+   * Closes the connection whose multiplexed channel is shared by the requests executed by other protocol instances.
+   */
+  protected void closeMultiplexedConnection() {
+    synchronized (workerLock) {
+      if (isShutdownFlag())
+        return;
+
+      sendShutdown();
+    }
+
+    if (networkSelector != null)
+      closeSelectedConnection();
+    else
+      channel.close();
+  }
+
+  /**
+   * Returns the selector which parks the connection between requests, or null if connection is served by its own thread.
+   */
+  public OServerNetworkSelector getNetworkSelector() {
+    return networkSelector;
+  }
+
+  /**
+   * Closes a connection served by {@link OServerNetworkSelector} without waiting for its next request. A parked connection is
+   * removed from the selector and shut down, a request executed by a worker fails on the closed channel and the worker shuts the
+   * connection down.
+   */
+  public void closeSelectedConnection() {
+    sendShutdown();
+
+    final boolean served;
+    synchronized (workerLock) {
+      served = worker != null;
+    }
+
+    if (served)
+      channel.close();
+    else {
+      networkSelector.unpark(this);
+      shutdown();
+    }
+  }
+
+  /**
+   * Interrupts the thread which serves the connection. In case of connection served by {@link OServerNetworkSelector} it is the
+   * worker which executes the current request, if any.
+   */
+  @Override
+  public void interrupt() {
+    if (networkSelector == null && parent == null) {
+      super.interrupt();
+      return;
+    }
+
+    synchronized (workerLock) {
+      if (worker != null)
+        worker.interrupt();
+    }
+  }
+
+  @Override
+  public void sendShutdown() {
+    super.sendShutdown();
+
+    if (parent != null)
+      // THE CHANNEL IS SHARED BY ALL THE REQUESTS OF THE CONNECTION: THE WHOLE CONNECTION IS CLOSED
+      parent.closeMultiplexedConnection();
   }
 
   @Override
   public void startup() {
+    if (multiplexer != null)
+      // ALREADY STARTED BY THE SELECTOR BEFORE THE CHANNEL HAS BEEN MULTIPLEXED
+      return;
+
     super.startup();
     OServerPluginHelper.invokeHandlerCallbackOnClientConnection(server, connection);
   }
@@ -156,11 +346,35 @@ public class ONetworkProtocolBinary extends OBinaryNetworkProtocolAbstract {
     OClientConnectionManager.instance().disconnect(connection);
   }
 
+  @Override
+  protected void execute() throws Exception {
+    if (multiplexer == null) {
+      super.execute();
+      return;
+    }
+
+    // do not remove this or we will get deadlock upon shutdown.
+    if (isShutdownFlag())
+      return;
+
+    try {
+      multiplexer.readFrame();
+    } catch (IOException e) {
+      handleConnectionError(channel, e);
+      sendShutdown();
+    } catch (RuntimeException e) {
+      handleConnectionError(channel, e);
+      sendShutdown();
+    }
+  }
+
   @Override
   protected void onBeforeRequest() throws IOException {
     waitNodeIsOnline();
 
-    if (Boolean.FALSE.equals(tokenBased) || requestType == OChannelBinaryProtocol.REQUEST_CONNECT
+    if (requestType == OChannelBinaryProtocol.REQUEST_CHANNEL_MULTIPLEX && parent == null) {
+      // NO SESSION: THE REQUEST IS ABOUT THE CONNECTION ITSELF
+    } else if (Boolean.FALSE.equals(tokenBased) || requestType == OChannelBinaryProtocol.REQUEST_CONNECT
         || requestType == OChannelBinaryProtocol.REQUEST_DB_OPEN || (tokenHandler == null)) {
       connection = OClientConnectionManager.instance().getConnection(clientTxId, this);
       if (clientTxId < 0) {
@@ -278,6 +492,10 @@ public class ONetworkProtocolBinary extends OBinaryNetworkProtocolAbstract {
         shutdownConnection();
         break;
 
+      case OChannelBinaryProtocol.REQUEST_CHANNEL_MULTIPLEX:
+        multiplex();
+        break;
+
       case OChannelBinaryProtocol.REQUEST_CONNECT:
         connect();
         break;
@@ -370,6 +588,10 @@ public class ONetworkProtocolBinary extends OBinaryNetworkProtocolAbstract {
         deleteRecord();
         break;
 
+      case OChannelBinaryProtocol.REQUEST_RECORD_BATCH:
+        recordBatch();
+        break;
+
       case OChannelBinaryProtocol.REQUEST_RECORD_HIDE:
         hideRecord();
         break;
@@ -1125,11 +1347,36 @@ public class ONetworkProtocolBinary extends OBinaryNetworkProtocolAbstract {
         // OLD CLIENTS WAIT FOR A OK
         sendOk(clientTxId);
 
-      if (Boolean.FALSE.equals(tokenBased) && OClientConnectionManager.instance().disconnect(connection.id))
+      if (Boolean.FALSE.equals(tokenBased) && OClientConnectionManager.instance().disconnect(connection.id) && parent == null)
+        // A MULTIPLEXED CHANNEL IS SHARED BY OTHER SESSIONS AND IT IS CLOSED BY THE CLIENT
         sendShutdown();
     }
   }
 
+  protected void multiplex() throws IOException {
+    setDataCommandInfo("Multiplex channel");
+
+    // THE CLIENT VERSION IS NEEDED TO SEND THE ERROR IN THE RIGHT FORMAT
+    connection.data.protocolVersion = channel.readShort();
+
+    if (parent != null || multiplexer != null)
+      throw new ONetworkProtocolException("Channel is already multiplexed");
+
+    if (!contextConfiguration.getValueAsBoolean(OGlobalConfiguration.NETWORK_BINARY_MULTIPLEX))
+      throw new ONetworkProtocolException("Multiplexed channels are disabled by the server");
+
+    beginResponse();
+    try {
+      sendOk(clientTxId);
+    } finally {
+      endResponse();
+    }
+
+    // NEXT DATA IS READ AS FRAMES TAGGED BY REQUEST ID
+    multiplexer = new ONetworkProtocolBinaryMultiplexer(this, channel, contextConfiguration,
+        listener.getMultiplexedRequestExecutor());
+  }
+
   protected void configList() throws IOException {
     setDataCommandInfo("List config");
 
@@ -1542,6 +1789,126 @@ public class ONetworkProtocolBinary extends OBinaryNetworkProtocolAbstract {
     }
   }
 
+  /**
+   * Executes a batch of record creations, updates and deletions sent by the client in one request. The whole request is read before
+   * any operation is executed. If the batch is atomic all the operations are executed in one transaction and an error of any of
+   * them fails the whole request, otherwise every operation is executed on its own and its error is sent back in place of its
+   * result.
+   */
+  protected void recordBatch() throws IOException {
+    setDataCommandInfo("Record batch");
+
+    if (!isConnectionAlive())
+      return;
+
+    final boolean atomic = channel.readBoolean();
+    final int size = channel.readInt();
+
+    final byte[] operations = new byte[size];
+    final ORecordId[] rids = new ORecordId[size];
+    final byte[][] buffers = new byte[size][];
+    final ORecordVersion[] versions = new ORecordVersion[size];
+    final byte[] recordTypes = new byte[size];
+    final boolean[] updateContents = new boolean[size];
+
+    for (int i = 0; i < size; ++i) {
+      operations[i] = channel.readByte();
+      switch (operations[i]) {
+      case ORecordOperation.CREATED:
+        rids[i] = new ORecordId(channel.readShort(), ORID.CLUSTER_POS_INVALID);
+        buffers[i] = channel.readBytes();
+        recordTypes[i] = channel.readByte();
+        break;
+
+      case ORecordOperation.UPDATED:
+        rids[i] = channel.readRID();
+        updateContents[i] = channel.readBoolean();
+        buffers[i] = channel.readBytes();
+        versions[i] = channel.readVersion();
+        recordTypes[i] = channel.readByte();
+        break;
+
+      case ORecordOperation.DELETED:
+        rids[i] = channel.readRID();
+        versions[i] = channel.readVersion();
+        break;
+
+      default:
+        throw new ONetworkProtocolException("Unknown record operation " + operations[i] + " in record batch");
+      }
+    }
+
+    final ORecord[] records = new ORecord[size];
+    final int[] deleted = new int[size];
+    final Throwable[] errors = new Throwable[size];
+
+    if (atomic)
+      connection.database.begin();
+
+    try {
+      for (int i = 0; i < size; ++i) {
+        try {
+          switch (operations[i]) {
+          case ORecordOperation.CREATED:
+            records[i] = createRecord(connection.database, rids[i], buffers[i], recordTypes[i]);
+            break;
+          case ORecordOperation.UPDATED:
+            records[i] = updateRecordInstance(connection.database, rids[i], buffers[i], versions[i], recordTypes[i],
+                updateContents[i]);
+            break;
+          case ORecordOperation.DELETED:
+            deleted[i] = deleteRecord(connection.database, rids[i], versions[i]);
+            break;
+          }
+        } catch (RuntimeException e) {
+          if (atomic)
+            throw e;
+          errors[i] = e;
+        }
+      }
+
+      if (atomic)
+        connection.database.commit();
+    } catch (RuntimeException e) {
+      if (atomic && connection.database.getTransaction().isActive())
+        connection.database.rollback(true);
+      throw e;
+    }
+
+    beginResponse();
+    try {
+      sendOk(clientTxId);
+      channel.writeInt(size);
+      for (int i = 0; i < size; ++i) {
+        if (errors[i] != null) {
+          channel.writeByte((byte) 1);
+          channel.writeString(errors[i].getClass().getName());
+          channel.writeString(errors[i].getMessage());
+          continue;
+        }
+
+        channel.writeByte((byte) 0);
+        switch (operations[i]) {
+        case ORecordOperation.CREATED:
+          channel.writeShort((short) records[i].getIdentity().getClusterId());
+          channel.writeLong(records[i].getIdentity().getClusterPosition());
+          channel.writeVersion(records[i].getRecordVersion());
+          break;
+        case ORecordOperation.UPDATED:
+          channel.writeVersion(records[i].getRecordVersion());
+          break;
+        case ORecordOperation.DELETED:
+          channel.writeByte((byte) deleted[i]);
+          break;
+        }
+      }
+
+      sendCollectionChanges();
+    } finally {
+      endResponse();
+    }
+  }
+
   protected void readRecordMetadata() throws IOException {
     setDataCommandInfo("Record metadata");
 
@@ -0,0 +1,151 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.server.network.protocol.binary;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.serialization.OBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryServer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryServerMultiplexed;
+import com.orientechnologies.orient.enterprise.channel.binary.ONetworkProtocolException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Executes the requests received by a multiplexed binary channel. Every frame contains one request, which is executed by the
+ * executor of the listener with its own protocol instance, so requests of different sessions are executed concurrently. Requests
+ * of the same session are executed in the order they have been received, like on an exclusive channel.
+ */
+public class ONetworkProtocolBinaryMultiplexer {
+  private final ONetworkProtocolBinary             parent;
+  private final OChannelBinaryServer               channel;
+  private final OContextConfiguration              configuration;
+  private final Executor                           executor;
+  private final Queue<ONetworkProtocolBinary>      idle     = new ConcurrentLinkedQueue<ONetworkProtocolBinary>();
+  private final Map<Integer, LinkedList<Runnable>> sessions = new HashMap<Integer, LinkedList<Runnable>>();
+
+  public ONetworkProtocolBinaryMultiplexer(final ONetworkProtocolBinary iParent, final OChannelBinaryServer iChannel,
+      final OContextConfiguration iConfiguration, final Executor iExecutor) {
+    parent = iParent;
+    channel = iChannel;
+    configuration = iConfiguration;
+    executor = iExecutor;
+  }
+
+  /**
+   * Reads the next frame and schedules the execution of its request.
+   */
+  public void readFrame() throws IOException {
+    final int requestId = channel.readInt();
+    final byte[] request = channel.readBytes();
+
+    if (request == null || request.length < OBinaryProtocol.SIZE_BYTE + OBinaryProtocol.SIZE_INT)
+      throw new ONetworkProtocolException("Invalid frame received for request " + requestId);
+
+    final int sessionId = OBinaryProtocol.bytes2int(request, OBinaryProtocol.SIZE_BYTE);
+    schedule(sessionId, new Runnable() {
+      @Override
+      public void run() {
+        execute(requestId, request);
+      }
+    });
+  }
+
+  private void schedule(final int iSessionId, final Runnable iRequest) {
+    synchronized (sessions) {
+      LinkedList<Runnable> pending = sessions.get(iSessionId);
+      if (pending != null) {
+        // A REQUEST OF THE SESSION IS RUNNING: EXECUTE IT AFTERWARDS
+        pending.add(iRequest);
+        return;
+      }
+
+      pending = new LinkedList<Runnable>();
+      pending.add(iRequest);
+      sessions.put(iSessionId, pending);
+    }
+
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          drain(iSessionId);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // SERVER IS SHUTTING DOWN
+      synchronized (sessions) {
+        sessions.remove(iSessionId);
+      }
+      throw e;
+    }
+  }
+
+  private void drain(final int iSessionId) {
+    while (true) {
+      final Runnable request;
+      synchronized (sessions) {
+        final LinkedList<Runnable> pending = sessions.get(iSessionId);
+        request = pending.peek();
+        if (request == null) {
+          sessions.remove(iSessionId);
+          return;
+        }
+      }
+
+      try {
+        request.run();
+      } finally {
+        synchronized (sessions) {
+          sessions.get(iSessionId).poll();
+        }
+      }
+    }
+  }
+
+  private void execute(final int iRequestId, final byte[] iRequest) {
+    ONetworkProtocolBinary protocol = idle.poll();
+    try {
+      if (protocol == null) {
+        protocol = parent.newMultiplexedProtocol();
+        protocol.configMultiplexed(parent, new OChannelBinaryServerMultiplexed(channel, configuration));
+      }
+
+      protocol.executeMultiplexedRequest(iRequestId, iRequest);
+
+    } catch (Throwable t) {
+      OLogManager.instance().error(this, "Error on executing request %d of multiplexed connection %s", t, iRequestId,
+          parent.getName());
+
+      // THE RESPONSE COULD BE LOST: THE CLIENT WOULD WAIT FOR IT TILL THE TIMEOUT
+      parent.closeMultiplexedConnection();
+    } finally {
+      if (protocol != null && !protocol.isShutdownFlag())
+        idle.offer(protocol);
+    }
+  }
+}
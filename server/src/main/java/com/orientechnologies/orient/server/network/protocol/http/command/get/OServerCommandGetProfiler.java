@@ -0,0 +1,63 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.server.network.protocol.http.command.get;
+
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpRequest;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpResponse;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpUtils;
+import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommandAuthenticatedServerAbstract;
+
+/**
+ * Exports metrics of profiler as JSON. Syntax: profiler[/&lt;command&gt;[/&lt;prefix&gt;]], where command is one of "realtime"
+ * (default), "counters", "chronos", "hookValues" or "metadata" and prefix filters metrics by name.
+ */
+public class OServerCommandGetProfiler extends OServerCommandAuthenticatedServerAbstract {
+  private static final String[] NAMES = { "GET|profiler/*" };
+
+  public OServerCommandGetProfiler() {
+    super("server.profiler");
+  }
+
+  @Override
+  public boolean execute(final OHttpRequest iRequest, final OHttpResponse iResponse) throws Exception {
+    final String[] args = checkSyntax(iRequest.url, 1, "Syntax error: profiler[/<command>[/<prefix>]]");
+
+    iRequest.data.commandInfo = "Profiler";
+
+    final String command = args.length > 1 && args[1].length() > 0 ? args[1] : "realtime";
+    final String prefix = args.length > 2 && args[2].length() > 0 ? args[2] : null;
+
+    final String json = Orient.instance().getProfiler().toJSON(command, prefix);
+    if (json == null) {
+      iResponse.send(OHttpUtils.STATUS_NOTFOUND_CODE, OHttpUtils.STATUS_NOTFOUND_DESCRIPTION, OHttpUtils.CONTENT_TEXT_PLAIN,
+          "Profiler does not export metrics", null);
+      return false;
+    }
+
+    iResponse.send(OHttpUtils.STATUS_OK_CODE, "OK", OHttpUtils.CONTENT_JSON, json, null);
+    return false;
+  }
+
+  @Override
+  public String[] getNames() {
+    return NAMES;
+  }
+}
@@ -1,15 +1,26 @@
 package com.orientechnologies.orient.server.distributed;
 
 import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandExecutorSQLSelect;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.memory.ODirectMemoryStorage;
 
 import org.mockito.Mockito;
+import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.orientechnologies.orient.server.OServer;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * @author Artem Orobets (enisher-at-gmail.com)
  */
@@ -64,4 +75,35 @@ public class ODistributedStorageTest {
 
     ds.release();
   }
+
+  @Test
+  public void testMergeResultBySort() {
+    final ODatabaseDocumentTx db = new ODatabaseDocumentTx("memory:" + ODistributedStorageTest.class.getSimpleName());
+    db.create();
+    final boolean pushDownLimit = OGlobalConfiguration.DISTRIBUTED_QUERY_PUSH_DOWN_LIMIT.getValueAsBoolean();
+    OGlobalConfiguration.DISTRIBUTED_QUERY_PUSH_DOWN_LIMIT.setValue(true);
+    try {
+      final OCommandExecutorSQLSelect select = new OCommandExecutorSQLSelect();
+      select.parse(new OCommandSQL("select from OUser order by name desc skip 1 limit 3"));
+
+      final Map<String, Object> results = new HashMap<String, Object>();
+      results.put("node1", Arrays.asList(new ODocument().field("name", "e"), new ODocument().field("name", "c"), new ODocument()
+          .field("name", "a")));
+      results.put("node2", Arrays.asList(new ODocument().field("name", "d"), new ODocument().field("name", "b")));
+
+      final ODistributedStorage ds = new ODistributedStorage(Mockito.mock(OServer.class),
+          Mockito.mock(OLocalPaginatedStorage.class));
+
+      Assert.assertTrue(ds.isSortMergeable(select, results));
+
+      final List<Object> merged = (List<Object>) ds.mergeResultBySort(select, results);
+      Assert.assertEquals(merged.size(), 3);
+      Assert.assertEquals(((ODocument) merged.get(0)).field("name"), "d");
+      Assert.assertEquals(((ODocument) merged.get(1)).field("name"), "c");
+      Assert.assertEquals(((ODocument) merged.get(2)).field("name"), "b");
+    } finally {
+      OGlobalConfiguration.DISTRIBUTED_QUERY_PUSH_DOWN_LIMIT.setValue(pushDownLimit);
+      db.drop();
+    }
+  }
 }
@@ -0,0 +1,85 @@
+package com.orientechnologies.orient.server.distributed.task;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashSet;
+import java.util.Map;
+
+@Test
+public class OSQLCommandTaskTest {
+
+  public void testLimitAndSkipAreSent() throws Exception {
+    final OSQLCommandTask task = newTask(new OSQLCommandTask());
+    task.setLimit(10).setSkip(0);
+
+    final OSQLCommandTask read = (OSQLCommandTask) readObjects(writeObjects(task, "next"))[0];
+    Assert.assertEquals(read.text, task.text);
+    Assert.assertEquals(read.clusters, task.clusters);
+    Assert.assertEquals(read.limit, 10);
+    Assert.assertEquals(read.skip, 0);
+  }
+
+  public void testLimitAndSkipAreNotSentIfNotSet() throws Exception {
+    final Object[] read = readObjects(writeObjects(newTask(new OSQLCommandTask()), "next"));
+
+    Assert.assertEquals(((OSQLCommandTask) read[0]).limit, -1);
+    Assert.assertEquals(((OSQLCommandTask) read[0]).skip, -1);
+    Assert.assertEquals(read[1], "next");
+  }
+
+  public void testPreviousVersionSkipsLimitAndSkip() throws Exception {
+    final OSQLCommandTask task = newTask(new PreviousVersionTask());
+    task.setLimit(10).setSkip(0);
+
+    final Object[] read = readObjects(writeObjects(task, "next"));
+
+    Assert.assertEquals(((OSQLCommandTask) read[0]).text, task.text);
+    Assert.assertEquals(read[1], "next");
+  }
+
+  /**
+   * Reads the task as nodes of the previous version did.
+   */
+  public static class PreviousVersionTask extends OSQLCommandTask {
+    @Override
+    public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+      text = in.readUTF();
+      params = (Map<Object, Object>) in.readObject();
+
+      final int cSize = in.readInt();
+      clusters = new HashSet<String>(cSize);
+      for (int i = 0; i < cSize; ++i)
+        clusters.add(in.readUTF());
+    }
+  }
+
+  private static OSQLCommandTask newTask(final OSQLCommandTask task) {
+    task.text = "select from V order by name";
+    task.clusters.add("v_1");
+    task.clusters.add("v_2");
+    return task;
+  }
+
+  private static byte[] writeObjects(final Object... objects) throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    final ObjectOutputStream out = new ObjectOutputStream(buffer);
+    for (Object o : objects)
+      out.writeObject(o);
+    out.close();
+    return buffer.toByteArray();
+  }
+
+  private static Object[] readObjects(final byte[] content) throws Exception {
+    final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(content));
+    final Object[] objects = new Object[] { in.readObject(), in.readObject() };
+    in.close();
+    return objects;
+  }
+}
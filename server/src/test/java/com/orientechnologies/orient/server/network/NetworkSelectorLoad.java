@@ -0,0 +1,133 @@
+package com.orientechnologies.orient.server.network;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.orientechnologies.orient.client.remote.OServerAdmin;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.server.OServer;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+
+/**
+ * Load test of binary listener: keeps a lot of idle connections opened while active clients read records, then prints latency of
+ * requests together with amount of threads and heap used by the server. Run it with {@code selector} argument to park idle
+ * connections in the network selector, or without arguments to use a thread per connection. Amount of connections is set by
+ * {@code idle} and {@code active} system properties, defaults are 10000 and 500.
+ */
+public class NetworkSelectorLoad {
+  private static final String DB_URL        = "remote:localhost/selectorLoad";
+  private static final String ROOT_PASSWORD = "D2AFD02F20640EC8B7A5140F34FCA49D2289DB1F0D0598BB9DE8AAA75A0792F3";
+
+  public static void main(String[] args) throws Exception {
+    final boolean selector = args.length > 0 && "selector".equals(args[0]);
+    final int idle = Integer.getInteger("idle", 10000);
+    final int active = Integer.getInteger("active", 500);
+    final int requests = Integer.getInteger("requests", 200);
+
+    OGlobalConfiguration.NETWORK_MAX_CONCURRENT_SESSIONS.setValue(idle + active + 100);
+    OGlobalConfiguration.NETWORK_BINARY_SELECTOR.setValue(selector);
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.setValue(active);
+
+    final String serverDirectory = System.getProperty("java.io.tmpdir") + File.separator + "selectorLoad";
+    final OServer server = new OServer();
+    server.setServerRootDirectory(serverDirectory);
+    server.startup(NetworkSelectorLoad.class.getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    try {
+      final OServerAdmin admin = new OServerAdmin(DB_URL);
+      admin.connect("root", ROOT_PASSWORD);
+      admin.createDatabase("document", "memory");
+
+      final ODatabaseDocumentTx db = new ODatabaseDocumentTx(DB_URL);
+      db.open("admin", "admin");
+      db.getMetadata().getSchema().createClass("LoadRecord");
+      final List<ORID> rids = new ArrayList<ORID>();
+      for (int i = 0; i < 1000; i++) {
+        final ODocument document = new ODocument("LoadRecord");
+        document.field("value", i);
+        document.save();
+        rids.add(document.getIdentity());
+      }
+      db.close();
+
+      final int port = server.getListenerByProtocol(ONetworkProtocolBinary.class).getInboundAddr().getPort();
+      final List<Socket> idleSockets = new ArrayList<Socket>();
+      for (int i = 0; i < idle; i++) {
+        final Socket socket = new Socket("127.0.0.1", port);
+        new DataInputStream(socket.getInputStream()).readShort();
+        idleSockets.add(socket);
+      }
+
+      System.gc();
+      final long heapIdle = usedHeap();
+      final int threadsIdle = ManagementFactory.getThreadMXBean().getThreadCount();
+      System.out.printf("%d idle connections opened, threads=%d, heap used=%dMB\n", idle, threadsIdle, heapIdle / (1024 * 1024));
+
+      final ExecutorService executor = Executors.newFixedThreadPool(active);
+      final List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+      final long start = System.nanoTime();
+      for (int i = 0; i < active; i++) {
+        futures.add(executor.submit(new Callable<long[]>() {
+          @Override
+          public long[] call() throws Exception {
+            final ODatabaseDocumentTx database = new ODatabaseDocumentTx(DB_URL);
+            database.open("admin", "admin");
+            try {
+              final long[] latencies = new long[requests];
+              for (int n = 0; n < requests; n++) {
+                final long requestStart = System.nanoTime();
+                database.load(rids.get(n % rids.size()), null, true);
+                latencies[n] = System.nanoTime() - requestStart;
+              }
+              return latencies;
+            } finally {
+              database.close();
+            }
+          }
+        }));
+      }
+
+      final long[] latencies = new long[active * requests];
+      int pos = 0;
+      for (Future<long[]> future : futures) {
+        final long[] clientLatencies = future.get();
+        System.arraycopy(clientLatencies, 0, latencies, pos, clientLatencies.length);
+        pos += clientLatencies.length;
+      }
+      final long elapsed = System.nanoTime() - start;
+      executor.shutdown();
+
+      Arrays.sort(latencies);
+      System.out.printf("%d active clients, %d requests in %dms (%d req/s), latency us: p50=%d p99=%d p999=%d max=%d\n", active,
+          latencies.length, elapsed / 1000000, latencies.length * 1000000000L / elapsed, latencies[latencies.length / 2] / 1000,
+          latencies[(int) (latencies.length * 0.99)] / 1000, latencies[(int) (latencies.length * 0.999)] / 1000,
+          latencies[latencies.length - 1] / 1000);
+      System.out.printf("peak threads=%d, heap used=%dMB\n", ManagementFactory.getThreadMXBean().getPeakThreadCount(),
+          usedHeap() / (1024 * 1024));
+
+      for (Socket socket : idleSockets)
+        socket.close();
+
+      admin.close();
+    } finally {
+      server.shutdown();
+    }
+  }
+
+  private static long usedHeap() {
+    return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+  }
+}
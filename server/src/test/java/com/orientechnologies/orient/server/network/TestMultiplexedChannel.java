@@ -0,0 +1,146 @@
+package com.orientechnologies.orient.server.network;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.client.remote.OEngineRemote;
+import com.orientechnologies.orient.client.remote.OServerAdmin;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import com.orientechnologies.orient.server.OServer;
+
+/**
+ * Checks that requests of concurrent sessions are sent over one multiplexed channel.
+ */
+@Test
+public class TestMultiplexedChannel {
+  private static final String SERVER_DIRECTORY = "./target/multiplex";
+  private static final String DB_NAME          = "multiplexTest";
+  private static final String DB_URL           = "remote:localhost/" + DB_NAME;
+  private static final String ROOT_PASSWORD    = "D2AFD02F20640EC8B7A5140F34FCA49D2289DB1F0D0598BB9DE8AAA75A0792F3";
+  private static final int    CLIENTS          = 8;
+  private static final int    RECORDS          = 100;
+
+  private OServer             server;
+  private Object              prevMultiplex;
+
+  @BeforeClass
+  public void before() throws Exception {
+    prevMultiplex = OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEX.getValue();
+    OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEX.setValue(true);
+
+    server = new OServer();
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    final OServerAdmin admin = new OServerAdmin(DB_URL);
+    admin.connect("root", ROOT_PASSWORD);
+    admin.createDatabase("document", "memory");
+    admin.close();
+  }
+
+  @AfterClass
+  public void after() throws Exception {
+    final OServerAdmin admin = new OServerAdmin(DB_URL);
+    admin.connect("root", ROOT_PASSWORD);
+    admin.dropDatabase("memory");
+    admin.close();
+
+    server.shutdown();
+    deleteDirectory(new File(SERVER_DIRECTORY));
+
+    OGlobalConfiguration.CLIENT_CHANNEL_MULTIPLEX.setValue(prevMultiplex);
+  }
+
+  public void testNoPoolIsCreated() {
+    final ODatabaseDocumentTx db = new ODatabaseDocumentTx(DB_URL);
+    db.open("admin", "admin");
+    try {
+      Assert.assertTrue(db.countClass("OUser") > 0);
+
+      final OEngineRemote engine = (OEngineRemote) Orient.instance().getEngine(OEngineRemote.NAME);
+      for (String url : engine.getConnectionManager().getURLs())
+        Assert.assertFalse(url.endsWith(DB_NAME), "Pool of channels created for " + url);
+    } finally {
+      db.close();
+    }
+  }
+
+  public void testConcurrentSessions() throws Exception {
+    final ODatabaseDocumentTx db = new ODatabaseDocumentTx(DB_URL);
+    db.open("admin", "admin");
+    db.getMetadata().getSchema().createClass("MultiplexedClient");
+    db.close();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+    for (int i = 0; i < CLIENTS; i++) {
+      final int client = i;
+
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final ODatabaseDocumentTx database = new ODatabaseDocumentTx(DB_URL);
+          database.open("admin", "admin");
+          try {
+            for (int n = 0; n < RECORDS; n++) {
+              final ODocument document = new ODocument("MultiplexedClient");
+              document.field("client", client);
+              document.field("n", n);
+              document.save();
+
+              final ODocument loaded = database.load(document.getIdentity(), null, true);
+              Assert.assertEquals(loaded.field("n"), n);
+            }
+
+            final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>(
+                "select count(*) as total from MultiplexedClient where client = " + client));
+            Assert.assertEquals(((Number) result.get(0).field("total")).intValue(), RECORDS);
+          } finally {
+            database.close();
+          }
+
+          return null;
+        }
+      }));
+    }
+
+    for (Future<Void> future : futures)
+      future.get();
+
+    executor.shutdown();
+
+    db.open("admin", "admin");
+    try {
+      Assert.assertEquals(db.countClass("MultiplexedClient"), CLIENTS * RECORDS);
+    } finally {
+      db.close();
+    }
+  }
+
+  private void deleteDirectory(File iDirectory) {
+    if (iDirectory.isDirectory())
+      for (File f : iDirectory.listFiles()) {
+        if (f.isDirectory())
+          deleteDirectory(f);
+        else
+          f.delete();
+      }
+    iDirectory.delete();
+  }
+}
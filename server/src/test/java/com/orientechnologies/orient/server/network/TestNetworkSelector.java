@@ -0,0 +1,197 @@
+package com.orientechnologies.orient.server.network;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.client.remote.OServerAdmin;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.exception.OConfigurationException;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.server.OClientConnection;
+import com.orientechnologies.orient.server.OClientConnectionManager;
+import com.orientechnologies.orient.server.OServer;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+
+/**
+ * Checks that binary connections parked in the network selector are served by the pool of workers.
+ */
+@Test
+public class TestNetworkSelector {
+  private static final String SERVER_DIRECTORY = "./target/selector";
+  private static final String DB_URL           = "remote:localhost/selectorTest";
+  private static final String ROOT_PASSWORD    = "D2AFD02F20640EC8B7A5140F34FCA49D2289DB1F0D0598BB9DE8AAA75A0792F3";
+  private static final int    CLIENTS          = 8;
+  private static final int    RECORDS          = 100;
+
+  private OServer             server;
+
+  @BeforeClass
+  public void before() throws Exception {
+    server = new OServer();
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-selector-config.xml"));
+    server.activate();
+
+    final OServerAdmin admin = new OServerAdmin(DB_URL);
+    admin.connect("root", ROOT_PASSWORD);
+    admin.createDatabase("document", "memory");
+    admin.close();
+  }
+
+  @AfterClass
+  public void after() throws Exception {
+    final OServerAdmin admin = new OServerAdmin(DB_URL);
+    admin.connect("root", ROOT_PASSWORD);
+    admin.dropDatabase("memory");
+    admin.close();
+
+    server.shutdown();
+    deleteDirectory(new File(SERVER_DIRECTORY));
+  }
+
+  public void testListenerUsesSelector() {
+    final OServerNetworkListener listener = server.getListenerByProtocol(ONetworkProtocolBinary.class);
+    Assert.assertNotNull(listener.getNetworkSelector());
+  }
+
+  public void testIdleConnectionsAreParked() throws Exception {
+    final OServerNetworkSelector selector = server.getListenerByProtocol(ONetworkProtocolBinary.class).getNetworkSelector();
+    final int parkedBefore = selector.getParkedConnections();
+
+    final int port = server.getListenerByProtocol(ONetworkProtocolBinary.class).getInboundAddr().getPort();
+    final List<Socket> sockets = new ArrayList<Socket>();
+    try {
+      for (int i = 0; i < 50; i++) {
+        final Socket socket = new Socket("127.0.0.1", port);
+        sockets.add(socket);
+
+        // THE SERVER SENDS THE PROTOCOL VERSION AS SOON AS THE CONNECTION IS ACCEPTED
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+        Assert.assertEquals(in.readShort(), OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION);
+      }
+
+      final long timeout = System.currentTimeMillis() + 5000;
+      while (selector.getParkedConnections() < parkedBefore + 50 && System.currentTimeMillis() < timeout)
+        Thread.sleep(10);
+
+      Assert.assertTrue(selector.getParkedConnections() >= parkedBefore + 50);
+    } finally {
+      for (Socket socket : sockets)
+        socket.close();
+    }
+  }
+
+  public void testKillParkedConnection() throws Exception {
+    final OServerNetworkSelector selector = server.getListenerByProtocol(ONetworkProtocolBinary.class).getNetworkSelector();
+    final int port = server.getListenerByProtocol(ONetworkProtocolBinary.class).getInboundAddr().getPort();
+
+    final Socket socket = new Socket("127.0.0.1", port);
+    try {
+      socket.setSoTimeout(5000);
+      final DataInputStream in = new DataInputStream(socket.getInputStream());
+      Assert.assertEquals(in.readShort(), OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION);
+
+      OClientConnection connection = null;
+      final long timeout = System.currentTimeMillis() + 5000;
+      while (connection == null && System.currentTimeMillis() < timeout) {
+        for (OClientConnection c : OClientConnectionManager.instance().getConnections()) {
+          final Socket serverSocket = c.protocol.getChannel().socket;
+          if (serverSocket != null && serverSocket.getPort() == socket.getLocalPort())
+            connection = c;
+        }
+        Thread.sleep(10);
+      }
+      Assert.assertNotNull(connection);
+
+      final int parked = selector.getParkedConnections();
+      OClientConnectionManager.instance().kill(connection.id);
+
+      // THE CHANNEL IS CLOSED WITHOUT WAITING FOR THE NEXT REQUEST OF THE CLIENT
+      Assert.assertEquals(in.read(), -1);
+      Assert.assertFalse(OClientConnectionManager.instance().has(connection.id));
+
+      while (selector.getParkedConnections() >= parked && System.currentTimeMillis() < timeout)
+        Thread.sleep(10);
+      Assert.assertTrue(selector.getParkedConnections() < parked);
+    } finally {
+      socket.close();
+    }
+  }
+
+  public void testConcurrentClients() throws Exception {
+    final ODatabaseDocumentTx db = new ODatabaseDocumentTx(DB_URL);
+    db.open("admin", "admin");
+    db.getMetadata().getSchema().createClass("SelectorClient");
+    db.close();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+    for (int i = 0; i < CLIENTS; i++) {
+      final int client = i;
+
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final ODatabaseDocumentTx database = new ODatabaseDocumentTx(DB_URL);
+          database.open("admin", "admin");
+          try {
+            for (int n = 0; n < RECORDS; n++) {
+              final ODocument document = new ODocument("SelectorClient");
+              document.field("client", client);
+              document.field("n", n);
+              document.save();
+
+              final ODocument loaded = database.load(document.getIdentity(), null, true);
+              Assert.assertEquals(loaded.field("n"), n);
+            }
+
+            final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>(
+                "select count(*) as total from SelectorClient where client = " + client));
+            Assert.assertEquals(((Number) result.get(0).field("total")).intValue(), RECORDS);
+          } finally {
+            database.close();
+          }
+
+          return null;
+        }
+      }));
+    }
+
+    for (Future<Void> future : futures)
+      future.get();
+
+    executor.shutdown();
+
+    db.open("admin", "admin");
+    try {
+      Assert.assertEquals(db.countClass("SelectorClient"), CLIENTS * RECORDS);
+    } finally {
+      db.close();
+    }
+  }
+
+  private void deleteDirectory(File iDirectory) {
+    if (iDirectory.isDirectory())
+      for (File f : iDirectory.listFiles()) {
+        if (f.isDirectory())
+          deleteDirectory(f);
+        else if (!f.delete())
+          throw new OConfigurationException("Can't delete the file: " + f);
+      }
+  }
+}
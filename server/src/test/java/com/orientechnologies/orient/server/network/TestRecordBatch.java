@@ -0,0 +1,97 @@
+package com.orientechnologies.orient.server.network;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.orientechnologies.orient.client.remote.OServerAdmin;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase.OPERATION_MODE;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.ORecordCallback;
+import com.orientechnologies.orient.server.OServer;
+
+public class TestRecordBatch {
+  private static final String SERVER_DIRECTORY = "./target/db-batch";
+  private OServer             server;
+  private Object              prevBatchSize;
+
+  @BeforeClass
+  public void before() throws Exception {
+    prevBatchSize = OGlobalConfiguration.CLIENT_RECORD_BATCH_SIZE.getValue();
+    OGlobalConfiguration.CLIENT_RECORD_BATCH_SIZE.setValue(10);
+
+    server = new OServer();
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    final OServerAdmin admin = new OServerAdmin("remote:localhost/testBatch");
+    admin.connect("root", "D2AFD02F20640EC8B7A5140F34FCA49D2289DB1F0D0598BB9DE8AAA75A0792F3");
+    admin.createDatabase("document", "memory");
+    admin.close();
+  }
+
+  @Test
+  public void testAsynchronousCreateIsBatched() {
+    final ODatabaseDocumentTx db = new ODatabaseDocumentTx("remote:localhost/testBatch");
+    db.open("admin", "admin");
+    try {
+      db.getMetadata().getSchema().createClass("Batched");
+
+      final AtomicInteger created = new AtomicInteger();
+      final ORecordCallback<Long> callback = new ORecordCallback<Long>() {
+        @Override
+        public void call(ORecordId iRID, Long iParameter) {
+          assertTrue(iParameter >= 0);
+          created.incrementAndGet();
+        }
+      };
+
+      for (int i = 0; i < 25; ++i) {
+        final ODocument doc = new ODocument("Batched");
+        doc.field("counter", i);
+        db.save(doc, OPERATION_MODE.ASYNCHRONOUS, false, callback, null);
+      }
+
+      // THE PENDING BATCH IS SENT BEFORE THE COUNT
+      assertEquals(db.countClass("Batched"), 25);
+      assertEquals(created.get(), 25);
+    } finally {
+      db.close();
+    }
+  }
+
+  @AfterClass
+  public void after() throws IOException {
+    final OServerAdmin admin = new OServerAdmin("remote:localhost/testBatch");
+    admin.connect("root", "D2AFD02F20640EC8B7A5140F34FCA49D2289DB1F0D0598BB9DE8AAA75A0792F3");
+    admin.dropDatabase("memory");
+    admin.close();
+
+    server.shutdown();
+    deleteDirectory(new File(SERVER_DIRECTORY));
+
+    OGlobalConfiguration.CLIENT_RECORD_BATCH_SIZE.setValue(prevBatchSize);
+  }
+
+  private void deleteDirectory(final File iDirectory) {
+    if (iDirectory.isDirectory())
+      for (File f : iDirectory.listFiles()) {
+        if (f.isDirectory())
+          deleteDirectory(f);
+        else
+          f.delete();
+      }
+    iDirectory.delete();
+  }
+}
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -243,6 +244,47 @@ public class OSBTreeRidBagTest extends ORidBagTest {
     OGlobalConfiguration.RID_BAG_EMBEDDED_TO_SBTREEBONSAI_THRESHOLD.setValue(oldThreshold);
   }
 
+  public void testRawBatchIterator() {
+    final List<OIdentifiable> docs = new ArrayList<OIdentifiable>();
+    for (int i = 0; i < 2500; i++) {
+      ODocument docToAdd = new ODocument();
+      docToAdd.save();
+      docs.add(docToAdd.getIdentity());
+    }
+
+    ODocument doc = new ODocument();
+    ORidBag bag = new ORidBag();
+    for (OIdentifiable rid : docs)
+      bag.add(rid);
+
+    // SAME LINK SEVERAL TIMES
+    bag.add(docs.get(10));
+    bag.add(docs.get(10));
+    docs.add(docs.get(10));
+    docs.add(docs.get(10));
+
+    doc.field("ridBag", bag);
+    doc.save();
+    doc.reload();
+
+    bag = doc.field("ridBag");
+
+    final List<OIdentifiable> expected = new ArrayList<OIdentifiable>();
+    for (Iterator<OIdentifiable> it = bag.rawIterator(); it.hasNext();)
+      expected.add(it.next());
+
+    final List<OIdentifiable> result = new ArrayList<OIdentifiable>();
+    for (Iterator<OIdentifiable> it = bag.rawBatchIterator(); it.hasNext();)
+      result.add(it.next());
+
+    Assert.assertEquals(result, expected);
+    Assert.assertEquals(result.size(), docs.size());
+    for (OIdentifiable rid : result)
+      Assert.assertTrue(docs.remove(rid));
+
+    Assert.assertTrue(docs.isEmpty());
+  }
+
   public void testRidBagDelete() {
     if (database.getStorage().getType().equals(OEngineRemote.NAME) || database.getStorage().getType().equals(OEngineMemory.NAME))
       return;